@@ -271,6 +271,7 @@
                                     <th colspan="3">Receive Time [ms]</th>
                                     <th colspan="3" class="colgroup1" title="Time To First Bytes">Time to First [ms]</th>
                                     <th colspan="3" title="Time To Last Bytes">Time to Last [ms]</th>
+                                    <th colspan="3" class="colgroup1" title="Requests that performed a TLS handshake and the time taken for it">TLS Handshake</th>
                                 </tr>
                                 <tr>
                                     <th class="table-sortable:numeric" title="The arithmetic mean." id="sortByDNSMean">Mean</th>
@@ -300,6 +301,10 @@
                                     <th class="table-sortable:numeric" title="The arithmetic mean." id="sortByTTLMean">Mean</th>
                                     <th class="table-sortable:numeric" id="sortByTTLMin">Min.</th>
                                     <th class="table-sortable:numeric" id="sortByTTLMax">Max.</th>
+
+                                    <th class="table-sortable:numeric colgroup1" title="The number of requests that performed a TLS handshake." id="sortByTLSCount">Count</th>
+                                    <th class="table-sortable:numeric colgroup1" title="The arithmetic mean [ms]." id="sortByTLSMean">Mean</th>
+                                    <th class="table-sortable:numeric colgroup1" title="The maximum [ms]." id="sortByTLSMax">Max.</th>
                                 </tr>
                             </thead>
                             <xsl:variable name="count" select="count($elements)"/>
@@ -382,6 +387,16 @@
                                                 <td class="value number">
                                                     <xsl:value-of select="format-number(timeToLastBytes/max, '#,##0')"></xsl:value-of>
                                                 </td>
+
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakes), '#,##0')"></xsl:value-of>
+                                                </td>
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakeTime/mean), '#,##0')"></xsl:value-of>
+                                                </td>
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakeTime/max), '#,##0')"></xsl:value-of>
+                                                </td>
                                             </tr>
                                         </xsl:for-each>
                                         <xsl:call-template name="filtered-footer-row"/>
@@ -478,6 +493,16 @@
                                                 <td class="value number">
                                                     <xsl:value-of select="format-number(timeToLastBytes/max, '#,##0')"/>
                                                 </td>
+
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakes), '#,##0')"/>
+                                                </td>
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakeTime/mean), '#,##0')"/>
+                                                </td>
+                                                <td class="value number colgroup1">
+                                                    <xsl:value-of select="format-number(sum(tlsHandshakeTime/max), '#,##0')"/>
+                                                </td>
                                             </tr>
                                         </xsl:for-each>
                                     </tbody>
@@ -514,12 +539,16 @@
                                             <td></td>
                                             <td></td>
                                             <td></td>
+
+                                            <td class="colgroup1"></td>
+                                            <td class="colgroup1"></td>
+                                            <td class="colgroup1"></td>
                                         </tr>
                                         <xsl:call-template name="filtered-footer-row"/>
                                     </tfoot>
                                     <tbody class="table-nosort">
                                         <tr>
-                                            <td colspan="22" class="no-data">No data available</td>
+                                            <td colspan="25" class="no-data">No data available</td>
                                         </tr>
                                     </tbody>
                                 </xsl:otherwise>
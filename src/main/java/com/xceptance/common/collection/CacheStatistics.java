@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.collection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss, and eviction counters of a cache. A single instance may be shared by several caches of the same kind to
+ * get aggregated numbers.
+ */
+public class CacheStatistics
+{
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Records a lookup that found a cached value.
+     */
+    public void recordHit()
+    {
+        hits.increment();
+    }
+
+    /**
+     * Records a lookup that did not find a cached value.
+     */
+    public void recordMiss()
+    {
+        misses.increment();
+    }
+
+    /**
+     * Records the eviction of a cached value to make room for others.
+     */
+    public void recordEviction()
+    {
+        evictions.increment();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached value.
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of values evicted to make room for others.
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.collection;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * A concurrent cache that is bounded by the total weight of its values, for example their size in bytes, instead of
+ * the number of entries. This suits caches whose values vary greatly in size.
+ * </p>
+ * <p>
+ * Lookups are lock-free and do not allocate: a hit only sets the reference bit of the entry. Entries are evicted in
+ * CLOCK order (second chance): the eldest entry is evicted unless it was referenced since it was last checked, in
+ * which case its bit is cleared and it is moved to the end of the queue. Eviction is done by the thread that pushed
+ * the total weight over the limit. If another thread is already evicting, the thread does not wait but leaves the
+ * work to the other one.
+ * </p>
+ * <p>
+ * Like {@link ConcurrentLRUCache}, this cache does not guarantee strict consistency in terms of its eviction order and
+ * its total weight, which may exceed the limit briefly under concurrent writes. Values that are heavier than the limit
+ * on their own are not cached at all.
+ * </p>
+ * 
+ * @param <K>
+ *            type of cache keys
+ * @param <V>
+ *            type of cache values
+ */
+public class ConcurrentWeightedCache<K, V>
+{
+    /**
+     * The cache entries.
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The clock, i.e. the entries in insertion order. May also hold nodes that have already been removed from the map.
+     */
+    private final Queue<Node<K, V>> clock = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of removed nodes still in the clock.
+     */
+    private final AtomicInteger removedNodes = new AtomicInteger();
+
+    /**
+     * The current total weight.
+     */
+    private final AtomicLong weight = new AtomicLong();
+
+    /**
+     * Guards the eviction.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * The maximum total weight.
+     */
+    private final long maxWeight;
+
+    /**
+     * The hit/miss/eviction counters.
+     */
+    private final CacheStatistics statistics;
+
+    /**
+     * Creates a new {@link ConcurrentWeightedCache} object with the given maximum weight.
+     * 
+     * @param maxWeight
+     *            the maximum total weight of all values
+     */
+    public ConcurrentWeightedCache(final long maxWeight)
+    {
+        this(maxWeight, new CacheStatistics());
+    }
+
+    /**
+     * Creates a new {@link ConcurrentWeightedCache} object with the given maximum weight that records its hits,
+     * misses, and evictions to the given statistics.
+     * 
+     * @param maxWeight
+     *            the maximum total weight of all values
+     * @param statistics
+     *            the statistics to update, possibly shared with other caches
+     */
+    public ConcurrentWeightedCache(final long maxWeight, final CacheStatistics statistics)
+    {
+        if (maxWeight <= 0)
+        {
+            throw new IllegalArgumentException("Maximum weight must be greater than 0");
+        }
+
+        this.maxWeight = maxWeight;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the value for the given key and marks it as recently used.
+     * 
+     * @param key
+     *            the key
+     * @return the value, or <code>null</code> if the key was not found in the cache
+     */
+    public V get(final K key)
+    {
+        final Node<K, V> node = entries.get(key);
+        if (node == null)
+        {
+            statistics.recordMiss();
+            return null;
+        }
+
+        // write only if needed to keep hot entries from bouncing between CPU caches
+        if (!node.referenced)
+        {
+            node.referenced = true;
+        }
+
+        statistics.recordHit();
+
+        return node.value;
+    }
+
+    /**
+     * Checks whether or not there is a cache entry for the given key. Neither marks the entry as recently used nor
+     * updates the statistics.
+     * 
+     * @param key
+     *            the key
+     * @return <code>true</code> if an entry was found, <code>false</code> otherwise
+     */
+    public boolean contains(final K key)
+    {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Stores a key-value pair in the cache, possibly overwriting any previously stored value, and evicts other entries
+     * if the maximum weight is exceeded afterwards.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param valueWeight
+     *            the weight of the value
+     */
+    public void put(final K key, final V value, final long valueWeight)
+    {
+        if (valueWeight > maxWeight)
+        {
+            // would evict everything else and still not fit
+            remove(key);
+            return;
+        }
+
+        final Node<K, V> node = new Node<>(key, value, valueWeight);
+
+        // map first, clock second, so the clock hand never sees a node that is not yet mapped
+        final Node<K, V> oldNode = entries.put(key, node);
+        if (oldNode != null)
+        {
+            discard(oldNode);
+        }
+        clock.offer(node);
+
+        if (weight.addAndGet(valueWeight) > maxWeight || removedNodes.get() > entries.size())
+        {
+            evict(node);
+        }
+    }
+
+    /**
+     * Removes an entry from the cache.
+     * 
+     * @param key
+     *            the key to be removed
+     * @return the old value, or <code>null</code> if no entry was found for the key
+     */
+    public V remove(final K key)
+    {
+        final Node<K, V> node = entries.remove(key);
+        if (node == null)
+        {
+            return null;
+        }
+
+        discard(node);
+
+        return node.value;
+    }
+
+    /**
+     * Removes all entries whose key matches the given filter, for example the entries of one of several users sharing
+     * this cache.
+     * 
+     * @param filter
+     *            the filter selecting the keys to remove
+     */
+    public void removeIf(final Predicate<? super K> filter)
+    {
+        for (final Node<K, V> node : entries.values())
+        {
+            if (filter.test(node.key) && entries.remove(node.key, node))
+            {
+                discard(node);
+            }
+        }
+
+        evict(null);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear()
+    {
+        for (final Node<K, V> node : entries.values())
+        {
+            if (entries.remove(node.key, node))
+            {
+                discard(node);
+            }
+        }
+
+        evict(null);
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     * 
+     * @return the number of entries
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total weight of all values in the cache.
+     * 
+     * @return the total weight
+     */
+    public long weight()
+    {
+        return weight.get();
+    }
+
+    /**
+     * Returns the maximum total weight of all values in the cache.
+     * 
+     * @return the maximum weight
+     */
+    public long getMaxWeight()
+    {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the hit/miss/eviction counters of this cache.
+     * 
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Accounts for a node that was removed from the map.
+     */
+    private void discard(final Node<K, V> node)
+    {
+        node.removed = true;
+        removedNodes.incrementAndGet();
+        weight.addAndGet(-node.weight);
+    }
+
+    /**
+     * Evicts entries until the total weight does not exceed the limit anymore, and drops removed nodes from the clock.
+     * Returns immediately if another thread is evicting already.
+     * 
+     * @param newNode
+     *            the node just inserted, which is not to be evicted to make room for itself (may be <code>null</code>)
+     */
+    private void evict(final Node<K, V> newNode)
+    {
+        if (!evictionLock.tryLock())
+        {
+            return;
+        }
+
+        try
+        {
+            // get rid of the garbage first if it dominates the clock
+            if (removedNodes.get() > entries.size())
+            {
+                for (final Iterator<Node<K, V>> iterator = clock.iterator(); iterator.hasNext();)
+                {
+                    if (iterator.next().removed)
+                    {
+                        iterator.remove();
+                        removedNodes.decrementAndGet();
+                    }
+                }
+            }
+
+            // limit the second chances in case hot entries are referenced again faster than we can check them
+            int secondChances = entries.size();
+            boolean newNodeSeen = false;
+            boolean progress = false;
+
+            while (weight.get() > maxWeight)
+            {
+                final Node<K, V> node = clock.poll();
+                if (node == null)
+                {
+                    break;
+                }
+
+                if (node.removed)
+                {
+                    removedNodes.decrementAndGet();
+                }
+                else if (node == newNode)
+                {
+                    clock.offer(node);
+
+                    if (newNodeSeen && !progress)
+                    {
+                        // went full circle without finding anything else to evict
+                        break;
+                    }
+                    newNodeSeen = true;
+                    progress = false;
+                }
+                else if (node.referenced && secondChances-- > 0)
+                {
+                    // second chance
+                    node.referenced = false;
+                    clock.offer(node);
+                    progress = true;
+                }
+                else if (entries.remove(node.key, node))
+                {
+                    node.removed = true;
+                    weight.addAndGet(-node.weight);
+                    statistics.recordEviction();
+                    progress = true;
+                }
+                else
+                {
+                    // removed concurrently, the remover has already accounted for it
+                    removedNodes.decrementAndGet();
+                }
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cache entry.
+     */
+    private static final class Node<K, V>
+    {
+        private final K key;
+
+        private final V value;
+
+        private final long weight;
+
+        /**
+         * Whether the entry was looked up since the clock hand passed it the last time.
+         */
+        private volatile boolean referenced;
+
+        /**
+         * Whether the entry was removed from the map.
+         */
+        private volatile boolean removed;
+
+        private Node(final K key, final V value, final long weight)
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Reads a text source line by line.
+ */
+public interface LineReader extends Closeable
+{
+    /**
+     * Returns the next line.
+     *
+     * @return the line without terminator, or <code>null</code> if the end of the data was reached
+     * @throws IOException
+     *             if reading failed
+     */
+    XltCharBuffer readLine() throws IOException;
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Reads the lines of a UTF-8 encoded local file by memory-mapping it. An alternative to {@link XltBufferedLineReader}
+ * which avoids the stream and reader layers in between.
+ * <p>
+ * Lines are split on the raw bytes. Pure ASCII lines, which is what timer files mostly consist of, are widened to
+ * chars directly, everything else is decoded as UTF-8. The chars of many lines share a common backing array, so
+ * reading a line does not allocate a new array per line. As a consequence, the returned buffers must not be modified
+ * beyond their own bounds.
+ * <p>
+ * Line terminators are the same as for {@link XltBufferedLineReader}: '\n', '\r', or "\r\n".
+ * <p>
+ * Mapped regions cannot be released explicitly, but only when the garbage collector finds them unreachable. To keep
+ * the address space and the number of mappings in check, the number of mapped regions alive at the same time is
+ * limited across all readers. If the limit is reached, the region is read into a heap buffer instead.
+ */
+public class MappedLineReader implements LineReader
+{
+    /**
+     * The default size of the region mapped at once.
+     */
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The size of the char arrays shared by the lines.
+     */
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    /**
+     * The initial size of the heap buffer used if the region could not be mapped.
+     */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The maximum number of mapped regions alive at the same time.
+     */
+    static final int MAX_LIVE_MAPPINGS = 64;
+
+    /**
+     * The number of mapped regions not yet released by the garbage collector.
+     */
+    private static final AtomicInteger LIVE_MAPPINGS = new AtomicInteger();
+
+    /**
+     * Notifies us when a mapped region has become unreachable.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * The channel of the file to read.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The offset after the last byte to read.
+     */
+    private final long endOffset;
+
+    /**
+     * The maximum size of the region mapped at once. Grows if a single line does not fit.
+     */
+    private int windowSize;
+
+    /**
+     * The maximum size of the region read into the heap buffer at once. Grows if a single line does not fit.
+     */
+    private int bufferSize;
+
+    /**
+     * The heap buffer to read into if a region could not be mapped, created on demand.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The currently mapped or buffered region of the file.
+     */
+    private ByteBuffer window;
+
+    /**
+     * The file offset of the current region.
+     */
+    private long windowOffset;
+
+    /**
+     * The current read position in the current region.
+     */
+    private int pos;
+
+    /**
+     * The char array the current lines are stored in.
+     */
+    private char[] slab = new char[0];
+
+    /**
+     * The next free position in the slab.
+     */
+    private int slabPos;
+
+    /**
+     * Whether we have read a '\r' and might have to skip a following '\n'.
+     */
+    private boolean skipNL;
+
+    /**
+     * Creates a reader for the whole file.
+     *
+     * @param file
+     *            the file to read
+     * @throws IOException
+     *             if the file could not be opened
+     */
+    public MappedLineReader(final Path file) throws IOException
+    {
+        this(file, 0, Long.MAX_VALUE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a reader for the given part of the file.
+     *
+     * @param file
+     *            the file to read
+     * @param startOffset
+     *            the offset of the first byte to read
+     * @param endOffset
+     *            the offset after the last byte to read, will be limited to the file size
+     * @throws IOException
+     *             if the file could not be opened
+     */
+    public MappedLineReader(final Path file, final long startOffset, final long endOffset) throws IOException
+    {
+        this(file, startOffset, endOffset, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a reader for the given part of the file using the given window size. Meant for testing.
+     */
+    MappedLineReader(final Path file, final long startOffset, final long endOffset, final int windowSize) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        this.endOffset = Math.min(endOffset, channel.size());
+        this.windowSize = Math.max(1, windowSize);
+        bufferSize = Math.min(this.windowSize, BUFFER_SIZE);
+
+        map(Math.min(startOffset, this.endOffset));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public XltCharBuffer readLine() throws IOException
+    {
+        for (;;)
+        {
+            // do we have to skip a newline?
+            if (skipNL)
+            {
+                if (pos == window.limit() && !map(windowOffset + pos))
+                {
+                    return null;
+                }
+
+                if (window.get(pos) == '\n')
+                {
+                    pos++;
+                }
+                skipNL = false;
+            }
+
+            final int limit = window.limit();
+
+            // search the end of the line
+            for (int i = pos; i < limit; i++)
+            {
+                final byte b = window.get(i);
+                if (b <= '\r' && (b == '\n' || b == '\r'))
+                {
+                    final XltCharBuffer line = decode(pos, i);
+
+                    skipNL = b == '\r';
+                    pos = i + 1;
+
+                    return line;
+                }
+            }
+
+            final long lineOffset = windowOffset + pos;
+            if (windowOffset + limit >= endOffset)
+            {
+                // last line without terminator
+                if (pos == limit)
+                {
+                    return null;
+                }
+
+                final XltCharBuffer line = decode(pos, limit);
+                pos = limit;
+
+                return line;
+            }
+
+            // the line continues beyond the current window
+            if (pos == 0)
+            {
+                // the line is longer than the window
+                if (window.isDirect())
+                {
+                    windowSize = (int) Math.min(Integer.MAX_VALUE - 8, windowSize * 2L);
+                }
+                else
+                {
+                    bufferSize = (int) Math.min(Integer.MAX_VALUE - 8, bufferSize * 2L);
+                }
+            }
+            map(lineOffset);
+        }
+    }
+
+    /**
+     * Maps the region starting at the given file offset, or reads it into the heap buffer if too many regions are
+     * mapped already.
+     *
+     * @return whether there is any data left to read
+     */
+    private boolean map(final long offset) throws IOException
+    {
+        // drop the previous region first so it can be released
+        window = null;
+        windowOffset = offset;
+        pos = 0;
+
+        final long remaining = endOffset - offset;
+        if (remaining <= 0)
+        {
+            window = ByteBuffer.allocate(0);
+            return false;
+        }
+
+        if (acquireMapping())
+        {
+            try
+            {
+                final MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, offset, Math.min(windowSize, remaining));
+                CLEANER.register(mapped, LIVE_MAPPINGS::decrementAndGet);
+                window = mapped;
+            }
+            catch (final IOException | RuntimeException e)
+            {
+                LIVE_MAPPINGS.decrementAndGet();
+                throw e;
+            }
+        }
+        else
+        {
+            window = read(offset, (int) Math.min(bufferSize, remaining));
+        }
+
+        return true;
+    }
+
+    /**
+     * Reserves one of the mapped regions that may be alive at the same time.
+     *
+     * @return whether a region may be mapped
+     */
+    private static boolean acquireMapping()
+    {
+        int live;
+        do
+        {
+            live = LIVE_MAPPINGS.get();
+            if (live >= MAX_LIVE_MAPPINGS)
+            {
+                return false;
+            }
+        }
+        while (!LIVE_MAPPINGS.compareAndSet(live, live + 1));
+
+        return true;
+    }
+
+    /**
+     * Returns the number of mapped regions not yet released by the garbage collector.
+     */
+    static int getLiveMappingCount()
+    {
+        return LIVE_MAPPINGS.get();
+    }
+
+    /**
+     * Reads the region of the given size starting at the given file offset into the heap buffer.
+     */
+    private ByteBuffer read(final long offset, final int size) throws IOException
+    {
+        if (buffer == null || buffer.capacity() < size)
+        {
+            buffer = ByteBuffer.allocate(size);
+        }
+
+        buffer.clear().limit(size);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, offset + buffer.position()) < 0)
+            {
+                throw new EOFException("File truncated while reading: " + (offset + buffer.position()));
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Decodes the bytes between the given positions of the current region to chars.
+     */
+    private XltCharBuffer decode(final int from, final int to)
+    {
+        final int length = to - from;
+        if (length == 0)
+        {
+            return XltCharBuffer.empty();
+        }
+
+        // a UTF-8 encoded string never has more chars than bytes
+        if (slab.length - slabPos < length)
+        {
+            slab = new char[Math.max(SLAB_SIZE, length)];
+            slabPos = 0;
+        }
+
+        final int start = slabPos;
+        for (int i = 0; i < length; i++)
+        {
+            final byte b = window.get(from + i);
+            if (b < 0)
+            {
+                // not ASCII, fall back to proper decoding
+                final byte[] bytes = new byte[length];
+                window.duplicate().position(from).get(bytes);
+
+                final String s = new String(bytes, StandardCharsets.UTF_8);
+                s.getChars(0, s.length(), slab, start);
+                slabPos = start + s.length();
+
+                return new XltCharBuffer(slab, start, s.length());
+            }
+
+            slab[start + i] = (char) b;
+        }
+        slabPos = start + length;
+
+        return new XltCharBuffer(slab, start, length);
+    }
+
+    /**
+     * Closes the file channel. The mapped regions are released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        window = null;
+        buffer = null;
+        channel.close();
+    }
+}
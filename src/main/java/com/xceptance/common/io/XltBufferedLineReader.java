@@ -15,7 +15,6 @@
  */
 package com.xceptance.common.io;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 
@@ -29,7 +28,7 @@ import com.xceptance.xlt.api.util.XltCharBuffer;
  * @author Rene Schwietzke
  * @since 7.0.0
  */
-public class XltBufferedLineReader implements Closeable
+public class XltBufferedLineReader implements LineReader
 {
     // where to read out data from
     private Reader reader;
@@ -101,6 +100,7 @@ public class XltBufferedLineReader implements Closeable
      * 
      * @throws IOException
      */
+    @Override
     public XltCharBuffer readLine() throws IOException
     {
         if (eof)
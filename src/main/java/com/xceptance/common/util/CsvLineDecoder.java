@@ -123,6 +123,86 @@ public final class CsvLineDecoder
         return result;
     }
 
+    /**
+     * Returns the value of the given column of a CSV-encoded data record as a long, without decoding the record. Meant
+     * for filtering records cheaply before decoding them completely. Only the columns in front of the requested one
+     * are scanned.
+     *
+     * @param src
+     *            the buffer with the CSV-encoded data record, will not be modified
+     * @param column
+     *            the index of the column
+     * @return the value, or {@link Long#MIN_VALUE} if the column does not exist or does not hold a plain non-negative
+     *         number
+     */
+    public static long peekLong(final XltCharBuffer src, final int column)
+    {
+        final int length = src.length();
+        int pos = 0;
+
+        // skip the columns in front
+        for (int col = 0; col < column; col++)
+        {
+            if (pos < length && src.charAt(pos) == QUOTE_CHAR)
+            {
+                // find the closing quote, quoted quotes come in pairs
+                pos++;
+                while (true)
+                {
+                    if (pos >= length)
+                    {
+                        return Long.MIN_VALUE;
+                    }
+                    if (src.charAt(pos++) == QUOTE_CHAR)
+                    {
+                        if (pos < length && src.charAt(pos) == QUOTE_CHAR)
+                        {
+                            pos++;
+                        }
+                        else
+                        {
+                            break;
+                        }
+                    }
+                }
+            }
+            else
+            {
+                while (pos < length && src.charAt(pos) != COMMA)
+                {
+                    pos++;
+                }
+            }
+
+            if (pos >= length || src.charAt(pos) != COMMA)
+            {
+                return Long.MIN_VALUE;
+            }
+            pos++;
+        }
+
+        // parse the digits, 18 of them never overflow
+        final int start = pos;
+        long value = 0;
+        while (pos < length)
+        {
+            final char c = src.charAt(pos);
+            if (c == COMMA)
+            {
+                break;
+            }
+            if (c < '0' || c > '9' || pos - start >= 18)
+            {
+                return Long.MIN_VALUE;
+            }
+
+            value = value * 10 + (c - '0');
+            pos++;
+        }
+
+        return pos > start ? value : Long.MIN_VALUE;
+    }
+
     /**
      * Reads a full column of the line without support for quotes, because it started unquoted. We end the field
      * at a COMMA.
@@ -376,6 +376,352 @@ public final class RegExUtils
         return getMatchingCount(pattern, "\\((?![?])");
     }
 
+    /**
+     * Determines a literal string that any text matched by the given regular expression (compiled without flags) must
+     * contain. This allows to rule out non-matching texts quickly without running the regular expression. The analysis
+     * is conservative: for constructs it does not understand, such as alternations, inline flags, or quoting, no
+     * literal is returned.
+     *
+     * @param regex
+     *            the regular expression
+     * @return the longest required literal found, or <code>null</code> if there is none
+     */
+    public static String getRequiredLiteral(final String regex)
+    {
+        if (regex == null || regex.contains("(?") || regex.contains("\\Q"))
+        {
+            return null;
+        }
+
+        String longest = "";
+        final StringBuilder current = new StringBuilder();
+
+        final int length = regex.length();
+        int i = 0;
+        while (i < length)
+        {
+            final char c = regex.charAt(i);
+
+            switch (c)
+            {
+                case '\\':
+                {
+                    final int escapeLength = getEscapeLength(regex, i);
+                    if (escapeLength < 0)
+                    {
+                        return null;
+                    }
+
+                    final char next = regex.charAt(i + 1);
+                    if (Character.isLetterOrDigit(next))
+                    {
+                        // character class, back reference, control character, etc. -> skip it including its arguments
+                        longest = longer(longest, current);
+                        current.setLength(0);
+                    }
+                    else
+                    {
+                        // escaped meta character
+                        current.append(next);
+                    }
+                    i += escapeLength;
+                    break;
+                }
+
+                case '*':
+                case '?':
+                case '{':
+                {
+                    // the preceding character is optional or its number of occurrences is unknown
+                    if (current.length() > 0)
+                    {
+                        current.setLength(current.length() - 1);
+                    }
+                    longest = longer(longest, current);
+                    current.setLength(0);
+
+                    if (c == '{')
+                    {
+                        i = regex.indexOf('}', i);
+                        if (i < 0)
+                        {
+                            return null;
+                        }
+                    }
+                    i++;
+                    break;
+                }
+
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                {
+                    longest = longer(longest, current);
+                    current.setLength(0);
+                    i++;
+                    break;
+                }
+
+                case '[':
+                {
+                    longest = longer(longest, current);
+                    current.setLength(0);
+
+                    i = skipCharacterClass(regex, i);
+                    if (i < 0)
+                    {
+                        return null;
+                    }
+                    break;
+                }
+
+                case '(':
+                {
+                    longest = longer(longest, current);
+                    current.setLength(0);
+
+                    i = skipGroup(regex, i);
+                    if (i < 0)
+                    {
+                        return null;
+                    }
+                    break;
+                }
+
+                case '|':
+                case ')':
+                case ']':
+                case '}':
+                {
+                    // top-level alternation or something we do not understand
+                    return null;
+                }
+
+                default:
+                {
+                    current.append(c);
+                    i++;
+                }
+            }
+        }
+
+        longest = longer(longest, current);
+
+        return longest.isEmpty() ? null : longest;
+    }
+
+    /**
+     * Returns the longer of the given strings, preferring the first one.
+     */
+    private static String longer(final String s, final StringBuilder sb)
+    {
+        return sb.length() > s.length() ? sb.toString() : s;
+    }
+
+    /**
+     * Returns the length of the escape sequence starting at the given position, including the backslash and any
+     * arguments such as the digits of <code>\\x41</code> or the name of <code>\\p{Lu}</code>.
+     *
+     * @return the length, or -1 if the sequence is incomplete or not supported (quoting)
+     */
+    private static int getEscapeLength(final String regex, final int i)
+    {
+        final int length = regex.length();
+        if (i + 1 >= length)
+        {
+            return -1;
+        }
+
+        final int end;
+        final char next = regex.charAt(i + 1);
+        switch (next)
+        {
+            case 'x':
+                // \xhh or \x{h...h}
+                end = isAt(regex, i + 2, '{') ? skipTo(regex, i + 3, '}') : i + 4;
+                break;
+
+            case 'u':
+                // backslash, u, and four hex digits
+                end = i + 6;
+                break;
+
+            case '0':
+                // \0n, \0nn, or \0mnn
+                end = skipDigits(regex, i + 2, 3, '7');
+                break;
+
+            case 'c':
+                // \cx
+                end = i + 3;
+                break;
+
+            case 'p':
+            case 'P':
+                // \pL or \p{Lu}
+                end = isAt(regex, i + 2, '{') ? skipTo(regex, i + 3, '}') : i + 3;
+                break;
+
+            case 'b':
+                // \b or \b{g}
+                end = isAt(regex, i + 2, '{') ? skipTo(regex, i + 3, '}') : i + 2;
+                break;
+
+            case 'k':
+                // \k<name>
+                end = isAt(regex, i + 2, '<') ? skipTo(regex, i + 3, '>') : -1;
+                break;
+
+            case 'N':
+                // \N{name}
+                end = isAt(regex, i + 2, '{') ? skipTo(regex, i + 3, '}') : -1;
+                break;
+
+            case 'Q':
+            case 'E':
+                // quoting is not supported
+                end = -1;
+                break;
+
+            default:
+                // back references consume as many digits as possible
+                end = next >= '1' && next <= '9' ? skipDigits(regex, i + 2, Integer.MAX_VALUE, '9') : i + 2;
+        }
+
+        return end < 0 || end > length ? -1 : end - i;
+    }
+
+    /**
+     * Returns whether the given character is at the given position.
+     */
+    private static boolean isAt(final String regex, final int i, final char c)
+    {
+        return i < regex.length() && regex.charAt(i) == c;
+    }
+
+    /**
+     * Returns the position after the next occurrence of the given character, or -1 if there is none.
+     */
+    private static int skipTo(final String regex, final int i, final char c)
+    {
+        final int pos = regex.indexOf(c, i);
+
+        return pos < 0 ? -1 : pos + 1;
+    }
+
+    /**
+     * Returns the position after at most the given number of digits from '0' to the given maximum digit.
+     */
+    private static int skipDigits(final String regex, int i, final int maxDigits, final char maxDigit)
+    {
+        for (int count = 0; count < maxDigits && i < regex.length(); count++, i++)
+        {
+            final char c = regex.charAt(i);
+            if (c < '0' || c > maxDigit)
+            {
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Returns the position after the character class starting at the given position, or -1 if the class is not closed.
+     */
+    private static int skipCharacterClass(final String regex, int i)
+    {
+        final int length = regex.length();
+        int depth = 0;
+
+        while (i < length)
+        {
+            final char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                final int escapeLength = getEscapeLength(regex, i);
+                if (escapeLength < 0)
+                {
+                    return -1;
+                }
+                i += escapeLength;
+                continue;
+            }
+
+            if (c == '[')
+            {
+                depth++;
+
+                // a closing bracket right at the start is a literal
+                int j = i + 1;
+                if (j < length && regex.charAt(j) == '^')
+                {
+                    j++;
+                }
+                if (j < length && regex.charAt(j) == ']')
+                {
+                    j++;
+                }
+                i = j;
+                continue;
+            }
+
+            if (c == ']' && --depth == 0)
+            {
+                return i + 1;
+            }
+            i++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the position after the group starting at the given position, or -1 if the group is not closed.
+     */
+    private static int skipGroup(final String regex, int i)
+    {
+        final int length = regex.length();
+        int depth = 0;
+
+        while (i < length)
+        {
+            final char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                final int escapeLength = getEscapeLength(regex, i);
+                if (escapeLength < 0)
+                {
+                    return -1;
+                }
+                i += escapeLength;
+            }
+            else if (c == '[')
+            {
+                i = skipCharacterClass(regex, i);
+                if (i < 0)
+                {
+                    return -1;
+                }
+            }
+            else
+            {
+                if (c == '(')
+                {
+                    depth++;
+                }
+                else if (c == ')' && --depth == 0)
+                {
+                    return i + 1;
+                }
+                i++;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Helper to get the caching right
      * 
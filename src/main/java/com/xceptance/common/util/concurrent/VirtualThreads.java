@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.util.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Creates virtual threads if the Java runtime supports them (Java 21+). Since the code base is compiled for an older
+ * Java release, the thread builder API is accessed via reflection.
+ */
+public final class VirtualThreads
+{
+    /**
+     * <code>Thread.ofVirtual()</code>, or <code>null</code> if not supported.
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * <code>Thread.Builder.name(String)</code>
+     */
+    private static final Method NAME;
+
+    /**
+     * <code>Thread.Builder.unstarted(Runnable)</code>
+     */
+    private static final Method UNSTARTED;
+
+    static
+    {
+        Method ofVirtual = null;
+        Method name = null;
+        Method unstarted = null;
+
+        try
+        {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class);
+            unstarted = builderClass.getMethod("unstarted", Runnable.class);
+
+            // probe it, the API might be there but disabled (preview)
+            unstarted.invoke(ofVirtual.invoke(null), (Runnable) () -> {
+            });
+        }
+        catch (final Exception | LinkageError e)
+        {
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+    }
+
+    /**
+     * Private constructor.
+     */
+    private VirtualThreads()
+    {
+    }
+
+    /**
+     * Returns whether the Java runtime supports virtual threads.
+     *
+     * @return whether virtual threads are supported
+     */
+    public static boolean isSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a new, not yet started virtual thread.
+     *
+     * @param name
+     *            the name of the thread
+     * @param runnable
+     *            the code to run
+     * @return the thread
+     * @throws UnsupportedOperationException
+     *             if virtual threads are not supported
+     */
+    public static Thread newThread(final String name, final Runnable runnable)
+    {
+        if (OF_VIRTUAL == null)
+        {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime");
+        }
+
+        try
+        {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+
+            return (Thread) UNSTARTED.invoke(builder, runnable);
+        }
+        catch (final InvocationTargetException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IllegalStateException("Failed to create virtual thread", cause);
+        }
+        catch (final IllegalAccessException e)
+        {
+            throw new IllegalStateException("Failed to create virtual thread", e);
+        }
+    }
+
+    /**
+     * Returns a thread factory that creates virtual threads.
+     *
+     * @param nameGenerator
+     *            a name generator that is given an int and it shall return a name
+     * @return the thread factory
+     * @throws UnsupportedOperationException
+     *             if virtual threads are not supported
+     */
+    public static ThreadFactory newThreadFactory(final IntFunction<String> nameGenerator)
+    {
+        if (OF_VIRTUAL == null)
+        {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime");
+        }
+
+        final AtomicInteger count = new AtomicInteger();
+
+        return runnable -> newThread(nameGenerator.apply(count.getAndIncrement()), runnable);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.util.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream that writes line-oriented text as a sequence of independently compressed gzip members. The result
+ * is a valid gzip file that any gzip-capable tool can decompress as a whole, but in addition, the members can be
+ * located quickly and decompressed in parallel using {@link BlockGzipReader}.
+ * <p>
+ * Each member holds at least the configured number of uncompressed bytes (except for the last one) and always ends
+ * with a complete line. The size of a member is stored in an extra field of the member's gzip header, similar to the
+ * BGZF format.
+ */
+public class BlockGzipOutputStream extends FilterOutputStream
+{
+    /**
+     * The first byte of the ID of the extra subfield holding the member size.
+     */
+    static final int SUBFIELD_ID1 = 'X';
+
+    /**
+     * The second byte of the ID of the extra subfield holding the member size.
+     */
+    static final int SUBFIELD_ID2 = 'B';
+
+    /**
+     * The length of the gzip header written for each member.
+     */
+    static final int HEADER_LENGTH = 20;
+
+    /**
+     * The default minimum number of uncompressed bytes per member.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The minimum number of uncompressed bytes per member.
+     */
+    private final int blockSize;
+
+    /**
+     * The uncompressed data of the current member.
+     */
+    private byte[] buffer;
+
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int count;
+
+    /**
+     * The position of the last line terminator in the buffer, or -1 if there is none.
+     */
+    private int lastLineEnd = -1;
+
+    /**
+     * The compressor. Reused for each member.
+     */
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+    /**
+     * The checksum calculator. Reused for each member.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Holds the compressed data of the current member. Reused for each member.
+     */
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+    /**
+     * The buffer taking the output of the compressor.
+     */
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+
+    /**
+     * Creates a new stream with the default block size.
+     *
+     * @param out
+     *            the target stream
+     */
+    public BlockGzipOutputStream(final OutputStream out)
+    {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new stream.
+     *
+     * @param out
+     *            the target stream
+     * @param blockSize
+     *            the minimum number of uncompressed bytes per member
+     */
+    public BlockGzipOutputStream(final OutputStream out, final int blockSize)
+    {
+        super(out);
+
+        this.blockSize = Math.max(1, blockSize);
+        buffer = new byte[Math.min(this.blockSize, 64 * 1024)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int b) throws IOException
+    {
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
+
+        if (b == '\n')
+        {
+            lastLineEnd = count - 1;
+        }
+
+        writeMemberIfFull();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException
+    {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+
+        for (int i = count - 1; i >= count - len; i--)
+        {
+            if (buffer[i] == '\n')
+            {
+                lastLineEnd = i;
+                break;
+            }
+        }
+
+        writeMemberIfFull();
+    }
+
+    /**
+     * Writes the data up to the last complete line as a member if the block size is reached.
+     */
+    private void writeMemberIfFull() throws IOException
+    {
+        if (lastLineEnd >= blockSize - 1)
+        {
+            writeMember(lastLineEnd + 1);
+        }
+    }
+
+    /**
+     * Writes the pending data as the final member and closes the target stream.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            if (count > 0)
+            {
+                writeMember(count);
+            }
+            out.flush();
+        }
+        finally
+        {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Makes sure the buffer can take the given number of additional bytes.
+     */
+    private void ensureCapacity(final int additional)
+    {
+        final long needed = (long) count + additional;
+        if (needed > buffer.length)
+        {
+            final long newLength = Math.max(needed, Math.min((long) buffer.length * 2, Integer.MAX_VALUE - 8));
+            if (newLength > Integer.MAX_VALUE - 8)
+            {
+                throw new OutOfMemoryError("Line too long");
+            }
+
+            final byte[] newBuffer = new byte[(int) newLength];
+            System.arraycopy(buffer, 0, newBuffer, 0, count);
+            buffer = newBuffer;
+        }
+    }
+
+    /**
+     * Compresses the given number of bytes from the beginning of the buffer as a single gzip member.
+     */
+    private void writeMember(final int length) throws IOException
+    {
+        // compress the data
+        compressed.reset();
+        deflater.reset();
+        deflater.setInput(buffer, 0, length);
+        deflater.finish();
+
+        while (!deflater.finished())
+        {
+            final int n = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, n);
+        }
+
+        crc.reset();
+        crc.update(buffer, 0, length);
+
+        final long memberSize = HEADER_LENGTH + compressed.size() + 8L;
+
+        // header with the extra field
+        final byte[] header = new byte[HEADER_LENGTH];
+        header[0] = (byte) 0x1f;
+        header[1] = (byte) 0x8b;
+        header[2] = 8; // deflate
+        header[3] = 4; // FEXTRA
+        // MTIME, XFL stay 0
+        header[9] = (byte) 0xff; // OS unknown
+        writeShort(header, 10, 8); // XLEN
+        header[12] = SUBFIELD_ID1;
+        header[13] = SUBFIELD_ID2;
+        writeShort(header, 14, 4); // LEN
+        writeInt(header, 16, memberSize);
+
+        out.write(header);
+        compressed.writeTo(out);
+
+        // trailer
+        final byte[] trailer = new byte[8];
+        writeInt(trailer, 0, crc.getValue());
+        writeInt(trailer, 4, length);
+        out.write(trailer);
+
+        // keep the remainder
+        System.arraycopy(buffer, length, buffer, 0, count - length);
+        count -= length;
+        lastLineEnd = -1;
+    }
+
+    private static void writeShort(final byte[] b, final int off, final int value)
+    {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+    }
+
+    private static void writeInt(final byte[] b, final int off, final long value)
+    {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+}
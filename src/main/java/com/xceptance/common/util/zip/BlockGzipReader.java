@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.util.zip;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads the members of a gzip file written by {@link BlockGzipOutputStream} one by one, without decompressing them.
+ * Since the members are independent of each other, they can then be decompressed in parallel via {@link #inflate}.
+ */
+public class BlockGzipReader implements Closeable
+{
+    /**
+     * The source stream.
+     */
+    private final InputStream in;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param in
+     *            the source stream, positioned at the beginning of a member
+     */
+    public BlockGzipReader(final InputStream in)
+    {
+        this.in = in;
+    }
+
+    /**
+     * Checks whether the given stream starts with a member as written by {@link BlockGzipOutputStream}. The stream
+     * position is not changed.
+     *
+     * @param in
+     *            the stream, must support mark/reset
+     * @return whether the stream is in block gzip format
+     * @throws IOException
+     *             if reading failed
+     */
+    public static boolean isBlockGzip(final InputStream in) throws IOException
+    {
+        final byte[] header = new byte[BlockGzipOutputStream.HEADER_LENGTH];
+
+        in.mark(header.length);
+        try
+        {
+            return IOUtils.read(in, header) == header.length && isMemberHeader(header);
+        }
+        finally
+        {
+            in.reset();
+        }
+    }
+
+    /**
+     * Returns the next member including its header and trailer.
+     *
+     * @return the compressed member, or <code>null</code> if the end of the stream was reached
+     * @throws IOException
+     *             if reading failed or the data is not in block gzip format
+     */
+    public byte[] nextMember() throws IOException
+    {
+        final byte[] header = new byte[BlockGzipOutputStream.HEADER_LENGTH];
+
+        final int n = IOUtils.read(in, header);
+        if (n == 0)
+        {
+            return null;
+        }
+        if (n < header.length || !isMemberHeader(header))
+        {
+            throw new IOException("Not a block gzip member");
+        }
+
+        final long memberSize = readInt(header, 16);
+        if (memberSize < header.length + 8 || memberSize > Integer.MAX_VALUE - 8)
+        {
+            throw new IOException("Invalid block gzip member size: " + memberSize);
+        }
+
+        final byte[] member = new byte[(int) memberSize];
+        System.arraycopy(header, 0, member, 0, header.length);
+        try
+        {
+            IOUtils.readFully(in, member, header.length, member.length - header.length);
+        }
+        catch (final EOFException e)
+        {
+            throw new IOException("Truncated block gzip member", e);
+        }
+
+        return member;
+    }
+
+    /**
+     * Decompresses the given member.
+     *
+     * @param member
+     *            the member as returned by {@link #nextMember()}
+     * @return the uncompressed data
+     * @throws IOException
+     *             if the member is corrupt
+     */
+    public static byte[] inflate(final byte[] member) throws IOException
+    {
+        final int trailerStart = member.length - 8;
+        final long expectedCrc = readInt(member, trailerStart);
+        final long size = readInt(member, trailerStart + 4);
+
+        final byte[] data = new byte[(int) size];
+        final Inflater inflater = new Inflater(true);
+        try
+        {
+            inflater.setInput(member, BlockGzipOutputStream.HEADER_LENGTH, trailerStart - BlockGzipOutputStream.HEADER_LENGTH);
+
+            int count = 0;
+            while (count < data.length && !inflater.finished())
+            {
+                final int n = inflater.inflate(data, count, data.length - count);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                count += n;
+            }
+
+            if (count != data.length)
+            {
+                throw new IOException("Corrupt block gzip member: unexpected size");
+            }
+        }
+        catch (final DataFormatException e)
+        {
+            throw new IOException("Corrupt block gzip member", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        if (crc.getValue() != expectedCrc)
+        {
+            throw new IOException("Corrupt block gzip member: CRC mismatch");
+        }
+
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * Checks whether the given bytes form a member header as written by {@link BlockGzipOutputStream}.
+     */
+    private static boolean isMemberHeader(final byte[] h)
+    {
+        return (h[0] & 0xff) == 0x1f && (h[1] & 0xff) == 0x8b && h[2] == 8 && h[3] == 4 && h[10] == 8 && h[11] == 0 &&
+               h[12] == BlockGzipOutputStream.SUBFIELD_ID1 && h[13] == BlockGzipOutputStream.SUBFIELD_ID2 && h[14] == 4 && h[15] == 0;
+    }
+
+    private static long readInt(final byte[] b, final int off)
+    {
+        return (b[off] & 0xffL) | (b[off + 1] & 0xffL) << 8 | (b[off + 2] & 0xffL) << 16 | (b[off + 3] & 0xffL) << 24;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.util.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import com.xceptance.common.io.LineReader;
+import com.xceptance.common.io.XltBufferedLineReader;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Reads the lines of a gzip file written by {@link BlockGzipOutputStream}. The blocks are read sequentially, but
+ * decompressed and split into lines in parallel using the given executor. The lines are returned in their original
+ * order.
+ */
+public class ParallelBlockGzipLineReader implements LineReader
+{
+    /**
+     * The source of the compressed blocks.
+     */
+    private final BlockGzipReader reader;
+
+    /**
+     * The executor to run the decompression tasks.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of blocks being decompressed ahead of the current one.
+     */
+    private final int maxPendingBlocks;
+
+    /**
+     * The blocks being decompressed, in file order.
+     */
+    private final ArrayDeque<CompletableFuture<List<XltCharBuffer>>> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * The lines of the current block.
+     */
+    private List<XltCharBuffer> lines = Collections.emptyList();
+
+    /**
+     * The index of the next line to return from the current block.
+     */
+    private int lineIndex;
+
+    /**
+     * Whether all blocks have been read from the source.
+     */
+    private boolean eof;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param reader
+     *            the source of the compressed blocks
+     * @param executor
+     *            the executor to run the decompression tasks
+     * @param maxPendingBlocks
+     *            the maximum number of blocks being decompressed ahead of the current one
+     */
+    public ParallelBlockGzipLineReader(final BlockGzipReader reader, final Executor executor, final int maxPendingBlocks)
+    {
+        this.reader = reader;
+        this.executor = executor;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public XltCharBuffer readLine() throws IOException
+    {
+        while (lineIndex == lines.size())
+        {
+            scheduleBlocks();
+
+            final CompletableFuture<List<XltCharBuffer>> nextBlock = pendingBlocks.poll();
+            if (nextBlock == null)
+            {
+                return null;
+            }
+
+            lines = await(nextBlock);
+            lineIndex = 0;
+        }
+
+        return lines.get(lineIndex++);
+    }
+
+    /**
+     * Cancels any pending decompression and closes the source.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        pendingBlocks.forEach(f -> f.cancel(false));
+        pendingBlocks.clear();
+
+        reader.close();
+    }
+
+    /**
+     * Reads further blocks from the source and schedules them for decompression.
+     */
+    private void scheduleBlocks() throws IOException
+    {
+        while (!eof && pendingBlocks.size() < maxPendingBlocks)
+        {
+            final byte[] member = reader.nextMember();
+            if (member == null)
+            {
+                eof = true;
+            }
+            else
+            {
+                pendingBlocks.add(CompletableFuture.supplyAsync(() -> decode(member), executor));
+            }
+        }
+    }
+
+    /**
+     * Waits for the given decompression task to finish.
+     */
+    private static List<XltCharBuffer> await(final CompletableFuture<List<XltCharBuffer>> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompression");
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+            {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+
+            throw new IOException("Failed to decompress block", cause);
+        }
+    }
+
+    /**
+     * Decompresses the given block and splits it into lines.
+     */
+    private static List<XltCharBuffer> decode(final byte[] member)
+    {
+        try
+        {
+            final byte[] data = BlockGzipReader.inflate(member);
+            final XltBufferedLineReader lineReader = new XltBufferedLineReader(new InputStreamReader(new ByteArrayInputStream(data),
+                                                                                                    StandardCharsets.UTF_8));
+
+            final List<XltCharBuffer> result = new ArrayList<>();
+
+            XltCharBuffer line;
+            while ((line = lineReader.readLine()) != null)
+            {
+                result.add(line);
+            }
+
+            return result;
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
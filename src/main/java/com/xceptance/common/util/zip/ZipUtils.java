@@ -317,6 +317,29 @@ public final class ZipUtils
      *             if an I/O error occurs
      */
     public static void unzipFile(final File zipFile, final File directory, final boolean compressedTimerFiles) throws IOException
+    {
+        unzipFile(zipFile, directory, compressedTimerFiles, 0);
+    }
+
+    /**
+     * Unzips the given ZIP file to the specified directory. If the directory does not exist yet, it will be created.
+     * Depending on the parameters, timers files are stored to disk either in plain or in compressed form (gzipped). If
+     * a block size is given, compressed timer files are written as a sequence of independently compressed blocks (see
+     * {@link BlockGzipOutputStream}), so they can be decompressed in parallel later on.
+     *
+     * @param zipFile
+     *            the zip file
+     * @param directory
+     *            the target directory
+     * @param compressedTimerFiles
+     *            do we want to keep the timers in a compressed form
+     * @param blockSize
+     *            the minimum number of uncompressed bytes per compressed block, or 0 to compress timer files as a whole
+     * @throws java.io.IOException
+     *             if an I/O error occurs
+     */
+    public static void unzipFile(final File zipFile, final File directory, final boolean compressedTimerFiles, final int blockSize)
+        throws IOException
     {
         ParameterCheckUtils.isReadableFile(zipFile, "zipFile");
         ParameterCheckUtils.isNotNull(directory, "directory");
@@ -363,8 +386,7 @@ public final class ZipUtils
                         }
                     }
 
-                    try (final OutputStream out = compressIt ? new GZIPOutputStream(new FileOutputStream(compressedFile))
-                                                             : new FileOutputStream(file))
+                    try (final OutputStream out = compressIt ? openCompressedFile(compressedFile, blockSize) : new FileOutputStream(file))
                     {
                         // cannot use this as it DOES close the input stream
                         // FileUtils.copyToFile(in, file);
@@ -377,4 +399,14 @@ public final class ZipUtils
             }
         }
     }
+
+    /**
+     * Opens a gzip stream to the given file, either as a single member or as a sequence of blocks.
+     */
+    private static OutputStream openCompressedFile(final File file, final int blockSize) throws IOException
+    {
+        final OutputStream out = new FileOutputStream(file);
+
+        return blockSize > 0 ? new BlockGzipOutputStream(new BufferedOutputStream(out, 64 * 1024), blockSize) : new GZIPOutputStream(out);
+    }
 }
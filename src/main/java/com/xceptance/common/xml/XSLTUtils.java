@@ -20,8 +20,10 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -32,8 +34,14 @@ import org.apache.commons.io.IOUtils;
 
 import com.xceptance.common.util.ParameterCheckUtils;
 
+import net.sf.saxon.jaxp.SaxonTransformerFactory;
+
 /**
  * Utility class that provides a convenient XSL transform method.
+ * <p>
+ * Style sheets are compiled only once into {@link Templates} objects, which are cached and shared by all callers. When
+ * several style sheets are to be applied to the same XML file, the file can be parsed once via
+ * {@link #parse(File)} and the resulting source can then be transformed by multiple threads at the same time.
  *
  * @author Jörg Werner (Xceptance Software Technologies GmbH)
  */
@@ -47,6 +55,11 @@ public final class XSLTUtils
      */
     private TransformerFactory factory = TransformerFactory.newInstance();
 
+    /**
+     * The compiled style sheets, keyed by the absolute path of the style sheet file.
+     */
+    private final Map<String, CompiledStyleSheet> templatesCache = new ConcurrentHashMap<>();
+
     /**
      * Default constructor. Private to prevent external instantiation.
      */
@@ -77,17 +90,81 @@ public final class XSLTUtils
     private synchronized void setFactory(final TransformerFactory factory)
     {
         this.factory = factory;
+
+        // the templates compiled so far belong to the previous factory
+        templatesCache.clear();
+    }
+
+    /**
+     * Returns the compiled form of the given style sheet. The style sheet is compiled only if it has not been compiled
+     * before or if it was modified since.
+     *
+     * @param styleSheet
+     *            the style sheet file
+     * @return the compiled style sheet
+     * @throws TransformerException
+     *             if the style sheet could not be compiled
+     */
+    private Templates doGetTemplates(final File styleSheet) throws TransformerException
+    {
+        ParameterCheckUtils.isReadableFile(styleSheet, "xsltStyleSheet");
+
+        final String key = styleSheet.getAbsolutePath();
+        final long lastModified = styleSheet.lastModified();
+
+        final CompiledStyleSheet compiledStyleSheet = templatesCache.get(key);
+        if (compiledStyleSheet != null && compiledStyleSheet.lastModified == lastModified)
+        {
+            return compiledStyleSheet.templates;
+        }
+
+        // compile it (concurrent compilations of the same style sheet are harmless, the last one wins)
+        final Templates templates = getFactory().newTemplates(new StreamSource(styleSheet));
+        templatesCache.put(key, new CompiledStyleSheet(templates, lastModified));
+
+        return templates;
+    }
+
+    /**
+     * Parses the given XML file into a source that can be transformed multiple times and by multiple threads at the
+     * same time. With Saxon, this is a read-only in-memory tree. Otherwise, the file will be re-parsed for each
+     * transformation.
+     *
+     * @param xmlFile
+     *            the XML file
+     * @return the source
+     * @throws TransformerException
+     *             if the file could not be parsed
+     */
+    private Source doParse(final File xmlFile) throws TransformerException
+    {
+        ParameterCheckUtils.isReadableFile(xmlFile, "inputXmlFile");
+
+        final TransformerFactory factory = getFactory();
+        if (factory instanceof SaxonTransformerFactory)
+        {
+            return ((SaxonTransformerFactory) factory).getConfiguration().buildDocumentTree(new StreamSource(xmlFile)).getRootNode();
+        }
+        else
+        {
+            return new StreamSource(xmlFile);
+        }
+    }
+
+    private synchronized TransformerFactory getFactory()
+    {
+        return factory;
     }
 
     /**
      * Performs the XML transformation.
      *
-     * @param in
-     *            input file
+     * @param xmlSource
+     *            input source
      * @param out
      *            output file
-     * @param styleSheet
-     *            style sheet file
+     * @param templates
+     *            the compiled style sheet
      * @param parameters
      *            the key/value pairs to be passed as parameters to the style sheet
      * @throws FileNotFoundException
@@ -95,16 +172,14 @@ public final class XSLTUtils
      * @throws TransformerException
      *             if a transformation error occurs
      */
-    private void doTransform(final File in, final File out, final File styleSheet, final Map<String, Object> parameters)
+    private void doTransform(final Source xmlSource, final File out, final Templates templates, final Map<String, Object> parameters)
         throws FileNotFoundException, TransformerException
     {
         // parameter check
-        ParameterCheckUtils.isReadableFile(in, "inputXmlFile");
-        ParameterCheckUtils.isReadableFile(styleSheet, "xsltStyleSheet");
         ParameterCheckUtils.isWritableFile(out, "outputFile");
 
         // create the transformer and set any parameters
-        final Transformer transformer = factory.newTransformer(new StreamSource(styleSheet));
+        final Transformer transformer = templates.newTransformer();
 
         if (parameters != null)
         {
@@ -119,8 +194,6 @@ public final class XSLTUtils
 
         try
         {
-            final Source xmlSource = new StreamSource(in);
-
             fos = new FileOutputStream(out);
             final StreamResult result = new StreamResult(fos);
 
@@ -173,7 +246,65 @@ public final class XSLTUtils
     public static void transform(final File inputXmlFile, final File outputFile, final File xsltStyleSheet,
                                  final Map<String, Object> parameters) throws FileNotFoundException, TransformerException
     {
-        instance.doTransform(inputXmlFile, outputFile, xsltStyleSheet, parameters);
+        // parameter check
+        ParameterCheckUtils.isReadableFile(inputXmlFile, "inputXmlFile");
+        ParameterCheckUtils.isReadableFile(xsltStyleSheet, "xsltStyleSheet");
+        ParameterCheckUtils.isWritableFile(outputFile, "outputFile");
+
+        transform(new StreamSource(inputXmlFile), outputFile, getTemplates(xsltStyleSheet), parameters);
+    }
+
+    /**
+     * Transforms the given XML source using the specified compiled style sheet and writes the result to the passed
+     * output file. Use {@link #parse(File)} and {@link #getTemplates(File)} to obtain sources and compiled style sheets
+     * that can be reused for multiple transformations.
+     *
+     * @param xmlSource
+     *            the source
+     * @param outputFile
+     *            the target file
+     * @param templates
+     *            the compiled style sheet
+     * @param parameters
+     *            the key/value pairs to be passed as parameters to the style sheet
+     * @throws FileNotFoundException
+     *             if the output file cannot be (re-)created
+     * @throws TransformerException
+     *             if a transformation error occurs
+     */
+    public static void transform(final Source xmlSource, final File outputFile, final Templates templates,
+                                 final Map<String, Object> parameters) throws FileNotFoundException, TransformerException
+    {
+        instance.doTransform(xmlSource, outputFile, templates, parameters);
+    }
+
+    /**
+     * Returns the compiled form of the given style sheet. Compiled style sheets are cached, so each style sheet file is
+     * compiled only once, unless it is modified.
+     *
+     * @param xsltStyleSheet
+     *            the style sheet file
+     * @return the compiled style sheet, which is thread-safe
+     * @throws TransformerException
+     *             if the style sheet could not be compiled
+     */
+    public static Templates getTemplates(final File xsltStyleSheet) throws TransformerException
+    {
+        return instance.doGetTemplates(xsltStyleSheet);
+    }
+
+    /**
+     * Parses the given XML file into a source that can be used for multiple transformations, even concurrently.
+     *
+     * @param inputXmlFile
+     *            the XML file
+     * @return the source
+     * @throws TransformerException
+     *             if the file could not be parsed
+     */
+    public static Source parse(final File inputXmlFile) throws TransformerException
+    {
+        return instance.doParse(inputXmlFile);
     }
 
     /**
@@ -203,4 +334,19 @@ public final class XSLTUtils
         }
     }
 
+    /**
+     * A compiled style sheet together with the modification time of the style sheet file it was compiled from.
+     */
+    private static final class CompiledStyleSheet
+    {
+        private final Templates templates;
+
+        private final long lastModified;
+
+        private CompiledStyleSheet(final Templates templates, final long lastModified)
+        {
+            this.templates = templates;
+            this.lastModified = lastModified;
+        }
+    }
 }
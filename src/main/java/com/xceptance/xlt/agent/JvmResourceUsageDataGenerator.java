@@ -28,12 +28,16 @@ import org.apache.commons.math3.util.Precision;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.xceptance.common.collection.CacheStatistics;
 import com.xceptance.common.lang.ThreadUtils;
 import com.xceptance.common.util.ProcessUtils;
+import com.xceptance.xlt.api.engine.CustomValue;
 import com.xceptance.xlt.api.engine.DataManager;
 import com.xceptance.xlt.api.engine.GlobalClock;
 import com.xceptance.xlt.api.engine.Session;
 import com.xceptance.xlt.api.util.XltProperties;
+import com.xceptance.xlt.engine.AsyncTimerWriter;
+import com.xceptance.xlt.engine.CacheStatisticsRegistry;
 import com.xceptance.xlt.engine.SessionImpl;
 
 /**
@@ -141,6 +145,21 @@ public class JvmResourceUsageDataGenerator extends Thread
      */
     private final JvmResourceUsageData usageData;
 
+    /**
+     * Whether the asynchronous timer writer is used, in which case its metrics are logged as well.
+     */
+    private final boolean asyncTimerWriterEnabled = AsyncTimerWriter.isEnabled();
+
+    /**
+     * The prefix for the names of the custom values logged for the asynchronous timer writer.
+     */
+    private final String timerWriterValuePrefix;
+
+    /**
+     * The prefix for the names of the custom values logged for the engine's caches.
+     */
+    private final String cacheValuePrefix;
+
     /**
      * Constructor.
      *
@@ -169,6 +188,8 @@ public class JvmResourceUsageDataGenerator extends Thread
         // generate an artificial agent name
         final String jvmName = "Agent-" + name + "-" + hostName + "-" + port;
         usageData = new JvmResourceUsageData(jvmName);
+        timerWriterValuePrefix = jvmName + " - TimerWriter.";
+        cacheValuePrefix = jvmName + " - Cache.";
 
         // determine the number of CPUs available
         cpuCount = ManagementFactory.getOperatingSystemMXBean().getAvailableProcessors();
@@ -198,9 +219,58 @@ public class JvmResourceUsageDataGenerator extends Thread
 
             updateStats(usageData);
             dataManager.logDataRecord(usageData);
+
+            if (asyncTimerWriterEnabled)
+            {
+                logTimerWriterStats();
+            }
+
+            logCacheStats();
         }
     }
 
+    /**
+     * Logs the number of hits, misses, and evictions of the engine's caches as custom values. The numbers are totals
+     * since agent start.
+     */
+    private void logCacheStats()
+    {
+        final long now = GlobalClock.millis();
+
+        for (final Map.Entry<String, CacheStatistics> entry : CacheStatisticsRegistry.getAll().entrySet())
+        {
+            final String prefix = cacheValuePrefix + entry.getKey() + ".";
+            final CacheStatistics statistics = entry.getValue();
+
+            logCustomValue(prefix + "Hits", now, statistics.getHitCount());
+            logCustomValue(prefix + "Misses", now, statistics.getMissCount());
+            logCustomValue(prefix + "Evictions", now, statistics.getEvictionCount());
+        }
+    }
+
+    /**
+     * Logs a custom value with the given name, time, and value.
+     */
+    private void logCustomValue(final String name, final long time, final double value)
+    {
+        final CustomValue customValue = new CustomValue(name);
+        customValue.setTime(time);
+        customValue.setValue(value);
+        dataManager.logDataRecord(customValue);
+    }
+
+    /**
+     * Logs the queue depth and the number of dropped data records of the asynchronous timer writer as custom values.
+     */
+    private void logTimerWriterStats()
+    {
+        final AsyncTimerWriter writer = AsyncTimerWriter.getInstance();
+        final long now = GlobalClock.millis();
+
+        logCustomValue(timerWriterValuePrefix + "QueueDepth", now, writer.getQueueDepth());
+        logCustomValue(timerWriterValuePrefix + "DroppedRecords", now, writer.getDroppedRecords());
+    }
+
     /**
      * Checks whether the given class implements an interface with the given fully-qualified name. We have to use the
      * interface's name here since this method is supposed to work also on JDKs where the interface is not available.
@@ -20,10 +20,14 @@ import java.util.List;
 import java.util.TimerTask;
 
 import com.xceptance.common.util.TimerUtils;
+import com.xceptance.common.util.concurrent.VirtualThreads;
 import com.xceptance.xlt.agentcontroller.AgentStatus;
 import com.xceptance.xlt.agentcontroller.TestUserConfiguration;
+import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.api.util.XltProperties;
 import com.xceptance.xlt.common.XltConstants;
+import com.xceptance.xlt.engine.socket.SocketMonitor;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 
 /**
  * Class responsible for running a load test.
@@ -119,14 +123,29 @@ public class LoadTest
      */
     public void run()
     {
+        // in virtual thread mode, the runners are executed by virtual threads instead of being started themselves
+        final boolean virtualThreads = TestUserThreads.isVirtualThreadModeEnabled();
+
         // process list of runners
+        final List<Thread> threads = new ArrayList<Thread>(testRunners.size());
         for (final LoadTestRunner testRunner : testRunners)
         {
-            testRunner.start();
+            final Thread thread = virtualThreads ? VirtualThreads.newThread(testRunner.getName(), testRunner) : testRunner;
+            thread.start();
+
+            threads.add(thread);
         }
 
         // wait for their completion
-        waitForCompletion(testRunners);
+        waitForCompletion(threads);
+
+        // report the TLS handshake load of this agent
+        final long tlsHandshakes = SocketMonitor.getTotalTlsHandshakes();
+        if (tlsHandshakes > 0)
+        {
+            XltLogger.runTimeLogger.info(String.format("TLS handshakes performed by this agent: %,d (average time: %,d ms)", tlsHandshakes,
+                                                       SocketMonitor.getTotalTlsHandshakeTime() / tlsHandshakes));
+        }
     }
 
     /**
@@ -135,10 +154,10 @@ public class LoadTest
      * @param runners
      *            list of runners to wait for their completion
      */
-    private void waitForCompletion(final List<LoadTestRunner> runners)
+    private void waitForCompletion(final List<Thread> runners)
     {
         // process given list of runners
-        for (final LoadTestRunner runner : runners)
+        for (final Thread runner : runners)
         {
             try
             {
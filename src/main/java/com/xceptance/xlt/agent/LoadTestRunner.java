@@ -30,6 +30,7 @@ import com.xceptance.xlt.api.engine.DataManager;
 import com.xceptance.xlt.api.engine.GlobalClock;
 import com.xceptance.xlt.engine.DataManagerImpl;
 import com.xceptance.xlt.engine.SessionImpl;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 import com.xceptance.xlt.engine.util.TimerUtils;
 
 /**
@@ -108,10 +109,36 @@ public class LoadTestRunner extends Thread
     }
 
     /**
-     * Runs the test case as configured in the test case configuration.
+     * Runs the test case as configured in the test case configuration. Typically, this runner is started as a thread,
+     * but it may also be run by another (virtual) thread. In this case, this runner's thread group is bound to the
+     * executing thread so that it is still found by the session lookup.
      */
     @Override
     public void run()
+    {
+        final boolean foreignThread = Thread.currentThread() != this;
+        if (foreignThread)
+        {
+            TestUserThreads.enter(getThreadGroup());
+        }
+
+        try
+        {
+            runTest();
+        }
+        finally
+        {
+            if (foreignThread)
+            {
+                TestUserThreads.exit();
+            }
+        }
+    }
+
+    /**
+     * Runs the test case as configured in the test case configuration.
+     */
+    private void runTest()
     {
         try
         {
@@ -63,7 +63,7 @@ public class AgentManagerImpl implements AgentManager, AgentListener
     /**
      * A file filter that ignores timer files.
      */
-    private static final IOFileFilter NO_TIMERS_FILTER = FileFilterUtils.notFileFilter(FileFilterUtils.makeFileOnly(new NameFileFilter("timers.csv")));
+    private static final IOFileFilter NO_TIMERS_FILTER = FileFilterUtils.notFileFilter(FileFilterUtils.makeFileOnly(new NameFileFilter("timers.csv", "timers.bin")));
 
     /**
      * A file filter that ignores both agent log files and result browser directories.
@@ -169,6 +169,12 @@ public class RequestData extends TimerData
      */
     private XltCharBuffer usedIpAddress;
 
+    /**
+     * The time it took to perform the TLS handshake when establishing a new secure connection. Will be 0 if the request
+     * did not need a handshake, for example, in case of keep-alive connections or plain HTTP.
+     */
+    private int tlsHandshakeTime;
+
     /**
      * Creates a new RequestData object.
      */
@@ -400,6 +406,16 @@ public class RequestData extends TimerData
         return usedIpAddress;
     }
 
+    /**
+     * Returns the time it took to perform the TLS handshake.
+     *
+     * @return the handshake time, or 0 if no handshake was performed
+     */
+    public int getTlsHandshakeTime()
+    {
+        return tlsHandshakeTime;
+    }
+
     /**
      * Sets the size of the response message
      *
@@ -470,6 +486,19 @@ public class RequestData extends TimerData
         this.contentType.hashCode();
     }
 
+    /**
+     * Sets the host. Meant to replace the host parsed from the URL with an equal instance, for example a canonical one
+     * shared by many requests. Use {@link #setUrl(XltCharBuffer)} to derive the host from a URL.
+     *
+     * @param host
+     *            the host
+     */
+    public void setHost(final XltCharBuffer host)
+    {
+        this.host = host;
+        this.host.hashCode();
+    }
+
     /**
      * Sets the time it took to receive the response from the server.
      *
@@ -737,6 +766,17 @@ public class RequestData extends TimerData
         this.usedIpAddress = XltCharBuffer.valueOf(ipAddress);
     }
 
+    /**
+     * Sets the time it took to perform the TLS handshake.
+     *
+     * @param tlsHandshakeTime
+     *            the handshake time, or 0 if no handshake was performed
+     */
+    public void setTlsHandshakeTime(final int tlsHandshakeTime)
+    {
+        this.tlsHandshakeTime = tlsHandshakeTime;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -769,6 +809,8 @@ public class RequestData extends TimerData
 
         fields.add(XltCharBuffer.emptyWhenNull(usedIpAddress).toString());
 
+        fields.add(String.valueOf(tlsHandshakeTime));
+
         return fields;
     }
 
@@ -812,6 +854,9 @@ public class RequestData extends TimerData
 
             // XLT 7.0.0
             setUsedIpAddress(values.get(23));
+
+            // XLT 8.5.0
+            setTlsHandshakeTime(values.size() > 24 ? ParseNumbers.parseInt(values.get(24)) : 0);
         }
         else
         {
@@ -828,6 +873,27 @@ public class RequestData extends TimerData
      */
     private void parseLegacyValues(final List<XltCharBuffer> values)
     {
+        // reset all optional values first as this object might be a reused one
+        url = null;
+        host = null;
+        hashCodeOfUrlWithoutFragment = 0;
+        contentType = null;
+        connectTime = 0;
+        sendTime = 0;
+        serverBusyTime = 0;
+        receiveTime = 0;
+        timeToFirstBytes = 0;
+        timeToLastBytes = 0;
+        requestId = null;
+        httpMethod = null;
+        formDataEncoding = null;
+        formData = null;
+        dnsTime = 0;
+        ipAddresses = null;
+        responseId = null;
+        usedIpAddress = null;
+        tlsHandshakeTime = 0;
+
         // be defensive so older reports can be re-generated
         final int length = values.size();
         if (length > 8)
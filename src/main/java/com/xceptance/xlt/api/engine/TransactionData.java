@@ -292,6 +292,11 @@ public class TransactionData extends TimerData
             stackTrace = stackTrace.replace("\\", "\n");
         }
 
+        // reset all optional values first as this object might be a reused one
+        failedActionName = null;
+        testUserNumber = null;
+        directoryName = null;
+
         // be defensive so a report can be generated also for older results
         final int length = values.size();
         if (length > 6)
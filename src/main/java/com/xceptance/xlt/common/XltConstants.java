@@ -172,6 +172,17 @@ public final class XltConstants
                                                                           "^timers\\.csv\\.[0-9]{4}-[0-9]{2}-[0-9]{2}\\.gz$")
                                                                       .map(Pattern::compile).collect(Collectors.toList());
 
+    /**
+     * The name of the binary timer files.
+     */
+    public static final String BINARY_TIMER_FILENAME = "timers.bin";
+
+    /**
+     * The possible name of the binary timer files.
+     */
+    public static final List<Pattern> BINARY_TIMER_FILENAME_PATTERNS = Stream.of("^timers\\.bin$").map(Pattern::compile)
+                                                                             .collect(Collectors.toList());
+
     /**
      * The possible name of the CPT timer files.
      * <p>
@@ -461,6 +472,11 @@ public final class XltConstants
      */
     public static final String PROP_COLLECT_USED_IP_ADDRESS = XltConstants.XLT_PACKAGE_PATH +  ".results.data.request.collectUsedIpAddress";
 
+    /**
+     * The name of the property that defines the format of the timer files, either "csv" (default) or "binary".
+     */
+    public static final String PROP_TIMER_FILE_FORMAT = XltConstants.XLT_PACKAGE_PATH + ".results.timers.format";
+
     /**
      * The name if we want to clean the user info
      */
@@ -0,0 +1,887 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.xceptance.xlt.api.util.XltLogger;
+import com.xceptance.xlt.api.util.XltProperties;
+import com.xceptance.xlt.common.XltConstants;
+
+/**
+ * An agent-wide writer that takes data records from the virtual user threads and writes them to their timer files on
+ * one dedicated background thread. This way, the user threads neither encode CSV lines nor perform any I/O, so logging
+ * data records does not add to the measured timings anymore.
+ * <p>
+ * The hand-off between user threads and the writer thread is a bounded, lock-free queue. If the queue is full, user
+ * threads either wait until there is room again or, if so configured, drop the data record. The writer thread encodes
+ * the records directly as CSV/UTF-8 into a reusable byte buffer per timer file and writes the buffer once it exceeds a
+ * certain size or the oldest data in it has reached a certain age. The age is checked regularly even if the queue never
+ * runs empty.
+ * <p>
+ * {@link #close(Target)} waits until all the records submitted for a timer file are written and the file is closed.
+ * {@link #shutdown()} does the same for all timer files and is called automatically when the JVM shuts down.
+ */
+public class AsyncTimerWriter
+{
+    /**
+     * The property prefix for all async writer settings.
+     */
+    private static final String PROP_PREFIX = XltConstants.XLT_PACKAGE_PATH + ".results.timers.async";
+
+    /**
+     * Whether the asynchronous writer is enabled.
+     */
+    public static final String PROP_ENABLED = PROP_PREFIX + ".enabled";
+
+    /**
+     * The maximum number of data records waiting to be written.
+     */
+    private static final String PROP_QUEUE_SIZE = PROP_PREFIX + ".queueSize";
+
+    /**
+     * The size (in bytes) of the encoded data per timer file that triggers writing it to disk.
+     */
+    private static final String PROP_FLUSH_SIZE = PROP_PREFIX + ".flushSize";
+
+    /**
+     * The maximum time (in ms) encoded data may be held back before it is written to disk.
+     */
+    private static final String PROP_FLUSH_INTERVAL = PROP_PREFIX + ".flushInterval";
+
+    /**
+     * Whether data records are dropped if the queue is full, instead of waiting for free room.
+     */
+    private static final String PROP_DROP_WHEN_FULL = PROP_PREFIX + ".dropWhenFull";
+
+    /**
+     * The maximum time to wait for a timer file to be closed.
+     */
+    private static final long CLOSE_TIMEOUT_MS = 30_000;
+
+    /**
+     * The time to wait for a close request to complete before checking whether the writer thread is still alive.
+     */
+    private static final long CLOSE_POLL_INTERVAL_MS = 100;
+
+    /**
+     * The number of data records after which the writer thread checks for aged data even if the queue is not empty.
+     */
+    private static final int AGED_CHECK_INTERVAL = 64;
+
+    /**
+     * The time a producer waits before trying again if the queue is full.
+     */
+    private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The system-dependent line separator as bytes.
+     */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The CSV field separator.
+     */
+    private static final byte FIELD_SEPARATOR = ',';
+
+    /**
+     * The CSV quote character.
+     */
+    private static final char QUOTE_CHAR = '"';
+
+    /**
+     * The byte written for characters that cannot be encoded, i.e. unpaired surrogates.
+     */
+    private static final byte REPLACEMENT_BYTE = '?';
+
+    private static class LazySingletonHolder
+    {
+        /**
+         * The {@link AsyncTimerWriter} singleton.
+         */
+        private static final AsyncTimerWriter writer = createWriter();
+
+        private static AsyncTimerWriter createWriter()
+        {
+            final XltProperties props = XltProperties.getInstance();
+
+            final AsyncTimerWriter writer = new AsyncTimerWriter(props.getProperty(PROP_QUEUE_SIZE, 100_000),
+                                                                 props.getProperty(PROP_FLUSH_SIZE, 64 * 1024),
+                                                                 props.getProperty(PROP_FLUSH_INTERVAL, 1000),
+                                                                 props.getProperty(PROP_DROP_WHEN_FULL, false));
+            writer.start();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "XLT-TimerWriter-Shutdown"));
+
+            return writer;
+        }
+    }
+
+    /**
+     * Returns whether the asynchronous writer mode is configured.
+     *
+     * @return <code>true</code> if enabled, <code>false</code> otherwise
+     */
+    public static boolean isEnabled()
+    {
+        return XltProperties.getInstance().getProperty(PROP_ENABLED, false);
+    }
+
+    /**
+     * Returns the {@link AsyncTimerWriter} singleton. The writer thread is started on first use.
+     *
+     * @return the writer
+     */
+    public static AsyncTimerWriter getInstance()
+    {
+        return LazySingletonHolder.writer;
+    }
+
+    /**
+     * The hand-off queue.
+     */
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The current number of entries in the queue.
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    /**
+     * The number of data records dropped because the queue was full.
+     */
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    /**
+     * The number of data records written so far.
+     */
+    private final AtomicLong writtenRecords = new AtomicLong();
+
+    /**
+     * The maximum number of entries in the queue.
+     */
+    private final int queueCapacity;
+
+    /**
+     * The buffer size that triggers writing.
+     */
+    private final int flushSize;
+
+    /**
+     * The maximum age (in ms) of buffered data.
+     */
+    private final long flushInterval;
+
+    /**
+     * Whether to drop records if the queue is full.
+     */
+    private final boolean dropWhenFull;
+
+    /**
+     * The timer files currently open. Accessed by the writer thread only.
+     */
+    private final List<Target> openTargets = new ArrayList<>();
+
+    /**
+     * The writer thread.
+     */
+    private final Thread writerThread;
+
+    /**
+     * Whether the writer thread should finish.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Whether the writer thread is about to park or parked because the queue is empty, so producers have to wake it up.
+     */
+    private volatile boolean idle;
+
+    /**
+     * Constructor. The writer thread is not started yet.
+     *
+     * @param queueCapacity
+     *            the maximum number of data records waiting to be written
+     * @param flushSize
+     *            the size (in bytes) of the encoded data per timer file that triggers writing it to disk
+     * @param flushInterval
+     *            the maximum time (in ms) encoded data may be held back
+     * @param dropWhenFull
+     *            whether to drop data records if the queue is full
+     */
+    AsyncTimerWriter(final int queueCapacity, final int flushSize, final long flushInterval, final boolean dropWhenFull)
+    {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.flushSize = Math.max(1024, flushSize);
+        this.flushInterval = Math.max(1, flushInterval);
+        this.dropWhenFull = dropWhenFull;
+
+        writerThread = new Thread(this::run, "XLT-TimerWriter");
+        writerThread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    void start()
+    {
+        writerThread.start();
+    }
+
+    /**
+     * Creates a new target representing the given timer file. The file is opened lazily by the writer thread.
+     *
+     * @param file
+     *            the timer file
+     * @param binary
+     *            whether to write the binary timer format
+     * @return the target
+     */
+    public Target createTarget(final Path file, final boolean binary)
+    {
+        return new Target(file, binary);
+    }
+
+    /**
+     * Hands the given data record over to the writer thread.
+     *
+     * @param target
+     *            the timer file to write to
+     * @param fields
+     *            the fields of the data record
+     * @param time
+     *            the time of the data record
+     * @return <code>true</code> if the record was queued, <code>false</code> if it was dropped
+     */
+    public boolean submit(final Target target, final List<String> fields, final long time)
+    {
+        if (!reserveQueueSlot())
+        {
+            droppedRecords.incrementAndGet();
+            return false;
+        }
+
+        queue.offer(new Entry(target, fields, time, null));
+        wakeUpWriter();
+
+        return true;
+    }
+
+    /**
+     * Closes the given timer file after all data records submitted so far have been written. Waits for the file to be
+     * closed.
+     *
+     * @param target
+     *            the timer file to close
+     * @return <code>true</code> if the file was closed successfully, <code>false</code> otherwise
+     */
+    public boolean close(final Target target)
+    {
+        // the writer thread has already closed everything
+        if (stopped)
+        {
+            return true;
+        }
+
+        final CompletableFuture<Boolean> closed = new CompletableFuture<>();
+
+        // close requests are never dropped
+        queueDepth.incrementAndGet();
+        queue.offer(new Entry(target, null, 0, closed));
+        wakeUpWriter();
+
+        try
+        {
+            final long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MS;
+            while (true)
+            {
+                try
+                {
+                    return closed.get(CLOSE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                }
+                catch (final TimeoutException e)
+                {
+                    // the writer thread may have been stopped concurrently and has closed all files on its way out
+                    if (!writerThread.isAlive())
+                    {
+                        return closed.getNow(Boolean.TRUE);
+                    }
+
+                    if (System.currentTimeMillis() >= deadline)
+                    {
+                        throw e;
+                    }
+                }
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (final Exception e)
+        {
+            XltLogger.runTimeLogger.error("Failed to close timer file: " + target.file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes all pending data records, closes all timer files, and stops the writer thread.
+     */
+    public void shutdown()
+    {
+        if (stopped)
+        {
+            return;
+        }
+        stopped = true;
+
+        LockSupport.unpark(writerThread);
+
+        try
+        {
+            writerThread.join(CLOSE_TIMEOUT_MS);
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (droppedRecords.get() > 0)
+        {
+            XltLogger.runTimeLogger.warn(String.format("Timer writer dropped %,d data records because its queue was full",
+                                                       droppedRecords.get()));
+        }
+    }
+
+    /**
+     * Returns the number of data records currently waiting to be written.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the number of data records dropped so far because the queue was full.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedRecords()
+    {
+        return droppedRecords.get();
+    }
+
+    /**
+     * Returns the number of data records written so far.
+     *
+     * @return the number of written records
+     */
+    public long getWrittenRecords()
+    {
+        return writtenRecords.get();
+    }
+
+    /**
+     * Wakes up the writer thread if it waits for data records.
+     */
+    private void wakeUpWriter()
+    {
+        if (idle)
+        {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Reserves a slot in the queue. Waits for a free slot unless records are to be dropped.
+     *
+     * @return whether a slot could be reserved
+     */
+    private boolean reserveQueueSlot()
+    {
+        while (true)
+        {
+            if (stopped)
+            {
+                return false;
+            }
+
+            final int depth = queueDepth.get();
+            if (depth < queueCapacity)
+            {
+                if (queueDepth.compareAndSet(depth, depth + 1))
+                {
+                    return true;
+                }
+            }
+            else if (dropWhenFull)
+            {
+                return false;
+            }
+            else
+            {
+                LockSupport.parkNanos(FULL_QUEUE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * The main loop of the writer thread.
+     */
+    private void run()
+    {
+        int processed = 0;
+
+        while (true)
+        {
+            final Entry entry = queue.poll();
+            if (entry != null)
+            {
+                queueDepth.decrementAndGet();
+                process(entry);
+
+                // check for aged data regularly as the queue might never run empty under load
+                if (++processed % AGED_CHECK_INTERVAL == 0)
+                {
+                    flushAged(System.currentTimeMillis());
+                }
+            }
+            else
+            {
+                // nothing to do right now -> write out aged data
+                final long now = System.currentTimeMillis();
+                final long nextFlush = flushAged(now);
+
+                if (stopped)
+                {
+                    break;
+                }
+
+                // announce that we are going to sleep, then check again so no producer can miss us
+                idle = true;
+                if (queue.isEmpty() && !stopped)
+                {
+                    // sleep until woken up by a producer or until the next buffered data becomes too old
+                    if (nextFlush == 0)
+                    {
+                        LockSupport.park(this);
+                    }
+                    else
+                    {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.max(1, nextFlush - now)));
+                    }
+                }
+                idle = false;
+            }
+        }
+
+        // process what came in while stopping, close requests in particular
+        Entry entry;
+        while ((entry = queue.poll()) != null)
+        {
+            queueDepth.decrementAndGet();
+            process(entry);
+        }
+
+        // finally close everything
+        for (final Target target : new ArrayList<>(openTargets))
+        {
+            closeTarget(target);
+        }
+    }
+
+    /**
+     * Processes a single queue entry.
+     */
+    private void process(final Entry entry)
+    {
+        final Target target = entry.target;
+
+        if (entry.closed != null)
+        {
+            entry.closed.complete(closeTarget(target));
+            return;
+        }
+
+        try
+        {
+            if (target.out == null)
+            {
+                openTarget(target);
+            }
+
+            if (target.binaryWriter != null)
+            {
+                target.binaryWriter.write(entry.fields, entry.time);
+            }
+            else
+            {
+                appendCsv(target, entry.fields);
+                append(target, LINE_SEPARATOR);
+
+                if (target.bufferedSince == 0)
+                {
+                    target.bufferedSince = System.currentTimeMillis();
+                }
+
+                if (target.buffer.position() >= flushSize)
+                {
+                    flushTarget(target);
+                }
+            }
+
+            writtenRecords.incrementAndGet();
+        }
+        catch (final IOException e)
+        {
+            XltLogger.runTimeLogger.error("Failed to write statistics:", e);
+        }
+    }
+
+    /**
+     * Opens the timer file of the given target for appending.
+     */
+    private void openTarget(final Target target) throws IOException
+    {
+        target.out = Files.newOutputStream(target.file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        if (target.binary)
+        {
+            target.binaryWriter = new BinaryTimerWriter(target.out, BinaryTimerWriter.DEFAULT_BLOCK_SIZE, flushInterval);
+        }
+        else
+        {
+            target.buffer = ByteBuffer.allocate(8 * 1024);
+        }
+
+        openTargets.add(target);
+    }
+
+    /**
+     * Writes pending data and closes the timer file of the given target.
+     */
+    private boolean closeTarget(final Target target)
+    {
+        if (target.out == null)
+        {
+            return true;
+        }
+
+        try
+        {
+            if (target.binaryWriter != null)
+            {
+                target.binaryWriter.close();
+            }
+            else
+            {
+                flushTarget(target);
+                target.out.close();
+            }
+
+            return true;
+        }
+        catch (final IOException e)
+        {
+            XltLogger.runTimeLogger.error("Failed to close timer file: " + target.file, e);
+            return false;
+        }
+        finally
+        {
+            openTargets.remove(target);
+
+            target.out = null;
+            target.binaryWriter = null;
+            target.buffer = null;
+            target.bufferedSince = 0;
+        }
+    }
+
+    /**
+     * Writes the data of all targets that has been buffered for too long.
+     *
+     * @return the time when the remaining buffered data becomes too old, or 0 if nothing is buffered anymore
+     */
+    private long flushAged(final long now)
+    {
+        long nextFlush = 0;
+
+        for (int i = 0; i < openTargets.size(); i++)
+        {
+            final Target target = openTargets.get(i);
+
+            try
+            {
+                final long bufferedSince;
+                if (target.binaryWriter != null)
+                {
+                    target.binaryWriter.flushIfOlderThan(now - flushInterval);
+                    bufferedSince = target.binaryWriter.getBlockStartTime();
+                }
+                else
+                {
+                    if (target.bufferedSince != 0 && now - target.bufferedSince >= flushInterval)
+                    {
+                        flushTarget(target);
+                    }
+                    bufferedSince = target.bufferedSince;
+                }
+
+                if (bufferedSince != 0)
+                {
+                    final long due = bufferedSince + flushInterval;
+                    nextFlush = nextFlush == 0 ? due : Math.min(nextFlush, due);
+                }
+            }
+            catch (final IOException e)
+            {
+                XltLogger.runTimeLogger.error("Failed to write statistics:", e);
+            }
+        }
+
+        return nextFlush;
+    }
+
+    /**
+     * Writes the buffered CSV data of the given target to disk.
+     */
+    private void flushTarget(final Target target) throws IOException
+    {
+        final ByteBuffer buffer = target.buffer;
+        if (buffer.position() > 0)
+        {
+            target.out.write(buffer.array(), 0, buffer.position());
+            target.out.flush();
+            buffer.clear();
+        }
+
+        target.bufferedSince = 0;
+    }
+
+    /**
+     * Encodes the given fields as a CSV line into the target's buffer, growing the buffer as needed. The result is the
+     * same as encoding the fields with {@link com.xceptance.common.util.CsvUtils#encode(List)}, replacing any line
+     * separator with a space, and converting the line to UTF-8, but without creating any intermediate objects.
+     */
+    private void appendCsv(final Target target, final List<String> fields)
+    {
+        final int fieldCount = fields.size();
+        for (int i = 0; i < fieldCount; i++)
+        {
+            final String field = fields.get(i);
+            if (field == null)
+            {
+                throw new IllegalArgumentException("Array entry must not be null.");
+            }
+
+            // worst case: each char needs 3 bytes, plus separator and quotes
+            final int length = field.length();
+            if (target.buffer.remaining() < 3 * length + 3)
+            {
+                grow(target, 3 * length + 3);
+            }
+
+            final ByteBuffer buffer = target.buffer;
+            if (i != 0)
+            {
+                buffer.put(FIELD_SEPARATOR);
+            }
+
+            final boolean quoted = needsQuoting(field);
+            if (quoted)
+            {
+                buffer.put((byte) QUOTE_CHAR);
+            }
+
+            for (int j = 0; j < length; j++)
+            {
+                final char c = field.charAt(j);
+
+                if (c < 0x80)
+                {
+                    if (c == '\n' || c == '\r')
+                    {
+                        buffer.put((byte) ' ');
+                    }
+                    else
+                    {
+                        if (c == QUOTE_CHAR)
+                        {
+                            // quotes are doubled, which fits into the 3 bytes reserved per char
+                            buffer.put((byte) c);
+                        }
+                        buffer.put((byte) c);
+                    }
+                }
+                else if (c < 0x800)
+                {
+                    buffer.put((byte) (0xC0 | (c >> 6)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+                else if (Character.isHighSurrogate(c) && j + 1 < length && Character.isLowSurrogate(field.charAt(j + 1)))
+                {
+                    // 4 bytes for 2 chars
+                    final int codePoint = Character.toCodePoint(c, field.charAt(++j));
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                }
+                else if (Character.isSurrogate(c))
+                {
+                    buffer.put(REPLACEMENT_BYTE);
+                }
+                else
+                {
+                    buffer.put((byte) (0xE0 | (c >> 12)));
+                    buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+
+            if (quoted)
+            {
+                buffer.put((byte) QUOTE_CHAR);
+            }
+        }
+    }
+
+    /**
+     * Determines whether the given field needs to be quoted in a CSV line.
+     */
+    private static boolean needsQuoting(final String field)
+    {
+        for (int i = 0; i < field.length(); i++)
+        {
+            final char c = field.charAt(i);
+            if (c == QUOTE_CHAR || c == '\n' || c == '\r' || c == FIELD_SEPARATOR)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Appends the given bytes to the target's buffer, growing the buffer as needed.
+     */
+    private void append(final Target target, final byte[] bytes)
+    {
+        if (target.buffer.remaining() < bytes.length)
+        {
+            grow(target, bytes.length);
+        }
+        target.buffer.put(bytes);
+    }
+
+    /**
+     * Grows the target's buffer so that at least the given number of additional bytes fit.
+     */
+    private void grow(final Target target, final int minAdditional)
+    {
+        final ByteBuffer old = target.buffer;
+        final ByteBuffer grown = ByteBuffer.allocate(Math.max(old.capacity() * 2, old.position() + minAdditional * 3));
+
+        old.flip();
+        grown.put(old);
+        target.buffer = grown;
+    }
+
+    /**
+     * A timer file written by the async writer. All the state except the file and format is owned by the writer
+     * thread.
+     */
+    public static class Target
+    {
+        /**
+         * The timer file.
+         */
+        private final Path file;
+
+        /**
+         * Whether to write the binary format.
+         */
+        private final boolean binary;
+
+        /**
+         * The output stream, <code>null</code> if the file is not open.
+         */
+        private OutputStream out;
+
+        /**
+         * The binary writer if the binary format is used.
+         */
+        private BinaryTimerWriter binaryWriter;
+
+        /**
+         * The buffer holding encoded CSV data not yet written.
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * The time when the oldest data in the buffer was added, 0 if the buffer is empty.
+         */
+        private long bufferedSince;
+
+        private Target(final Path file, final boolean binary)
+        {
+            this.file = file;
+            this.binary = binary;
+        }
+    }
+
+    /**
+     * An entry in the hand-off queue. It is either a data record or, if {@link #closed} is set, a close request.
+     */
+    private static class Entry
+    {
+        private final Target target;
+
+        private final List<String> fields;
+
+        private final long time;
+
+        private final CompletableFuture<Boolean> closed;
+
+        private Entry(final Target target, final List<String> fields, final long time, final CompletableFuture<Boolean> closed)
+        {
+            this.target = target;
+            this.fields = fields;
+            this.time = time;
+            this.closed = closed;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.xceptance.common.util.concurrent.DaemonThreadFactory;
+import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.util.XltLogger;
+
+/**
+ * Writes data records to a compact, block-oriented binary timer file. This is an alternative to the classic
+ * <code>timers.csv</code> format and avoids CSV encoding on the agent as well as CSV tokenizing and number parsing on
+ * the report generator side.
+ * <p>
+ * File layout:
+ *
+ * <pre>
+ * file    := segment*
+ * segment := MAGIC(int) VERSION(byte) block*
+ * block   := recordCount(int) minTime(long) maxTime(long)
+ *            newDictionaryEntryCount(varint) (length(varint) utf8Bytes)*
+ *            payloadLength(int) payload
+ * payload := record*
+ * record  := fieldCount(varint) field*
+ * field   := TAG_EMPTY | TAG_DICTIONARY id(varint) | TAG_LONG zigzag(varint) | TAG_STRING length(varint) utf8Bytes
+ * </pre>
+ *
+ * Each writer instance starts a new segment, so data can be appended to an existing file by simply opening a new
+ * writer. The dictionary is global per segment and grows block by block, so a reader has to process the dictionary
+ * section of every block, but may skip the payload of any block whose time range [minTime, maxTime] is not of
+ * interest.
+ * <p>
+ * Whether a column is dictionary-encoded is decided per record type and field index: columns that keep introducing new
+ * values (request IDs, for example) are automatically written as plain strings to keep the dictionary small.
+ * <p>
+ * Instances are thread-safe.
+ */
+public class BinaryTimerWriter implements Closeable
+{
+    /**
+     * The magic number at the beginning of each segment of a binary timer file ("XLTB").
+     */
+    public static final int MAGIC = 0x584C5442;
+
+    /**
+     * The current version of the file format.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Field tag: the field is empty.
+     */
+    public static final byte TAG_EMPTY = 0;
+
+    /**
+     * Field tag: the field is a reference into the dictionary.
+     */
+    public static final byte TAG_DICTIONARY = 1;
+
+    /**
+     * Field tag: the field is a zigzag-encoded long value.
+     */
+    public static final byte TAG_LONG = 2;
+
+    /**
+     * Field tag: the field is a plain UTF-8 string.
+     */
+    public static final byte TAG_STRING = 3;
+
+    /**
+     * The default number of records per block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    /**
+     * The upper limit for the number of records per block. Keeps record counts well away from {@link #MAGIC}.
+     */
+    private static final int MAX_BLOCK_SIZE = 1024 * 1024;
+
+    /**
+     * The maximum number of entries in the dictionary.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+    /**
+     * Values longer than this are never put into the dictionary.
+     */
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 256;
+
+    /**
+     * The number of lookups after which we decide whether a column is worth to be dictionary-encoded.
+     */
+    private static final int COLUMN_SAMPLE_SIZE = 1000;
+
+    /**
+     * The target stream.
+     */
+    private final OutputStream out;
+
+    /**
+     * The maximum number of records per block.
+     */
+    private final int blockSize;
+
+    /**
+     * The maximum age of a block (in ms) before it is written even if not full yet.
+     */
+    private final long maxBlockAge;
+
+    /**
+     * The values in the dictionary so far, mapped to their IDs.
+     */
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    /**
+     * The dictionary values added while building the current block.
+     */
+    private final List<String> newDictionaryEntries = new ArrayList<>();
+
+    /**
+     * The lookup/miss statistics per column, keyed by type code and field index.
+     */
+    private final Map<Integer, int[]> columnStats = new HashMap<>();
+
+    /**
+     * The buffer holding the encoded records of the current block. Reused for each block.
+     */
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(64 * 1024);
+
+    /**
+     * The buffer holding the encoded block header. Reused for each block.
+     */
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream(4 * 1024);
+
+    /**
+     * The number of records in the current block.
+     */
+    private int recordCount;
+
+    /**
+     * The minimum record time in the current block.
+     */
+    private long minTime = Long.MAX_VALUE;
+
+    /**
+     * The maximum record time in the current block.
+     */
+    private long maxTime = Long.MIN_VALUE;
+
+    /**
+     * The wall-clock time when the first record of the current block was added.
+     */
+    private long blockStartTime;
+
+    /**
+     * The background task that writes the current block once it has become too old, or <code>null</code> if there is
+     * none.
+     */
+    private ScheduledFuture<?> ageCheck;
+
+    /**
+     * Creates a new writer that starts a new segment in the given stream.
+     *
+     * @param out
+     *            the target stream
+     * @param blockSize
+     *            the maximum number of records per block
+     * @param maxBlockAge
+     *            the maximum time in ms a record may wait in a non-full block
+     * @throws IOException
+     *             if the segment header could not be written
+     */
+    public BinaryTimerWriter(final OutputStream out, final int blockSize, final long maxBlockAge) throws IOException
+    {
+        this.out = out;
+        this.blockSize = Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
+        this.maxBlockAge = maxBlockAge;
+
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeByte(VERSION);
+        dos.flush();
+    }
+
+    /**
+     * Adds the given data record to the current block. The block is written to the target stream once it is full or
+     * has become too old.
+     *
+     * @param data
+     *            the data record
+     * @throws IOException
+     *             if writing the block failed
+     */
+    public void write(final Data data) throws IOException
+    {
+        write(data.toList(), data.getTime());
+    }
+
+    /**
+     * Adds the data record with the given fields to the current block. The block is written to the target stream once
+     * it is full or has become too old.
+     *
+     * @param fields
+     *            the fields of the data record, the first one being the type code
+     * @param time
+     *            the time of the data record
+     * @throws IOException
+     *             if writing the block failed
+     */
+    public synchronized void write(final List<String> fields, final long time) throws IOException
+    {
+        final int typeCode = fields.get(0).charAt(0);
+
+        if (recordCount == 0)
+        {
+            blockStartTime = System.currentTimeMillis();
+        }
+
+        writeVarInt(payload, fields.size());
+        for (int i = 0; i < fields.size(); i++)
+        {
+            writeField(payload, fields.get(i), typeCode, i);
+        }
+
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        recordCount++;
+
+        if (recordCount >= blockSize || System.currentTimeMillis() - blockStartTime >= maxBlockAge)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the current block, if any, to the target stream and flushes the stream.
+     *
+     * @throws IOException
+     *             if writing failed
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (recordCount > 0)
+        {
+            header.reset();
+
+            final DataOutputStream dos = new DataOutputStream(header);
+            dos.writeInt(recordCount);
+            dos.writeLong(minTime);
+            dos.writeLong(maxTime);
+
+            writeVarInt(header, newDictionaryEntries.size());
+            for (final String value : newDictionaryEntries)
+            {
+                writeString(header, value);
+            }
+
+            dos.writeInt(payload.size());
+
+            header.writeTo(out);
+            payload.writeTo(out);
+
+            // reset the block state
+            payload.reset();
+            newDictionaryEntries.clear();
+            recordCount = 0;
+            minTime = Long.MAX_VALUE;
+            maxTime = Long.MIN_VALUE;
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Writes the current block if its first record was added before the given time.
+     *
+     * @param time
+     *            the point in time (wall-clock) to check against
+     * @throws IOException
+     *             if writing failed
+     */
+    public synchronized void flushIfOlderThan(final long time) throws IOException
+    {
+        if (recordCount > 0 && blockStartTime <= time)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the wall-clock time when the first record of the current block was added.
+     *
+     * @return the time, or 0 if the current block is empty
+     */
+    public synchronized long getBlockStartTime()
+    {
+        return recordCount > 0 ? blockStartTime : 0;
+    }
+
+    /**
+     * Starts checking regularly in the background whether the current block has become too old. This way, a non-full
+     * block is written in time even if no further records are added. The check stops when this writer is closed.
+     * Writers that are flushed regularly by their owner, for example via {@link #flushIfOlderThan(long)}, do not need
+     * this.
+     */
+    public synchronized void startAgeCheck()
+    {
+        if (ageCheck == null && maxBlockAge > 0 && maxBlockAge < Long.MAX_VALUE)
+        {
+            ageCheck = AgeCheckExecutorHolder.EXECUTOR.scheduleWithFixedDelay(this::checkAge, maxBlockAge, maxBlockAge,
+                                                                              TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the current block if it has become too old. Called in the background.
+     */
+    private synchronized void checkAge()
+    {
+        try
+        {
+            flushIfOlderThan(System.currentTimeMillis() - maxBlockAge);
+        }
+        catch (final IOException e)
+        {
+            XltLogger.runTimeLogger.error("Failed to write statistics:", e);
+
+            // the stream is broken, so don't try again
+            stopAgeCheck();
+        }
+    }
+
+    /**
+     * Stops the background age check, if any.
+     */
+    private void stopAgeCheck()
+    {
+        if (ageCheck != null)
+        {
+            ageCheck.cancel(false);
+            ageCheck = null;
+        }
+    }
+
+    /**
+     * Writes any pending block and closes the target stream.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        stopAgeCheck();
+
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Encodes a single field value.
+     */
+    private void writeField(final ByteArrayOutputStream buf, final String rawValue, final int typeCode, final int index)
+    {
+        if (rawValue == null || rawValue.isEmpty())
+        {
+            buf.write(TAG_EMPTY);
+            return;
+        }
+
+        // keep the semantics of the CSV format where line separators are replaced
+        final String value = (rawValue.indexOf('\n') >= 0 || rawValue.indexOf('\r') >= 0) ? rawValue.replace('\n', ' ').replace('\r', ' ')
+                                                                                          : rawValue;
+
+        if (isCanonicalLong(value))
+        {
+            final long l = Long.parseLong(value);
+
+            buf.write(TAG_LONG);
+            writeVarLong(buf, (l << 1) ^ (l >> 63));
+            return;
+        }
+
+        if (value.length() <= MAX_DICTIONARY_VALUE_LENGTH)
+        {
+            final int[] stats = columnStats.computeIfAbsent((typeCode << 8) | Math.min(index, 255), k -> new int[2]);
+            final boolean columnEnabled = stats[0] < COLUMN_SAMPLE_SIZE || stats[1] * 2 < stats[0];
+
+            if (columnEnabled)
+            {
+                Integer id = dictionary.get(value);
+                stats[0]++;
+
+                if (id == null && dictionary.size() < MAX_DICTIONARY_SIZE)
+                {
+                    stats[1]++;
+
+                    id = dictionary.size();
+                    dictionary.put(value, id);
+                    newDictionaryEntries.add(value);
+                }
+
+                if (id != null)
+                {
+                    buf.write(TAG_DICTIONARY);
+                    writeVarInt(buf, id);
+                    return;
+                }
+            }
+        }
+
+        buf.write(TAG_STRING);
+        writeString(buf, value);
+    }
+
+    /**
+     * Checks whether the given string is the canonical decimal representation of a long value, i.e. parsing and
+     * re-formatting the value yields the very same string.
+     */
+    static boolean isCanonicalLong(final String s)
+    {
+        final int length = s.length();
+        final int start = s.charAt(0) == '-' ? 1 : 0;
+        final int digits = length - start;
+
+        // limit to 18 digits to never overflow
+        if (digits == 0 || digits > 18)
+        {
+            return false;
+        }
+
+        // no leading zeros, no negative zero
+        if (s.charAt(start) == '0' && (digits > 1 || start == 1))
+        {
+            return false;
+        }
+
+        for (int i = start; i < length; i++)
+        {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void writeString(final ByteArrayOutputStream buf, final String value)
+    {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buf, bytes.length);
+        buf.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarInt(final ByteArrayOutputStream buf, final int value)
+    {
+        writeVarLong(buf, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(final ByteArrayOutputStream buf, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            buf.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.write((int) value);
+    }
+
+    /**
+     * Lazily creates the executor shared by all writers to check the age of their current block.
+     */
+    private static final class AgeCheckExecutorHolder
+    {
+        private static final ScheduledThreadPoolExecutor EXECUTOR;
+
+        static
+        {
+            EXECUTOR = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("BinaryTimerWriter-AgeCheck-"));
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
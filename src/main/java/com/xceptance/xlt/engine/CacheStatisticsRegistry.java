@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.xceptance.common.collection.CacheStatistics;
+
+/**
+ * The agent-wide registry of the statistics of the engine's caches, so they can be logged as custom values. Caches of
+ * the same kind, for example the static content caches of all browser instances, share one {@link CacheStatistics}
+ * instance.
+ */
+public final class CacheStatisticsRegistry
+{
+    /**
+     * The statistics keyed by cache name.
+     */
+    private static final Map<String, CacheStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private CacheStatisticsRegistry()
+    {
+    }
+
+    /**
+     * Returns the statistics for the cache with the given name, creating them if needed.
+     *
+     * @param cacheName
+     *            the name of the cache
+     * @return the statistics
+     */
+    public static CacheStatistics get(final String cacheName)
+    {
+        return STATISTICS.computeIfAbsent(cacheName, k -> new CacheStatistics());
+    }
+
+    /**
+     * Returns the statistics of all caches registered so far, sorted by cache name.
+     *
+     * @return the statistics keyed by cache name
+     */
+    public static Map<String, CacheStatistics> getAll()
+    {
+        return new TreeMap<>(STATISTICS);
+    }
+}
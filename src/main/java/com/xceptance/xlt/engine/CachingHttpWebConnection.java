@@ -28,7 +28,7 @@ import org.htmlunit.WebConnection;
 import org.htmlunit.WebRequest;
 import org.htmlunit.WebResponse;
 
-import com.xceptance.common.collection.ConcurrentLRUCache;
+import com.xceptance.common.collection.ConcurrentWeightedCache;
 import com.xceptance.common.net.HttpHeaderConstants;
 import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.api.util.XltProperties;
@@ -212,7 +212,7 @@ public class CachingHttpWebConnection extends WebConnectionWrapper
     /**
      * A cache that maps URL strings to their corresponding web responses.
      */
-    private final ConcurrentLRUCache<String, CacheEntry> cache;
+    private final ConcurrentWeightedCache<String, CacheEntry> cache;
 
     /**
      * Is true when cache usage is enabled.
@@ -232,13 +232,12 @@ public class CachingHttpWebConnection extends WebConnectionWrapper
         useCache = XltProperties.getInstance().getProperty(XltConstants.XLT_PACKAGE_PATH + ".staticContentCache", false);
         if (useCache)
         {
-            final int cacheSize = XltProperties.getInstance().getProperty(XltConstants.XLT_PACKAGE_PATH + ".staticContentCache.size", 100);
-            if (cacheSize < ConcurrentLRUCache.MIN_SIZE)
+            final int cacheSize = XltProperties.getInstance().getProperty(XltConstants.XLT_PACKAGE_PATH + ".staticContentCache.maxSize", 10);
+            if (cacheSize < 1)
             {
-                XltLogger.runTimeLogger.warn("Size of static content cache is lower than minimum size of " + ConcurrentLRUCache.MIN_SIZE +
-                                             ". Will use the minimum size.");
+                XltLogger.runTimeLogger.warn("Size of static content cache is lower than minimum size of 1 MB. Will use the minimum size.");
             }
-            cache = new ConcurrentLRUCache<String, CacheEntry>(Math.max(cacheSize, ConcurrentLRUCache.MIN_SIZE));
+            cache = new ConcurrentWeightedCache<>(Math.max(cacheSize, 1) * 1024L * 1024L, CacheStatisticsRegistry.get("StaticContent"));
         }
         else
         {
@@ -286,7 +285,7 @@ public class CachingHttpWebConnection extends WebConnectionWrapper
                 cacheEntry.lastModified = webResponse.getResponseHeaderValue(HttpHeaderConstants.LAST_MODIFIED);
                 cacheEntry.etag = webResponse.getResponseHeaderValue(HttpHeaderConstants.ETAG);
 
-                cache.put(url, cacheEntry);
+                cache.put(url, cacheEntry, getSize(webResponse));
             }
 
             // return the response just read
@@ -315,6 +314,9 @@ public class CachingHttpWebConnection extends WebConnectionWrapper
                     cacheEntry.lastModified = webResponse.getResponseHeaderValue(HttpHeaderConstants.LAST_MODIFIED);
                     cacheEntry.etag = webResponse.getResponseHeaderValue(HttpHeaderConstants.ETAG);
 
+                    // re-put the entry as its size has likely changed
+                    cache.put(url, cacheEntry, getSize(webResponse));
+
                     return webResponse;
                 }
             }
@@ -373,4 +375,17 @@ public class CachingHttpWebConnection extends WebConnectionWrapper
 
         return getWrappedWebConnection().getResponse(webRequest);
     }
+
+    /**
+     * Returns the estimated memory footprint of the given response, i.e. the size of its body plus some overhead for
+     * headers and bookkeeping.
+     * 
+     * @param webResponse
+     *            the response
+     * @return the size in bytes
+     */
+    private static long getSize(final WebResponse webResponse)
+    {
+        return webResponse.getContentLength() + 1024;
+    }
 }
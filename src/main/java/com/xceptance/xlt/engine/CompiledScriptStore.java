@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.htmlunit.corejs.javascript.CompilerEnvirons;
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.ErrorReporter;
+import org.htmlunit.corejs.javascript.EvaluatorException;
+import org.htmlunit.corejs.javascript.GeneratedClassLoader;
+import org.htmlunit.corejs.javascript.RhinoException;
+import org.htmlunit.corejs.javascript.Script;
+import org.htmlunit.corejs.javascript.optimizer.ClassCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A directory that holds the Java classes generated by Rhino when compiling scripts in compiled mode (optimization
+ * level 0 and higher). If a script was compiled before, even by a previous agent run, its classes are simply loaded
+ * from disk instead of compiling the source again. This way, the first iterations of a load test do not suffer from
+ * the high compile costs of large scripts.
+ * <p>
+ * There is one file per script, named after the {@link ScriptKey} of the script source. Each file also records the
+ * Rhino version and the relevant compiler settings, so files written with different settings are ignored and
+ * overwritten. Files are written atomically, so multiple agents on the same machine may share the directory. The
+ * directory may be deleted at any time.
+ * <p>
+ * Since the stored classes are loaded and executed by the agent, each file is protected by an HMAC. Its secret key is
+ * generated on first use and kept in the directory, readable by the owner only. Files with a missing or wrong HMAC are
+ * ignored and overwritten. On file systems with POSIX permissions, a directory or key file accessible by other users is
+ * rejected altogether.
+ */
+public class CompiledScriptStore
+{
+    /**
+     * The log facility of this class.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledScriptStore.class);
+
+    /**
+     * Marks a file as compiled script file ("XLTJ").
+     */
+    private static final int MAGIC = 0x584C544A;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * The algorithm used to protect the files.
+     */
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * The length of a MAC in bytes.
+     */
+    private static final int MAC_LENGTH = 32;
+
+    /**
+     * The name of the file holding the secret MAC key.
+     */
+    static final String KEY_FILE_NAME = "store.key";
+
+    /**
+     * The length of the secret MAC key in bytes.
+     */
+    private static final int KEY_LENGTH = 32;
+
+    /**
+     * The permissions the directory is created with.
+     */
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    /**
+     * The permissions the key file is created with.
+     */
+    private static final Set<PosixFilePermission> KEY_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+    /**
+     * The permissions the directory must not have.
+     */
+    private static final Set<PosixFilePermission> FORBIDDEN_DIRECTORY_PERMISSIONS = EnumSet.of(PosixFilePermission.GROUP_WRITE,
+                                                                                               PosixFilePermission.OTHERS_WRITE);
+
+    /**
+     * The permissions the key file must not have.
+     */
+    private static final Set<PosixFilePermission> FORBIDDEN_KEY_FILE_PERMISSIONS = EnumSet.of(PosixFilePermission.GROUP_READ,
+                                                                                              PosixFilePermission.GROUP_WRITE,
+                                                                                              PosixFilePermission.OTHERS_READ,
+                                                                                              PosixFilePermission.OTHERS_WRITE);
+
+    /**
+     * The extension of compiled script files.
+     */
+    static final String FILE_EXTENSION = ".jsc";
+
+    /**
+     * The directory to store the files in.
+     */
+    private final Path directory;
+
+    /**
+     * The secret key used to protect the files.
+     */
+    private final SecretKeySpec macKey;
+
+    /**
+     * Constructor.
+     * 
+     * @param directory
+     *            the directory to store the files in, will be created if needed
+     * @throws IOException
+     *             if the directory or the key file could not be set up, or if they are accessible by other users
+     */
+    public CompiledScriptStore(final Path directory) throws IOException
+    {
+        final boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+
+        if (posix)
+        {
+            this.directory = Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+            checkPermissions(this.directory, FORBIDDEN_DIRECTORY_PERMISSIONS);
+        }
+        else
+        {
+            this.directory = Files.createDirectories(directory);
+        }
+
+        macKey = new SecretKeySpec(readOrCreateKey(this.directory.resolve(KEY_FILE_NAME), posix), MAC_ALGORITHM);
+    }
+
+    /**
+     * Checks that the given file does not have any of the given permissions.
+     *
+     * @throws IOException
+     *             if the file has any of the permissions
+     */
+    private static void checkPermissions(final Path file, final Set<PosixFilePermission> forbiddenPermissions) throws IOException
+    {
+        final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file);
+        permissions.retainAll(forbiddenPermissions);
+
+        if (!permissions.isEmpty())
+        {
+            throw new IOException("Compiled script store '" + file + "' must not be accessible by other users, but has " +
+                                  PosixFilePermissions.toString(permissions));
+        }
+    }
+
+    /**
+     * Reads the secret key from the given file. If the file does not exist yet, a new random key is generated and
+     * stored first.
+     *
+     * @return the key
+     * @throws IOException
+     *             if the key could not be read or stored, or if the key file is accessible by other users
+     */
+    private static byte[] readOrCreateKey(final Path keyFile, final boolean posix) throws IOException
+    {
+        if (!Files.exists(keyFile))
+        {
+            final byte[] key = new byte[KEY_LENGTH];
+            new SecureRandom().nextBytes(key);
+
+            // write the key to a temporary file (accessible by the owner only) first to never expose a partial key
+            final Path tempFile = posix ? Files.createTempFile(keyFile.getParent(), KEY_FILE_NAME, ".tmp",
+                                                               PosixFilePermissions.asFileAttribute(KEY_FILE_PERMISSIONS))
+                                        : Files.createTempFile(keyFile.getParent(), KEY_FILE_NAME, ".tmp");
+            try
+            {
+                Files.write(tempFile, key);
+                Files.move(tempFile, keyFile);
+            }
+            catch (final FileAlreadyExistsException e)
+            {
+                // another agent was faster, use its key
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        if (posix)
+        {
+            checkPermissions(keyFile, FORBIDDEN_KEY_FILE_PERMISSIONS);
+        }
+
+        final byte[] key = Files.readAllBytes(keyFile);
+        if (key.length != KEY_LENGTH)
+        {
+            throw new IOException("Invalid key file: " + keyFile);
+        }
+
+        return key;
+    }
+
+    /**
+     * Returns the directory the files are stored in.
+     * 
+     * @return the directory
+     */
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns the compiled script for the given source. The script's classes are loaded from disk if available.
+     * Otherwise, the source is compiled and the resulting classes are stored to disk for later use. Must be called
+     * with a context that is in compiled mode.
+     * 
+     * @param cx
+     *            the current context
+     * @param key
+     *            the key of the script source
+     * @param sourceCode
+     *            the script source
+     * @param sourceName
+     *            the name that will be displayed on error conditions
+     * @param startLine
+     *            the line at which the script source starts
+     * @return the script, or <code>null</code> if the source could not be compiled this way, for example because of
+     *         syntax errors, in which case the caller should compile the source the regular way
+     */
+    public Script getScript(final Context cx, final ScriptKey key, final String sourceCode, final String sourceName,
+                            final int startLine)
+    {
+        final CompilerEnvirons compilerEnv = new CompilerEnvirons();
+        compilerEnv.initFromContext(cx);
+        compilerEnv.setErrorReporter(new FailingErrorReporter());
+
+        final String mainClassName = "xlt_script_" + key;
+        final String environment = getEnvironment(cx, compilerEnv);
+        final Path file = directory.resolve(key + FILE_EXTENSION);
+
+        Object[] classes = read(file, macKey, environment, mainClassName);
+        if (classes == null)
+        {
+            try
+            {
+                classes = new ClassCompiler(compilerEnv).compileToClassFiles(sourceCode, sourceName, startLine, mainClassName);
+            }
+            catch (final RhinoException e)
+            {
+                // let the regular compilation deal with it
+                return null;
+            }
+
+            write(file, macKey, environment, mainClassName, classes);
+        }
+
+        try
+        {
+            return defineScript(cx, classes, mainClassName);
+        }
+        catch (final ReflectiveOperationException | RuntimeException | LinkageError e)
+        {
+            LOG.warn("Failed to load compiled script from file: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns a description of all the settings that affect the generated code.
+     */
+    private static String getEnvironment(final Context cx, final CompilerEnvirons compilerEnv)
+    {
+        return String.join(",", cx.getImplementationVersion(), String.valueOf(compilerEnv.getOptimizationLevel()),
+                           String.valueOf(compilerEnv.getLanguageVersion()), String.valueOf(compilerEnv.isGenerateDebugInfo()),
+                           String.valueOf(compilerEnv.isGeneratingSource()), String.valueOf(compilerEnv.isStrictMode()));
+    }
+
+    /**
+     * Defines the given classes and creates an instance of the main class. All classes must belong to the main class,
+     * i.e. their names must start with the name of the main class.
+     */
+    private static Script defineScript(final Context cx, final Object[] classes, final String mainClassName)
+        throws ReflectiveOperationException
+    {
+        final GeneratedClassLoader loader = cx.createClassLoader(cx.getApplicationClassLoader());
+
+        Class<?> mainClass = null;
+        for (int i = 0; i < classes.length; i += 2)
+        {
+            final String className = (String) classes[i];
+            if (!className.startsWith(mainClassName))
+            {
+                throw new ClassNotFoundException("Unexpected class '" + className + "' in compiled script " + mainClassName);
+            }
+
+            final Class<?> c = loader.defineClass(className, (byte[]) classes[i + 1]);
+            if (mainClassName.equals(classes[i]))
+            {
+                mainClass = c;
+            }
+        }
+
+        if (mainClass == null)
+        {
+            throw new ClassNotFoundException(mainClassName);
+        }
+
+        loader.linkClass(mainClass);
+
+        return (Script) mainClass.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Computes the MAC of the given data.
+     */
+    private static byte[] computeMac(final SecretKeySpec macKey, final byte[] data, final int length)
+    {
+        try
+        {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            mac.update(data, 0, length);
+
+            return mac.doFinal();
+        }
+        catch (final GeneralSecurityException e)
+        {
+            // every JVM has to support HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the classes from the given file.
+     * 
+     * @return the class names and bytes in alternating order, or <code>null</code> if the file does not exist, is
+     *         corrupt or was tampered with, or was written with different settings
+     */
+    private static Object[] read(final Path file, final SecretKeySpec macKey, final String environment, final String mainClassName)
+    {
+        final byte[] content;
+        try
+        {
+            content = Files.readAllBytes(file);
+        }
+        catch (final NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (final IOException e)
+        {
+            LOG.warn("Failed to read compiled script file: " + file, e);
+            return null;
+        }
+
+        // the MAC trails the data
+        final int length = content.length - MAC_LENGTH;
+        if (length < 0 ||
+            !MessageDigest.isEqual(computeMac(macKey, content, length), Arrays.copyOfRange(content, length, content.length)))
+        {
+            LOG.warn("Ignoring compiled script file with invalid MAC: " + file);
+            return null;
+        }
+
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(content, 0, length)))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !environment.equals(in.readUTF()) ||
+                !mainClassName.equals(in.readUTF()))
+            {
+                return null;
+            }
+
+            final int count = in.readInt();
+            final Object[] classes = new Object[2 * count];
+            for (int i = 0; i < classes.length; i += 2)
+            {
+                classes[i] = in.readUTF();
+
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes[i + 1] = bytes;
+            }
+
+            return classes;
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            LOG.warn("Failed to read compiled script file: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the classes to the given file, followed by their MAC. Any error is logged only.
+     */
+    private static void write(final Path file, final SecretKeySpec macKey, final String environment, final String mainClassName,
+                              final Object[] classes)
+    {
+        try
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (final DataOutputStream out = new DataOutputStream(bytes))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(environment);
+                out.writeUTF(mainClassName);
+                out.writeInt(classes.length / 2);
+
+                for (int i = 0; i < classes.length; i += 2)
+                {
+                    final byte[] classBytes = (byte[]) classes[i + 1];
+
+                    out.writeUTF((String) classes[i]);
+                    out.writeInt(classBytes.length);
+                    out.write(classBytes);
+                }
+
+                out.write(computeMac(macKey, bytes.toByteArray(), bytes.size()));
+            }
+
+            final Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try
+            {
+                Files.write(tempFile, bytes.toByteArray());
+
+                try
+                {
+                    Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (final AtomicMoveNotSupportedException e)
+                {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        catch (final IOException e)
+        {
+            LOG.warn("Failed to write compiled script file: " + file, e);
+        }
+    }
+
+    /**
+     * An error reporter that ignores warnings and fails on errors, but does not log anything. Errors will be reported
+     * by the regular compilation later on.
+     */
+    private static final class FailingErrorReporter implements ErrorReporter
+    {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void warning(final String message, final String sourceName, final int line, final String lineSource,
+                            final int lineOffset)
+        {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void error(final String message, final String sourceName, final int line, final String lineSource, final int lineOffset)
+        {
+            throw runtimeError(message, sourceName, line, lineSource, lineOffset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public EvaluatorException runtimeError(final String message, final String sourceName, final int line, final String lineSource,
+                                               final int lineOffset)
+        {
+            return new EvaluatorException(message, sourceName, line, lineSource, lineOffset);
+        }
+    }
+}
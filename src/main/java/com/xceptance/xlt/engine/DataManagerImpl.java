@@ -15,6 +15,7 @@
  */
 package com.xceptance.xlt.engine;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -22,6 +23,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import com.xceptance.common.util.CsvUtils;
@@ -31,6 +33,7 @@ import com.xceptance.xlt.api.engine.EventData;
 import com.xceptance.xlt.api.engine.GlobalClock;
 import com.xceptance.xlt.api.engine.Session;
 import com.xceptance.xlt.api.util.XltLogger;
+import com.xceptance.xlt.api.util.XltProperties;
 import com.xceptance.xlt.common.XltConstants;
 import com.xceptance.xlt.engine.metrics.Metrics;
 
@@ -46,6 +49,11 @@ public class DataManagerImpl implements DataManager
      */
     private static final String LINE_SEPARATOR = System.lineSeparator();
 
+    /**
+     * The maximum time (in ms) data records may be held back in the binary timer writer before being written.
+     */
+    private static final long BINARY_MAX_BLOCK_AGE = 5_000L;
+
     /**
      * Whether or not logging is enabled.
      */
@@ -71,6 +79,34 @@ public class DataManagerImpl implements DataManager
      */
     private volatile BufferedWriter logger;
 
+    /**
+     * Logger responsible for logging the statistics to the binary timer file(s). Used instead of {@link #logger} if the
+     * binary timer file format is configured.
+     */
+    private volatile BinaryTimerWriter binaryLogger;
+
+    /**
+     * The timer file as known to the agent-wide {@link AsyncTimerWriter}. Used instead of the loggers above if the
+     * asynchronous writer mode is configured.
+     */
+    private volatile AsyncTimerWriter.Target asyncTarget;
+
+    /**
+     * The CSV timer file whose time bounds are tracked, or <code>null</code> if the bounds are unknown (see
+     * {@link TimerFileBounds}).
+     */
+    private volatile Path boundedTimerFile;
+
+    /**
+     * The time of the oldest data record in the CSV timer file.
+     */
+    private final AtomicLong minTime = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * The time of the youngest data record in the CSV timer file.
+     */
+    private final AtomicLong maxTime = new AtomicLong(Long.MIN_VALUE);
+
     /**
      * Our metrics provider.
      */
@@ -149,25 +185,57 @@ public class DataManagerImpl implements DataManager
         if (loggingEnabled && startOfLoggingPeriod <= time && time <= endOfLoggingPeriod)
         {
             // get the statistics logger, avoid the method call
-            final BufferedWriter timerWriter = logger != null ? logger : getTimerLogger();
+            BufferedWriter timerWriter = logger;
+            BinaryTimerWriter binaryTimerWriter = binaryLogger;
+            AsyncTimerWriter.Target target = asyncTarget;
 
-            // no statistics logger configured -> exit here
-            if (timerWriter == null)
+            if (timerWriter == null && binaryTimerWriter == null && target == null)
             {
-                return;
+                openTimerLogger();
+
+                timerWriter = logger;
+                binaryTimerWriter = binaryLogger;
+                target = asyncTarget;
+
+                // no statistics logger configured -> exit here
+                if (timerWriter == null && binaryTimerWriter == null && target == null)
+                {
+                    return;
+                }
+            }
+
+            // widen the time bounds before the record hits the file
+            if (boundedTimerFile != null)
+            {
+                minTime.accumulateAndGet(time, Math::min);
+                maxTime.accumulateAndGet(time, Math::max);
             }
 
             // write the log line
             try
             {
-                // convert the values to a CSV line 
-                final StringBuilder csv = CsvUtils.encode(stats.toList());
-                final StringBuilder s = removeLineSeparators(csv, ' ');
-                s.append(LINE_SEPARATOR);
-
-                // this safes us from synchronization, the writer is already synchronized
-                timerWriter.write(s.toString());
-                timerWriter.flush();
+                if (target != null)
+                {
+                    // take a snapshot of the values as the data object might be reused by the caller, the rest
+                    // happens on the writer thread
+                    AsyncTimerWriter.getInstance().submit(target, stats.toList(), time);
+                }
+                else if (binaryTimerWriter != null)
+                {
+                    // the binary writer is synchronized as well and encodes the record itself
+                    binaryTimerWriter.write(stats);
+                }
+                else
+                {
+                    // convert the values to a CSV line
+                    final StringBuilder csv = CsvUtils.encode(stats.toList());
+                    final StringBuilder s = removeLineSeparators(csv, ' ');
+                    s.append(LINE_SEPARATOR);
+
+                    // this safes us from synchronization, the writer is already synchronized
+                    timerWriter.write(s.toString());
+                    timerWriter.flush();
+                }
             }
             catch (final IOException ex)
             {
@@ -190,25 +258,17 @@ public class DataManagerImpl implements DataManager
     }
 
     /**
-     * Returns the output logger. The logger is created if necessary.
-     *
-     * @return the logger creating the timer output
+     * Creates the output logger, either the CSV or the binary one, depending on the configured timer file format.
      */
-    private BufferedWriter getTimerLogger()
+    private void openTimerLogger()
     {
-        // check if logger has already been initialized
-        if (logger != null)
-        {
-            return logger;
-        }
-
         // only one can create the logger
         synchronized (this)
         {
             // was someone else faster?
-            if (logger != null)
+            if (logger != null || binaryLogger != null || asyncTarget != null)
             {
-                return logger;
+                return;
             }
 
             // get the appropriate timer file
@@ -217,21 +277,110 @@ public class DataManagerImpl implements DataManager
             // creation of timer file has failed for any reason -> exit here
             if (file == null)
             {
-                return null;
+                return;
+            }
+
+            if (!isBinaryFormat())
+            {
+                startTrackingTimeBounds(file);
+            }
+
+            // the async writer opens the file on its own thread
+            if (AsyncTimerWriter.isEnabled())
+            {
+                asyncTarget = AsyncTimerWriter.getInstance().createTarget(file, isBinaryFormat());
+                return;
             }
 
             try
             {
                 // we append to an existing file
-                logger = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (isBinaryFormat())
+                {
+                    final BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                                                                                                     StandardOpenOption.APPEND),
+                                                                              64 * 1024);
+                    final BinaryTimerWriter binaryTimerWriter = new BinaryTimerWriter(out, BinaryTimerWriter.DEFAULT_BLOCK_SIZE,
+                                                                                      BINARY_MAX_BLOCK_AGE);
+
+                    // write pending records in time even if the session is idle for a while
+                    binaryTimerWriter.startAgeCheck();
+                    binaryLogger = binaryTimerWriter;
+                }
+                else
+                {
+                    logger = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
             }
             catch (IOException e)
             {
                 XltLogger.runTimeLogger.error("Cannot create writer for file: " + file.toString(), e);
             }
         }
+    }
 
-        return logger;
+    /**
+     * Starts tracking the time bounds of the given CSV timer file. Since the file is about to be appended to, any side
+     * file is removed right away and rewritten only when the file is closed properly. If the file holds data of unknown
+     * time bounds already, the bounds are not tracked at all.
+     *
+     * @param file
+     *            the timer file
+     */
+    private void startTrackingTimeBounds(final Path file)
+    {
+        boundedTimerFile = null;
+
+        try
+        {
+            final TimerFileBounds bounds = TimerFileBounds.read(file);
+            TimerFileBounds.delete(file);
+
+            if (bounds != null)
+            {
+                minTime.set(bounds.minTime);
+                maxTime.set(bounds.maxTime);
+            }
+            else if (Files.exists(file) && Files.size(file) > 0)
+            {
+                return;
+            }
+            else
+            {
+                minTime.set(Long.MAX_VALUE);
+                maxTime.set(Long.MIN_VALUE);
+            }
+
+            boundedTimerFile = file;
+        }
+        catch (final IOException e)
+        {
+            XltLogger.runTimeLogger.warn("Failed to prepare the time bounds of timer file: " + file, e);
+        }
+    }
+
+    /**
+     * Writes the time bounds of the CSV timer file, if known, to its side file.
+     */
+    private void writeTimeBounds()
+    {
+        final Path file = boundedTimerFile;
+        boundedTimerFile = null;
+
+        final long min = minTime.get();
+        final long max = maxTime.get();
+
+        if (file != null && min <= max)
+        {
+            try
+            {
+                new TimerFileBounds(min, max).write(file);
+            }
+            catch (final IOException e)
+            {
+                XltLogger.runTimeLogger.warn("Failed to write the time bounds of timer file: " + file, e);
+            }
+        }
     }
 
     /**
@@ -241,8 +390,8 @@ public class DataManagerImpl implements DataManager
      */
     Path getTimerFile()
     {
-        // create file handle for new file named 'timers.csv' rooted at the session's result directory
-        // will create the directory as well!
+        // create file handle for new file named 'timers.csv' (or 'timers.bin') rooted at the session's result
+        // directory, will create the directory as well!
         final Path dir = session.getResultsDirectory();
 
         if (dir == null)
@@ -250,19 +399,78 @@ public class DataManagerImpl implements DataManager
             throw new RuntimeException("Missing result dir, see previous exceptions.");
         }
 
-        final Path file = dir.resolve(XltConstants.TIMER_FILENAME);
+        final Path file = dir.resolve(isBinaryFormat() ? XltConstants.BINARY_TIMER_FILENAME : XltConstants.TIMER_FILENAME);
 
         return file;
     }
 
     /**
-     * Closes the timer logger and voids it. Any subsequent call to {@link #getTimerLogger()} will cause a new timer
+     * Returns whether the binary timer file format is configured.
+     *
+     * @return whether to write binary timer files
+     */
+    private static boolean isBinaryFormat()
+    {
+        return "binary".equalsIgnoreCase(XltProperties.getInstance().getProperty(XltConstants.PROP_TIMER_FILE_FORMAT, "csv"));
+    }
+
+    /**
+     * Closes the timer logger and voids it. Any subsequent call to {@link #logDataRecord(Data)} will cause a new timer
      * logger to be created.
      *
      * @return true if logger closes, false otherwise
      */
     public boolean close()
     {
+        final boolean closed = closeLoggers();
+
+        // the timer file is complete for now, so its time bounds are valid
+        if (closed)
+        {
+            writeTimeBounds();
+        }
+
+        return closed;
+    }
+
+    /**
+     * Closes and voids the timer loggers.
+     *
+     * @return true if the loggers were closed, false otherwise
+     */
+    private boolean closeLoggers()
+    {
+        if (asyncTarget != null)
+        {
+            var t = asyncTarget;
+            asyncTarget = null;
+
+            // waits until all pending records of this file are written
+            if (t != null && !AsyncTimerWriter.getInstance().close(t))
+            {
+                return false;
+            }
+        }
+
+        if (binaryLogger != null)
+        {
+            try
+            {
+                var l = binaryLogger;
+                binaryLogger = null;
+
+                // writes any pending block
+                if (l != null)
+                {
+                    l.close();
+                }
+            }
+            catch (IOException e)
+            {
+                return false;
+            }
+        }
+
         if (logger != null)
         {
             try
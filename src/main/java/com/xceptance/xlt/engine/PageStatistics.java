@@ -20,6 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.xceptance.xlt.engine.util.TestUserThreads;
 import com.xceptance.xlt.engine.util.TimerUtils;
 
 /**
@@ -45,7 +46,7 @@ public final class PageStatistics
      */
     public static PageStatistics getPageStatistics()
     {
-        final ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
+        final ThreadGroup threadGroup = TestUserThreads.getThreadGroup();
 
         PageStatistics stats = null;
         synchronized (threadGroup)
@@ -22,9 +22,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
 import com.xceptance.common.util.SynchronizingCounter;
-import com.xceptance.common.util.concurrent.DaemonThreadFactory;
 import com.xceptance.xlt.api.engine.Session;
 import com.xceptance.xlt.api.util.XltLogger;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 
 /**
  * The {@link RequestQueue} aids in managing the parallel download of resources. The goal is to better simulate the
@@ -81,7 +81,7 @@ public class RequestQueue
         this.threadCount = threadCount;
         parallelModeEnabled = true;
 
-        final ThreadFactory threadFactory = new DaemonThreadFactory(i -> Session.getCurrent().getUserID() + "-pool-" + i);
+        final ThreadFactory threadFactory = TestUserThreads.newThreadFactory(i -> Session.getCurrent().getUserID() + "-pool-" + i);
 
         executorService = Executors.newFixedThreadPool(threadCount, threadFactory);
         ongoingRequestsCount = new SynchronizingCounter(0);
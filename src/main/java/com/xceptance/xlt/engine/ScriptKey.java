@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Hex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * The key under which a compiled script is cached. It is a SHA-256 digest of the script source, so that multi-megabyte
+ * sources need to be hashed only once per compilation request and neither have to be compared character by character
+ * on each lookup nor be kept in memory as part of the key.
+ * <p>
+ * Since the same source string instance is typically compiled over and over again (once per page that includes the
+ * script), the key is remembered per string instance for as long as that instance is in use.
+ */
+public final class ScriptKey
+{
+    /**
+     * The digest algorithm to use.
+     */
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * The number of characters fed into the digest at once.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The keys already computed, per source string instance. Source strings are held weakly and compared by identity.
+     */
+    private static final Cache<String, ScriptKey> KEYS_BY_SOURCE = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * The digest of the script source.
+     */
+    private final byte[] digest;
+
+    /**
+     * The precomputed hash code.
+     */
+    private final int hashCode;
+
+    /**
+     * Constructor.
+     *
+     * @param digest
+     *            the digest of the script source
+     */
+    private ScriptKey(final byte[] digest)
+    {
+        this.digest = digest;
+        hashCode = Arrays.hashCode(digest);
+    }
+
+    /**
+     * Creates the key for the given script source.
+     *
+     * @param sourceCode
+     *            the script source
+     * @return the key
+     */
+    public static ScriptKey of(final String sourceCode)
+    {
+        ScriptKey key = KEYS_BY_SOURCE.getIfPresent(sourceCode);
+        if (key == null)
+        {
+            key = compute(sourceCode);
+            KEYS_BY_SOURCE.put(sourceCode, key);
+        }
+
+        return key;
+    }
+
+    /**
+     * Computes the key for the given script source.
+     *
+     * @param sourceCode
+     *            the script source
+     * @return the key
+     */
+    private static ScriptKey compute(final String sourceCode)
+    {
+        final MessageDigest messageDigest;
+        try
+        {
+            messageDigest = MessageDigest.getInstance(ALGORITHM);
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            // every JVM has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        // feed the UTF-16 code units in chunks to avoid encoding the whole source at once
+        final int length = sourceCode.length();
+        final char[] chars = new char[Math.min(length, CHUNK_SIZE)];
+        final byte[] bytes = new byte[2 * chars.length];
+
+        for (int start = 0; start < length; start += CHUNK_SIZE)
+        {
+            final int end = Math.min(start + CHUNK_SIZE, length);
+            sourceCode.getChars(start, end, chars, 0);
+
+            final int count = end - start;
+            for (int i = 0; i < count; i++)
+            {
+                bytes[2 * i] = (byte) (chars[i] >> 8);
+                bytes[2 * i + 1] = (byte) chars[i];
+            }
+
+            messageDigest.update(bytes, 0, 2 * count);
+        }
+
+        return new ScriptKey(messageDigest.digest());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj)
+    {
+        return this == obj || obj instanceof ScriptKey && Arrays.equals(digest, ((ScriptKey) obj).digest);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    /**
+     * Returns the digest as lower-case hex string.
+     */
+    @Override
+    public String toString()
+    {
+        return Hex.encodeHexString(digest);
+    }
+}
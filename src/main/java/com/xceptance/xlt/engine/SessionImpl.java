@@ -44,6 +44,7 @@ import com.xceptance.xlt.common.XltConstants;
 import com.xceptance.xlt.engine.metrics.Metrics;
 import com.xceptance.xlt.engine.resultbrowser.ActionInfo;
 import com.xceptance.xlt.engine.resultbrowser.RequestHistory;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 import com.xceptance.xlt.engine.util.TimerUtils;
 import com.xceptance.xlt.util.XltPropertiesImpl;
 
@@ -109,7 +110,7 @@ public class SessionImpl extends Session
      */
     public static SessionImpl removeCurrent()
     {
-        return sessions.remove(Thread.currentThread().getThreadGroup());
+        return sessions.remove(TestUserThreads.getThreadGroup());
     }
 
     /**
@@ -119,7 +120,7 @@ public class SessionImpl extends Session
      */
     public static SessionImpl getSessionForThread(final Thread thread)
     {
-        final ThreadGroup threadGroup = thread.getThreadGroup();
+        final ThreadGroup threadGroup = TestUserThreads.getThreadGroup(thread);
 
         if (threadGroup == null)
         {
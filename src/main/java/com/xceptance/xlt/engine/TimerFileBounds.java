@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The time range covered by the data records in a CSV timer file. The agent stores it in a small side file next to the
+ * timer file (<code>timers.csv.bounds</code>) once the timer file is closed, and removes it while the timer file is
+ * being appended to. This way, the report generator can skip whole timer files that lie outside the report period.
+ * <p>
+ * The side file holds a single line: <code>minTime,maxTime</code>.
+ */
+public final class TimerFileBounds
+{
+    /**
+     * The suffix appended to the name of the timer file to get the name of the side file.
+     */
+    public static final String FILE_SUFFIX = ".bounds";
+
+    /**
+     * The time of the oldest data record.
+     */
+    public final long minTime;
+
+    /**
+     * The time of the youngest data record.
+     */
+    public final long maxTime;
+
+    /**
+     * Constructor.
+     *
+     * @param minTime
+     *            the time of the oldest data record
+     * @param maxTime
+     *            the time of the youngest data record
+     */
+    public TimerFileBounds(final long minTime, final long maxTime)
+    {
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Checks whether the time range overlaps with the given period.
+     *
+     * @param fromTime
+     *            the start of the period
+     * @param toTime
+     *            the end of the period
+     * @return whether any data record might fall into the period
+     */
+    public boolean overlaps(final long fromTime, final long toTime)
+    {
+        return minTime <= toTime && maxTime >= fromTime;
+    }
+
+    /**
+     * Returns the name of the side file for the given timer file. Compressed timer files share the side file of the
+     * original file.
+     *
+     * @param timerFileName
+     *            the name of the timer file
+     * @return the name of the side file
+     */
+    public static String getFileName(final String timerFileName)
+    {
+        return StringUtils.removeEnd(timerFileName, ".gz") + FILE_SUFFIX;
+    }
+
+    /**
+     * Parses the content of a side file.
+     *
+     * @param s
+     *            the content
+     * @return the bounds, or <code>null</code> if the content is malformed
+     */
+    public static TimerFileBounds parse(final String s)
+    {
+        final String[] values = StringUtils.split(StringUtils.trimToEmpty(s), ',');
+        if (values.length == 2)
+        {
+            try
+            {
+                final long minTime = Long.parseLong(values[0]);
+                final long maxTime = Long.parseLong(values[1]);
+
+                if (minTime <= maxTime)
+                {
+                    return new TimerFileBounds(minTime, maxTime);
+                }
+            }
+            catch (final NumberFormatException e)
+            {
+                // fall through
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the side file of the given timer file.
+     *
+     * @param timerFile
+     *            the timer file
+     * @return the bounds, or <code>null</code> if there is no side file or it is malformed
+     * @throws IOException
+     *             if the side file could not be read
+     */
+    public static TimerFileBounds read(final Path timerFile) throws IOException
+    {
+        final Path file = getFile(timerFile);
+
+        return Files.exists(file) ? parse(Files.readString(file, StandardCharsets.UTF_8)) : null;
+    }
+
+    /**
+     * Writes these bounds to the side file of the given timer file.
+     *
+     * @param timerFile
+     *            the timer file
+     * @throws IOException
+     *             if the side file could not be written
+     */
+    public void write(final Path timerFile) throws IOException
+    {
+        Files.writeString(getFile(timerFile), toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes the side file of the given timer file, if any.
+     *
+     * @param timerFile
+     *            the timer file
+     * @throws IOException
+     *             if the side file could not be removed
+     */
+    public static void delete(final Path timerFile) throws IOException
+    {
+        Files.deleteIfExists(getFile(timerFile));
+    }
+
+    private static Path getFile(final Path timerFile)
+    {
+        return timerFile.resolveSibling(getFileName(timerFile.getFileName().toString()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return minTime + "," + maxTime;
+    }
+}
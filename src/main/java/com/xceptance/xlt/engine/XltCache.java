@@ -25,12 +25,14 @@ import org.htmlunit.cssparser.dom.CSSStyleSheetImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.xceptance.common.collection.ConcurrentLRUCache;
+import com.xceptance.common.collection.ConcurrentWeightedCache;
 
 /**
  * The {@link XltCache} class is a specialization of HtmlUnit's {@link Cache} class for compiled JavaScript and CSS
  * artifacts. In contrast to {@link Cache}, JavaScript pieces are always cached based on their source code (instead of
- * their URL) since this approach also covers in-line scripts.
+ * their URL) since this approach also covers in-line scripts. To keep lookups cheap, the key is a digest of the source
+ * code (see {@link ScriptKey}). Both caches are bounded by the estimated size of the cached artifacts instead of their
+ * number.
  * <p>
  * Note that some HtmlUnit classes had to be changed to allow for caching based on JavaScript sources.
  * 
@@ -51,7 +53,7 @@ public final class XltCache extends Cache
     /**
      * The CSS cache, a mapping from request URLs or source code strings to compiled style sheets.
      */
-    private final ConcurrentLRUCache<String, CSSStyleSheetImpl> cssCache;
+    private final ConcurrentWeightedCache<String, CSSStyleSheetImpl> cssCache;
 
     /**
      * The number of CSS cache hits.
@@ -64,9 +66,14 @@ public final class XltCache extends Cache
     private final AtomicInteger cssReads = new AtomicInteger();
 
     /**
-     * The JS cache, a mapping from request URLs or source code strings to compiled scripts.
+     * The estimated size of a compiled artifact whose size is unknown.
      */
-    private final ConcurrentLRUCache<String, Script> jsCache;
+    private static final long DEFAULT_ARTIFACT_SIZE = 1024;
+
+    /**
+     * The JS cache, a mapping from request URLs or source code keys to compiled scripts.
+     */
+    private final ConcurrentWeightedCache<Object, Script> jsCache;
 
     /**
      * The number of JS cache hits.
@@ -81,16 +88,16 @@ public final class XltCache extends Cache
     /**
      * Creates a new combined cache using the given sizes.
      * 
-     * @param jsCacheSize
-     *            size of the JavaScript cache
-     * @param cssCacheSize
-     *            size of the CSS cache
+     * @param jsCacheMaxBytes
+     *            the maximum total size of the compiled scripts in the JavaScript cache in bytes
+     * @param cssCacheMaxBytes
+     *            the maximum total size of the compiled style sheets in the CSS cache in bytes
      */
-    public XltCache(final int jsCacheSize, final int cssCacheSize)
+    public XltCache(final long jsCacheMaxBytes, final long cssCacheMaxBytes)
     {
-        // use synchronized maps since the cache may be used concurrently
-        cssCache = new ConcurrentLRUCache<>(cssCacheSize);
-        jsCache = new ConcurrentLRUCache<>(jsCacheSize);
+        // use concurrent caches since the cache may be used concurrently
+        cssCache = new ConcurrentWeightedCache<>(cssCacheMaxBytes, CacheStatisticsRegistry.get("CSS"));
+        jsCache = new ConcurrentWeightedCache<>(jsCacheMaxBytes, CacheStatisticsRegistry.get("JS"));
 
         // reduce the super class's memory demands, we do everything on our own
         super.setMaxSize(0);
@@ -102,20 +109,21 @@ public final class XltCache extends Cache
     @Override
     public void cache(final String css, final CSSStyleSheetImpl styleSheet)
     {
-        cssCache.put(css, styleSheet);
+        // estimate the size of the style sheet by the size of its source
+        cssCache.put(css, styleSheet, 2L * css.length());
     }
 
     /**
-     * Caches the compiled script with the script source as the key.
+     * Caches the compiled script with the key of the script source as the key.
      * 
-     * @param scriptSource
-     *            the script source
+     * @param scriptKey
+     *            the key of the script source
      * @param script
      *            the compiled script
      */
-    public void cache(final String scriptSource, final Script script)
+    public void cache(final ScriptKey scriptKey, final Script script)
     {
-        jsCache.put(scriptSource, script);
+        jsCache.put(scriptKey, script, getSize(script));
     }
 
     /**
@@ -130,12 +138,12 @@ public final class XltCache extends Cache
             final String requestUrl = request.getUrl().toString();
             if (object instanceof CSSStyleSheetImpl)
             {
-                cssCache.put(requestUrl, (CSSStyleSheetImpl) object);
+                cssCache.put(requestUrl, (CSSStyleSheetImpl) object, Math.max(2 * response.getContentLength(), DEFAULT_ARTIFACT_SIZE));
                 storedInCache = true;
             }
             else if (object instanceof Script)
             {
-                jsCache.put(requestUrl, (Script) object);
+                jsCache.put(requestUrl, (Script) object, getSize((Script) object));
                 storedInCache = true;
             }
         }
@@ -153,15 +161,15 @@ public final class XltCache extends Cache
     }
 
     /**
-     * Returns the compiled script for the passed script source.
+     * Returns the compiled script for the passed key of the script source.
      * 
-     * @param scriptSource
-     *            the script source
+     * @param scriptKey
+     *            the key of the script source
      * @return the compiled script, or <code>null</code> if none was in the cache
      */
-    public Script getCachedScript(final String scriptSource)
+    public Script getCachedScript(final ScriptKey scriptKey)
     {
-        final Script script = jsCache.get(scriptSource);
+        final Script script = jsCache.get(scriptKey);
         onJSCacheAccess(script != null);
 
         return script;
@@ -244,6 +252,16 @@ public final class XltCache extends Cache
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the estimated memory footprint of the given script.
+     */
+    private static long getSize(final Script script)
+    {
+        final long size = script instanceof XltScript ? ((XltScript) script).getSize() : 0;
+
+        return size > 0 ? size : DEFAULT_ARTIFACT_SIZE;
+    }
+
     protected void onCSSCacheAccess(final boolean cacheHit)
     {
         final int reads = cssReads.incrementAndGet();
@@ -272,11 +290,13 @@ public final class XltCache extends Cache
         if (reads % 1000 == 0)
         {
             final int size = jsCache.size();
+            final long bytes = jsCache.weight();
             final double ratio = (double) hits / reads;
 
             if (LOG.isInfoEnabled())
             {
-                LOG.info(String.format("JS cache statistics: size = %d / hits = %d / reads = %d / ratio = %.2f", size, hits, reads, ratio));
+                LOG.info(String.format("JS cache statistics: size = %d / bytes = %d / hits = %d / reads = %d / ratio = %.2f", size, bytes,
+                                       hits, reads, ratio));
             }
         }
     }
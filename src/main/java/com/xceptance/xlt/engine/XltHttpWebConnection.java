@@ -358,6 +358,7 @@ public class XltHttpWebConnection extends CachingHttpWebConnection
             requestData.setTimeToFirstBytes(socketStats.getTimeToFirstBytes());
             requestData.setTimeToLastBytes(socketStats.getTimeToLastBytes());
             requestData.setDnsTime(socketStats.getDnsLookupTime());
+            requestData.setTlsHandshakeTime(socketStats.getTlsHandshakeTime());
 
             // IP address info (all available and the used one)
             final DnsInfo dnsInfo = requestExecutionContext.getDnsMonitor().getDnsInfo();
@@ -36,7 +36,8 @@ import com.xceptance.xlt.api.engine.Session;
 /**
  * The {@link XltJavaScriptEngine} class is a specialization of HtmlUnit's {@link JavaScriptEngine}, which allows for
  * setting the optimization level to use when compiling JS snippets. Additionally, it measures the time taken to compile
- * and execute JS code.
+ * and execute JS code. In compiled mode, the generated classes may optionally be kept on disk, so that scripts need
+ * not be compiled again after an agent restart (see {@link CompiledScriptStore}).
  * 
  * @author Jörg Werner (Xceptance Software Technologies GmbH)
  */
@@ -57,6 +58,11 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
      */
     private final boolean takeMeasurements;
 
+    /**
+     * The store for the classes of compiled scripts, or <code>null</code> if scripts are not to be stored.
+     */
+    private final CompiledScriptStore compiledScriptStore;
+
     static
     {
         BackgroundJavaScriptFactory.setFactory(new XltBackgroundJavaScriptFactory());
@@ -73,11 +79,30 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
      *            whether or not to take measurements
      */
     public XltJavaScriptEngine(final WebClient webClient, final int optimizationLevel, final boolean takeMeasurements)
+    {
+        this(webClient, optimizationLevel, takeMeasurements, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param webClient
+     *            the web client
+     * @param optimizationLevel
+     *            the optimization level to use when compiling JS snippets
+     * @param takeMeasurements
+     *            whether or not to take measurements
+     * @param compiledScriptStore
+     *            the store for the classes of compiled scripts (may be <code>null</code>), used in compiled mode only
+     */
+    public XltJavaScriptEngine(final WebClient webClient, final int optimizationLevel, final boolean takeMeasurements,
+                               final CompiledScriptStore compiledScriptStore)
     {
         super(webClient);
 
         contextFactory = new XltContextFactory(webClient, optimizationLevel);
         this.takeMeasurements = takeMeasurements;
+        this.compiledScriptStore = optimizationLevel >= 0 ? compiledScriptStore : null;
     }
 
     /**
@@ -133,21 +158,24 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
         {
             final XltCache xltCache = (XltCache) cache;
 
-            script = xltCache.getCachedScript(sourceCode);
+            // the source is hashed only once per source string instance
+            final ScriptKey scriptKey = ScriptKey.of(sourceCode);
+
+            script = xltCache.getCachedScript(scriptKey);
             if (script == null)
             {
                 final String sourceFileName = getSourceFileName(sourceName, sourceCode);
 
-                script = compileScript(htmlPage, sourceCode, sourceName, startLine, sourceFileName);
+                script = compileScript(htmlPage, scriptKey, sourceCode, sourceName, startLine, sourceFileName);
 
                 // script can be null
                 if (script != null)
                 {
-                    // wrap the script and attach more information
-                    script = new XltScript(script, sourceFileName);
+                    // wrap the script and attach more information, estimate its size by the size of its source
+                    script = new XltScript(script, sourceFileName, 2L * sourceCode.length());
 
                     // finally put it in the cache
-                    xltCache.cache(sourceCode, script);
+                    xltCache.cache(scriptKey, script);
                 }
             }
         }
@@ -155,7 +183,7 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
         {
             // someone messed around with our XltCache so we have to compile the script each time
             final String sourceFileName = getSourceFileName(sourceName, sourceCode);
-            script = compileScript(htmlPage, sourceCode, sourceName, startLine, sourceFileName);
+            script = compileScript(htmlPage, null, sourceCode, sourceName, startLine, sourceFileName);
         }
 
         return script;
@@ -214,6 +242,8 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
      * 
      * @param htmlPage
      *            the page that the code will execute within
+     * @param scriptKey
+     *            the key of the source code (may be <code>null</code>)
      * @param sourceCode
      *            the JavaScript code to execute
      * @param sourceName
@@ -224,8 +254,8 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
      *            the source file name to use for logging
      * @return the generated script
      */
-    private Script compileScript(final HtmlPage htmlPage, final String sourceCode, final String sourceName, final int startLine,
-                                 final String sourceFileName)
+    private Script compileScript(final HtmlPage htmlPage, final ScriptKey scriptKey, final String sourceCode, final String sourceName,
+                                 final int startLine, final String sourceFileName)
     {
         final Script script;
 
@@ -236,7 +266,7 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
 
             try
             {
-                script = super.compile(htmlPage, sourceCode, sourceName, startLine);
+                script = doCompileScript(htmlPage, scriptKey, sourceCode, sourceName, startLine);
             }
             catch (final RuntimeException e)
             {
@@ -259,12 +289,44 @@ public final class XltJavaScriptEngine extends JavaScriptEngine
         }
         else
         {
-            script = super.compile(htmlPage, sourceCode, sourceName, startLine);
+            script = doCompileScript(htmlPage, scriptKey, sourceCode, sourceName, startLine);
         }
 
         return script;
     }
 
+    /**
+     * Compiles the given source code to a script, reusing the classes of a previous compilation if possible.
+     * 
+     * @param htmlPage
+     *            the page that the code will execute within
+     * @param scriptKey
+     *            the key of the source code (may be <code>null</code>)
+     * @param sourceCode
+     *            the JavaScript code to execute
+     * @param sourceName
+     *            the name that will be displayed on error conditions
+     * @param startLine
+     *            the line at which the script source starts
+     * @return the generated script
+     */
+    private Script doCompileScript(final HtmlPage htmlPage, final ScriptKey scriptKey, final String sourceCode, final String sourceName,
+                                   final int startLine)
+    {
+        if (compiledScriptStore != null && scriptKey != null)
+        {
+            final Script script = contextFactory.call(cx -> compiledScriptStore.getScript(cx, scriptKey, sourceCode, sourceName,
+                                                                                          startLine));
+            if (script != null)
+            {
+                return script;
+            }
+        }
+
+        // let HtmlUnit compile the script and report errors if any
+        return super.compile(htmlPage, sourceCode, sourceName, startLine);
+    }
+
     /**
      * Determines the name of the passed function.
      * 
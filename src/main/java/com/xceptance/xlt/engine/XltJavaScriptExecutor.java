@@ -19,9 +19,11 @@ import org.htmlunit.WebClient;
 import org.htmlunit.javascript.background.DefaultJavaScriptExecutor;
 
 import com.xceptance.xlt.api.engine.Session;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 
 /**
- * Specialization of {@link DefaultJavaScriptExecutor} that renames the executing thread to the session's user ID.
+ * Specialization of {@link DefaultJavaScriptExecutor} that renames the executing thread to the session's user ID and
+ * runs it as a virtual thread if so configured.
  * 
  * @author Hartmut Arlt (Xceptance Software Technologies GmbH)
  */
@@ -35,6 +37,15 @@ public class XltJavaScriptExecutor extends DefaultJavaScriptExecutor
         super(webClient);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Thread newThread(final String name)
+    {
+        return TestUserThreads.newThread(name, this);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -36,6 +36,11 @@ public final class XltScript implements Script
      */
     private final String sourceName;
 
+    /**
+     * The estimated memory footprint of the wrapped script in bytes.
+     */
+    private final long size;
+
     /**
      * Constructor.
      * 
@@ -45,9 +50,25 @@ public final class XltScript implements Script
      *            the source name associated with the wrapped script
      */
     public XltScript(final Script script, final String sourceName)
+    {
+        this(script, sourceName, 0);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param script
+     *            the wrapped script
+     * @param sourceName
+     *            the source name associated with the wrapped script
+     * @param size
+     *            the estimated memory footprint of the wrapped script in bytes
+     */
+    public XltScript(final Script script, final String sourceName, final long size)
     {
         this.script = script;
         this.sourceName = sourceName;
+        this.size = size;
     }
 
     /**
@@ -79,6 +100,16 @@ public final class XltScript implements Script
         return sourceName;
     }
 
+    /**
+     * Returns the estimated memory footprint of the wrapped script in bytes.
+     * 
+     * @return the size
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
     /**
      * {@inheritDoc}
      */
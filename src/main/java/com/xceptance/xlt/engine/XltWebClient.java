@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -76,7 +77,6 @@ import org.htmlunit.javascript.host.css.StyleSheetList;
 import org.htmlunit.javascript.host.html.HTMLDocument;
 import org.htmlunit.util.UrlUtils;
 
-import com.xceptance.common.collection.ConcurrentLRUCache;
 import com.xceptance.common.util.ProductInformation;
 import com.xceptance.common.util.RegExUtils;
 import com.xceptance.common.util.StringMatcher;
@@ -131,6 +131,12 @@ public class XltWebClient extends WebClient implements SessionShutdownListener,
      */
     private static final XltCache globalCache;
 
+    /**
+     * The global store for the classes of compiled scripts, or <code>null</code> if not configured. The store is shared
+     * among all {@link XltWebClient} instances.
+     */
+    private static final CompiledScriptStore compiledScriptStore;
+
     /**
      * The global cache for key and trust stores. The cache is shared among all {@link XltWebClient} instances.
      */
@@ -210,29 +216,50 @@ public class XltWebClient extends WebClient implements SessionShutdownListener,
 
         final XltProperties props = XltProperties.getInstance();
 
+        // the caches are bounded by size now, entry counts cannot be mapped to that
+        warnAboutReplacedProperty(props, "com.xceptance.xlt.js.cache.size", "com.xceptance.xlt.js.cache.maxSize");
+        warnAboutReplacedProperty(props, "com.xceptance.xlt.css.cache.size", "com.xceptance.xlt.css.cache.maxSize");
+        warnAboutReplacedProperty(props, "com.xceptance.xlt.staticContentCache.size", "com.xceptance.xlt.staticContentCache.maxSize");
+
         // setup the global cache
-        final String logMsgFormat = "Specified size of %s cache is lower than the minimum size of '%d'. Will use the minimum size.";
-        int jsCacheSize = props.getProperty("com.xceptance.xlt.js.cache.size", 100);
-        if (jsCacheSize < ConcurrentLRUCache.MIN_SIZE)
+        final String logMsgFormat = "Specified size of %s cache is lower than the minimum size of %d MB. Will use the minimum size.";
+        int jsCacheMaxSize = props.getProperty("com.xceptance.xlt.js.cache.maxSize", 100);
+        if (jsCacheMaxSize < 1)
         {
             if (XltLogger.runTimeLogger.isWarnEnabled())
             {
-                XltLogger.runTimeLogger.warn(String.format(logMsgFormat, "JS", ConcurrentLRUCache.MIN_SIZE));
+                XltLogger.runTimeLogger.warn(String.format(logMsgFormat, "JS", 1));
             }
         }
-        jsCacheSize = Math.max(jsCacheSize, ConcurrentLRUCache.MIN_SIZE);
+        jsCacheMaxSize = Math.max(jsCacheMaxSize, 1);
 
-        int cssCacheSize = props.getProperty("com.xceptance.xlt.css.cache.size", 100);
-        if (cssCacheSize < ConcurrentLRUCache.MIN_SIZE)
+        int cssCacheMaxSize = props.getProperty("com.xceptance.xlt.css.cache.maxSize", 20);
+        if (cssCacheMaxSize < 1)
         {
             if (XltLogger.runTimeLogger.isWarnEnabled())
             {
-                XltLogger.runTimeLogger.warn(String.format(logMsgFormat, "CSS", ConcurrentLRUCache.MIN_SIZE));
+                XltLogger.runTimeLogger.warn(String.format(logMsgFormat, "CSS", 1));
             }
         }
-        cssCacheSize = Math.max(cssCacheSize, ConcurrentLRUCache.MIN_SIZE);
+        cssCacheMaxSize = Math.max(cssCacheMaxSize, 1);
+
+        globalCache = new XltCache(jsCacheMaxSize * 1024L * 1024L, cssCacheMaxSize * 1024L * 1024L);
 
-        globalCache = new XltCache(jsCacheSize, cssCacheSize);
+        // setup the global store for compiled scripts
+        final String compiledScriptDirectory = props.getProperty("com.xceptance.xlt.js.cache.directory", "").trim();
+        CompiledScriptStore store = null;
+        if (compiledScriptDirectory.length() > 0)
+        {
+            try
+            {
+                store = new CompiledScriptStore(Paths.get(compiledScriptDirectory));
+            }
+            catch (final Exception e)
+            {
+                XltLogger.runTimeLogger.warn("Failed to set up the directory for compiled scripts. Will compile all scripts anew.", e);
+            }
+        }
+        compiledScriptStore = store;
         storeCache = new ConcurrentHashMap<>();
 
         // configure the XPath engine to use
@@ -326,7 +353,7 @@ public class XltWebClient extends WebClient implements SessionShutdownListener,
 
             final boolean takeMeasurements = props.getProperty("com.xceptance.xlt.js.takeMeasurements", false);
 
-            setJavaScriptEngine(new XltJavaScriptEngine(this, optimizationLevel, takeMeasurements));
+            setJavaScriptEngine(new XltJavaScriptEngine(this, optimizationLevel, takeMeasurements, compiledScriptStore));
             getOptions().setJavaScriptEnabled(props.getProperty("com.xceptance.xlt.javaScriptEnabled", false));
             getOptions().setThrowExceptionOnScriptError(props.getProperty("com.xceptance.xlt.stopTestOnJavaScriptErrors", false));
 
@@ -1074,6 +1101,25 @@ public class XltWebClient extends WebClient implements SessionShutdownListener,
         super.download(requestingWindow, target, request, checkHash, forceLoad, forceAttachment, description);
     }
 
+    /**
+     * Logs a warning if the given property, which is not supported anymore, is still configured.
+     *
+     * @param props
+     *            the properties
+     * @param oldKey
+     *            the key of the property not supported anymore
+     * @param newKey
+     *            the key of the property to use instead
+     */
+    private static void warnAboutReplacedProperty(final XltProperties props, final String oldKey, final String newKey)
+    {
+        if (props.containsKey(oldKey))
+        {
+            XltLogger.runTimeLogger.warn(String.format("Property '%s' is not supported anymore and will be ignored. " +
+                                                       "Use '%s' instead, which specifies the cache size in MB.", oldKey, newKey));
+        }
+    }
+
     /**
      * Resolves the given collection of relative URL strings to absolute URLs using the given base URL.
      *
@@ -90,15 +90,26 @@ class DnsJavaHostNameResolver implements HostNameResolver
      */
     @Override
     public InetAddress[] resolve(final String name) throws UnknownHostException
+    {
+        return resolveWithTtl(name).addresses;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The time-to-live is the smallest TTL of all the address records found.
+     */
+    @Override
+    public HostNameResolution resolveWithTtl(final String name) throws UnknownHostException
     {
         try
         {
             final InetAddress addr = Address.getByAddress(name);
 
-            return new InetAddress[]
+            return new HostNameResolution(new InetAddress[]
                 {
                     addr
-                };
+                }, HostNameResolution.UNKNOWN_TTL);
         }
         catch (final UnknownHostException e)
         {
@@ -109,17 +120,19 @@ class DnsJavaHostNameResolver implements HostNameResolver
     /**
      * Looks up all addresses for the given host name.
      */
-    private InetAddress[] lookupAddressesByHostName(final String name) throws UnknownHostException
+    private HostNameResolution lookupAddressesByHostName(final String name) throws UnknownHostException
     {
         final Record[] records = lookupRecordsByHostName(name);
 
         final InetAddress[] addrs = new InetAddress[records.length];
+        long ttl = Long.MAX_VALUE;
         for (int i = 0; i < records.length; i++)
         {
             addrs[i] = addressFromRecord(name, records[i]);
+            ttl = Math.min(ttl, records[i].getTTL());
         }
 
-        return addrs;
+        return new HostNameResolution(addrs, records.length == 0 ? HostNameResolution.UNKNOWN_TTL : ttl);
     }
 
     /**
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.dns;
+
+import java.net.InetAddress;
+
+/**
+ * The result of a host name resolution: the addresses found and the time they may be cached.
+ */
+final class HostNameResolution
+{
+    /**
+     * The value to use if the time-to-live is not known.
+     */
+    static final long UNKNOWN_TTL = -1;
+
+    /**
+     * The resolved addresses.
+     */
+    final InetAddress[] addresses;
+
+    /**
+     * The time-to-live [s] of the addresses, or {@link #UNKNOWN_TTL}.
+     */
+    final long ttl;
+
+    /**
+     * Constructor.
+     *
+     * @param addresses
+     *            the resolved addresses
+     * @param ttl
+     *            the time-to-live [s] of the addresses, or {@link #UNKNOWN_TTL}
+     */
+    HostNameResolution(final InetAddress[] addresses, final long ttl)
+    {
+        this.addresses = addresses;
+        this.ttl = ttl;
+    }
+}
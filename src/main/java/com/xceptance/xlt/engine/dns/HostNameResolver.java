@@ -33,4 +33,18 @@ interface HostNameResolver
      *                if the host name does not have any addresses
      */
     public InetAddress[] resolve(final String host) throws UnknownHostException;
+
+    /**
+     * Determines all IP addresses for the given host name together with the time they may be cached.
+     *
+     * @param host
+     *            the host name to look up
+     * @return all known IP addresses and their time-to-live, which is unknown by default
+     * @exception UnknownHostException
+     *                if the host name does not have any addresses
+     */
+    public default HostNameResolution resolveWithTtl(final String host) throws UnknownHostException
+    {
+        return new HostNameResolution(resolve(host), HostNameResolution.UNKNOWN_TTL);
+    }
 }
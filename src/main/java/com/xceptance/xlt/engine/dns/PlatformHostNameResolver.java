@@ -31,6 +31,11 @@ class PlatformHostNameResolver implements HostNameResolver
 
     private static final String PROP_PREFIX = XltDnsResolver.PROP_PREFIX_DNS_PROVIDERS + PROVIDER_NAME + ".";
 
+    /**
+     * The lifetime [s] of entries in Java's global address resolution cache.
+     */
+    private static final int CACHE_DURATION;
+
     static
     {
         /*
@@ -38,9 +43,9 @@ class PlatformHostNameResolver implements HostNameResolver
          */
         final XltProperties props = XltProperties.getInstance();
 
-        final int duration = props.getProperty(PROP_PREFIX + "cache.duration", 30);
+        CACHE_DURATION = props.getProperty(PROP_PREFIX + "cache.duration", 30);
 
-        Security.setProperty("networkaddress.cache.ttl", String.valueOf(duration));
+        Security.setProperty("networkaddress.cache.ttl", String.valueOf(CACHE_DURATION));
         // Security.setProperty("networkaddress.cache.negative.ttl", "10");
     }
 
@@ -52,4 +57,16 @@ class PlatformHostNameResolver implements HostNameResolver
     {
         return InetAddress.getAllByName(host);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The platform does not expose the TTLs of DNS records, so the lifetime of entries in Java's global address
+     * resolution cache is used instead.
+     */
+    @Override
+    public HostNameResolution resolveWithTtl(final String host) throws UnknownHostException
+    {
+        return new HostNameResolution(resolve(host), CACHE_DURATION);
+    }
 }
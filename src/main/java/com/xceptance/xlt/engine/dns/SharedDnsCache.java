@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An address resolution cache shared by all the virtual users of an agent. Entries expire according to the TTL
+ * reported by the underlying resolver, clamped to a configurable range. Concurrent lookups of the same host name while
+ * no valid entry is available are coalesced into a single query. Optionally, entries in use are refreshed in the
+ * background shortly before they expire, so virtual users neither wait for the query nor use stale addresses.
+ */
+class SharedDnsCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SharedDnsCache.class);
+
+    /**
+     * The maximum number of entries. If exceeded, expired entries are purged, and if this does not help, the cache is
+     * emptied.
+     */
+    static final int MAX_ENTRIES = 10_000;
+
+    /**
+     * The part of its lifetime after which an entry is refreshed in the background when used, if prefetching is on.
+     */
+    private static final double PREFETCH_THRESHOLD = 0.9;
+
+    /**
+     * A cache entry.
+     */
+    private static final class Entry
+    {
+        /**
+         * The resolved addresses.
+         */
+        final InetAddress[] addresses;
+
+        /**
+         * The time after which the entry must not be used any longer.
+         */
+        final long expirationTime;
+
+        /**
+         * The time after which the entry is refreshed in the background.
+         */
+        final long prefetchTime;
+
+        /**
+         * Whether a background refresh was triggered already.
+         */
+        final AtomicBoolean prefetching = new AtomicBoolean();
+
+        Entry(final InetAddress[] addresses, final long now, final long ttlMs)
+        {
+            this.addresses = addresses;
+            expirationTime = now + ttlMs;
+            prefetchTime = now + (long) (ttlMs * PREFETCH_THRESHOLD);
+        }
+    }
+
+    /**
+     * The cached entries keyed by host name.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The lookups in progress keyed by host name.
+     */
+    private final Map<String, CompletableFuture<Entry>> lookups = new ConcurrentHashMap<>();
+
+    /**
+     * The minimum time [ms] an entry is kept.
+     */
+    private final long minTtl;
+
+    /**
+     * The maximum time [ms] an entry is kept. Also used if the TTL is unknown.
+     */
+    private final long maxTtl;
+
+    /**
+     * The executor for background refreshes, or <code>null</code> if prefetching is off.
+     */
+    private final Executor prefetchExecutor;
+
+    /**
+     * The source of the current time [ms].
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Constructor.
+     *
+     * @param minTtl
+     *            the minimum time [s] an entry is kept
+     * @param maxTtl
+     *            the maximum time [s] an entry is kept, also used if the TTL is unknown
+     * @param prefetchExecutor
+     *            the executor for background refreshes, or <code>null</code> to disable prefetching
+     * @param clock
+     *            the source of the current time [ms]
+     */
+    SharedDnsCache(final long minTtl, final long maxTtl, final Executor prefetchExecutor, final LongSupplier clock)
+    {
+        this.minTtl = Math.max(0, minTtl) * 1000;
+        this.maxTtl = Math.max(this.minTtl, maxTtl * 1000);
+        this.prefetchExecutor = prefetchExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached addresses for the given host name, if still valid. Triggers a background refresh if the entry
+     * is about to expire.
+     *
+     * @param host
+     *            the host name
+     * @param resolver
+     *            the resolver to use for a background refresh
+     * @return a copy of the addresses, or <code>null</code> if there is no valid entry
+     */
+    InetAddress[] get(final String host, final HostNameResolver resolver)
+    {
+        final Entry entry = entries.get(host);
+        if (entry == null)
+        {
+            return null;
+        }
+
+        final long now = clock.getAsLong();
+        if (now >= entry.expirationTime)
+        {
+            return null;
+        }
+
+        if (prefetchExecutor != null && now >= entry.prefetchTime && entry.prefetching.compareAndSet(false, true))
+        {
+            prefetch(host, resolver);
+        }
+
+        return entry.addresses.clone();
+    }
+
+    /**
+     * Resolves the given host name and caches the result. If another thread is resolving the same host name already,
+     * its result is awaited and shared instead.
+     *
+     * @param host
+     *            the host name
+     * @param resolver
+     *            the resolver to use
+     * @return a copy of the addresses
+     * @throws UnknownHostException
+     *             if the host name could not be resolved
+     */
+    InetAddress[] resolve(final String host, final HostNameResolver resolver) throws UnknownHostException
+    {
+        final CompletableFuture<Entry> lookup = new CompletableFuture<>();
+        final CompletableFuture<Entry> runningLookup = lookups.putIfAbsent(host, lookup);
+
+        if (runningLookup != null)
+        {
+            // someone else is querying already
+            return await(host, runningLookup).addresses.clone();
+        }
+
+        try
+        {
+            // the previous lookup might have finished just before we took over
+            Entry entry = entries.get(host);
+            if (entry == null || clock.getAsLong() >= entry.expirationTime)
+            {
+                entry = lookup(host, resolver);
+            }
+            lookup.complete(entry);
+
+            return entry.addresses.clone();
+        }
+        catch (final UnknownHostException | RuntimeException e)
+        {
+            lookup.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            lookups.remove(host, lookup);
+        }
+    }
+
+    /**
+     * Waits for the given lookup to finish.
+     */
+    private static Entry await(final String host, final CompletableFuture<Entry> lookup) throws UnknownHostException
+    {
+        try
+        {
+            return lookup.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(host);
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException)
+            {
+                // create a new exception as exceptions must not be shared between threads
+                final UnknownHostException ex = new UnknownHostException(cause.getMessage());
+                ex.initCause(cause);
+                throw ex;
+            }
+
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Queries the resolver and caches the result.
+     */
+    private Entry lookup(final String host, final HostNameResolver resolver) throws UnknownHostException
+    {
+        final HostNameResolution resolution = resolver.resolveWithTtl(host);
+
+        final long ttl = resolution.ttl < 0 ? maxTtl : Math.min(maxTtl, Math.max(minTtl, resolution.ttl * 1000));
+        final Entry entry = new Entry(resolution.addresses, clock.getAsLong(), ttl);
+
+        if (entries.size() >= MAX_ENTRIES)
+        {
+            purge();
+        }
+        entries.put(host, entry);
+
+        return entry;
+    }
+
+    /**
+     * Refreshes the entry for the given host name in the background. The refresh takes part in lookup coalescing, so it
+     * is skipped if a lookup is in progress already, and lookups started in the meantime wait for its result.
+     */
+    private void prefetch(final String host, final HostNameResolver resolver)
+    {
+        prefetchExecutor.execute(() -> {
+            final CompletableFuture<Entry> lookup = new CompletableFuture<>();
+            if (lookups.putIfAbsent(host, lookup) != null)
+            {
+                // someone else is querying already
+                return;
+            }
+
+            try
+            {
+                lookup.complete(lookup(host, resolver));
+            }
+            catch (final Exception e)
+            {
+                lookup.completeExceptionally(e);
+
+                // keep the current entry until it expires
+                LOG.debug("Failed to refresh addresses for host: " + host, e);
+            }
+            finally
+            {
+                lookups.remove(host, lookup);
+            }
+        });
+    }
+
+    /**
+     * Removes the expired entries, or all entries if none has expired yet.
+     */
+    private void purge()
+    {
+        final long now = clock.getAsLong();
+        entries.values().removeIf(e -> now >= e.expirationTime);
+
+        if (entries.size() >= MAX_ENTRIES)
+        {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries, including expired ones.
+     *
+     * @return the number of entries
+     */
+    int size()
+    {
+        return entries.size();
+    }
+}
@@ -23,12 +23,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.xceptance.common.util.concurrent.DaemonThreadFactory;
 import com.xceptance.xlt.api.util.XltException;
 import com.xceptance.xlt.api.util.XltProperties;
 import com.xceptance.xlt.api.util.XltRandom;
@@ -38,8 +40,8 @@ import com.xceptance.xlt.engine.socket.SocketMonitor;
 /**
  * A meta host name resolver that may use alternative {@link HostNameResolver} implementations for the actual work. This
  * class adds a layer on top of the underlying resolver that allows to cache address resolutions for the current virtual
- * user and to measure address resolution time. In case a host name is resolved to multiple addresses, the layer may
- * also shuffle the list of addresses for a better load distribution.
+ * user or for all virtual users of the agent and to measure address resolution time. In case a host name is resolved to
+ * multiple addresses, the layer may also shuffle the list of addresses for a better load distribution.
  *
  * @see PlatformHostNameResolver
  * @see DnsJavaHostNameResolver
@@ -58,6 +60,16 @@ public class XltDnsResolver implements HostNameResolver
 
     private static final String PROP_CACHE_ADDRESSES = PROP_PREFIX_DNS + "cacheAddresses";
 
+    private static final String PROP_PREFIX_SHARED_CACHE = PROP_PREFIX_DNS + "sharedCache.";
+
+    private static final String PROP_SHARED_CACHE_ENABLED = PROP_PREFIX_SHARED_CACHE + "enabled";
+
+    private static final String PROP_SHARED_CACHE_MIN_TTL = PROP_PREFIX_SHARED_CACHE + "minTtl";
+
+    private static final String PROP_SHARED_CACHE_MAX_TTL = PROP_PREFIX_SHARED_CACHE + "maxTtl";
+
+    private static final String PROP_SHARED_CACHE_PREFETCH = PROP_PREFIX_SHARED_CACHE + "prefetch";
+
     private static final String PROP_RECORD_ADDRESSES = PROP_PREFIX_DNS + "recordAddresses";
 
     private static final String PROP_IGNORE_IPV4_ADDRESSES = PROP_PREFIX_DNS + "ignoreIPv4Addresses";
@@ -66,6 +78,11 @@ public class XltDnsResolver implements HostNameResolver
 
     private static final Logger LOG = LoggerFactory.getLogger(XltDnsResolver.class);
 
+    /**
+     * The address resolution cache shared by all instances, created on first use.
+     */
+    private static SharedDnsCache sharedCache;
+
     /**
      * Whether to record resolved addresses in timers.csv.
      */
@@ -106,6 +123,11 @@ public class XltDnsResolver implements HostNameResolver
      */
     private final Map<String, InetAddress[]> addressesByHostName;
 
+    /**
+     * The address resolution cache shared with all other instances, or <code>null</code> if not enabled.
+     */
+    private final SharedDnsCache sharedAddressCache;
+
     /**
      * The underlying host name resolver.
      */
@@ -134,10 +156,33 @@ public class XltDnsResolver implements HostNameResolver
         cacheAddresses = props.getProperty(PROP_CACHE_ADDRESSES, false);
         addressesByHostName = cacheAddresses ? new HashMap<>() : null;
 
+        sharedAddressCache = props.getProperty(PROP_SHARED_CACHE_ENABLED, false) ? getSharedCache(props) : null;
+
         final String providerName = StringUtils.defaultIfBlank(props.getProperty(PROP_PROVIDER), PlatformHostNameResolver.PROVIDER_NAME);
         resolver = createResolver(providerName);
     }
 
+    /**
+     * Returns the shared address resolution cache, creating it if needed.
+     */
+    private static synchronized SharedDnsCache getSharedCache(final XltProperties props)
+    {
+        if (sharedCache == null)
+        {
+            final long minTtl = props.getProperty(PROP_SHARED_CACHE_MIN_TTL, 5);
+            final long maxTtl = props.getProperty(PROP_SHARED_CACHE_MAX_TTL, 300);
+            final boolean prefetch = props.getProperty(PROP_SHARED_CACHE_PREFETCH, false);
+
+            sharedCache = new SharedDnsCache(minTtl, maxTtl,
+                                             prefetch ? Executors.newSingleThreadExecutor(new DaemonThreadFactory(i -> "XltDnsResolver-Prefetch",
+                                                                                                                  Thread.NORM_PRIORITY))
+                                                      : null,
+                                             System::currentTimeMillis);
+        }
+
+        return sharedCache;
+    }
+
     /**
      * Creates a host name resolver for the given provider name.
      */
@@ -176,28 +221,15 @@ public class XltDnsResolver implements HostNameResolver
 
         if (addresses == null) // caching not enabled or host name not cached yet
         {
-            // perform address resolution
-            addresses = doResolve(host, resolver);
-
-            // remove IPv4 or IPv6 addresses
-            addresses = removeIgnoredAddresses(addresses);
-            if (addresses.length == 0)
+            // check the shared cache first, if enabled
+            InetAddress[] resolvedAddresses = (sharedAddressCache != null) ? sharedAddressCache.get(host, resolver) : null;
+            if (resolvedAddresses == null)
             {
-                throw new UnknownHostException(host);
+                // perform address resolution
+                resolvedAddresses = doResolve(host, resolver);
             }
 
-            // post-process in case we have got multiple addresses
-            if (addresses.length > 1)
-            {
-                if (pickOneAddressRandomly)
-                {
-                    addresses = pickRandomAddress(addresses);
-                }
-                else if (shuffleAddresses)
-                {
-                    shuffleAddresses(addresses);
-                }
-            }
+            addresses = postProcessAddresses(host, resolvedAddresses);
 
             if (cacheAddresses)
             {
@@ -210,7 +242,36 @@ public class XltDnsResolver implements HostNameResolver
     }
 
     /**
-     * Performs the actual address resolution using the passed resolver and measures the resolution time.
+     * Removes ignored addresses and reorders the remaining ones as configured.
+     */
+    private InetAddress[] postProcessAddresses(final String host, final InetAddress[] addresses) throws UnknownHostException
+    {
+        // remove IPv4 or IPv6 addresses
+        InetAddress[] result = removeIgnoredAddresses(addresses);
+        if (result.length == 0)
+        {
+            throw new UnknownHostException(host);
+        }
+
+        // post-process in case we have got multiple addresses
+        if (result.length > 1)
+        {
+            if (pickOneAddressRandomly)
+            {
+                result = pickRandomAddress(result);
+            }
+            else if (shuffleAddresses)
+            {
+                shuffleAddresses(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Performs the actual address resolution using the passed resolver and measures the resolution time. When sharing
+     * the cache with other instances, this includes the time spent waiting for a concurrent lookup of the same host.
      */
     private InetAddress[] doResolve(final String host, final HostNameResolver resolver) throws UnknownHostException
     {
@@ -222,7 +283,7 @@ public class XltDnsResolver implements HostNameResolver
         try
         {
             socketMonitor.dnsLookupStarted();
-            inetAddresses = resolver.resolve(host);
+            inetAddresses = sharedAddressCache != null ? sharedAddressCache.resolve(host, resolver) : resolver.resolve(host);
         }
         finally
         {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.htmlunit;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.xceptance.xlt.api.util.XltLogger;
+import com.xceptance.xlt.api.util.XltProperties;
+
+/**
+ * The policies for sharing TLS state between the web connections of an agent. The policy decides how often the SSL
+ * context, including its cipher setup and its session cache, is created and thus which connections are able to resume
+ * a TLS session (via session IDs or session tickets) instead of performing a full handshake.
+ */
+public enum TlsSessionSharing
+{
+    /**
+     * Each test user (web client) has its own SSL context. Sessions are resumed only by the connections of the same
+     * user, so each new user pays full handshakes, just like a new browser would. This is the default, except for the
+     * OkHttp client in easy mode, which shares its SSL context agent-wide unless configured otherwise.
+     */
+    USER,
+
+    /**
+     * All test users of an agent share the SSL contexts. Sessions established by one user may be resumed by any other
+     * user, which minimizes the handshake load on the agent, but is less realistic.
+     */
+    AGENT,
+
+    /**
+     * Each new connection gets a fresh SSL context, so sessions are never resumed and each connection pays a full
+     * handshake.
+     */
+    OFF;
+
+    /**
+     * The name of the property that holds the policy.
+     */
+    public static final String PROP_TLS_SESSION_SHARING = "com.xceptance.xlt.tls.sessionSharing";
+
+    /**
+     * Returns the policy as configured in the test suite configuration.
+     *
+     * @return the configured policy, or {@link #USER} if no or an invalid value was configured
+     */
+    public static TlsSessionSharing getConfiguredPolicy()
+    {
+        return getConfiguredPolicy(USER);
+    }
+
+    /**
+     * Returns the policy as configured in the test suite configuration.
+     *
+     * @param defaultPolicy
+     *            the policy to use if no or an invalid value was configured
+     * @return the configured policy, or the default policy
+     */
+    public static TlsSessionSharing getConfiguredPolicy(final TlsSessionSharing defaultPolicy)
+    {
+        final String value = XltProperties.getInstance().getProperty(PROP_TLS_SESSION_SHARING, "").trim();
+        if (StringUtils.isEmpty(value))
+        {
+            return defaultPolicy;
+        }
+
+        try
+        {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+        catch (final IllegalArgumentException e)
+        {
+            XltLogger.runTimeLogger.warn("Property '{}' is set to an invalid value '{}'. Will use '{}' instead.", PROP_TLS_SESSION_SHARING,
+                                         value, defaultPolicy.name().toLowerCase(Locale.ROOT));
+            return defaultPolicy;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.http.client.HttpRequestRetryHandler;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpRequestExecutor;
@@ -37,6 +38,7 @@ import org.htmlunit.DownloadedContent;
 import org.htmlunit.HttpMethod;
 import org.htmlunit.HttpWebConnection;
 import org.htmlunit.WebClient;
+import org.htmlunit.WebClientOptions;
 import org.htmlunit.WebRequest;
 import org.htmlunit.WebResponse;
 
@@ -44,6 +46,7 @@ import com.xceptance.common.lang.ReflectionUtils;
 import com.xceptance.xlt.api.util.XltProperties;
 import com.xceptance.xlt.engine.RequestExecutionContext;
 import com.xceptance.xlt.engine.dns.XltDnsResolver;
+import com.xceptance.xlt.engine.htmlunit.TlsSessionSharing;
 
 /**
  * A specialization of HtmlUnit's Apache-HttpClient-based Web connection that performs additional setup and
@@ -56,6 +59,11 @@ public class XltApacheHttpWebConnection extends HttpWebConnection
      */
     private boolean collectTargetIpAddress;
 
+    /**
+     * The policy for sharing TLS sessions with other web connections.
+     */
+    private final TlsSessionSharing tlsSessionSharing;
+
     /**
      * Creates a new HTTP web connection instance.
      *
@@ -69,6 +77,7 @@ public class XltApacheHttpWebConnection extends HttpWebConnection
         super(webClient);
         
         this.collectTargetIpAddress = collectTargetIpAddress;
+        tlsSessionSharing = TlsSessionSharing.getConfiguredPolicy();
     }
 
     /**
@@ -84,6 +93,15 @@ public class XltApacheHttpWebConnection extends HttpWebConnection
         return builder;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected LayeredConnectionSocketFactory createSSLSocketFactory(final WebClientOptions options)
+    {
+        return XltSSLConnectionSocketFactory.create(tlsSessionSharing, options);
+    }
+
     /**
      * {@inheritDoc}
      */
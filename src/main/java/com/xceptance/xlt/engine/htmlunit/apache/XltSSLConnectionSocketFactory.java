@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.htmlunit.apache;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+import org.htmlunit.WebClientOptions;
+import org.htmlunit.httpclient.HtmlUnitSSLConnectionSocketFactory;
+
+import com.xceptance.xlt.engine.RequestExecutionContext;
+import com.xceptance.xlt.engine.htmlunit.TlsSessionSharing;
+import com.xceptance.xlt.engine.socket.SocketMonitor;
+
+/**
+ * A {@link LayeredConnectionSocketFactory} that applies the configured {@link TlsSessionSharing} policy and measures
+ * the TLS handshakes of new connections. The actual work is done by HtmlUnit's socket factories.
+ */
+class XltSSLConnectionSocketFactory implements LayeredConnectionSocketFactory
+{
+    /**
+     * The maximum number of socket factories shared between all web connections of the agent. Should there be more
+     * distinct SSL configurations than that, the excess ones are simply not shared.
+     */
+    private static final int MAX_SHARED_FACTORIES = 16;
+
+    /**
+     * The socket factories shared between all web connections of the agent, keyed by SSL configuration.
+     */
+    private static final Map<List<Object>, LayeredConnectionSocketFactory> sharedFactories = new ConcurrentHashMap<>();
+
+    /**
+     * The name of the context attribute that holds the socket factory used to create the socket of the connection
+     * currently being established.
+     */
+    private static final String FACTORY_ATTRIBUTE = XltSSLConnectionSocketFactory.class.getName() + ".factory";
+
+    /**
+     * Supplies the socket factory to use for the next connection.
+     */
+    private final Supplier<LayeredConnectionSocketFactory> factorySupplier;
+
+    /**
+     * Whether the supplier creates a new socket factory each time, which then has to be used for all the steps of
+     * establishing a connection.
+     */
+    private final boolean factoryPerConnection;
+
+    /**
+     * Constructor.
+     *
+     * @param factorySupplier
+     *            supplies the socket factory to use for the next connection
+     * @param factoryPerConnection
+     *            whether the supplier creates a new socket factory each time
+     */
+    XltSSLConnectionSocketFactory(final Supplier<LayeredConnectionSocketFactory> factorySupplier, final boolean factoryPerConnection)
+    {
+        this.factorySupplier = factorySupplier;
+        this.factoryPerConnection = factoryPerConnection;
+    }
+
+    /**
+     * Creates a socket factory for the given SSL configuration that follows the given sharing policy.
+     *
+     * @param policy
+     *            the TLS session sharing policy
+     * @param options
+     *            the web client options holding the SSL configuration
+     * @return the socket factory
+     */
+    static LayeredConnectionSocketFactory create(final TlsSessionSharing policy, final WebClientOptions options)
+    {
+        switch (policy)
+        {
+            case AGENT:
+                final LayeredConnectionSocketFactory sharedFactory = getSharedFactory(options);
+                return new XltSSLConnectionSocketFactory(() -> sharedFactory, false);
+
+            case OFF:
+                // a new factory, and hence a new SSL context without any cached sessions, per connection
+                return new XltSSLConnectionSocketFactory(() -> HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options), true);
+
+            default:
+                final LayeredConnectionSocketFactory factory = HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options);
+                return new XltSSLConnectionSocketFactory(() -> factory, false);
+        }
+    }
+
+    /**
+     * Returns the agent-wide socket factory for the given SSL configuration, creating it if needed.
+     *
+     * @param options
+     *            the web client options holding the SSL configuration
+     * @return the socket factory
+     */
+    private static LayeredConnectionSocketFactory getSharedFactory(final WebClientOptions options)
+    {
+        final List<Object> key = getKey(options);
+
+        final LayeredConnectionSocketFactory factory = sharedFactories.get(key);
+        if (factory != null)
+        {
+            return factory;
+        }
+        else if (sharedFactories.size() >= MAX_SHARED_FACTORIES)
+        {
+            return HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options);
+        }
+        else
+        {
+            return sharedFactories.computeIfAbsent(key, k -> HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options));
+        }
+    }
+
+    /**
+     * Returns a key that is equal for all equivalent SSL configurations. Key and trust stores are compared by identity
+     * as they are cached by XLT anyway.
+     *
+     * @param options
+     *            the web client options holding the SSL configuration
+     * @return the key
+     */
+    static List<Object> getKey(final WebClientOptions options)
+    {
+        final char[] password = options.getSSLClientCertificatePassword();
+
+        return Arrays.asList(options.isUseInsecureSSL(), options.getSSLInsecureProtocol(), options.getSSLClientCertificateStore(),
+                             password == null ? null : new String(password), options.getSSLTrustStore(),
+                             toList(options.getSSLClientProtocols()), toList(options.getSSLClientCipherSuites()));
+    }
+
+    private static List<String> toList(final String[] values)
+    {
+        return values == null ? null : Arrays.asList(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final HttpContext context) throws IOException
+    {
+        final LayeredConnectionSocketFactory factory = factorySupplier.get();
+
+        // remember the factory so the socket will be connected by the same factory
+        if (factoryPerConnection && context != null)
+        {
+            context.setAttribute(FACTORY_ATTRIBUTE, factory);
+        }
+
+        return factory.createSocket(context);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket connectSocket(final int connectTimeout, final Socket sock, final HttpHost host, final InetSocketAddress remoteAddress,
+                                final InetSocketAddress localAddress, final HttpContext context)
+        throws IOException
+    {
+        // connects the socket and performs the handshake right after
+        final Socket socket = getFactoryForConnect(context).connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+
+        getSocketMonitor().tlsHandshakeDone();
+
+        return socket;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createLayeredSocket(final Socket socket, final String target, final int port, final HttpContext context)
+        throws IOException
+    {
+        final SocketMonitor socketMonitor = getSocketMonitor();
+
+        socketMonitor.tlsHandshakeStarted();
+        final Socket layeredSocket = factorySupplier.get().createLayeredSocket(socket, target, port, context);
+        socketMonitor.tlsHandshakeDone();
+
+        return layeredSocket;
+    }
+
+    /**
+     * Returns the socket factory to connect a socket with. This is the factory that created the socket before, if
+     * known.
+     *
+     * @param context
+     *            the HTTP context
+     * @return the socket factory
+     */
+    private LayeredConnectionSocketFactory getFactoryForConnect(final HttpContext context)
+    {
+        if (factoryPerConnection && context != null)
+        {
+            final Object factory = context.removeAttribute(FACTORY_ATTRIBUTE);
+            if (factory != null)
+            {
+                return (LayeredConnectionSocketFactory) factory;
+            }
+        }
+
+        return factorySupplier.get();
+    }
+
+    private static SocketMonitor getSocketMonitor()
+    {
+        return RequestExecutionContext.getCurrent().getSocketMonitor();
+    }
+}
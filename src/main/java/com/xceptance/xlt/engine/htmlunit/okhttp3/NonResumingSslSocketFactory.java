@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.htmlunit.okhttp3;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * An {@link SSLSocketFactory} that creates each socket from a fresh SSL context. This way, the client session cache is
+ * always empty and TLS sessions are never resumed, so each new connection pays a full handshake.
+ */
+class NonResumingSslSocketFactory extends SSLSocketFactory
+{
+    /**
+     * The trust manager to initialize the SSL contexts with.
+     */
+    private final X509TrustManager trustManager;
+
+    /**
+     * A factory representing the configuration of all the other factories.
+     */
+    private final SSLSocketFactory templateFactory;
+
+    /**
+     * Constructor.
+     *
+     * @param trustManager
+     *            the trust manager to initialize the SSL contexts with
+     */
+    NonResumingSslSocketFactory(final X509TrustManager trustManager)
+    {
+        this.trustManager = trustManager;
+        templateFactory = OkHttp3WebConnection.createSslSocketFactory(trustManager);
+    }
+
+    /**
+     * Creates a socket factory backed by a new SSL context.
+     */
+    private SSLSocketFactory newFactory()
+    {
+        return OkHttp3WebConnection.createSslSocketFactory(trustManager);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDefaultCipherSuites()
+    {
+        return templateFactory.getDefaultCipherSuites();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getSupportedCipherSuites()
+    {
+        return templateFactory.getSupportedCipherSuites();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket() throws IOException
+    {
+        return newFactory().createSocket();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final Socket socket, final String host, final int port, final boolean autoClose) throws IOException
+    {
+        return newFactory().createSocket(socket, host, port, autoClose);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final String host, final int port) throws IOException
+    {
+        return newFactory().createSocket(host, port);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort) throws IOException
+    {
+        return newFactory().createSocket(host, port, localHost, localPort);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final InetAddress host, final int port) throws IOException
+    {
+        return newFactory().createSocket(host, port);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress, final int localPort)
+        throws IOException
+    {
+        return newFactory().createSocket(address, port, localAddress, localPort);
+    }
+}
@@ -22,8 +22,8 @@ import java.net.Proxy;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,6 +34,8 @@ import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
 
 import org.htmlunit.HttpHeader;
 import org.htmlunit.WebClient;
@@ -51,6 +53,7 @@ import com.xceptance.common.util.ssl.EasyX509TrustManager;
 import com.xceptance.xlt.api.util.XltException;
 import com.xceptance.xlt.engine.dns.XltDnsResolver;
 import com.xceptance.xlt.engine.htmlunit.AbstractWebConnection;
+import com.xceptance.xlt.engine.htmlunit.TlsSessionSharing;
 
 import okhttp3.Authenticator;
 import okhttp3.ConnectionPool;
@@ -82,7 +85,11 @@ public class OkHttp3WebConnection extends AbstractWebConnection<OkHttpClient, Re
 
     private static final EasyX509TrustManager INSECURE_TRUST_MANAGER = new EasyX509TrustManager(null);
 
-    private static final SSLSocketFactory INSECURE_SSL_SOCKET_FACTORY = createInsecureSslSocketFactory();
+    private static final X509TrustManager DEFAULT_TRUST_MANAGER = createDefaultTrustManager();
+
+    private static final SSLSocketFactory SHARED_SSL_SOCKET_FACTORY = createSslSocketFactory(DEFAULT_TRUST_MANAGER);
+
+    private static final SSLSocketFactory SHARED_INSECURE_SSL_SOCKET_FACTORY = createSslSocketFactory(INSECURE_TRUST_MANAGER);
 
     private final AuthenticationCache authenticationCache;
 
@@ -92,6 +99,24 @@ public class OkHttp3WebConnection extends AbstractWebConnection<OkHttpClient, Re
 
     private final List<Protocol> protocols;
 
+    /**
+     * The policy for sharing TLS sessions with other web connections.
+     */
+    private final TlsSessionSharing tlsSessionSharing;
+
+    /**
+     * The policy for sharing TLS sessions with other web connections in "easy mode". Unless configured otherwise, all
+     * web connections share one SSL context in this mode, as they always did.
+     */
+    private final TlsSessionSharing insecureTlsSessionSharing;
+
+    /**
+     * The SSL socket factories of this connection, created on first use.
+     */
+    private SSLSocketFactory sslSocketFactory;
+
+    private SSLSocketFactory insecureSslSocketFactory;
+
     /**
      * Whether to collect the target IP address that was used to make the request.
      */
@@ -117,6 +142,8 @@ public class OkHttp3WebConnection extends AbstractWebConnection<OkHttpClient, Re
         connectionPool = new ConnectionPool(6, 60, TimeUnit.SECONDS);
         dns = new DnsImpl(new XltDnsResolver());
         protocols = http2Enabled ? HTTP_2_AND_1_1 : HTTP_1_1_ONLY;
+        tlsSessionSharing = TlsSessionSharing.getConfiguredPolicy();
+        insecureTlsSessionSharing = TlsSessionSharing.getConfiguredPolicy(TlsSessionSharing.AGENT);
     }
 
     /**
@@ -170,12 +197,17 @@ public class OkHttp3WebConnection extends AbstractWebConnection<OkHttpClient, Re
         dispatcher.setMaxRequestsPerHost(6);
         httpClientBuilder.dispatcher(dispatcher);
 
-        // SSL
+        // SSL (always set a socket factory as OkHttp would otherwise create a new SSL context for each client)
         if (webClientOptions.isUseInsecureSSL())
         {
-            httpClientBuilder.sslSocketFactory(INSECURE_SSL_SOCKET_FACTORY, INSECURE_TRUST_MANAGER);
+            httpClientBuilder.sslSocketFactory(getInsecureSslSocketFactory(), INSECURE_TRUST_MANAGER);
             httpClientBuilder.hostnameVerifier(INSECURE_HOSTNAME_VERIFIER);
         }
+        else
+        {
+            httpClientBuilder.sslSocketFactory(getSslSocketFactory(), DEFAULT_TRUST_MANAGER);
+        }
+        httpClientBuilder.eventListener(TlsHandshakeEventListener.INSTANCE);
 
         // interceptors
         httpClientBuilder.addNetworkInterceptor(new AuthorizationHeaderInterceptor(authenticationCache));
@@ -388,27 +420,112 @@ public class OkHttp3WebConnection extends AbstractWebConnection<OkHttpClient, Re
     }
 
     /**
-     * Creates an SSL socket factory that will be used when we are in "easy mode", i.e. when
-     * {@link WebClientOptions#isUseInsecureSSL()} was set.
+     * Returns the SSL socket factory to use when certificates are to be checked, as mandated by the TLS session
+     * sharing policy.
      *
      * @return the socket factory
      */
-    private static SSLSocketFactory createInsecureSslSocketFactory()
+    private synchronized SSLSocketFactory getSslSocketFactory()
+    {
+        if (sslSocketFactory == null)
+        {
+            switch (tlsSessionSharing)
+            {
+                case AGENT:
+                    sslSocketFactory = SHARED_SSL_SOCKET_FACTORY;
+                    break;
+
+                case OFF:
+                    sslSocketFactory = new NonResumingSslSocketFactory(DEFAULT_TRUST_MANAGER);
+                    break;
+
+                default:
+                    sslSocketFactory = createSslSocketFactory(DEFAULT_TRUST_MANAGER);
+            }
+        }
+
+        return sslSocketFactory;
+    }
+
+    /**
+     * Returns the SSL socket factory to use when we are in "easy mode", i.e. when
+     * {@link WebClientOptions#isUseInsecureSSL()} was set, as mandated by the TLS session sharing policy.
+     *
+     * @return the socket factory
+     */
+    private synchronized SSLSocketFactory getInsecureSslSocketFactory()
+    {
+        if (insecureSslSocketFactory == null)
+        {
+            switch (insecureTlsSessionSharing)
+            {
+                case AGENT:
+                    insecureSslSocketFactory = SHARED_INSECURE_SSL_SOCKET_FACTORY;
+                    break;
+
+                case OFF:
+                    insecureSslSocketFactory = new NonResumingSslSocketFactory(INSECURE_TRUST_MANAGER);
+                    break;
+
+                default:
+                    insecureSslSocketFactory = createSslSocketFactory(INSECURE_TRUST_MANAGER);
+            }
+        }
+
+        return insecureSslSocketFactory;
+    }
+
+    /**
+     * Creates an SSL socket factory backed by a new SSL context, which comes with an empty session cache.
+     *
+     * @param trustManager
+     *            the trust manager to use
+     * @return the socket factory
+     */
+    static SSLSocketFactory createSslSocketFactory(final X509TrustManager trustManager)
     {
         try
         {
             final TrustManager[] trustManagers = new TrustManager[]
                 {
-                    INSECURE_TRUST_MANAGER
+                    trustManager
                 };
 
             final SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, trustManagers, null);
             return sslContext.getSocketFactory();
         }
-        catch (NoSuchAlgorithmException | KeyManagementException e)
+        catch (final GeneralSecurityException e)
+        {
+            throw new XltException("Failed to create SSL socket factory", e);
+        }
+    }
+
+    /**
+     * Returns the platform's default trust manager, which checks certificates against the JDK's trust store.
+     *
+     * @return the trust manager
+     */
+    private static X509TrustManager createDefaultTrustManager()
+    {
+        try
+        {
+            final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init((KeyStore) null);
+
+            for (final TrustManager trustManager : trustManagerFactory.getTrustManagers())
+            {
+                if (trustManager instanceof X509TrustManager)
+                {
+                    return (X509TrustManager) trustManager;
+                }
+            }
+
+            throw new XltException("No X509 trust manager available");
+        }
+        catch (final GeneralSecurityException e)
         {
-            throw new XltException("Failed to create insecure SSL socket factory", e);
+            throw new XltException("Failed to create default trust manager", e);
         }
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.htmlunit.okhttp3;
+
+import javax.annotation.Nullable;
+
+import com.xceptance.xlt.engine.RequestExecutionContext;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+
+/**
+ * Event listener that reports the start and the end of TLS handshakes to the socket monitor of the current request.
+ */
+class TlsHandshakeEventListener extends EventListener
+{
+    /**
+     * The one and only instance, as the listener has no state.
+     */
+    static final TlsHandshakeEventListener INSTANCE = new TlsHandshakeEventListener();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void secureConnectStart(final Call call)
+    {
+        RequestExecutionContext.getCurrent().getSocketMonitor().tlsHandshakeStarted();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void secureConnectEnd(final Call call, final @Nullable Handshake handshake)
+    {
+        RequestExecutionContext.getCurrent().getSocketMonitor().tlsHandshakeDone();
+    }
+}
@@ -44,6 +44,7 @@ import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.api.util.XltProperties;
 import com.xceptance.xlt.common.XltConstants;
 import com.xceptance.xlt.engine.scripting.util.CommonScriptCommands;
+import com.xceptance.xlt.engine.util.TestUserThreads;
 
 /**
  * Test context.
@@ -148,7 +149,7 @@ public class TestContext
      */
     public static TestContext getCurrent()
     {
-        final ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
+        final ThreadGroup threadGroup = TestUserThreads.getThreadGroup();
         TestContext c = CONTEXTS.get(threadGroup);
         if (c == null)
         {
@@ -15,6 +15,8 @@
  */
 package com.xceptance.xlt.engine.socket;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import com.xceptance.xlt.engine.util.TimerUtils;
 
 /**
@@ -24,6 +26,16 @@ import com.xceptance.xlt.engine.util.TimerUtils;
  */
 public class SocketMonitor
 {
+    /**
+     * The total number of TLS handshakes performed by all test users of this agent.
+     */
+    private static final LongAdder TOTAL_TLS_HANDSHAKES = new LongAdder();
+
+    /**
+     * The total time [ms] spent in TLS handshakes by all test users of this agent.
+     */
+    private static final LongAdder TOTAL_TLS_HANDSHAKE_TIME = new LongAdder();
+
     /**
      * The timer to use
      */
@@ -79,6 +91,16 @@ public class SocketMonitor
      */
     private long lastBytesSentTime;
 
+    /**
+     * The time-stamp when starting the TLS handshake.
+     */
+    private long tlsHandshakeStartTime;
+
+    /**
+     * The time-stamp when the TLS handshake is finished.
+     */
+    private long tlsHandshakeEndTime;
+
     /**
      * Standard setup
      */
@@ -129,6 +151,51 @@ public class SocketMonitor
         dnsLookupStartTime = dnsLookupEndTime = TIMER.getTime();
     }
 
+    /**
+     * Sets the time when the TLS handshake of a freshly connected socket is about to begin.
+     */
+    public void tlsHandshakeStarted()
+    {
+        tlsHandshakeStartTime = tlsHandshakeEndTime = TIMER.getTime();
+    }
+
+    /**
+     * Sets the time when the TLS handshake is finished. If the start of the handshake was not signaled explicitly, the
+     * handshake is assumed to have started right after the socket was connected.
+     */
+    public void tlsHandshakeDone()
+    {
+        tlsHandshakeEndTime = TIMER.getTime();
+
+        if (tlsHandshakeStartTime == 0)
+        {
+            tlsHandshakeStartTime = connectEndTime > 0 ? connectEndTime : tlsHandshakeEndTime;
+        }
+
+        TOTAL_TLS_HANDSHAKES.increment();
+        TOTAL_TLS_HANDSHAKE_TIME.add(tlsHandshakeEndTime - tlsHandshakeStartTime);
+    }
+
+    /**
+     * Returns the total number of TLS handshakes performed by all test users of this agent so far.
+     *
+     * @return the number of handshakes
+     */
+    public static long getTotalTlsHandshakes()
+    {
+        return TOTAL_TLS_HANDSHAKES.sum();
+    }
+
+    /**
+     * Returns the total time [ms] spent in TLS handshakes by all test users of this agent so far.
+     *
+     * @return the handshake time
+     */
+    public static long getTotalTlsHandshakeTime()
+    {
+        return TOTAL_TLS_HANDSHAKE_TIME.sum();
+    }
+
     /**
      * Returns the socket statistics as calculated so far.
      */
@@ -139,6 +206,7 @@ public class SocketMonitor
         final int connectTime = (int) (connectEndTime - connectStartTime);
         final int sendTime = (int) (lastBytesSentTime - firstBytesSentTime);
         final int receiveTime = (int) (lastBytesReceivedTime - firstBytesReceivedTime);
+        final int tlsHandshakeTime = (int) (tlsHandshakeEndTime - tlsHandshakeStartTime);
 
         // server-busy time
         final int serverBusyTime;
@@ -171,7 +239,7 @@ public class SocketMonitor
         }
 
         return new SocketStatistics(dnsLookupTime, connectTime, sendTime, serverBusyTime, receiveTime, timeToFirst, timeToLast, bytesSent,
-                                    bytesReceived);
+                                    bytesReceived, tlsHandshakeTime);
     }
 
     /**
@@ -205,6 +273,9 @@ public class SocketMonitor
         connectStartTime = 0;
         connectEndTime = 0;
 
+        tlsHandshakeStartTime = 0;
+        tlsHandshakeEndTime = 0;
+
         firstBytesSentTime = 0;
         lastBytesSentTime = 0;
 
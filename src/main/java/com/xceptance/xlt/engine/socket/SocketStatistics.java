@@ -67,6 +67,11 @@ public class SocketStatistics
      */
     private final int timeToLastBytes;
 
+    /**
+     * The time [ms] taken for the TLS handshake. Will always be 0 for keep-alive connections.
+     */
+    private final int tlsHandshakeTime;
+
     /**
      * @param dnsLookupTime
      * @param connectTime
@@ -81,6 +86,26 @@ public class SocketStatistics
     public SocketStatistics(final int dnsLookupTime, final int connectTime, final int sendTime, final int serverBusyTime,
                             final int receiveTime, final int timeToFirstBytes, final int timeToLastBytes, final int bytesSent,
                             final int bytesReceived)
+    {
+        this(dnsLookupTime, connectTime, sendTime, serverBusyTime, receiveTime, timeToFirstBytes, timeToLastBytes, bytesSent,
+             bytesReceived, 0);
+    }
+
+    /**
+     * @param dnsLookupTime
+     * @param connectTime
+     * @param sendTime
+     * @param serverBusyTime
+     * @param receiveTime
+     * @param timeToFirstBytes
+     * @param timeToLastBytes
+     * @param bytesSent
+     * @param bytesReceived
+     * @param tlsHandshakeTime
+     */
+    public SocketStatistics(final int dnsLookupTime, final int connectTime, final int sendTime, final int serverBusyTime,
+                            final int receiveTime, final int timeToFirstBytes, final int timeToLastBytes, final int bytesSent,
+                            final int bytesReceived, final int tlsHandshakeTime)
     {
         this.dnsLookupTime = dnsLookupTime;
         this.connectTime = connectTime;
@@ -91,6 +116,7 @@ public class SocketStatistics
         this.timeToLastBytes = timeToLastBytes;
         this.bytesSent = bytesSent;
         this.bytesReceived = bytesReceived;
+        this.tlsHandshakeTime = tlsHandshakeTime;
     }
 
     /**
@@ -185,14 +211,24 @@ public class SocketStatistics
         return timeToLastBytes;
     }
 
+    /**
+     * Returns the time [ms] taken for the TLS handshake. Will always be 0 for keep-alive connections.
+     * 
+     * @return the handshake time
+     */
+    public int getTlsHandshakeTime()
+    {
+        return tlsHandshakeTime;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public String toString()
     {
-        return String.format("%s{dnsLookupTime=%d, connectTime=%d, sendTime=%d, serverBusyTime=%d, receiveTime=%d, timeToFirstBytes=%d, timeToLastBytes=%d, bytesSent=%d, bytesReceived=%d}",
+        return String.format("%s{dnsLookupTime=%d, connectTime=%d, sendTime=%d, serverBusyTime=%d, receiveTime=%d, timeToFirstBytes=%d, timeToLastBytes=%d, bytesSent=%d, bytesReceived=%d, tlsHandshakeTime=%d}",
                              getClass().getSimpleName(), dnsLookupTime, connectTime, sendTime, serverBusyTime, receiveTime,
-                             timeToFirstBytes, timeToLastBytes, bytesSent, bytesReceived);
+                             timeToFirstBytes, timeToLastBytes, bytesSent, bytesReceived, tlsHandshakeTime);
     }
 }
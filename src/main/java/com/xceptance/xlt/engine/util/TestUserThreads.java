@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntFunction;
+
+import com.xceptance.common.util.concurrent.DaemonThreadFactory;
+import com.xceptance.common.util.concurrent.VirtualThreads;
+import com.xceptance.xlt.api.util.XltLogger;
+import com.xceptance.xlt.api.util.XltProperties;
+
+/**
+ * Manages the threads that work for a test user, i.e. the main thread of the test user as well as supporting threads
+ * (for downloading static content or running JavaScript, for instance).
+ * <p>
+ * Per-user state, such as the session, is keyed by the thread group of the test user. By default, all threads of a
+ * test user run in the same thread group. Virtual threads, however, all share one thread group. That's why a test user
+ * run on a virtual thread binds its thread group explicitly to its threads via {@link #enter(ThreadGroup)}. The binding
+ * is inherited by any thread created by a bound thread.
+ * <p>
+ * Whether test users and their supporting threads run on virtual threads is controlled by the property
+ * <code>com.xceptance.xlt.virtualThreads</code>. The setting is ignored if the Java runtime does not support virtual
+ * threads.
+ */
+public final class TestUserThreads
+{
+    /**
+     * The name of the property that enables the virtual thread mode.
+     */
+    public static final String PROP_VIRTUAL_THREADS = "com.xceptance.xlt.virtualThreads";
+
+    /**
+     * The thread group bound to the current thread and the threads created by it.
+     */
+    private static final InheritableThreadLocal<ThreadGroup> BOUND_THREAD_GROUP = new InheritableThreadLocal<>();
+
+    /**
+     * The thread groups bound explicitly, keyed by thread. Needed to look up the thread group of other threads.
+     */
+    private static final Map<Thread, ThreadGroup> BOUND_THREAD_GROUPS = new ConcurrentHashMap<>();
+
+    /**
+     * Whether we complained already about missing virtual thread support.
+     */
+    private static volatile boolean warned;
+
+    /**
+     * Private constructor.
+     */
+    private TestUserThreads()
+    {
+    }
+
+    /**
+     * Returns whether test users and their supporting threads are to be run on virtual threads.
+     *
+     * @return whether the virtual thread mode is enabled and supported
+     */
+    public static boolean isVirtualThreadModeEnabled()
+    {
+        if (!XltProperties.getInstance().getProperty(PROP_VIRTUAL_THREADS, false))
+        {
+            return false;
+        }
+
+        if (!VirtualThreads.isSupported())
+        {
+            if (!warned)
+            {
+                warned = true;
+                XltLogger.runTimeLogger.warn("Virtual threads are not supported by this Java runtime. Using platform threads instead.");
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates a new, not yet started daemon thread, which is a virtual thread if the virtual thread mode is enabled.
+     *
+     * @param name
+     *            the name of the thread
+     * @param runnable
+     *            the code to run
+     * @return the thread
+     */
+    public static Thread newThread(final String name, final Runnable runnable)
+    {
+        if (isVirtualThreadModeEnabled())
+        {
+            return VirtualThreads.newThread(name, runnable);
+        }
+
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    /**
+     * Returns a factory for daemon threads, which are virtual threads if the virtual thread mode is enabled.
+     *
+     * @param nameGenerator
+     *            a name generator that is given an int and it shall return a name
+     * @return the thread factory
+     */
+    public static ThreadFactory newThreadFactory(final IntFunction<String> nameGenerator)
+    {
+        return isVirtualThreadModeEnabled() ? VirtualThreads.newThreadFactory(nameGenerator) : new DaemonThreadFactory(nameGenerator);
+    }
+
+    /**
+     * Binds the given thread group to the current thread and to all threads created by it from now on.
+     *
+     * @param threadGroup
+     *            the thread group of the test user
+     */
+    public static void enter(final ThreadGroup threadGroup)
+    {
+        BOUND_THREAD_GROUP.set(threadGroup);
+        BOUND_THREAD_GROUPS.put(Thread.currentThread(), threadGroup);
+    }
+
+    /**
+     * Removes the binding established by {@link #enter(ThreadGroup)} from the current thread.
+     */
+    public static void exit()
+    {
+        BOUND_THREAD_GROUP.remove();
+        BOUND_THREAD_GROUPS.remove(Thread.currentThread());
+    }
+
+    /**
+     * Returns the thread group of the test user the current thread works for.
+     *
+     * @return the thread group
+     */
+    public static ThreadGroup getThreadGroup()
+    {
+        final ThreadGroup threadGroup = BOUND_THREAD_GROUP.get();
+
+        return threadGroup != null ? threadGroup : Thread.currentThread().getThreadGroup();
+    }
+
+    /**
+     * Returns the thread group of the test user the given thread works for.
+     *
+     * @param thread
+     *            the thread
+     * @return the thread group, or <code>null</code> if the thread has died already
+     */
+    public static ThreadGroup getThreadGroup(final Thread thread)
+    {
+        if (thread == Thread.currentThread())
+        {
+            return getThreadGroup();
+        }
+
+        final ThreadGroup threadGroup = BOUND_THREAD_GROUPS.get(thread);
+
+        return threadGroup != null ? threadGroup : thread.getThreadGroup();
+    }
+}
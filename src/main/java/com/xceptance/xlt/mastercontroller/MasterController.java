@@ -173,6 +173,11 @@ public class MasterController
      */
     private boolean compressedTimerFiles = false;
 
+    /**
+     * The minimum number of uncompressed bytes per compressed block of a timer file, 0 if not split into blocks
+     */
+    private int compressedTimerFilesBlockSize;
+
     /**
      * The status update facility that periodically queries the status of all agent controllers while a load test is
      * running.
@@ -219,6 +224,7 @@ public class MasterController
 
         isEmbedded = config.isEmbedded();
         compressedTimerFiles = config.isCompressedTimerFiles();
+        compressedTimerFilesBlockSize = config.getCompressedTimerFilesBlockSize();
 
         checkTestPropertiesFileName();
 
@@ -309,7 +315,7 @@ public class MasterController
         // download results
         final ResultDownloader resultDownloader = new ResultDownloader(downloadExecutor, currentTestResultsDir, tempDirectory,
                                                                        agentControllers, progress);
-        final boolean downloadSuccess = resultDownloader.download(testResultAmount, compressedTimerFiles);
+        final boolean downloadSuccess = resultDownloader.download(testResultAmount, compressedTimerFiles, compressedTimerFilesBlockSize);
 
         // inform user
         final FailedAgentControllerCollection failedAgentControllers = resultDownloader.getFailedAgentControllerCollection();
@@ -102,6 +102,8 @@ public class MasterControllerConfiguration extends AbstractConfiguration
 
     private static final String PROP_COMPRESSED_TIMER_FILES = PROP_PREFIX + "compressedTimerFiles";
 
+    private static final String PROP_COMPRESSED_TIMER_FILES_BLOCK_SIZE = PROP_PREFIX + "compressedTimerFiles.blockSize";
+
     private static final String PROP_DOWNLOAD_CHUNK_SIZE = PROP_PREFIX + "download.chunkSize";
 
     private static final String PROP_DOWNLOAD_MAX_RETRIES = PROP_PREFIX + "download.maxRetries";
@@ -158,6 +160,8 @@ public class MasterControllerConfiguration extends AbstractConfiguration
 
     private final boolean compressedTimerFiles;
 
+    private final int compressedTimerFilesBlockSize;
+
     private final long downloadChunkSize;
 
     private final int downloadMaxRetries;
@@ -280,6 +284,7 @@ public class MasterControllerConfiguration extends AbstractConfiguration
 
         // do we want to keep the timer files compressed for efficiency
         compressedTimerFiles = getBooleanProperty(PROP_COMPRESSED_TIMER_FILES, true);
+        compressedTimerFilesBlockSize = Math.max(0, getIntProperty(PROP_COMPRESSED_TIMER_FILES_BLOCK_SIZE, 0));
 
         // download options
         downloadChunkSize = Math.max(1000, getLongProperty(PROP_DOWNLOAD_CHUNK_SIZE, AgentControllerProxy.DEFAULT_DOWNLOAD_CHUNK_SIZE));
@@ -647,6 +652,16 @@ public class MasterControllerConfiguration extends AbstractConfiguration
         return compressedTimerFiles;
     }
 
+    /**
+     * Returns the minimum number of uncompressed bytes per independently compressed block of a timer file.
+     *
+     * @return the block size, or 0 if timer files are compressed as a whole
+     */
+    public int getCompressedTimerFilesBlockSize()
+    {
+        return compressedTimerFilesBlockSize;
+    }
+
     /**
      * Returns the size of a file chunk when downloading a result archive from an agent controller.
      *
@@ -78,7 +78,7 @@ public class ResultDownloader
     /**
      * @progresscount 7 ac + 4
      */
-    public boolean download(final TestResultAmount testResultAmount, final boolean compressedTimerFiles)
+    public boolean download(final TestResultAmount testResultAmount, final boolean compressedTimerFiles, final int blockSize)
     {
         // download test configuration
         final boolean testConfigDownloaded = getRemoteTestConfig();
@@ -98,7 +98,7 @@ public class ResultDownloader
         archiveResults(testResultAmount);
 
         // download and unzip archives
-        final boolean resultsDownloaded = downloadResults(compressedTimerFiles);
+        final boolean resultsDownloaded = downloadResults(compressedTimerFiles, blockSize);
 
         // We have downloaded results from at least 1 agent controller.
         // AND
@@ -391,7 +391,7 @@ public class ResultDownloader
     /**
      * @progresscount 5 * ac
      */
-    private boolean downloadResults(final boolean compressedTimerFiles)
+    private boolean downloadResults(final boolean compressedTimerFiles, final int blockSize)
     {
         LOG.debug("Download results");
         try
@@ -405,7 +405,7 @@ public class ResultDownloader
                     {
                         // download the archive
                         LOG.debug("Downloading results from " + agentController);
-                        downloadTestResults(agentController, compressedTimerFiles);
+                        downloadTestResults(agentController, compressedTimerFiles, blockSize);
                         LOG.debug("Downloading results from " + agentController + " OK");
                         return true;
                     }
@@ -499,7 +499,8 @@ public class ResultDownloader
      *             if an I/O error occurs
      * @progresscount 4
      */
-    private void downloadTestResults(final AgentController agentController, final boolean compressedTimerFiles) throws IOException
+    private void downloadTestResults(final AgentController agentController, final boolean compressedTimerFiles, final int blockSize)
+        throws IOException
     {
         /** agentID, downloadedZipFile */
         final Map<String, File> downloadedZipFiles = new HashMap<String, File>();
@@ -542,7 +543,7 @@ public class ResultDownloader
 
                 final File agentResultsDir = new File(testResultsDir, agentID);
                 LOG.debug("Unzipping '" + zipFile + "' to '" + agentResultsDir + "' ...");
-                ZipUtils.unzipFile(zipFile, agentResultsDir, compressedTimerFiles);
+                ZipUtils.unzipFile(zipFile, agentResultsDir, compressedTimerFiles, blockSize);
             }
             progress.increaseCount();
         }
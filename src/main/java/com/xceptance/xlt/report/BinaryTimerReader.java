@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+import com.xceptance.xlt.api.util.SimpleArrayList;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+import com.xceptance.xlt.engine.BinaryTimerWriter;
+
+/**
+ * Reads the blocks of a binary timer file as written by {@link BinaryTimerWriter}. Each record is returned as the list
+ * of its field values, i.e. in the same form as {@link com.xceptance.common.util.CsvLineDecoder} would produce it from
+ * the corresponding CSV line. Hence, no further tokenizing is needed.
+ * <p>
+ * Blocks whose time range lies completely outside the requested time window are skipped without decoding their
+ * records.
+ */
+class BinaryTimerReader implements Closeable
+{
+    /**
+     * Shared buffers for the small non-negative numbers, which are the most common numeric values (response codes,
+     * timings, byte counts). Buffers are immutable, so sharing them is safe.
+     */
+    private static final XltCharBuffer[] SMALL_NUMBERS = new XltCharBuffer[1024];
+
+    static
+    {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++)
+        {
+            SMALL_NUMBERS[i] = XltCharBuffer.valueOf(Integer.toString(i));
+        }
+    }
+
+    /**
+     * The source stream.
+     */
+    private final DataInputStream in;
+
+    /**
+     * The dictionary values read so far, indexed by their IDs.
+     */
+    private final List<XltCharBuffer> dictionary = new ArrayList<>();
+
+    /**
+     * The payload buffer. Reused for each block and grown if necessary.
+     */
+    private byte[] payload = new byte[64 * 1024];
+
+    /**
+     * The current read position in the payload buffer.
+     */
+    private int pos;
+
+    /**
+     * The number of blocks skipped because of their time range.
+     */
+    private int skippedBlocks;
+
+    /**
+     * Creates a new reader and checks the header of the first segment.
+     *
+     * @param in
+     *            the source stream
+     * @throws IOException
+     *             if the stream does not contain a supported binary timer file
+     */
+    public BinaryTimerReader(final InputStream in) throws IOException
+    {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+
+        if (this.in.readInt() != BinaryTimerWriter.MAGIC)
+        {
+            throw new IOException("Not a binary timer file");
+        }
+        startSegment();
+    }
+
+    /**
+     * Checks the format version of the segment just started and resets the dictionary.
+     */
+    private void startSegment() throws IOException
+    {
+        final int version = in.readByte();
+        if (version != BinaryTimerWriter.VERSION)
+        {
+            throw new IOException(String.format("Unsupported binary timer file version: %d", version));
+        }
+
+        dictionary.clear();
+    }
+
+    /**
+     * Reads the next block.
+     *
+     * @param fromTime
+     *            the start of the time window of interest
+     * @param toTime
+     *            the end of the time window of interest
+     * @return the records of the block, an empty list if the block was skipped, or <code>null</code> if the end of the
+     *         file was reached
+     * @throws IOException
+     *             if the file could not be read or is corrupt
+     */
+    public List<List<XltCharBuffer>> readBlock(final long fromTime, final long toTime) throws IOException
+    {
+        int recordCount;
+        try
+        {
+            recordCount = in.readInt();
+        }
+        catch (final EOFException e)
+        {
+            return null;
+        }
+
+        // data appended later starts a new segment with its own dictionary
+        while (recordCount == BinaryTimerWriter.MAGIC)
+        {
+            startSegment();
+
+            try
+            {
+                recordCount = in.readInt();
+            }
+            catch (final EOFException e)
+            {
+                return null;
+            }
+        }
+
+        final long minTime = in.readLong();
+        final long maxTime = in.readLong();
+
+        // the dictionary section must always be processed as later blocks might refer to it
+        final int newEntries = readVarInt(in);
+        for (int i = 0; i < newEntries; i++)
+        {
+            final byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+
+            dictionary.add(XltCharBuffer.valueOf(new String(bytes, StandardCharsets.UTF_8)));
+        }
+
+        final int payloadLength = in.readInt();
+
+        // skip the block if it does not contain anything of interest
+        if (maxTime < fromTime || minTime > toTime)
+        {
+            IOUtils.skipFully(in, payloadLength);
+            skippedBlocks++;
+
+            return Collections.emptyList();
+        }
+
+        if (payload.length < payloadLength)
+        {
+            payload = new byte[payloadLength];
+        }
+        in.readFully(payload, 0, payloadLength);
+        pos = 0;
+
+        final List<List<XltCharBuffer>> records = new SimpleArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++)
+        {
+            final int fieldCount = readVarInt();
+            final SimpleArrayList<XltCharBuffer> fields = new SimpleArrayList<>(fieldCount);
+
+            for (int f = 0; f < fieldCount; f++)
+            {
+                fields.add(readField());
+            }
+
+            records.add(fields);
+        }
+
+        return records;
+    }
+
+    /**
+     * Returns the number of blocks skipped so far because of their time range.
+     *
+     * @return the number of skipped blocks
+     */
+    public int getSkippedBlocks()
+    {
+        return skippedBlocks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * Decodes a single field value from the payload buffer.
+     */
+    private XltCharBuffer readField() throws IOException
+    {
+        final byte tag = payload[pos++];
+        switch (tag)
+        {
+            case BinaryTimerWriter.TAG_EMPTY:
+                return XltCharBuffer.empty();
+
+            case BinaryTimerWriter.TAG_DICTIONARY:
+                return dictionary.get(readVarInt());
+
+            case BinaryTimerWriter.TAG_LONG:
+                final long zigzag = readVarLong();
+                return toCharBuffer((zigzag >>> 1) ^ -(zigzag & 1));
+
+            case BinaryTimerWriter.TAG_STRING:
+                final int length = readVarInt();
+                final String s = new String(payload, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+                return XltCharBuffer.valueOf(s);
+
+            default:
+                throw new IOException(String.format("Unknown field tag: %d", tag));
+        }
+    }
+
+    /**
+     * Returns the decimal representation of the given value. The digits are written directly into the buffer's char
+     * array, without creating an intermediate string.
+     */
+    static XltCharBuffer toCharBuffer(final long value)
+    {
+        if (value >= 0 && value < SMALL_NUMBERS.length)
+        {
+            return SMALL_NUMBERS[(int) value];
+        }
+
+        if (value == Long.MIN_VALUE)
+        {
+            // cannot be negated, never written anyway
+            return XltCharBuffer.valueOf(Long.toString(value));
+        }
+
+        final int start = value < 0 ? 1 : 0;
+        long remaining = Math.abs(value);
+
+        int digits = 1;
+        for (long l = remaining; l >= 10; l /= 10)
+        {
+            digits++;
+        }
+
+        final char[] chars = new char[start + digits];
+        for (int i = chars.length - 1; i >= start; i--)
+        {
+            chars[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+
+        if (start == 1)
+        {
+            chars[0] = '-';
+        }
+
+        return new XltCharBuffer(chars);
+    }
+
+    private int readVarInt()
+    {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong()
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = payload[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException
+    {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+
+        return (int) value;
+    }
+}
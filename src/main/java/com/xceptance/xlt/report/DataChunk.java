@@ -54,6 +54,11 @@ public class DataChunk
 
     private final List<XltCharBuffer> lines;
 
+    /**
+     * The already tokenized records if the data was read from a binary timer file, <code>null</code> otherwise.
+     */
+    private final List<List<XltCharBuffer>> records;
+
     private final String testCaseName;
 
     private final String userNumber;
@@ -61,8 +66,17 @@ public class DataChunk
     public DataChunk(final List<XltCharBuffer> lines, final int baseLineNumber, final FileObject file, final String agentName,
                      final String testCaseName, final String userNumber, final boolean collectActionNames, final boolean adjustTimerNames,
                      final ConcurrentSkipListMap<Long, String> actionNames)
+    {
+        this(lines, null, baseLineNumber, file, agentName, testCaseName, userNumber, collectActionNames, adjustTimerNames, actionNames);
+    }
+
+    public DataChunk(final List<XltCharBuffer> lines, final List<List<XltCharBuffer>> records, final int baseLineNumber,
+                     final FileObject file, final String agentName, final String testCaseName, final String userNumber,
+                     final boolean collectActionNames, final boolean adjustTimerNames,
+                     final ConcurrentSkipListMap<Long, String> actionNames)
     {
         this.lines = lines;
+        this.records = records;
         this.baseLineNumber = baseLineNumber;
         this.file = file;
         this.agentName = agentName;
@@ -108,6 +122,16 @@ public class DataChunk
         return lines;
     }
 
+    /**
+     * Returns the already tokenized records of this chunk.
+     *
+     * @return the records, or <code>null</code> if this chunk holds raw CSV lines only
+     */
+    public List<List<XltCharBuffer>> getRecords()
+    {
+        return records;
+    }
+
     public String getTestCaseName()
     {
         return testCaseName;
@@ -33,8 +33,9 @@ import com.xceptance.xlt.api.engine.TransactionData;
 import com.xceptance.xlt.api.report.PostProcessedDataContainer;
 import com.xceptance.xlt.api.util.SimpleArrayList;
 import com.xceptance.xlt.api.util.XltCharBuffer;
-import com.xceptance.xlt.report.mergerules.RequestProcessingRule;
-import com.xceptance.xlt.report.mergerules.RequestProcessingRule.ReturnState;
+import com.xceptance.xlt.report.mergerules.CompiledRequestProcessingRules;
+import com.xceptance.xlt.report.mergerules.RequestFilterMatchCaches;
+import com.xceptance.xlt.report.util.NameDictionary;
 import com.zaxxer.sparsebits.SparseBitSet;
 
 import it.unimi.dsi.util.FastRandom;
@@ -84,7 +85,12 @@ class DataParserThread implements Runnable
      * The request processing rules for this thread. Each parser thread gets its own copy of the rule set. This way,
      * there is no shared state between threads, hence we can more efficiently cache and process stuff.
      */
-    private final List<RequestProcessingRule> requestProcessingRules;
+    private final CompiledRequestProcessingRules requestProcessingRules;
+
+    /**
+     * The dictionary of names shared by all parser threads, or <code>null</code> if not enabled.
+     */
+    private final NameDictionary names;
 
     /**
      * Constructor.
@@ -99,17 +105,23 @@ class DataParserThread implements Runnable
      *            the end time
      * @param config
      *            the report generator settings
+     * @param matchCaches
+     *            the merge rule match caches shared by all parser threads, may be <code>null</code>
+     * @param names
+     *            the dictionary of names shared by all parser threads, may be <code>null</code>
      */
     public DataParserThread(final Dispatcher dispatcher, final DataRecordFactory dataRecordFactory, final long fromTime, final long toTime,
-                            final ReportGeneratorConfiguration config)
+                            final ReportGeneratorConfiguration config, final RequestFilterMatchCaches matchCaches,
+                            final NameDictionary names)
     {
+        this.names = names;
         this.dataRecordFactory = dataRecordFactory;
         this.fromTime = fromTime;
         this.toTime = toTime;
         this.dispatcher = dispatcher;
         this.config = config;
 
-        requestProcessingRules = config.getRequestProcessingRules();
+        requestProcessingRules = new CompiledRequestProcessingRules(config.getRequestProcessingRules(), matchCaches);
     }
 
     /**
@@ -130,6 +142,9 @@ class DataParserThread implements Runnable
         final SparseBitSet allTimeIndex = new SparseBitSet();
         final SparseBitSet actionTimeIndex = new SparseBitSet();
 
+        // spare data record objects of this thread
+        final DataRecordFactory.RecordPool recordPool = dataRecordFactory.createRecordPool();
+
         // make the list large enough so it does not grow, we reuse it anyway
         final SimpleArrayList<XltCharBuffer> csvParseResultBuffer = new SimpleArrayList<>(50);
 
@@ -141,9 +156,10 @@ class DataParserThread implements Runnable
                 final DataChunk chunk = dispatcher.retrieveReadData();
 
                 final List<XltCharBuffer> lines = chunk.getLines();
+                final List<List<XltCharBuffer>> records = chunk.getRecords();
 
-                final String agentName = chunk.getAgentName();
-                final String testCaseName = chunk.getTestCaseName();
+                final String agentName = canonicalize(chunk.getAgentName());
+                final String testCaseName = canonicalize(chunk.getTestCaseName());
                 final String userNumber = chunk.getUserNumber();
                 final boolean collectActionNames = chunk.getCollectActionNames();
                 final boolean adjustTimerName = chunk.getAdjustTimerNames();
@@ -155,37 +171,50 @@ class DataParserThread implements Runnable
                 int droppedLines = 0;
 
                 // parse the chunk of lines and preprocess the results
-                final PostProcessedDataContainer postProcessedData = new PostProcessedDataContainer(lines.size(), SAMPLEFACTOR);
+                final int size = records != null ? records.size() : lines.size();
 
-                int lineNumber = chunk.getBaseLineNumber();
+                final PostProcessedDataContainer postProcessedData = new PostProcessedDataContainer(size, SAMPLEFACTOR);
 
-                final int size = lines.size();
+                // the lines of a chunk are consecutive lines of the file
+                int lineNumber = chunk.getBaseLineNumber() - 1;
 
                 for (int i = 0; i < size; i++)
                 {
                     Data data = null;
 
+                    final List<XltCharBuffer> values;
+
+                    lineNumber++;
+
                     try
                     {
-                        // parse the data record for minimal data
-                        final XltCharBuffer line = lines.get(i);
-
-                        // we want to reuse that array because it is just temp transport and at the end, we will always
-                        // allocate it freshly and might also either allocate too much or have to grow it
-                        csvParseResultBuffer.clear();
+                        if (records != null)
+                        {
+                            // binary timer data is already tokenized
+                            values = records.get(i);
+                        }
+                        else
+                        {
+                            // we want to reuse that array because it is just temp transport and at the end, we will
+                            // always allocate it freshly and might also either allocate too much or have to grow it
+                            csvParseResultBuffer.clear();
 
-                        // parse, the buffer is modified!
-                        CsvLineDecoder.parse(csvParseResultBuffer, line);
+                            // parse, the buffer is modified!
+                            CsvLineDecoder.parse(csvParseResultBuffer, lines.get(i));
+                            values = csvParseResultBuffer;
+                        }
 
-                        // get us the minimal data aka type and time
-                        data = dataRecordFactory.createStatistics(line);
-                        data.setBaseValues(csvParseResultBuffer);
+                        // get us the minimal data aka type and time, the type code is the first char of the first
+                        // value
+                        data = recordPool.createStatistics(values.get(0));
+                        data.setBaseValues(values);
 
                         // see if we have to keep it
                         final long time = data.getTime();
                         if (time < _fromTime || time > _toTime)
                         {
-                            // nope
+                            // nope, but the object can be reused for the next line
+                            recordPool.recycle(data);
                             continue;
                         }
 
@@ -205,6 +234,7 @@ class DataParserThread implements Runnable
                                     if (random.nextDoubleFast() > SAMPLELIMIT)
                                     {
                                         droppedLines++;
+                                        recordPool.recycle(data);
                                         continue;
                                     }
                                 }
@@ -217,12 +247,12 @@ class DataParserThread implements Runnable
                         }
 
                         // finish parsing
-                        data.setRemainingValues(csvParseResultBuffer);
+                        data.setRemainingValues(values);
                     }
                     catch (final Exception ex)
                     {
-                        final String msg = String.format("Failed to parse data record at line %,d in file '%s': %s\nLine is: ", lineNumber,
-                                                         file, ex, lines.get(i).toString());
+                        final String msg = String.format("Failed to parse data record at line %,d in file '%s': %s\nLine is: %s", lineNumber,
+                                                         file, ex, records != null ? records.get(i) : lines.get(i).toString());
                         LOG.error(msg, ex);
 
                         continue;
@@ -237,6 +267,7 @@ class DataParserThread implements Runnable
                         final RequestData result = postprocess((RequestData) data, requestProcessingRules, removeIndexes);
                         if (result != null)
                         {
+                            canonicalize(result);
                             postProcessedData.add(result);
                         }
                     }
@@ -245,15 +276,22 @@ class DataParserThread implements Runnable
                         // get us a hashcode for later while the cache is warm
                         // for RequestData, we did that already
                         data.getName().hashCode();
+                        canonicalize(data);
                         postProcessedData.add(data);
                     }
-
-                    lineNumber++;
                 }
 
                 // deliver the chunk of parsed data records
                 postProcessedData.droppedLines = droppedLines;
-                dispatcher.addPostprocessedData(postProcessedData);
+                if (dataRecordFactory.isRecyclingEnabled())
+                {
+                    // hand the data record objects back for reuse once all report providers are done with them
+                    dispatcher.addPostprocessedData(postProcessedData, () -> dataRecordFactory.recycle(postProcessedData.data));
+                }
+                else
+                {
+                    dispatcher.addPostprocessedData(postProcessedData);
+                }
             }
             catch (final InterruptedException e)
             {
@@ -294,6 +332,49 @@ class DataParserThread implements Runnable
 
     }
 
+    /**
+     * Replaces the name of the given data record, and the content type and host of a request, with their canonical
+     * instances.
+     *
+     * @param data
+     *            the data record
+     */
+    private void canonicalize(final Data data)
+    {
+        if (names != null)
+        {
+            data.setName(names.canonicalize(data.getName()));
+
+            if (data instanceof RequestData)
+            {
+                final RequestData requestData = (RequestData) data;
+                final XltCharBuffer contentType = requestData.getContentType();
+                if (contentType != null)
+                {
+                    requestData.setContentType(names.canonicalize(contentType));
+                }
+
+                final XltCharBuffer host = requestData.getHost();
+                if (host != null)
+                {
+                    requestData.setHost(names.canonicalize(host));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical instance of the given string.
+     *
+     * @param s
+     *            the string
+     * @return the canonical string
+     */
+    private String canonicalize(final String s)
+    {
+        return names != null ? names.canonicalize(s) : s;
+    }
+
     /**
      * Processes a request according to the configured request processing rules. Currently, this means renaming or
      * discarding requests.
@@ -306,7 +387,7 @@ class DataParserThread implements Runnable
      *            in case we want to clean the name too
      * @return the processed request data record, or <code>null</code> if the data record is to be discarded
      */
-    private RequestData postprocess(final RequestData requestData, final List<RequestProcessingRule> requestProcessingRules,
+    private RequestData postprocess(final RequestData requestData, final CompiledRequestProcessingRules requestProcessingRules,
                                     final boolean removeIndexesFromRequestNames)
     {
         // fix up the name first (Product.1.2 -> Product) if so configured
@@ -324,38 +405,10 @@ class DataParserThread implements Runnable
             }
         }
 
-        // remember the original name so we can restore it in case request processing fails
-        final String originalName = requestData.getName();
-
         // execute all processing rules one after the other until processing is complete
-        final int size = requestProcessingRules.size();
-        for (int i = 0; i < size; i++)
+        if (requestProcessingRules.process(requestData) == null)
         {
-            final RequestProcessingRule requestProcessingRule = requestProcessingRules.get(i);
-
-            try
-            {
-                // request data comes back indirectly modified if needed
-                final ReturnState state = requestProcessingRule.process(requestData);
-                if (state == ReturnState.DROP)
-                {
-                    return null;
-                }
-                else if (state == ReturnState.STOP)
-                {
-                    break;
-                }
-            }
-            catch (final Throwable t)
-            {
-                final String msg = String.format("Failed to apply request merge rule: %s\n%s", requestProcessingRule, t);
-                LOG.error(msg);
-
-                // restore the request's original name
-                requestData.setName(originalName);
-
-                break;
-            }
+            return null;
         }
 
         // ok, we processed all rules for this dataset, get us the final hashcode for the name, because we need that
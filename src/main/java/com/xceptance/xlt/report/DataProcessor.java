@@ -15,10 +15,22 @@
  */
 package com.xceptance.xlt.report;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.vfs2.FileObject;
@@ -31,6 +43,8 @@ import com.xceptance.xlt.agent.JvmResourceUsageDataGenerator;
 import com.xceptance.xlt.api.report.ReportProvider;
 import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.engine.util.TimerUtils;
+import com.xceptance.xlt.report.mergerules.RequestFilterMatchCaches;
+import com.xceptance.xlt.report.util.NameDictionary;
 
 /**
  * Processor for the chain file to log line to parsed log line via
@@ -64,6 +78,21 @@ public class DataProcessor
      */
     private final ExecutorService dataReaderExecutor;
 
+    /**
+     * The executor decompressing the blocks of block-compressed timer files.
+     */
+    private final ExecutorService decompressionExecutor;
+
+    /**
+     * The merge rule match caches shared by the parser threads, or <code>null</code> if not enabled.
+     */
+    private final RequestFilterMatchCaches matchCaches;
+
+    /**
+     * The dictionary of names shared by the parser threads, or <code>null</code> if not enabled.
+     */
+    private final NameDictionary names;
+
     /**
      * The dispatcher that coordinates all the reader/parser/processor threads.
      */
@@ -89,6 +118,32 @@ public class DataProcessor
      */
     private final StringMatcher agentFilter;
 
+    /**
+     * The start time of the report period.
+     */
+    private final long fromTime;
+
+    /**
+     * The end time of the report period.
+     */
+    private final long toTime;
+
+    /**
+     * The reader of each test user directory seen so far, keyed by directory path. Only maintained in incremental mode,
+     * where readers are kept across reading passes to remember their read positions.
+     */
+    private final Map<String, DataReaderThread> incrementalReaders = new HashMap<>();
+
+    /**
+     * Whether data is read in several passes.
+     */
+    private boolean incremental;
+
+    /**
+     * Whether the current reading pass is the last one.
+     */
+    private boolean finalPass;
+
     /**
      * Constructor.
      *
@@ -125,12 +180,14 @@ public class DataProcessor
                      final String agentIncludePatternList, final String agentExcludePatternList)
     {
         this.inputDir = inputDir;
+        this.fromTime = fromTime;
+        this.toTime = toTime;
 
         testCaseFilter = new StringMatcher(testCaseIncludePatternList, testCaseExcludePatternList, true);
         agentFilter = new StringMatcher(agentIncludePatternList, agentExcludePatternList, true);
 
         // the one and only data record processor
-        statisticsProcessor = new StatisticsProcessor(reportProviders);
+        statisticsProcessor = new StatisticsProcessor(reportProviders, config.statisticsWorkerCount, config.threadQueueLength);
 
         // create the reader executor
         dataReaderExecutor = Executors.newFixedThreadPool(config.readerThreadCount, new DaemonThreadFactory(i -> "DataReader-" + i, Thread.MAX_PRIORITY));
@@ -138,14 +195,26 @@ public class DataProcessor
         // create the data record parser threads
         dataParserExecutor = Executors.newFixedThreadPool(config.parserThreadCount, new DaemonThreadFactory(i -> "DataParser-" + i));
 
+        // create the executor for decompressing timer files in parallel
+        decompressionExecutor = Executors.newFixedThreadPool(config.decompressionThreadCount,
+                                                             new DaemonThreadFactory(i -> "DataDecompressor-" + i));
+
         // create the dispatcher
-        dispatcher = new Dispatcher(config, statisticsProcessor);
+        dispatcher = new Dispatcher(config, statisticsProcessor, decompressionExecutor);
+
+        // the parser threads share their merge rule match caches
+        matchCaches = config.mergeRuleCacheMaxSize > 0 ? new RequestFilterMatchCaches(config.mergeRuleCacheMaxSize * 1024L * 1024L,
+                                                                                      config.mergeRuleCacheMinHitRate)
+                                                       : null;
+
+        // the parser threads share the canonical instances of names
+        names = config.nameDictionarySize > 0 ? new NameDictionary(config.nameDictionarySize) : null;
 
         // start the threads
         for (int i = 0; i < config.parserThreadCount; i++)
         {
             dataParserExecutor.execute(
-                                       new DataParserThread(dispatcher, dataRecordFactory, fromTime, toTime, config));
+                                       new DataParserThread(dispatcher, dataRecordFactory, fromTime, toTime, config, matchCaches, names));
         }
 
         XltLogger.reportLogger.info(String.format("Input directory: %s", inputDir));
@@ -176,92 +245,310 @@ public class DataProcessor
      */
     public void readDataRecords()
     {
+        try
+        {
+            readDataRecordsFromInputDir();
+        }
+        finally
+        {
+            shutdown();
+        }
+    }
+
+    /**
+     * Reads the data records that have been added to the configured input directory since the last call. Use this
+     * method repeatedly to process the results of a load test that is still running. All report providers keep their
+     * state between calls, so already processed data is never read again.
+     * <p>
+     * Uncompressed CSV timer files are read up to their last complete line. Compressed and binary timer files are read
+     * in the final pass only, after which the background threads are stopped.
+     *
+     * @param finalPass
+     *            whether this is the last pass, i.e. the load test has finished and all data is to be read
+     * @return the number of data records read in this pass
+     */
+    public long readNewDataRecords(final boolean finalPass)
+    {
+        incremental = true;
+        this.finalPass = finalPass;
+
+        try
+        {
+            return readDataRecordsFromInputDir();
+        }
+        finally
+        {
+            if (finalPass)
+            {
+                shutdown();
+            }
+        }
+    }
+
+    /**
+     * Performs one reading pass over the configured input directory.
+     *
+     * @return the number of data records read
+     */
+    private long readDataRecordsFromInputDir()
+    {
+        final long linesBefore = totalLinesCounter.get();
+
         try
         {
             dispatcher.startProgress();
             final long start = TimerUtils.get().getStartTime();
 
-            for (final FileObject file : inputDir.getChildren())
+            final List<TestUserDirectory> testUserDirs = findTestUserDirectories();
+
+            // start with the largest directories so that a few huge ones do not end up being read last while most
+            // reader threads are idle already
+            testUserDirs.sort(Comparator.comparingLong((final TestUserDirectory d) -> d.size).reversed());
+
+            for (final TestUserDirectory testUserDir : testUserDirs)
             {
-                if (file.getType() == FileType.FOLDER)
-                {
-                    // Check if we need to process the current agent directory
-                    final String directoryName = file.getName().getBaseName();
-                    if (agentFilter.isAccepted(directoryName))
-                    {
-                        readDataRecordsFromAgentDir(file);
-                    }
-                }
+                readDataRecordsFromTestUserDir(testUserDir.directory, testUserDir.agentName, testUserDir.testCaseName);
             }
 
             // wait for the data processing to finish
             dispatcher.waitForDataRecordProcessingToComplete();
 
             final long duration = TimerUtils.get().getElapsedTime(start);
-            final long linesPerSecond = Math.round((totalLinesCounter.get() / (double) duration) * 1000L);
+            final long linesRead = totalLinesCounter.get() - linesBefore;
+            final long linesPerSecond = Math.round((linesRead / (double) duration) * 1000L);
 
             XltLogger.reportLogger.info(String.format("%,d records read - %,d ms - %,d lines/s",
-                              totalLinesCounter.get(),
+                              linesRead,
                               duration,
                               linesPerSecond));
+
+            if (matchCaches != null && matchCaches.size() > 0)
+            {
+                XltLogger.reportLogger.info(matchCaches.getStatistics());
+            }
+
+            if (names != null)
+            {
+                XltLogger.reportLogger.info(names.getStatistics());
+            }
         }
         catch (final Exception e)
         {
             XltLogger.reportLogger.error("Failed to read data records", e);
         }
-        finally
+
+        return totalLinesCounter.get() - linesBefore;
+    }
+
+    /**
+     * Stops the background threads.
+     */
+    private void shutdown()
+    {
+        dataParserExecutor.shutdownNow();
+        dataReaderExecutor.shutdownNow();
+        decompressionExecutor.shutdownNow();
+        statisticsProcessor.shutdown();
+    }
+
+    /**
+     * Finds the test user directories below the input directory. Directories on the local file system are scanned in
+     * parallel, including the size of their files. Other directories (in archives, for instance) are scanned
+     * sequentially without determining sizes.
+     *
+     * @return the test user directories found
+     */
+    private List<TestUserDirectory> findTestUserDirectories() throws Exception
+    {
+        if ("file".equals(inputDir.getName().getScheme()))
         {
-            // stop background threads
-            dataParserExecutor.shutdownNow();
-            dataReaderExecutor.shutdownNow();
+            return findLocalTestUserDirectories(new File(inputDir.getName().getPath()).toPath());
         }
+
+        final List<TestUserDirectory> testUserDirs = new ArrayList<>();
+
+        for (final FileObject agentDir : inputDir.getChildren())
+        {
+            if (agentDir.getType() == FileType.FOLDER)
+            {
+                // Check if we need to process the current agent directory
+                final String agentName = agentDir.getName().getBaseName();
+                if (agentFilter.isAccepted(agentName))
+                {
+                    for (final FileObject testCaseDir : agentDir.getChildren())
+                    {
+                        // filter out certain directories if so configured
+                        final String testCaseName = testCaseDir.getName().getBaseName();
+                        if (testCaseDir.getType() == FileType.FOLDER && isAcceptedTestCaseDirectory(testCaseName))
+                        {
+                            for (final FileObject testUserDir : testCaseDir.getChildren())
+                            {
+                                if (testUserDir.getType() == FileType.FOLDER)
+                                {
+                                    testUserDirs.add(new TestUserDirectory(testUserDir, agentName, testCaseName, 0));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return testUserDirs;
     }
 
     /**
-     * Reads the timer files from the given agent directory.
+     * Finds the test user directories below the given local input directory. The agent and test case directories are
+     * listed first, then the test case directories are scanned in parallel by the (still idle) reader threads.
      *
-     * @param agentDir
-     *            agent directory
-     * @throws IOException
-     *             thrown on I/O-Error
+     * @param inputPath
+     *            the input directory
+     * @return the test user directories found
      */
-    private void readDataRecordsFromAgentDir(final FileObject agentDir) throws Exception
+    private List<TestUserDirectory> findLocalTestUserDirectories(final Path inputPath) throws Exception
     {
-        for (final FileObject file : agentDir.getChildren())
+        final List<Callable<List<Path>>> tasks = new ArrayList<>();
+        final List<String[]> testCaseNames = new ArrayList<>();
+
+        for (final Path agentDir : listDirectories(inputPath))
         {
-            if (file.getType() == FileType.FOLDER)
+            // Check if we need to process the current agent directory
+            final String agentName = agentDir.getFileName().toString();
+            if (agentFilter.isAccepted(agentName))
             {
-                // filter out certain directories if so configured
-                final String directoryName = file.getName().getBaseName();
-                if (isSpecialDirectory(directoryName) || testCaseFilter.isAccepted(directoryName))
+                for (final Path testCaseDir : listDirectories(agentDir))
                 {
-                    readDataRecordsFromTestCaseDir(file, agentDir.getName().getBaseName());
+                    // filter out certain directories if so configured
+                    final String testCaseName = testCaseDir.getFileName().toString();
+                    if (isAcceptedTestCaseDirectory(testCaseName))
+                    {
+                        tasks.add(() -> listDirectories(testCaseDir));
+                        testCaseNames.add(new String[]
+                            {
+                                agentName, testCaseName
+                            });
+                    }
                 }
             }
         }
+
+        // list the test user directories in parallel
+        final List<Future<List<Path>>> testCaseResults = dataReaderExecutor.invokeAll(tasks);
+
+        // determine their sizes in parallel
+        final List<Path> testUserPaths = new ArrayList<>();
+        for (final Future<List<Path>> result : testCaseResults)
+        {
+            testUserPaths.addAll(getResult(result));
+        }
+
+        final List<Callable<Long>> sizeTasks = new ArrayList<>(testUserPaths.size());
+        for (final Path testUserPath : testUserPaths)
+        {
+            sizeTasks.add(() -> getTotalFileSize(testUserPath));
+        }
+
+        final List<Future<Long>> sizes = dataReaderExecutor.invokeAll(sizeTasks);
+
+        // finally, get the VFS counterparts
+        final List<TestUserDirectory> testUserDirs = new ArrayList<>(testUserPaths.size());
+        int i = 0;
+        for (int t = 0; t < testCaseResults.size(); t++)
+        {
+            final String[] agentAndTestCaseName = testCaseNames.get(t);
+
+            for (final Path testUserPath : getResult(testCaseResults.get(t)))
+            {
+                final FileObject testUserDir = inputDir.getFileSystem().getFileSystemManager().toFileObject(testUserPath.toFile());
+                testUserDirs.add(new TestUserDirectory(testUserDir, agentAndTestCaseName[0], agentAndTestCaseName[1], getResult(sizes.get(i++))));
+            }
+        }
+
+        return testUserDirs;
     }
 
     /**
-     * Reads the timer files from the given test case directory.
+     * Returns the sub directories of the given directory.
      *
-     * @param testCaseDir
-     *            test case directory
-     * @param agentName
-     *            the associated agent
+     * @param dir
+     *            the directory
+     * @return the sub directories
+     * @throws IOException
+     *             thrown on I/O-Error
+     */
+    private static List<Path> listDirectories(final Path dir) throws IOException
+    {
+        final List<Path> dirs = new ArrayList<>();
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory))
+        {
+            for (final Path subDir : stream)
+            {
+                dirs.add(subDir);
+            }
+        }
+
+        return dirs;
+    }
+
+    /**
+     * Returns the total size of the regular files in the given directory.
+     *
+     * @param dir
+     *            the directory
+     * @return the total size in bytes
      * @throws IOException
      *             thrown on I/O-Error
      */
-    private void readDataRecordsFromTestCaseDir(final FileObject testCaseDir, final String agentName) throws Exception
+    private static long getTotalFileSize(final Path dir) throws IOException
     {
-        final String testCaseName = testCaseDir.getName().getBaseName();
+        long size = 0;
 
-        for (final FileObject file : testCaseDir.getChildren())
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dir))
         {
-            if (file.getType() == FileType.FOLDER)
+            for (final Path file : stream)
             {
-                readDataRecordsFromTestUserDir(file, agentName, testCaseName);
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile())
+                {
+                    size += attributes.size();
+                }
             }
         }
+
+        return size;
+    }
+
+    /**
+     * Returns the result of a completed task, unwrapping any exception thrown by the task.
+     *
+     * @param future
+     *            the completed task
+     * @return the result
+     */
+    private static <T> T getResult(final Future<T> future) throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Determines whether the test case directory with the given name is to be read.
+     *
+     * @param directoryName
+     *            the name of the directory
+     * @return whether to read the directory
+     */
+    private boolean isAcceptedTestCaseDirectory(final String directoryName)
+    {
+        return isSpecialDirectory(directoryName) || testCaseFilter.isAccepted(directoryName);
     }
 
     /**
@@ -283,9 +570,24 @@ public class DataProcessor
 
         // create a new reader for each user directory and enqueue it for execution
         final String userNumber = testUserDir.getName().getBaseName();
-        final DataReaderThread reader = new DataReaderThread(testUserDir, agentName, testCaseName, userNumber,
-                                                             totalLinesCounter,
-                                                             dispatcher);
+        final DataReaderThread reader;
+        if (incremental)
+        {
+            // reuse the reader from the previous pass as it knows where to continue
+            reader = incrementalReaders.computeIfAbsent(testUserDir.getName().getPath(),
+                                                        k -> new DataReaderThread(testUserDir, agentName, testCaseName, userNumber,
+                                                                                  totalLinesCounter, dispatcher, fromTime, toTime, true));
+            if (finalPass)
+            {
+                reader.setFinalRun();
+            }
+        }
+        else
+        {
+            reader = new DataReaderThread(testUserDir, agentName, testCaseName, userNumber,
+                                          totalLinesCounter,
+                                          dispatcher, fromTime, toTime);
+        }
         dataReaderExecutor.execute(reader);
     }
 
@@ -302,4 +604,29 @@ public class DataProcessor
         return CustomSamplersRunner.RESULT_DIRECTORY_NAME.equals(directoryName) ||
                JvmResourceUsageDataGenerator.RESULT_DIRECTORY_NAME.equals(directoryName);
     }
+
+    /**
+     * A test user directory found when scanning the input directory.
+     */
+    private static final class TestUserDirectory
+    {
+        private final FileObject directory;
+
+        private final String agentName;
+
+        private final String testCaseName;
+
+        /**
+         * The total size of the files in the directory, or 0 if unknown.
+         */
+        private final long size;
+
+        private TestUserDirectory(final FileObject directory, final String agentName, final String testCaseName, final long size)
+        {
+            this.directory = directory;
+            this.agentName = agentName;
+            this.testCaseName = testCaseName;
+            this.size = size;
+        }
+    }
 }
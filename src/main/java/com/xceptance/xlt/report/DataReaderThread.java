@@ -15,26 +15,45 @@
  */
 package com.xceptance.xlt.report;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.xceptance.common.io.LineReader;
+import com.xceptance.common.io.MappedLineReader;
 import com.xceptance.common.io.XltBufferedLineReader;
+import com.xceptance.common.util.CsvLineDecoder;
+import com.xceptance.common.util.zip.BlockGzipReader;
+import com.xceptance.common.util.zip.ParallelBlockGzipLineReader;
 import com.xceptance.xlt.api.util.SimpleArrayList;
 import com.xceptance.xlt.api.util.XltCharBuffer;
 import com.xceptance.xlt.common.XltConstants;
+import com.xceptance.xlt.engine.TimerFileBounds;
 
 /**
  * Reads lines from the result files of a certain test user.
+ * <p>
+ * In incremental mode, the same instance is run repeatedly while the load test is still writing its results. Each run
+ * continues reading uncompressed CSV timer files at the position where the previous run stopped and delivers complete
+ * lines only. Compressed and binary timer files cannot be tailed and are therefore read in the final run only.
  */
 class DataReaderThread implements Runnable
 {
@@ -79,6 +98,64 @@ class DataReaderThread implements Runnable
      */
     private final Dispatcher dispatcher;
 
+    /**
+     * The start time of the report period. Blocks of binary timer files, CSV timer files, and CSV lines before this time
+     * will be skipped.
+     */
+    private final long fromTime;
+
+    /**
+     * The end time of the report period. Blocks of binary timer files, CSV timer files, and CSV lines after this time
+     * will be skipped.
+     */
+    private final long toTime;
+
+    /**
+     * Whether the report period is restricted at all, i.e. whether it pays off to check the time of CSV lines.
+     */
+    private final boolean filterByTime;
+
+    /**
+     * Whether this reader is run repeatedly and should continue where it stopped the last time.
+     */
+    private final boolean incremental;
+
+    /**
+     * Whether the current run is the last one. Only relevant in incremental mode.
+     */
+    private volatile boolean finalRun;
+
+    /**
+     * The read state of each timer file, keyed by file name. Only maintained in incremental mode.
+     */
+    private final Map<String, FileState> fileStates = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param directory
+     *            the directory with the test user's result files
+     * @param agentName
+     *            the name of the agent the test user was run on
+     * @param testCaseName
+     *            the name of the test case the test user was executing
+     * @param userNumber
+     *            the instance number of the test user.
+     * @param totalLineCounter
+     *            the global line counter
+     * @param dispatcher
+     *            the dispatcher that coordinates result processing
+     * @param fromTime
+     *            the start time of the report period
+     * @param toTime
+     *            the end time of the report period
+     */
+    public DataReaderThread(final FileObject directory, final String agentName, final String testCaseName, final String userNumber,
+                            final AtomicLong totalLineCounter, final Dispatcher dispatcher, final long fromTime, final long toTime)
+    {
+        this(directory, agentName, testCaseName, userNumber, totalLineCounter, dispatcher, fromTime, toTime, false);
+    }
+
     /**
      * Constructor.
      *
@@ -94,10 +171,21 @@ class DataReaderThread implements Runnable
      *            the global line counter
      * @param dispatcher
      *            the dispatcher that coordinates result processing
+     * @param fromTime
+     *            the start time of the report period
+     * @param toTime
+     *            the end time of the report period
+     * @param incremental
+     *            whether this reader is run repeatedly and should read newly appended data only
      */
     public DataReaderThread(final FileObject directory, final String agentName, final String testCaseName, final String userNumber,
-                            final AtomicLong totalLineCounter, final Dispatcher dispatcher)
+                            final AtomicLong totalLineCounter, final Dispatcher dispatcher, final long fromTime, final long toTime,
+                            final boolean incremental)
     {
+        this.incremental = incremental;
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+        this.filterByTime = fromTime > 0 || toTime < Long.MAX_VALUE;
         this.directory = directory;
         this.agentName = agentName;
         this.testCaseName = testCaseName;
@@ -106,6 +194,15 @@ class DataReaderThread implements Runnable
         this.dispatcher = dispatcher;
     }
 
+    /**
+     * Marks the next run as the final one, i.e. all remaining data will be read regardless of whether the files are
+     * still being written.
+     */
+    public void setFinalRun()
+    {
+        finalRun = true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -138,6 +235,7 @@ class DataReaderThread implements Runnable
     private void readLogsFromTestUserDir() throws Exception
     {
         final ArrayList<FileObject> regularTimerFiles = new ArrayList<FileObject>();
+        final ArrayList<FileObject> binaryTimerFiles = new ArrayList<FileObject>();
         final ArrayList<FileObject> clientPerformanceTimerFiles = new ArrayList<FileObject>();
 
         // get all readable files
@@ -152,6 +250,11 @@ class DataReaderThread implements Runnable
                     // remember regular timer files for later processing
                     regularTimerFiles.add(file);
                 }
+                // timers.bin
+                else if (XltConstants.BINARY_TIMER_FILENAME_PATTERNS.stream().anyMatch(r -> r.asPredicate().test(fileName)))
+                {
+                    binaryTimerFiles.add(file);
+                }
                 // timer-wd-<sessionid>.csv[.gz] (for backward compatibility with XLT < 4.8)
                 else if (XltConstants.CPT_TIMER_FILENAME_PATTERNS.stream().anyMatch(r -> r.asPredicate().test(fileName)))
                 {
@@ -171,6 +274,11 @@ class DataReaderThread implements Runnable
             readTimerLog(file, haveClientPerformanceTimerFiles, false);
         }
 
+        for (final FileObject file : binaryTimerFiles)
+        {
+            readBinaryTimerLog(file, haveClientPerformanceTimerFiles);
+        }
+
         // process client performance timer files *after* the regular timer files
         if (haveClientPerformanceTimerFiles)
         {
@@ -200,27 +308,100 @@ class DataReaderThread implements Runnable
         final boolean isCompressed = "gz".equalsIgnoreCase(file.getName().getExtension());
         final int chunkSize = dispatcher.chunkSize;
 
+        // determine which part of the file is to be read
+        final FileState state;
+        final long endOffset;
+        if (incremental)
+        {
+            state = fileStates.computeIfAbsent(file.getName().getBaseName(), k -> new FileState());
+            if (isCompressed)
+            {
+                // compressed files cannot be tailed, read them once in the final run
+                if (!finalRun || state.offset > 0)
+                {
+                    return;
+                }
+                endOffset = Long.MAX_VALUE;
+            }
+            else
+            {
+                try
+                {
+                    endOffset = finalRun ? file.getContent().getSize() : getEndOfLastCompleteLine(file, state.offset);
+                }
+                catch (final IOException ex)
+                {
+                    LOG.error(String.format("Failed to determine the size of timer input file '%s'", file), ex);
+                    return;
+                }
+
+                if (endOffset <= state.offset)
+                {
+                    // nothing new
+                    return;
+                }
+            }
+        }
+        else
+        {
+            state = new FileState();
+            endOffset = Long.MAX_VALUE;
+        }
+
+        // skip the whole file if the agent recorded that it lies outside the report period
+        if (filterByTime && isOutsideReportPeriod(file))
+        {
+            state.offset = endOffset;
+            return;
+        }
+
         // VFS has no performance impact, so we keep that for the moment
-        try (final XltBufferedLineReader reader = new XltBufferedLineReader(new InputStreamReader(isCompressed ? new GZIPInputStream(file.getContent()
-                                                                                                                                         .getInputStream(),
-                                                                                                                                     1024 * 16)
-                                                                                                               : file.getContent()
-                                                                                                                     .getInputStream(),
-                                                                                                  XltConstants.UTF8_ENCODING)))
+        try (final LineReader reader = openLineReader(file, isCompressed, state.offset, endOffset))
         {
             List<XltCharBuffer> lines = new SimpleArrayList<>(chunkSize);
-            int baseLineNumber = 1;  // let line numbering start at 1
+            int lineNumber = state.lineCount;  // the number of the last line read, numbering starts at 1
+            int baseLineNumber = lineNumber + 1;
             int linesRead = 0;
 
             // read the file line-by-line
             XltCharBuffer line;
             while ((line = reader.readLine()) != null)
             {
+                lineNumber++;
                 linesRead++;
+
+                // drop lines outside the report period before they are parsed at all, the time is the third column of
+                // any data record
+                if (filterByTime)
+                {
+                    final long time = CsvLineDecoder.peekLong(line, 2);
+                    if (time != Long.MIN_VALUE && (time < fromTime || time > toTime))
+                    {
+                        // a chunk must hold consecutive lines only as line numbers are derived from its base line
+                        // number, so deliver what we have so far (dropped lines are typically clustered at the start
+                        // or the end of a file, so this rarely creates extra chunks)
+                        if (lines.size() > 0)
+                        {
+                            final DataChunk lineChunk = new DataChunk(lines, baseLineNumber, file, agentName, testCaseName, userNumber,
+                                                                      collectActionNames, adjustTimerName, actionNames);
+                            dispatcher.addReadData(lineChunk);
+
+                            lines = new SimpleArrayList<>(chunkSize);
+                        }
+
+                        continue;
+                    }
+                }
+
+                if (lines.size() == 0)
+                {
+                    baseLineNumber = lineNumber;
+                }
+
                 lines.add(line);
 
                 // have we filled the chunk?
-                if (linesRead == chunkSize)
+                if (lines.size() == chunkSize)
                 {
                     // the chunk is full -> deliver it
                     final DataChunk lineChunk = new DataChunk(lines, baseLineNumber, file, agentName, testCaseName, userNumber,
@@ -231,7 +412,6 @@ class DataReaderThread implements Runnable
 
                     // start a new chunk
                     lines = new SimpleArrayList<>(chunkSize);
-                    baseLineNumber += linesRead;
 
                     totalLineCounter.addAndGet(linesRead);
 
@@ -240,17 +420,216 @@ class DataReaderThread implements Runnable
             }
 
             // deliver any remaining lines
-            if (linesRead > 0)
+            if (lines.size() > 0)
             {
                 final DataChunk lineChunk = new DataChunk(lines, baseLineNumber, file, agentName, testCaseName, userNumber,
                                                           collectActionNames, adjustTimerName, actionNames);
                 dispatcher.addReadData(lineChunk);
-                totalLineCounter.addAndGet(linesRead);
             }
+            totalLineCounter.addAndGet(linesRead);
+
+            // remember where to continue next time
+            state.offset = endOffset;
+            state.lineCount = lineNumber;
         }
         catch (final Exception ex)
         {
             LOG.error(String.format("Failed to read timer input file '%s'", file), ex);
         }
     }
+
+    /**
+     * Checks whether all data records of the given timer file lie outside the report period, as recorded by the agent
+     * in the side file of the timer file (see {@link TimerFileBounds}).
+     *
+     * @param file
+     *            the timer file
+     * @return <code>true</code> if the file can be skipped, <code>false</code> if it has to be read
+     */
+    private boolean isOutsideReportPeriod(final FileObject file)
+    {
+        try
+        {
+            final FileObject boundsFile = directory.resolveFile(TimerFileBounds.getFileName(file.getName().getBaseName()));
+            if (boundsFile.exists())
+            {
+                final TimerFileBounds bounds;
+                try (final InputStream in = boundsFile.getContent().getInputStream())
+                {
+                    bounds = TimerFileBounds.parse(IOUtils.toString(in, StandardCharsets.UTF_8));
+                }
+
+                return bounds != null && !bounds.overlaps(fromTime, toTime);
+            }
+        }
+        catch (final IOException ex)
+        {
+            LOG.warn(String.format("Failed to read the time bounds of timer input file '%s'", file), ex);
+        }
+
+        return false;
+    }
+
+    /**
+     * Opens a line reader for the data between the given offsets of the given timer file. Uncompressed local files are
+     * memory-mapped if so configured, block-compressed files are decompressed in parallel.
+     *
+     * @param file
+     *            the file to read
+     * @param isCompressed
+     *            whether the file is gzip-compressed
+     * @param startOffset
+     *            the offset of the first byte to read (ignored for compressed files)
+     * @param endOffset
+     *            the offset after the last byte to read (ignored for compressed files)
+     * @return the line reader
+     */
+    private LineReader openLineReader(final FileObject file, final boolean isCompressed, final long startOffset, final long endOffset)
+        throws IOException
+    {
+        if (dispatcher.memoryMappedReading && !isCompressed && "file".equals(file.getName().getScheme()))
+        {
+            return new MappedLineReader(file.getPath(), startOffset, endOffset);
+        }
+
+        if (isCompressed)
+        {
+            // block-compressed files can be decompressed in parallel
+            final InputStream in = new BufferedInputStream(file.getContent().getInputStream(), 64 * 1024);
+            if (BlockGzipReader.isBlockGzip(in))
+            {
+                return new ParallelBlockGzipLineReader(new BlockGzipReader(in), dispatcher.decompressionExecutor,
+                                                       dispatcher.maxPendingBlocks);
+            }
+
+            return new XltBufferedLineReader(new InputStreamReader(new GZIPInputStream(in, 1024 * 16), XltConstants.UTF8_ENCODING));
+        }
+
+        return new XltBufferedLineReader(new InputStreamReader(openTimerLog(file, startOffset, endOffset),
+                                                               XltConstants.UTF8_ENCODING));
+    }
+
+    /**
+     * Opens the given uncompressed timer file for reading the data between the given offsets.
+     *
+     * @param file
+     *            the file to read
+     * @param startOffset
+     *            the offset of the first byte to read
+     * @param endOffset
+     *            the offset after the last byte to read
+     * @return the input stream
+     */
+    private InputStream openTimerLog(final FileObject file, final long startOffset, final long endOffset) throws IOException
+    {
+        final InputStream in = file.getContent().getInputStream();
+
+        if (startOffset > 0)
+        {
+            IOUtils.skipFully(in, startOffset);
+        }
+
+        return endOffset == Long.MAX_VALUE ? in : new BoundedInputStream(in, endOffset - startOffset);
+    }
+
+    /**
+     * Determines the offset right after the last line terminator in the given file, i.e. the end of the data that can
+     * safely be read while the file is still being written to.
+     *
+     * @param file
+     *            the file to check
+     * @param startOffset
+     *            the offset where to start searching backwards from the end
+     * @return the end offset of the last complete line, or <code>startOffset</code> if there is no complete line after
+     *         that offset
+     */
+    private static long getEndOfLastCompleteLine(final FileObject file, final long startOffset) throws IOException
+    {
+        final long size = file.getContent().getSize();
+        final byte[] buffer = new byte[16 * 1024];
+
+        try (final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ))
+        {
+            long windowEnd = size;
+            while (windowEnd > startOffset)
+            {
+                final long windowStart = Math.max(startOffset, windowEnd - buffer.length);
+                final int length = (int) (windowEnd - windowStart);
+
+                content.seek(windowStart);
+                content.readFully(buffer, 0, length);
+
+                for (int i = length - 1; i >= 0; i--)
+                {
+                    if (buffer[i] == '\n')
+                    {
+                        return windowStart + i + 1;
+                    }
+                }
+
+                windowEnd = windowStart;
+            }
+        }
+
+        return startOffset;
+    }
+
+    /**
+     * Reads the given binary timer file block by block. Blocks outside the report period are skipped as a whole.
+     *
+     * @param file
+     *            the file to read
+     * @param collectActionNames
+     *            whether action names should be collected
+     */
+    private void readBinaryTimerLog(final FileObject file, final boolean collectActionNames)
+    {
+        // binary files cannot be tailed, read them once in the final run
+        if (incremental && !finalRun)
+        {
+            return;
+        }
+
+        try (final BinaryTimerReader reader = new BinaryTimerReader(file.getContent().getInputStream()))
+        {
+            int baseLineNumber = 1;  // let record numbering start at 1
+
+            List<List<XltCharBuffer>> records;
+            while ((records = reader.readBlock(fromTime, toTime)) != null)
+            {
+                final int recordCount = records.size();
+                if (recordCount > 0)
+                {
+                    final DataChunk chunk = new DataChunk(null, records, baseLineNumber, file, agentName, testCaseName, userNumber,
+                                                          collectActionNames, false, actionNames);
+
+                    // deliver to dispatcher, this might block
+                    dispatcher.addReadData(chunk);
+
+                    baseLineNumber += recordCount;
+                    totalLineCounter.addAndGet(recordCount);
+                }
+            }
+        }
+        catch (final Exception ex)
+        {
+            LOG.error(String.format("Failed to read binary timer input file '%s'", file), ex);
+        }
+    }
+
+    /**
+     * The read state of a timer file in incremental mode.
+     */
+    private static class FileState
+    {
+        /**
+         * The offset in the file where to continue reading.
+         */
+        long offset;
+
+        /**
+         * The number of lines read so far.
+         */
+        int lineCount;
+    }
 }
@@ -15,10 +15,27 @@
  */
 package com.xceptance.xlt.report;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import com.xceptance.xlt.api.engine.ActionData;
+import com.xceptance.xlt.api.engine.CustomData;
+import com.xceptance.xlt.api.engine.CustomValue;
 import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.engine.EventData;
+import com.xceptance.xlt.api.engine.PageLoadTimingData;
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.api.engine.TransactionData;
+import com.xceptance.xlt.api.engine.WebVitalData;
 import com.xceptance.xlt.api.util.XltCharBuffer;
 import com.xceptance.xlt.api.util.XltException;
 
@@ -26,27 +43,86 @@ import com.xceptance.xlt.api.util.XltException;
  * Data classes hold processor for certain data types, such as Request, Transaction, Action, and more. This is indicated
  * in the logs by the first column of the record (a line), such as A, T, R, C, and more. This can be later extended. The
  * column is not limited to a single character and can hold more, in case we run out of options sooner or later.
+ * <p>
+ * Data record objects are created via suppliers generated at setup time, so creating an object is as cheap as a plain
+ * <code>new</code>. In addition, each parser thread may use a {@link RecordPool} to reuse objects that were dropped
+ * right after their base values had been parsed. If enabled, data record objects that went through the statistics
+ * processor can be handed back via {@link #recycle(List)} as well.
  */
 public class DataRecordFactory
 {
     /**
-     * The registered default constructors per Data(Record) type.
+     * The built-in data record classes which (re)set all of their fields when parsing a CSV line and hence may be reused
+     * after having been processed completely.
      */
-    private final Constructor<? extends Data> constructors[];
+    private static final Set<Class<? extends Data>> RECYCLABLE_CLASSES = Set.of(ActionData.class, CustomData.class,
+                                                                                 CustomValue.class, EventData.class,
+                                                                                 PageLoadTimingData.class,
+                                                                                 RequestData.class, TransactionData.class,
+                                                                                 WebVitalData.class);
+
+    /**
+     * The maximum number of processed record batches waiting to be reused.
+     */
+    private static final int MAX_RECYCLED_BATCHES = 64;
+
+    /**
+     * The maximum number of spare objects per data record type in a record pool.
+     */
+    private static final int MAX_SPARES_PER_TYPE = 4096;
+
+    /**
+     * The generated factories per Data(Record) type.
+     */
+    private final Supplier<? extends Data>[] suppliers;
+
+    /**
+     * The registered classes per Data(Record) type.
+     */
+    private final Class<? extends Data>[] classes;
 
     /**
      * The offset of the characters in that array aka A-Z, needs offset A
      */
     private final int offset;
 
+    /**
+     * Whether or not processed data record objects may be reused.
+     */
+    private final boolean recyclingEnabled;
+
+    /**
+     * Batches of processed data record objects waiting to be reused by a record pool, or <code>null</code> if
+     * recycling is disabled.
+     */
+    private final ConcurrentLinkedQueue<List<Data>> recycledBatches;
+
+    /**
+     * The current number of batches in {@link #recycledBatches}.
+     */
+    private final AtomicInteger recycledBatchCount = new AtomicInteger();
+
     /**
      * Setup this factory based on the config
      *
      * @param dataClasses
      *            the data classes to support
      */
-    @SuppressWarnings("unchecked")
     public DataRecordFactory(final Map<String, Class<? extends Data>> dataClasses)
+    {
+        this(dataClasses, false);
+    }
+
+    /**
+     * Setup this factory based on the config
+     *
+     * @param dataClasses
+     *            the data classes to support
+     * @param recyclingEnabled
+     *            whether or not processed data record objects may be handed back via {@link #recycle(List)}
+     */
+    @SuppressWarnings("unchecked")
+    public DataRecordFactory(final Map<String, Class<? extends Data>> dataClasses, final boolean recyclingEnabled)
     {
         // parameter check
         if (dataClasses == null || dataClasses.size() == 0)
@@ -67,23 +143,72 @@ public class DataRecordFactory
         }
 
         offset = min;
-        constructors = new Constructor[max - offset + 1];
+        suppliers = (Supplier<? extends Data>[]) new Supplier<?>[max - offset + 1];
+        classes = (Class<? extends Data>[]) new Class<?>[max - offset + 1];
 
-        // partially fill the array with constructor references
+        // partially fill the arrays
         for (final Map.Entry<String, Class<? extends Data>> entry : dataClasses.entrySet())
         {
             final int typeCode = entry.getKey().charAt(0);
             final Class<? extends Data> clazz = entry.getValue();
 
-            try
-            {
-                final Constructor<? extends Data> constructor = clazz.getConstructor();
-                constructors[typeCode - offset] = constructor;
-            }
-            catch (final NoSuchMethodException | SecurityException e)
-            {
-                throw new XltException("Could not determine default constructor of class " + clazz.getName(), e);
-            }
+            suppliers[typeCode - offset] = createSupplier(clazz);
+            classes[typeCode - offset] = clazz;
+        }
+
+        this.recyclingEnabled = recyclingEnabled;
+        recycledBatches = recyclingEnabled ? new ConcurrentLinkedQueue<>() : null;
+    }
+
+    /**
+     * Creates a supplier that calls the public default constructor of the given class. If possible, the supplier is
+     * generated via {@link LambdaMetafactory}, which makes it as fast as a hand-written lambda. For classes not
+     * accessible this way (for example, classes loaded by a different class loader), the constructor's method handle
+     * is invoked instead.
+     *
+     * @param clazz
+     *            the data class
+     * @return the supplier
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<? extends Data> createSupplier(final Class<? extends Data> clazz)
+    {
+        final MethodHandle constructor;
+        try
+        {
+            constructor = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class));
+        }
+        catch (final NoSuchMethodException | IllegalAccessException | SecurityException e)
+        {
+            throw new XltException("Could not determine default constructor of class " + clazz.getName(), e);
+        }
+
+        try
+        {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                                                                MethodType.methodType(Object.class), constructor,
+                                                                MethodType.methodType(clazz));
+
+            return (Supplier<? extends Data>) site.getTarget().invoke();
+        }
+        catch (final Throwable t)
+        {
+            // fall back to the plain method handle
+            return () -> {
+                try
+                {
+                    return (Data) constructor.invoke();
+                }
+                catch (final RuntimeException | Error e)
+                {
+                    throw e;
+                }
+                catch (final Throwable e)
+                {
+                    throw new XltException("Failed to create instance of class " + clazz.getName(), e);
+                }
+            };
         }
     }
 
@@ -100,9 +225,208 @@ public class DataRecordFactory
     {
         // TODO: The following may throw NullPointerException or ArrayIndexOutOfBoundsException in case of unknown type
         // codes.
-        final Constructor<? extends Data> c = constructors[src.charAt(0) - offset];
-        final Data data = c.newInstance();
+        return suppliers[src.charAt(0) - offset].get();
+    }
+
+    /**
+     * Returns whether or not processed data record objects may be handed back via {@link #recycle(List)}.
+     *
+     * @return whether recycling is enabled
+     */
+    public boolean isRecyclingEnabled()
+    {
+        return recyclingEnabled;
+    }
 
-        return data;
+    /**
+     * Hands a batch of data record objects back to this factory once they went through the statistics processor, so
+     * that the record pools can reuse them. Only objects of the built-in data record classes are reused later on. The
+     * objects must not be referenced anywhere else anymore. If recycling is disabled or enough batches are waiting
+     * already, the batch is simply left to the garbage collector.
+     *
+     * @param records
+     *            the processed data record objects
+     */
+    public void recycle(final List<Data> records)
+    {
+        if (recyclingEnabled && recycledBatchCount.incrementAndGet() <= MAX_RECYCLED_BATCHES)
+        {
+            recycledBatches.offer(records);
+        }
+        else
+        {
+            recycledBatchCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes the next batch of recycled data record objects.
+     *
+     * @return the batch, or <code>null</code> if there is none
+     */
+    private List<Data> takeRecycledBatch()
+    {
+        final List<Data> batch = recycledBatches.poll();
+        if (batch != null)
+        {
+            recycledBatchCount.decrementAndGet();
+        }
+
+        return batch;
+    }
+
+    /**
+     * Returns the index of the given data record object's type if the object is of exactly the class this factory
+     * would create for its type code.
+     *
+     * @param data
+     *            the data record object
+     * @return the type index, or -1 if the object is a foreign one
+     */
+    private int getTypeIndex(final Data data)
+    {
+        final int index = data.getTypeCode() - offset;
+
+        return index >= 0 && index < classes.length && classes[index] == data.getClass() ? index : -1;
+    }
+
+    /**
+     * Creates a new pool of reusable data record objects. A pool must be used by one thread only.
+     *
+     * @return the pool
+     */
+    public RecordPool createRecordPool()
+    {
+        return new RecordPool();
+    }
+
+    /**
+     * A per-thread pool of reusable data record objects. The pool is fed with objects that have been dropped right
+     * after {@link Data#setBaseValues(java.util.List)}, for example because they lie outside the report period or were
+     * sampled out. Such objects carry nothing but their base values, which are overwritten completely when the object
+     * is reused. If recycling is enabled for the factory, the pool additionally refills itself from the batches of
+     * processed objects handed back via {@link DataRecordFactory#recycle(List)}. Of those, only objects of the
+     * built-in data record classes are reused since custom classes might not (re)set all of their fields when parsing.
+     */
+    public final class RecordPool
+    {
+        /**
+         * The spare objects per data record type, used as stacks.
+         */
+        private final Data[][] spares = new Data[suppliers.length][];
+
+        /**
+         * The number of spare objects per data record type.
+         */
+        private final int[] spareCounts = new int[suppliers.length];
+
+        /**
+         * Private constructor.
+         */
+        private RecordPool()
+        {
+        }
+
+        /**
+         * Creates a data record object for the given CSV line, reusing a spare object if available.
+         *
+         * @param src
+         *            the csv line
+         * @return a data record object matching the type code
+         * @see DataRecordFactory#createStatistics(XltCharBuffer)
+         */
+        public Data createStatistics(final XltCharBuffer src)
+        {
+            final int index = src.charAt(0) - offset;
+
+            if (spareCounts[index] == 0 && recyclingEnabled)
+            {
+                refill();
+            }
+
+            final int count = spareCounts[index];
+            if (count > 0)
+            {
+                final Data spare = spares[index][count - 1];
+                spares[index][count - 1] = null;
+                spareCounts[index] = count - 1;
+
+                return spare;
+            }
+
+            return suppliers[index].get();
+        }
+
+        /**
+         * Returns a data record object to this pool. The object must not have been parsed beyond its base values and must
+         * not be referenced anywhere else.
+         *
+         * @param data
+         *            the data record object
+         */
+        public void recycle(final Data data)
+        {
+            // only take objects we would have created ourselves
+            final int index = getTypeIndex(data);
+            if (index >= 0)
+            {
+                push(index, data);
+            }
+        }
+
+        /**
+         * Takes the next batch of processed data record objects from the factory, if any, and distributes the reusable
+         * ones among the per-type stacks.
+         */
+        private void refill()
+        {
+            final List<Data> batch = takeRecycledBatch();
+            if (batch != null)
+            {
+                for (int i = 0; i < batch.size(); i++)
+                {
+                    final Data data = batch.get(i);
+
+                    final int index = getTypeIndex(data);
+                    if (index >= 0 && RECYCLABLE_CLASSES.contains(data.getClass()))
+                    {
+                        push(index, data);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Puts the given object onto the stack of spare objects of the given type unless that stack is full already.
+         *
+         * @param index
+         *            the type index
+         * @param data
+         *            the data record object
+         */
+        private void push(final int index, final Data data)
+        {
+            Data[] stack = spares[index];
+            final int count = spareCounts[index];
+
+            if (stack == null || count == stack.length)
+            {
+                if (count == MAX_SPARES_PER_TYPE)
+                {
+                    return;
+                }
+
+                final Data[] newStack = new Data[stack == null ? 16 : Math.min(stack.length * 2, MAX_SPARES_PER_TYPE)];
+                if (stack != null)
+                {
+                    System.arraycopy(stack, 0, newStack, 0, count);
+                }
+
+                stack = spares[index] = newStack;
+            }
+
+            stack[count] = data;
+            spareCounts[index] = count + 1;
+        }
     }
 }
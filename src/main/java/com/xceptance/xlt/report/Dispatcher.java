@@ -16,6 +16,7 @@
 package com.xceptance.xlt.report;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -72,10 +73,25 @@ public class Dispatcher
      */
     public final int chunkSize;
 
+    /**
+     * Whether local uncompressed timer files are to be read via memory-mapping
+     */
+    public final boolean memoryMappedReading;
+
+    /**
+     * The executor that decompresses the blocks of block-compressed timer files
+     */
+    public final Executor decompressionExecutor;
+
+    /**
+     * The maximum number of blocks a single reader may have decompressed ahead
+     */
+    public final int maxPendingBlocks;
+
     /**
      * Our progress bar
      */
-    private final ProgressBar progressBar = new ProgressBarBuilder().setTaskName("Reading").setStyle(ProgressBarStyle.ASCII).build();
+    private volatile ProgressBar progressBar = createProgressBar();
 
     /**
      * Where the processed data goes for final result evaluation
@@ -90,17 +106,41 @@ public class Dispatcher
      * @param maxActiveThreads
      *            the maximum number of active threads
      */
-    public Dispatcher(final ReportGeneratorConfiguration config, final StatisticsProcessor statisticsProcessor)
+    public Dispatcher(final ReportGeneratorConfiguration config, final StatisticsProcessor statisticsProcessor,
+                      final Executor decompressionExecutor)
     {
         readDataQueue = new LinkedBlockingQueue<>(config.threadQueueLength);
 
         chunkSize = config.threadQueueBucketSize;
+        memoryMappedReading = config.readerMemoryMapped;
+
+        this.decompressionExecutor = decompressionExecutor;
+        maxPendingBlocks = Math.max(2, config.decompressionThreadCount / config.readerThreadCount + 1);
 
         this.statisticsProcessor = statisticsProcessor;
     }
 
+    /**
+     * Prepares the progress bar for a new reading pass. Needed in incremental mode only, where data is read in several
+     * passes.
+     */
     public void startProgress()
     {
+        if (progressBar == null)
+        {
+            totalDirectories.set(0);
+            progressBar = createProgressBar();
+        }
+    }
+
+    /**
+     * Creates a new progress bar.
+     *
+     * @return the progress bar
+     */
+    private static ProgressBar createProgressBar()
+    {
+        return new ProgressBarBuilder().setTaskName("Reading").setStyle(ProgressBarStyle.ASCII).build();
     }
 
     /**
@@ -125,9 +165,11 @@ public class Dispatcher
      */
     public void finishedReading()
     {
-        remainingDirectories.decrement();
         progressBar.maxHint(totalDirectories.get());
         progressBar.step();
+
+        // decrement last as the progress bar is closed once all directories are done
+        remainingDirectories.decrement();
     }
 
     /**
@@ -160,8 +202,31 @@ public class Dispatcher
      */
     public void addPostprocessedData(final PostProcessedDataContainer postprocessedData) throws InterruptedException
     {
-        statisticsProcessor.process(postprocessedData);
-        finishedProcessing();
+        statisticsProcessor.process(postprocessedData, this::finishedProcessing);
+    }
+
+    /**
+     * Delivers a parsed chunk of data and puts it through the statistics processors. Once all of them are done with the
+     * chunk, the given callback is run before the chunk is reported as finished.
+     *
+     * @param postprocessedData
+     *            the data record chunk
+     * @param whenProcessed
+     *            the callback to run after processing
+     */
+    public void addPostprocessedData(final PostProcessedDataContainer postprocessedData, final Runnable whenProcessed)
+        throws InterruptedException
+    {
+        statisticsProcessor.process(postprocessedData, () -> {
+            try
+            {
+                whenProcessed.run();
+            }
+            finally
+            {
+                finishedProcessing();
+            }
+        });
     }
 
     /**
@@ -187,6 +252,7 @@ public class Dispatcher
 
         // stop progress
         progressBar.close();
+        progressBar = null;
     }
 
     /**
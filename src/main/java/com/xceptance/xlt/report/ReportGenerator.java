@@ -24,6 +24,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
@@ -37,6 +41,7 @@ import org.apache.commons.vfs2.VFS;
 
 import com.xceptance.common.util.Console;
 import com.xceptance.common.util.ProductInformation;
+import com.xceptance.common.xml.XSLTUtils;
 import com.xceptance.xlt.api.report.ReportProvider;
 import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.common.XltConstants;
@@ -167,6 +172,7 @@ public class ReportGenerator
 
         // configure the Webp encoder
         JFreeChartUtils.setWebpCompressionFactor(config.getChartCompressionFactor());
+        JFreeChartUtils.setMaximumEncoderCount(config.getChartEncoderThreadCount());
 
         // setup the report providers
         reportProviders = new ArrayList<ReportProvider>();
@@ -250,21 +256,7 @@ public class ReportGenerator
             // clean/create output directory first
             ensureOutputDirAndClean(this.outputDir);
 
-            for (final Class<? extends ReportProvider> c : config.getReportProviderClasses())
-            {
-                try
-                {
-                    final ReportProvider processor = c.getDeclaredConstructor().newInstance();
-                    processor.setConfiguration(config);
-
-                    reportProviders.add(processor);
-                }
-                catch (final Throwable t)
-                {
-                    XltLogger.reportLogger.error("Failed to instantiate and initialize report provider instance of class '{}'",
-                                                 c.getCanonicalName(), t);
-                }
-            }
+            createReportProviders();
 
             // read all log files and crunch the data
             readLogs(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel);
@@ -275,30 +267,172 @@ public class ReportGenerator
             // drop providers
             reportProviders.clear();
 
-            // evaluate report if desired
-            final File scorecardXml = evaluateReport(xmlReport);
+            // evaluate and transform the report
+            finishReport(xmlReport);
+        }
+        finally
+        {
+            ConcurrentUsersTable.getInstance().clear();
+        }
+    }
+
+    /**
+     * Generates the full HTML load test report while the load test is still running. The raw data is read in several
+     * passes, each pass reading only the data that has been appended since the previous pass, and the report is
+     * re-created after each pass that found new data. All report providers keep their state in between, so
+     * intermediate reports are cheap and the final report is available shortly after the load test has finished.
+     * <p>
+     * The load test is considered finished once no new data has been written for the configured idle timeout. The final
+     * pass then also reads the data that cannot be tailed (compressed and binary timer files) as well as external
+     * data.
+     *
+     * @param fromTime
+     *            start time in seconds
+     * @param toTime
+     *            end time in seconds
+     * @param duration
+     *            duration in milliseconds
+     * @param noRampUp
+     *            whether or not to exclude ramp-up period from report
+     * @param fromTimeRel
+     *            specifies whether or not 'from time' is a relative time value
+     * @param toTimeRel
+     *            specifies whether or not 'to time' is a relative time value
+     * @param interval
+     *            the time in milliseconds to wait between two reading passes
+     * @throws Exception
+     *             if anything goes wrong during report creation
+     */
+    public void followReport(final long fromTime, final long toTime, final long duration, final boolean noRampUp,
+                             final boolean fromTimeRel, final boolean toTimeRel, final long interval)
+        throws Exception
+    {
+        try
+        {
+            // clean/create output directory first
+            ensureOutputDirAndClean(this.outputDir);
+
+            createReportProviders();
 
-            // create the html report
-            transformReport(xmlReport, outputDir, scorecardXml != null);
+            final long[] timeBoundaries = getReportPeriod(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel);
+            final DataProcessor logReader = createDataProcessor(timeBoundaries[0], timeBoundaries[1]);
 
-            // create the report's Scorecard HTML (if evaluation took place)
-            if (scorecardXml != null)
+            final long idleTimeout = config.followIdleTimeout * 1000L;
+            long lastDataTime = System.currentTimeMillis();
+            boolean finalPass;
+
+            do
             {
-                transformScorecard(scorecardXml);
-            }
+                finalPass = System.currentTimeMillis() - lastDataTime >= idleTimeout;
+
+                XltLogger.reportLogger.info(Console.horizontalBar());
+                XltLogger.reportLogger.info(Console.startSection(finalPass ? "Reading Remaining Log Files..." : "Reading New Log Data..."));
+                final long recordCount = logReader.readNewDataRecords(finalPass);
+                XltLogger.reportLogger.info(Console.endSection());
+
+                if (recordCount > 0)
+                {
+                    lastDataTime = System.currentTimeMillis();
+                }
+
+                if (recordCount > 0 || finalPass)
+                {
+                    final long minTime = logReader.getMinimumTime();
+                    final long maxTime = logReader.getMaximumTime();
+
+                    config.setChartStartTime(minTime);
+                    config.setChartEndTime(maxTime);
 
-            // output the path to the report either as file path (Win) or as clickable file URL
-            final File reportFile = new File(outputDir, "index.html");
-            final String reportPath = ReportUtils.toString(reportFile);
+                    // external data is processed only once
+                    if (finalPass)
+                    {
+                        processExternalData(minTime, maxTime);
+                    }
 
-            XltLogger.reportLogger.info("Report: {}", reportPath);
+                    // the transformation step reduces the thread count, so restore it
+                    TaskManager.getInstance().setMaximumThreadCount(Runtime.getRuntime().availableProcessors());
+
+                    final File xmlReport = createReport(outputDir);
+                    finishReport(xmlReport);
+                }
+
+                if (!finalPass)
+                {
+                    Thread.sleep(interval);
+                }
+            }
+            while (!finalPass);
         }
         finally
         {
+            reportProviders.clear();
             ConcurrentUsersTable.getInstance().clear();
         }
     }
 
+    /**
+     * Creates and configures the report providers.
+     */
+    private void createReportProviders()
+    {
+        for (final Class<? extends ReportProvider> c : config.getReportProviderClasses())
+        {
+            try
+            {
+                final ReportProvider processor = c.getDeclaredConstructor().newInstance();
+                processor.setConfiguration(config);
+
+                reportProviders.add(processor);
+            }
+            catch (final Throwable t)
+            {
+                XltLogger.reportLogger.error("Failed to instantiate and initialize report provider instance of class '{}'",
+                                             c.getCanonicalName(), t);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the given XML report if so configured and transforms it to HTML files.
+     *
+     * @param xmlReport
+     *            the XML report file
+     * @throws Exception
+     *             if anything goes wrong during transformation
+     */
+    private void finishReport(final File xmlReport) throws Exception
+    {
+        // parse the XML report only once for both the evaluation and the transformation
+        Source reportSource;
+        try
+        {
+            reportSource = XSLTUtils.parse(xmlReport);
+        }
+        catch (final TransformerException e)
+        {
+            XltLogger.reportLogger.error("Failed to parse XML report", e);
+            reportSource = new StreamSource(xmlReport);
+        }
+
+        // evaluate report if desired
+        final File scorecardXml = evaluateReport(reportSource);
+
+        // create the html report
+        transformReport(xmlReport, reportSource, outputDir, scorecardXml != null);
+
+        // create the report's Scorecard HTML (if evaluation took place)
+        if (scorecardXml != null)
+        {
+            transformScorecard(scorecardXml);
+        }
+
+        // output the path to the report either as file path (Win) or as clickable file URL
+        final File reportFile = new File(outputDir, "index.html");
+        final String reportPath = ReportUtils.toString(reportFile);
+
+        XltLogger.reportLogger.info("Report: {}", reportPath);
+    }
+
     /**
      * Reads the raw load test result data from disk and processes and stores it in memory.
      *
@@ -314,23 +448,41 @@ public class ReportGenerator
     {
         XltLogger.reportLogger.info(Console.horizontalBar());
         XltLogger.reportLogger.info(Console.startSection("Reading Log Files..."));
+
+        // convert to absolute timestamp
+        final long[] timeBoundaries = getReportPeriod(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel);
+
+        read(timeBoundaries[0], timeBoundaries[1]);
+        XltLogger.reportLogger.info(Console.endSection());
+    }
+
+    /**
+     * Determines the absolute start and end time of the period to report.
+     *
+     * @param fromTime
+     * @param toTime
+     * @param duration
+     * @param noRampUp
+     * @param fromTimeRel
+     * @param toTimeRel
+     * @return the start and end time
+     */
+    private long[] getReportPeriod(final long fromTime, final long toTime, final long duration, final boolean noRampUp,
+                                   final boolean fromTimeRel, final boolean toTimeRel)
+    {
         final long testStartTime = config.getLongProperty(XltConstants.LOAD_TEST_START_DATE, 0);
         final long elapsedTime = config.getLongProperty(XltConstants.LOAD_TEST_ELAPSED_TIME, 0);
 
-        // convert to absolute timestamp
         final long[] timeBoundaries = getTimeBoundaries(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel, testStartTime,
                                                         elapsedTime);
-        fromTime = timeBoundaries[0];
-        toTime = timeBoundaries[1];
 
-        printStartAndEndTime(fromTime, toTime);
-        if (toTime <= fromTime)
+        printStartAndEndTime(timeBoundaries[0], timeBoundaries[1]);
+        if (timeBoundaries[1] <= timeBoundaries[0])
         {
             throw new IllegalArgumentException("Specified start must not be after specified end.");
         }
 
-        read(fromTime, toTime);
-        XltLogger.reportLogger.info(Console.endSection());
+        return timeBoundaries;
     }
 
     private long[] getTimeBoundaries(long fromTime, long toTime, final long duration, final boolean noRampUp, final boolean fromTimeRel,
@@ -418,13 +570,8 @@ public class ReportGenerator
      */
     private void read(final long fromTime, final long toTime)
     {
-        // setup data record factory
-        final DataRecordFactory dataRecordFactory = new DataRecordFactory(config.getDataRecordClasses());
-
         // read the logs
-        final DataProcessor logReader = new DataProcessor(config, inputDir, dataRecordFactory, fromTime, toTime, reportProviders,
-                                                          testCaseIncludePatternList, testCaseExcludePatternList, agentIncludePatternList,
-                                                          agentExcludePatternList);
+        final DataProcessor logReader = createDataProcessor(fromTime, toTime);
         logReader.readDataRecords();
 
         XltLogger.reportLogger.info(Console.endSection());
@@ -435,6 +582,37 @@ public class ReportGenerator
         config.setChartStartTime(minTime);
         config.setChartEndTime(maxTime);
 
+        processExternalData(minTime, maxTime);
+    }
+
+    /**
+     * Creates the data processor that feeds the report providers.
+     *
+     * @param fromTime
+     *            start time of the period to report
+     * @param toTime
+     *            end time of the period to report
+     * @return the data processor
+     */
+    private DataProcessor createDataProcessor(final long fromTime, final long toTime)
+    {
+        // setup data record factory
+        final DataRecordFactory dataRecordFactory = new DataRecordFactory(config.getDataRecordClasses(), config.recycleDataRecords);
+
+        return new DataProcessor(config, inputDir, dataRecordFactory, fromTime, toTime, reportProviders, testCaseIncludePatternList,
+                                 testCaseExcludePatternList, agentIncludePatternList, agentExcludePatternList);
+    }
+
+    /**
+     * Processes the external data files.
+     *
+     * @param minTime
+     *            the time of the first data record
+     * @param maxTime
+     *            the time of the last data record
+     */
+    private void processExternalData(final long minTime, final long maxTime)
+    {
         // external data
         {
             try
@@ -541,6 +719,9 @@ public class ReportGenerator
         XltLogger.reportLogger.info(Console.startSection("Creating Artifacts..."));
         copyConfiguration(outputDir);
 
+        // charts of a previous report in the same directory are about to be overwritten
+        JFreeChartUtils.clearImageCache();
+
         // create the report generator
         final XmlReportGenerator xmlReportGenerator = new XmlReportGenerator();
 
@@ -629,6 +810,25 @@ public class ReportGenerator
      *             if anything goes wrong during transformation
      */
     public void transformReport(final File inputXmlFile, final File outputDir, final boolean scorecardPresent) throws Exception
+    {
+        transformReport(inputXmlFile, null, outputDir, scorecardPresent);
+    }
+
+    /**
+     * Transforms the given input XML file to HTML files according to the configured transformation rules.
+     *
+     * @param inputXmlFile
+     *            the input XML file
+     * @param inputXmlSource
+     *            the already parsed input XML file, may be <code>null</code>
+     * @param outputDir
+     *            the target directory
+     * @throws Exception
+     *             if anything goes wrong during transformation
+     */
+    private void transformReport(final File inputXmlFile, final Source inputXmlSource, final File outputDir,
+                                 final boolean scorecardPresent)
+        throws Exception
     {
         XltLogger.reportLogger.info(Console.horizontalBar());
         XltLogger.reportLogger.info(Console.startSection("Creating HTML Report..."));
@@ -674,11 +874,19 @@ public class ReportGenerator
         {
             XltLogger.reportLogger.info("XML data file: {}", inputXmlFile);
 
-            // ok, we want to avoid high memory usage
-            TaskManager.getInstance().setMaximumThreadCount(1);
+            // the XML data is parsed only once and shared by all transformations, which may run in parallel, but each
+            // transformation needs memory for its result tree, so the parallelism is limited by configuration
+            TaskManager.getInstance().setMaximumThreadCount(config.transformationThreadCount);
 
             TaskManager.getInstance().startProgress("Creating");
-            reportTransformer.run(inputXmlFile, outputDir);
+            if (inputXmlSource != null)
+            {
+                reportTransformer.run(inputXmlSource, outputDir);
+            }
+            else
+            {
+                reportTransformer.run(inputXmlFile, outputDir);
+            }
 
         }
         finally
@@ -722,7 +930,7 @@ public class ReportGenerator
         final File xmlReport = new File(outputDir, XltConstants.LOAD_REPORT_XML_FILENAME);
 
         // evaluate test if desired
-        final File scorecardXml = evaluateReport(xmlReport);
+        final File scorecardXml = evaluateReport(new StreamSource(xmlReport));
 
         // create the report's Scorecard HTML (if evaluation took place)
         if (scorecardXml != null)
@@ -788,11 +996,11 @@ public class ReportGenerator
      * {@value XltConstants#SCORECARD_REPORT_XML_FILENAME}. N.B. No evaluation is done if there is no proper
      * configuration file (see property {@value XltConstants#SCORECARD_CONFIG_FILE_PROPERTY}) configured.
      *
-     * @param reportXMLFile
+     * @param reportXML
      *            the test report XML to evaluate
      * @return the scorecard's XML file if evaluation took place, or {@code null} otherwise.
      */
-    private File evaluateReport(final File reportXMLFile)
+    private File evaluateReport(final Source reportXML)
     {
         final String scorecardConfig = config.getStringProperty(XltConstants.SCORECARD_CONFIG_FILE_PROPERTY, null);
         final File scorecardConfigFile = scorecardConfig != null ? new File(new File(outputDir, XltConstants.CONFIG_DIR_NAME),
@@ -807,7 +1015,7 @@ public class ReportGenerator
             {
                 final File scorecardXMLFile = new File(outputDir, XltConstants.SCORECARD_REPORT_XML_FILENAME);
                 final Evaluator evaluator = new Evaluator(scorecardConfigFile);
-                final Scorecard outcome = evaluator.evaluate(reportXMLFile);
+                final Scorecard outcome = evaluator.evaluate(reportXML);
 
                 final String error = outcome.result.getError();
                 if (StringUtils.isNotBlank(error))
@@ -49,6 +49,7 @@ import com.xceptance.xlt.report.mergerules.InvalidRequestProcessingRuleException
 import com.xceptance.xlt.report.mergerules.RequestProcessingRule;
 import com.xceptance.xlt.report.providers.RequestTableColorization;
 import com.xceptance.xlt.report.providers.RequestTableColorization.ColorizationRule;
+import com.xceptance.xlt.report.util.LogLinearHistogram;
 
 /**
  * The ReportGeneratorConfiguration is the central place where all configuration information for the report generator
@@ -68,6 +69,18 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
         LOGARITHMIC
     }
 
+    /**
+     * The supported criteria to select the timers to render charts for if the number of timers is limited.
+     */
+    public enum ChartTimerOrder
+    {
+        /** The timers with the highest count (default). */
+        COUNT,
+
+        /** The timers with the highest error rate. */
+        ERRORS
+    }
+
     /**
      * The settings describing how a chart is to be capped.
      */
@@ -120,6 +133,8 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     private static final String PROP_RUNTIME_PERCENTILES = PROP_PREFIX + "runtimePercentiles";
 
+    private static final String PROP_RUNTIME_HISTOGRAM_SIGNIFICANT_DIGITS = PROP_PREFIX + "runtimeHistogram.significantDigits";
+
     private static final String PROP_RUNTIME_INTERVAL_BOUNDARIES = PROP_PREFIX + "runtimeIntervalBoundaries";
 
     private static final String PROP_REQUESTS_TABLE_COLORIZE = PROP_PREFIX + "requests.table.colorization";
@@ -150,6 +165,12 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     private static final String PROP_CHARTS_WIDTH = PROP_CHARTS_PREFIX + "width";
 
+    private static final String PROP_CHARTS_ENCODER_THREADS = PROP_CHARTS_PREFIX + "encoder.threads";
+
+    private static final String PROP_CHARTS_TIMER_LIMIT = PROP_CHARTS_PREFIX + "timerLimit";
+
+    private static final String PROP_CHARTS_TIMER_LIMIT_ORDER = PROP_CHARTS_TIMER_LIMIT + ".orderBy";
+
     private static final String PROP_DATA_RECORD_CLASSES_PREFIX = PROP_PREFIX + "dataRecords.";
 
     private static final String PROP_REPORT_PROVIDER_CLASSES_PREFIX = PROP_PREFIX + "providers.";
@@ -167,10 +188,28 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     private static final String PROP_THREAD_QUEUE_SIZE = PROP_PREFIX + "queue.bucketsize";
 
+    private static final String PROP_READER_MEMORY_MAPPED = PROP_PREFIX + "reader.memoryMapped";
+
+    private static final String PROP_DECOMPRESSION_THREAD_COUNT = PROP_PREFIX + "reader.decompressionThreads";
+
+    private static final String PROP_STATISTICS_WORKER_COUNT = PROP_PREFIX + "statistics.workers";
+
+    private static final String PROP_RECYCLE_DATA_RECORDS = PROP_PREFIX + "statistics.recycleDataRecords";
+
+    private static final String PROP_MERGE_RULE_CACHE_MAX_SIZE = PROP_PREFIX + "mergeRuleCache.maxSize";
+
+    private static final String PROP_MERGE_RULE_CACHE_MIN_HIT_RATE = PROP_PREFIX + "mergeRuleCache.minHitRate";
+
+    private static final String PROP_NAME_DICTIONARY_SIZE = PROP_PREFIX + "nameDictionary.size";
+
     private static final String PROP_THREAD_QUEUE_LENGTH = PROP_PREFIX + "queue.length";
 
+    private static final String PROP_TRANSFORMATION_THREAD_COUNT = PROP_PREFIX + "transformation.threads";
+
     private static final String PROP_DATA_SAMPLE_FACTOR = PROP_PREFIX + "data.sampleFactor";
 
+    private static final String PROP_FOLLOW_IDLE_TIMEOUT = PROP_PREFIX + "follow.idleTimeout";
+
     private static final String PROP_TRANSFORMATIONS_PREFIX = PROP_PREFIX + "transformations.";
 
     private static final String PROP_TRANSFORMATIONS_STYLE_SHEET_FILE_SUFFIX = ".styleSheetFileName";
@@ -197,6 +236,12 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     private final int chartsWidth;
 
+    private final int chartsEncoderThreadCount;
+
+    private final int chartsTimerLimit;
+
+    private final ChartTimerOrder chartsTimerOrder;
+
     private final File configDirectory;
 
     private final Map<String, Class<? extends Data>> dataRecordClasses;
@@ -213,6 +258,8 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     private final double[] runtimePercentiles;
 
+    private final int runtimeHistogramSignificantDigits;
+
     private final List<RequestTableColorization> requestTableColorization;
 
     private final List<String> styleSheetFileNames;
@@ -249,12 +296,59 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
     public final int parserThreadCount;
 
+    /**
+     * Whether uncompressed timer files on the local file system are read via memory-mapping.
+     */
+    public final boolean readerMemoryMapped;
+
+    /**
+     * The number of threads decompressing the blocks of block-compressed timer files.
+     */
+    public final int decompressionThreadCount;
+
+    /**
+     * The number of workers the report providers are distributed to, or 0 if the parser threads feed the providers.
+     */
+    public final int statisticsWorkerCount;
+
+    /**
+     * Whether data record objects are reused by the parser threads once they went through the report providers.
+     */
+    public final boolean recycleDataRecords;
+
+    /**
+     * The number of threads that render the report pages from the XML data via XSLT.
+     */
+    public final int transformationThreadCount;
+
+    /**
+     * The maximum memory footprint (in MB) of all merge rule match caches shared by the parser threads, or 0 if each
+     * parser thread caches on its own.
+     */
+    public final int mergeRuleCacheMaxSize;
+
+    /**
+     * The minimum hit rate [0..1] a shared merge rule match cache must achieve to not be bypassed.
+     */
+    public final double mergeRuleCacheMinHitRate;
+
+    /**
+     * The maximum number of distinct names (and other short values) the parser threads share canonical instances of, or
+     * 0 if disabled.
+     */
+    public final int nameDictionarySize;
+
     public final int threadQueueBucketSize;
 
     public final int threadQueueLength;
 
     public final int dataSampleFactor;
 
+    /**
+     * In follow mode, the time (in seconds) without any new data after which the load test is considered finished.
+     */
+    public final int followIdleTimeout;
+
     private final ChartScale chartScaleMode;
 
     private final ChartCappingInfo transactionChartCappingInfo;
@@ -442,15 +536,28 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
         chartsCompressionFactor = (float) getDoubleProperty(PROP_CHARTS_COMPRESSION_FACTOR, 0.0f);
         chartsWidth = getIntProperty(PROP_CHARTS_WIDTH, 900);
         chartsHeight = getIntProperty(PROP_CHARTS_HEIGHT, 300);
+        chartsEncoderThreadCount = Math.max(1, getIntProperty(PROP_CHARTS_ENCODER_THREADS,
+                                                              Runtime.getRuntime().availableProcessors() / 2));
+        chartsTimerLimit = Math.max(0, getIntProperty(PROP_CHARTS_TIMER_LIMIT, 0));
+        chartsTimerOrder = getEnumProperty(ChartTimerOrder.class, PROP_CHARTS_TIMER_LIMIT_ORDER, ChartTimerOrder.COUNT);
         movingAveragePoints = getIntProperty(PROP_CHARTS_MOV_AVG_PERCENTAGE, 5);
 
         readerThreadCount = Math.max(1, getIntProperty(PROP_READER_THREAD_COUNT, Runtime.getRuntime().availableProcessors()));
         parserThreadCount = Math.max(1, getIntProperty(PROP_PARSER_THREAD_COUNT, Runtime.getRuntime().availableProcessors()));
+        statisticsWorkerCount = Math.max(0, getIntProperty(PROP_STATISTICS_WORKER_COUNT, 0));
+        recycleDataRecords = getBooleanProperty(PROP_RECYCLE_DATA_RECORDS, false);
+        mergeRuleCacheMaxSize = Math.max(0, getIntProperty(PROP_MERGE_RULE_CACHE_MAX_SIZE, 32));
+        mergeRuleCacheMinHitRate = Math.min(1.0, Math.max(0.0, getDoubleProperty(PROP_MERGE_RULE_CACHE_MIN_HIT_RATE, 0.3)));
+        nameDictionarySize = Math.max(0, getIntProperty(PROP_NAME_DICTIONARY_SIZE, 100000));
+        readerMemoryMapped = getBooleanProperty(PROP_READER_MEMORY_MAPPED, false);
+        decompressionThreadCount = Math.max(1, getIntProperty(PROP_DECOMPRESSION_THREAD_COUNT, Runtime.getRuntime().availableProcessors()));
 
         dataSampleFactor = Math.max(1, getIntProperty(PROP_DATA_SAMPLE_FACTOR, 1));
+        followIdleTimeout = Math.max(1, getIntProperty(PROP_FOLLOW_IDLE_TIMEOUT, 300));
 
         threadQueueBucketSize = Math.max(1, getIntProperty(PROP_THREAD_QUEUE_SIZE, Dispatcher.DEFAULT_QUEUE_CHUNK_SIZE));
         threadQueueLength = Math.max(1, getIntProperty(PROP_THREAD_QUEUE_LENGTH, Dispatcher.DEFAULT_QUEUE_LENGTH));
+        transformationThreadCount = Math.max(1, getIntProperty(PROP_TRANSFORMATION_THREAD_COUNT, 1));
 
         removeIndexesFromRequestNames = getBooleanProperty(PROP_REMOVE_INDEXES_FROM_REQUEST_NAMES, true);
 
@@ -459,6 +566,8 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
 
         runtimeIntervalBoundaries = readRuntimeIntervalBoundaries();
         runtimePercentiles = readRuntimePercentiles();
+        runtimeHistogramSignificantDigits = Math.min(5, Math.max(1, getIntProperty(PROP_RUNTIME_HISTOGRAM_SIGNIFICANT_DIGITS,
+                                                                                   LogLinearHistogram.DEFAULT_SIGNIFICANT_DIGITS)));
 
         requestTableColorization = readRequestTableColorization(runtimeIntervalBoundaries, runtimePercentiles);
 
@@ -585,6 +694,36 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
         return chartsCompressionFactor;
     }
 
+    /**
+     * Returns the maximum number of charts to encode as images at the same time.
+     *
+     * @return the number of encoder threads
+     */
+    public int getChartEncoderThreadCount()
+    {
+        return chartsEncoderThreadCount;
+    }
+
+    /**
+     * Returns the maximum number of timers per timer type (requests, actions, ...) to render charts for.
+     *
+     * @return the limit, or 0 if charts are to be rendered for all timers
+     */
+    public int getChartTimerLimit()
+    {
+        return chartsTimerLimit;
+    }
+
+    /**
+     * Returns the criterion to select the timers to render charts for if the number of timers is limited.
+     *
+     * @return the criterion
+     */
+    public ChartTimerOrder getChartTimerOrder()
+    {
+        return chartsTimerOrder;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -753,6 +892,16 @@ public class ReportGeneratorConfiguration extends AbstractConfiguration implemen
         return runtimePercentiles;
     }
 
+    /**
+     * Returns the number of significant digits the run time histograms keep the run time values with.
+     *
+     * @return the number of significant digits [1..5]
+     */
+    public int getRuntimeHistogramSignificantDigits()
+    {
+        return runtimeHistogramSignificantDigits;
+    }
+
     public List<RequestTableColorization> getRequestTableColorizations()
     {
         return requestTableColorization;
@@ -137,6 +137,11 @@ public class ReportGeneratorMain
      */
     private static final String OPTION_AGENTS_EXCLUDE = "ae";
 
+    /**
+     * The name of the command-line option to follow a running load test and update the report periodically.
+     */
+    private static final String OPTION_FOLLOW = "follow";
+
     /**
      * The name of the command-line option to disable the generation of agent charts.
      */
@@ -224,6 +229,11 @@ public class ReportGeneratorMain
      */
     private String agentExcludePatternList;
 
+    /**
+     * The interval (in ms) in which to update the report while following a running load test, or -1 if not following.
+     */
+    private long followInterval;
+
     /**
      * The properties defined on the command line using the "-D" option.
      */
@@ -318,6 +328,11 @@ public class ReportGeneratorMain
         excludeAgents.setArgName("agents");
         options.addOption(excludeAgents);
 
+        final Option follow = new Option(OPTION_FOLLOW, true,
+                                         "follow a running load test and update the report in the given interval until no new results arrive anymore");
+        follow.setArgName("duration");
+        options.addOption(follow);
+
         return options;
     }
 
@@ -389,6 +404,20 @@ public class ReportGeneratorMain
             duration = -1;
         }
 
+        final String followOption = commandLine.getOptionValue(OPTION_FOLLOW);
+        if (followOption != null)
+        {
+            followInterval = parseDurationOption(followOption, 0);
+            if (followInterval <= 0)
+            {
+                throw new IllegalArgumentException("The specified follow interval '" + followOption + "' must be a positive value.");
+            }
+        }
+        else
+        {
+            followInterval = -1;
+        }
+
         // get input and output directory
         final String[] remainingArgs = commandLine.getArgs();
         if (remainingArgs.length != 1)
@@ -481,7 +510,14 @@ public class ReportGeneratorMain
         XltLogger.reportLogger.info(timer.stop().get("...finished"));
         XltLogger.reportLogger.info(Console.endSection());
 
-        reportGenerator.generateReport(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel);
+        if (followInterval > 0)
+        {
+            reportGenerator.followReport(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel, followInterval);
+        }
+        else
+        {
+            reportGenerator.generateReport(fromTime, toTime, duration, noRampUp, fromTimeRel, toTimeRel);
+        }
     }
 
     /**
@@ -20,6 +20,7 @@ import java.io.FileNotFoundException;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.transform.Source;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 
@@ -45,7 +46,8 @@ public class ReportTransformer
     }
 
     /**
-     * Renders a set of file using one data source into one output directory.
+     * Renders a set of file using one data source into one output directory. The data source is parsed only once and
+     * the style sheets are compiled only once, so all output files can be rendered in parallel from the same data.
      *
      * @param inputXmlFile
      *            a single xml file as data source
@@ -53,6 +55,31 @@ public class ReportTransformer
      *            a single output directory
      */
     public void run(final File inputXmlFile, final File outputDir)
+    {
+        final Source xmlSource;
+        try
+        {
+            xmlSource = XSLTUtils.parse(inputXmlFile);
+        }
+        catch (final TransformerException e)
+        {
+            System.err.println("Could not parse XML data file: " + e.getMessage());
+            return;
+        }
+
+        run(xmlSource, outputDir);
+    }
+
+    /**
+     * Renders a set of file using one already parsed data source into one output directory. The style sheets are
+     * compiled only once, so all output files can be rendered in parallel from the same data.
+     *
+     * @param xmlSource
+     *            the data source, typically obtained via {@link XSLTUtils#parse(File)}
+     * @param outputDir
+     *            a single output directory
+     */
+    public void run(final Source xmlSource, final File outputDir)
     {
         for (int i = 0; i < outputFiles.size(); i++)
         {
@@ -64,19 +91,19 @@ public class ReportTransformer
                 @Override
                 public void run()
                 {
-                    transformReport(inputXmlFile, outputFile, styleSheetFile);
+                    transformReport(xmlSource, outputFile, styleSheetFile);
                 }
             });
         }
     }
 
-    protected void transformReport(final File inputXmlFile, final File outputFile, final File xsltStyleSheet)
+    protected void transformReport(final Source xmlSource, final File outputFile, final File xsltStyleSheet)
     {
         try
         {
             // System.out.printf("Transforming XML report using style sheet '%s' ...\n", xsltStyleSheet);
 
-            XSLTUtils.transform(inputXmlFile, outputFile, xsltStyleSheet, parameters);
+            XSLTUtils.transform(xmlSource, outputFile, XSLTUtils.getTemplates(xsltStyleSheet), parameters);
         }
         catch (final TransformerConfigurationException e)
         {
@@ -17,6 +17,9 @@ package com.xceptance.xlt.report;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -29,6 +32,15 @@ import com.xceptance.xlt.api.report.ReportProvider;
 /**
  * Processes parsed data records. Processing means passing a data record to all configured report providers. Since data
  * processing is not thread-safe (yet), there will be only one statistics processor.
+ * <p>
+ * Two execution models are supported:
+ * <ul>
+ * <li>By default, the calling parser thread feeds a chunk of data to all report providers itself. Since providers are
+ * not thread-safe, a parser thread has to lock each provider first and skips a provider if it is currently busy.</li>
+ * <li>Alternatively, the report providers are distributed over a fixed number of workers. Each worker is a single thread
+ * that owns its providers exclusively, so no locking is needed. A chunk of data is handed over to all workers and the
+ * parser thread can continue right away.</li>
+ * </ul>
  */
 class StatisticsProcessor
 {
@@ -57,6 +69,11 @@ class StatisticsProcessor
      */
     private final List<ReportProvider> reportProviders;
 
+    /**
+     * The workers that own the report providers. Empty if the parser threads feed the providers themselves.
+     */
+    private final List<Worker> workers = new ArrayList<>();
+
     /**
      * Constructor.
      *
@@ -64,9 +81,40 @@ class StatisticsProcessor
      *            the configured report providers
      */
     public StatisticsProcessor(final List<ReportProvider> reportProviders)
+    {
+        this(reportProviders, 0, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reportProviders
+     *            the configured report providers
+     * @param workerCount
+     *            the number of workers to distribute the report providers to, or 0 if the parser threads should feed
+     *            the report providers themselves
+     * @param queueLength
+     *            the maximum number of data chunks waiting to be processed by a worker
+     */
+    public StatisticsProcessor(final List<ReportProvider> reportProviders, final int workerCount, final int queueLength)
     {
         // filter the list and take only the provider that really need runtime parsed data
         this.reportProviders = reportProviders.stream().filter(p -> p.wantsDataRecords()).collect(Collectors.toList());
+
+        // no need for more workers than providers
+        final int count = Math.min(workerCount, this.reportProviders.size());
+        for (int i = 0; i < count; i++)
+        {
+            workers.add(new Worker(i, Math.max(1, queueLength)));
+        }
+
+        // distribute the providers round-robin
+        for (int i = 0; i < this.reportProviders.size() && count > 0; i++)
+        {
+            workers.get(i % count).providers.add(this.reportProviders.get(i));
+        }
+
+        workers.forEach(Thread::start);
     }
 
     /**
@@ -96,13 +144,78 @@ class StatisticsProcessor
      *            a chunk of post-processed data for final statistics gathering
      */
     public void process(final PostProcessedDataContainer dataContainer)
+    {
+        try
+        {
+            process(dataContainer, () -> {
+            });
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the post-processed data and puts it into the statistics machinery to capture the final data points. The
+     * given callback is run once all report providers have processed the data, which may happen asynchronously.
+     *
+     * @param dataContainer
+     *            a chunk of post-processed data for final statistics gathering
+     * @param whenDone
+     *            the callback to run after processing
+     * @throws InterruptedException
+     *             if the calling thread was interrupted while waiting for room in a worker's queue
+     */
+    public void process(final PostProcessedDataContainer dataContainer, final Runnable whenDone) throws InterruptedException
     {
         // it might be empty after filtered
         if (dataContainer.data.size() == 0)
         {
+            whenDone.run();
             return;
         }
 
+        // get the max and min
+        updateLock.lock();
+        {
+            minimumTime = Math.min(minimumTime, dataContainer.getMinimumTime());
+            maximumTime = Math.max(maximumTime, dataContainer.getMaximumTime());
+        }
+        updateLock.unlock();
+
+        if (workers.isEmpty())
+        {
+            processWithLocking(dataContainer);
+            whenDone.run();
+        }
+        else
+        {
+            // hand over the data to all workers, the last one to finish runs the callback
+            final Task task = new Task(dataContainer, workers.size(), whenDone);
+            for (final Worker worker : workers)
+            {
+                worker.queue.put(task);
+            }
+        }
+    }
+
+    /**
+     * Stops the workers, if any. Data chunks not processed yet are discarded.
+     */
+    public void shutdown()
+    {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Feeds the data to all report providers, locking each provider before use.
+     *
+     * @param dataContainer
+     *            a chunk of post-processed data
+     */
+    private void processWithLocking(final PostProcessedDataContainer dataContainer)
+    {
         // get your own list
         final List<ReportProvider> providerList = new ArrayList<>(reportProviders);
 
@@ -144,13 +257,101 @@ class StatisticsProcessor
                 Thread.yield();
             }
         }
+    }
 
-        // get the max and min
-        updateLock.lock();
+    /**
+     * A chunk of data to be processed by all workers.
+     */
+    private static class Task
+    {
+        /**
+         * The data to process.
+         */
+        private final PostProcessedDataContainer dataContainer;
+
+        /**
+         * The number of workers that still need to process the data.
+         */
+        private final AtomicInteger remainingWorkers;
+
+        /**
+         * The callback to run once all workers are done.
+         */
+        private final Runnable whenDone;
+
+        private Task(final PostProcessedDataContainer dataContainer, final int workerCount, final Runnable whenDone)
         {
-            minimumTime = Math.min(minimumTime, dataContainer.getMinimumTime());
-            maximumTime = Math.max(maximumTime, dataContainer.getMaximumTime());
+            this.dataContainer = dataContainer;
+            this.remainingWorkers = new AtomicInteger(workerCount);
+            this.whenDone = whenDone;
+        }
+
+        /**
+         * Marks the task as done for one worker.
+         */
+        private void done()
+        {
+            if (remainingWorkers.decrementAndGet() == 0)
+            {
+                whenDone.run();
+            }
+        }
+    }
+
+    /**
+     * A worker thread that exclusively owns a group of report providers and feeds them the data chunks from its queue.
+     */
+    private static class Worker extends Thread
+    {
+        /**
+         * The report providers owned by this worker.
+         */
+        private final List<ReportProvider> providers = new ArrayList<>();
+
+        /**
+         * The data chunks waiting to be processed.
+         */
+        private final BlockingQueue<Task> queue;
+
+        private Worker(final int index, final int queueLength)
+        {
+            super("StatisticsWorker-" + index);
+            setDaemon(true);
+
+            queue = new ArrayBlockingQueue<>(queueLength);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run()
+        {
+            try
+            {
+                while (true)
+                {
+                    final Task task = queue.take();
+
+                    for (final ReportProvider provider : providers)
+                    {
+                        try
+                        {
+                            provider.processAll(task.dataContainer);
+                        }
+                        catch (final Throwable t)
+                        {
+                            LOG.error("Failed to process data record, discarding full chunk", t);
+                        }
+                    }
+
+                    task.done();
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                // we are done
+            }
         }
-        updateLock.unlock();
     }
 }
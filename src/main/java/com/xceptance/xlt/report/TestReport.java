@@ -28,6 +28,8 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
  * <li>the timer statistics per test case</li>
  * <li>the over-all timer statistics</li>
  * </ul>
+ * Note that {@link XmlReportGenerator} does not build this object, but streams the report fragments one by one into
+ * the root element defined by this class.
  */
 @XStreamAlias("testreport")
 public class TestReport
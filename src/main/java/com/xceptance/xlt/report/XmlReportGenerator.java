@@ -25,6 +25,7 @@ import java.util.TimeZone;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.basic.DateConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.xceptance.xlt.api.report.ReportCreator;
 import com.xceptance.xlt.api.util.XltLogger;
 import com.xceptance.xlt.common.XltConstants;
@@ -39,28 +40,50 @@ public class XmlReportGenerator
 {
     private final List<ReportCreator> processors = new ArrayList<>();
 
+    /**
+     * Creates the XML report. The report fragments are created and written one after the other, so only one fragment
+     * has to be kept in memory at a time.
+     *
+     * @param xmlFile
+     *            the target file
+     * @throws IOException
+     *             if the report could not be written
+     */
     public void createReport(final File xmlFile) throws IOException
     {
-        //
-        final TestReport testReport = new TestReport();
-
-        for (final ReportCreator processor : processors)
+        try (final OutputStreamWriter osw = new OutputStreamWriter(new FileOutputStream(xmlFile), XltConstants.UTF8_ENCODING))
         {
-            try
+            osw.write(XltConstants.XML_HEADER);
+
+            final XStream xstream = createXStream();
+            final HierarchicalStreamWriter writer = new SanitizingDomDriver().createWriter(osw);
+
+            // write the root element of the test report ourselves and stream the fragments into it
+            writer.startNode(xstream.getMapper().serializedClass(TestReport.class));
+
+            for (final ReportCreator processor : processors)
             {
-                final Object report = processor.createReportFragment();
+                final Object report;
+                try
+                {
+                    report = processor.createReportFragment();
+                }
+                catch (final Throwable t)
+                {
+                    XltLogger.reportLogger.warn("Failed to create report fragment", t);
+                    continue;
+                }
+
                 if (report != null)
                 {
-                    testReport.addReportFragment(report);
+                    xstream.marshal(report, writer);
+                    writer.flush();
                 }
             }
-            catch (final Throwable t)
-            {
-                XltLogger.reportLogger.warn("Failed to create report fragment", t);
-            }
-        }
 
-        saveTestReport(testReport, xmlFile);
+            writer.endNode();
+            writer.flush();
+        }
     }
 
     <T extends ReportCreator> void registerStatisticsProviders(final List<T> processors)
@@ -81,19 +104,20 @@ public class XmlReportGenerator
         processors.remove(processor);
     }
 
-    private void saveTestReport(final TestReport testReport, final File xmlFile) throws IOException
+    /**
+     * Creates and configures the XStream instance used to serialize the test report and its fragments.
+     *
+     * @return the XStream instance
+     */
+    static XStream createXStream()
     {
-        try (final OutputStreamWriter osw = new OutputStreamWriter(new FileOutputStream(xmlFile), XltConstants.UTF8_ENCODING))
-        {
-            osw.write(XltConstants.XML_HEADER);
+        final XStream xstream = new XStream(new SanitizingDomDriver());
+        xstream.autodetectAnnotations(true);
+        xstream.processAnnotations(TestReport.class);
+        xstream.registerConverter(new DateConverter("yyyy-MM-dd HH:mm:ss z", null, TimeZone.getDefault()));
+        xstream.aliasSystemAttribute(null, "class");
+        xstream.setMode(XStream.NO_REFERENCES);
 
-            final XStream xstream = new XStream(new SanitizingDomDriver());
-            xstream.autodetectAnnotations(true);
-            xstream.registerConverter(new DateConverter("yyyy-MM-dd HH:mm:ss z", null, TimeZone.getDefault()));
-            xstream.aliasSystemAttribute(null, "class");
-            xstream.setMode(XStream.NO_REFERENCES);
-
-            xstream.toXML(testReport, osw);
-        }
+        return xstream;
     }
 }
@@ -21,12 +21,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Map;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
@@ -34,22 +32,27 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.lang3.StringUtils;
-import org.jaxen.JaxenException;
-import org.jaxen.dom.DOMXPath;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 import com.google.common.io.Files;
 import com.xceptance.common.util.ProcessExitCodes;
 import com.xceptance.xlt.report.criteria.CriteriaDefinition.Criterion;
 
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.SaxonApiUncheckedException;
+import net.sf.saxon.s9api.XPathCompiler;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmAtomicValue;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmValue;
+
 /**
  * Criteria validation main entry point.
  */
@@ -138,7 +141,7 @@ public class CheckCriteriaMain
     /**
      * Default constructor.
      */
-    private CheckCriteriaMain()
+    CheckCriteriaMain()
     {
         options = createCliOptions();
     }
@@ -228,33 +231,26 @@ public class CheckCriteriaMain
                                        t.getMessage());
         }
 
-        final DocumentBuilder docBuilder;
-        try
-        {
-            docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            docBuilder.setErrorHandler(new DefaultHandler());
-        }
-        catch (ParserConfigurationException pce)
-        {
-            throw new RuntimeException(pce);
-        }
+        // compile the conditions only once for all input files
+        final Processor processor = new Processor(false);
+        final Map<String, Object> conditions = compileConditions(processor, criteriaDef);
 
         final List<CriteriaResult> outcome = new LinkedList<>();
         boolean passed = true;
         for (final File f : inputFiles)
         {
-            final Document doc;
+            final XdmNode doc;
             try
             {
-                doc = docBuilder.parse(f);
+                doc = processor.newDocumentBuilder().build(f);
             }
-            catch (final SAXException saxe)
+            catch (final SaxonApiException sae)
             {
-                throw new RuntimeException("Failed to parse file '" + f.getAbsolutePath() + "' as XML", saxe);
+                throw new RuntimeException("Failed to parse file '" + f.getAbsolutePath() + "' as XML", sae);
             }
 
             final CriteriaResult result = new CriteriaResult(f.getAbsolutePath());
-            checkCriteria(doc, criteriaDef, result);
+            checkCriteria(doc, criteriaDef, conditions, result);
 
             if (passed && !result.hasPassed())
             {
@@ -298,6 +294,41 @@ public class CheckCriteriaMain
         }
     }
 
+    /**
+     * Compiles the conditions of all enabled criteria. The conditions are evaluated in XPath 1.0 compatibility mode, so
+     * they behave the same as before.
+     * 
+     * @param processor
+     *            the processor to use
+     * @param criteriaDef
+     *            the criteria definitions
+     * @return the compiled conditions, or the compile errors, keyed by condition
+     */
+    private static Map<String, Object> compileConditions(final Processor processor, final CriteriaDefinition criteriaDef)
+    {
+        final XPathCompiler compiler = processor.newXPathCompiler();
+        compiler.setBackwardsCompatible(true);
+
+        final Map<String, Object> conditions = new HashMap<>();
+        for (final Criterion c : criteriaDef.getCriteria())
+        {
+            final String condition = c.getCondition();
+            if (c.isEnabled() && StringUtils.isNotBlank(condition) && !conditions.containsKey(condition))
+            {
+                try
+                {
+                    conditions.put(condition, compiler.compile(condition));
+                }
+                catch (final SaxonApiException sae)
+                {
+                    conditions.put(condition, sae);
+                }
+            }
+        }
+
+        return conditions;
+    }
+
     /**
      * Checks if the given document meets the given criteria.
      * 
@@ -305,10 +336,13 @@ public class CheckCriteriaMain
      *            the document to check
      * @param criteriaDef
      *            the criteria definitions
+     * @param conditions
+     *            the compiled conditions
      * @param result
      *            the document-wide validation result
      */
-    private void checkCriteria(final Document doc, final CriteriaDefinition criteriaDef, final CriteriaResult result)
+    private void checkCriteria(final XdmNode doc, final CriteriaDefinition criteriaDef, final Map<String, Object> conditions,
+                               final CriteriaResult result)
     {
         for (final Criterion c : criteriaDef.getCriteria())
         {
@@ -320,7 +354,7 @@ public class CheckCriteriaMain
             {
                 try
                 {
-                    if (evaluateCondition(doc, c.getCondition()))
+                    if (evaluateCondition(doc, c.getCondition(), conditions.get(c.getCondition())))
                     {
                         result.add(CriterionResult.passed(c.getId()));
                     }
@@ -344,11 +378,13 @@ public class CheckCriteriaMain
      *            the document to evaluate the given expression on
      * @param xPathPredicate
      *            the predicate to evaluate
+     * @param compiledPredicate
+     *            the compiled predicate, or the error that occurred when compiling it
      * @return evaluation result
      * @throws Exception
      *             thrown in case the given expression is invalid or does not evaluate to a boolean
      */
-    private boolean evaluateCondition(final Document doc, final String xPathPredicate) throws Exception
+    private boolean evaluateCondition(final XdmNode doc, final String xPathPredicate, final Object compiledPredicate) throws Exception
     {
         if (StringUtils.isBlank(xPathPredicate))
         {
@@ -357,16 +393,29 @@ public class CheckCriteriaMain
 
         try
         {
-            final Boolean b = (Boolean) new DOMXPath(xPathPredicate).evaluate(doc);
-            return b.booleanValue();
-        }
-        catch (ClassCastException cce)
-        {
+            if (compiledPredicate instanceof SaxonApiException)
+            {
+                throw (SaxonApiException) compiledPredicate;
+            }
+
+            final XPathSelector selector = ((XPathExecutable) compiledPredicate).load();
+            selector.setContextItem(doc);
+
+            final XdmValue value = selector.evaluate();
+            if (value.size() == 1 && value.itemAt(0) instanceof XdmAtomicValue)
+            {
+                final Object b = ((XdmAtomicValue) value.itemAt(0)).getValue();
+                if (b instanceof Boolean)
+                {
+                    return ((Boolean) b).booleanValue();
+                }
+            }
+
             throw new Exception("Failed to evaluate expression '" + xPathPredicate + "' as boolean");
         }
-        catch (JaxenException xee)
+        catch (SaxonApiException | SaxonApiUncheckedException sae)
         {
-            throw new Exception("Failed to evaluate expression '" + xPathPredicate + "': " + xee.getMessage());
+            throw new Exception("Failed to evaluate expression '" + xPathPredicate + "': " + sae.getMessage());
         }
     }
 
@@ -36,6 +36,11 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
      */
     private final LRUFastHashMap<CharSequence, MatchResult> cache;
 
+    /**
+     * The cache shared with the equivalent filters of the other threads. If set, it replaces the per-thread cache.
+     */
+    private RequestFilterMatchCache sharedCache;
+
     /**
      * Just a place holder for a NULL
      */
@@ -51,6 +56,11 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
      */
     private final boolean isExclude;
 
+    /**
+     * A literal that any matching text must contain, or <code>null</code> if there is no such literal.
+     */
+    private final String requiredLiteral;
+
     /**
      * Constructor.
      *
@@ -81,6 +91,7 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
 
         this.matcher = StringUtils.isBlank(regex) ? null : RegExUtils.getPattern(regex, 0).matcher("any");
         this.isExclude = exclude;
+        this.requiredLiteral = StringUtils.isBlank(regex) ? null : RegExUtils.getRequiredLiteral(regex);
         this.cache = cacheSize > 0 ? new LRUFastHashMap<>(cacheSize) : null;
     }
 
@@ -106,6 +117,35 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
         // get the data to match against
         final CharSequence text = getText(requestData);
 
+        // quickly rule out texts that cannot match at all
+        if (requiredLiteral != null && text != null && !contains(text, requiredLiteral))
+        {
+            // the pattern would not find anything
+            return isExclude ? Boolean.TRUE : null;
+        }
+
+        // prefer the shared cache, unless it finds itself useless for the moment
+        final RequestFilterMatchCache sharedCache = this.sharedCache;
+        if (sharedCache != null)
+        {
+            if (!sharedCache.isActive(text))
+            {
+                final Matcher m = this.matcher.reset(text);
+                return (m.find() ^ isExclude) ? m : null;
+            }
+
+            MatchResult result = sharedCache.get(text);
+            if (result == null)
+            {
+                final Matcher m = this.matcher.reset(text);
+                result = (m.find() ^ isExclude) ? m.toMatchResult() : NULL;
+
+                sharedCache.put(text, result);
+            }
+
+            return result == NULL ? null : result;
+        }
+
         // only cache if we want that, there are areas where caching does not make sense and wastes
         // a lot of time
         if (cache == null)
@@ -148,6 +188,46 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
         }
     }
 
+    /**
+     * Sets the cache shared with the equivalent filters of the other threads.
+     *
+     * @param sharedCache
+     *            the shared cache, may be <code>null</code> to use the per-thread cache again
+     */
+    void setSharedCache(final RequestFilterMatchCache sharedCache)
+    {
+        this.sharedCache = sharedCache;
+    }
+
+    /**
+     * Checks whether the given text contains the given literal.
+     */
+    private static boolean contains(final CharSequence text, final String literal)
+    {
+        final int literalLength = literal.length();
+        final int last = text.length() - literalLength;
+        final char first = literal.charAt(0);
+
+        for (int i = 0; i <= last; i++)
+        {
+            if (text.charAt(i) == first)
+            {
+                int j = 1;
+                while (j < literalLength && text.charAt(i + j) == literal.charAt(j))
+                {
+                    j++;
+                }
+
+                if (j == literalLength)
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -209,4 +289,14 @@ public abstract class AbstractPatternRequestFilter extends AbstractRequestFilter
     {
         return isExclude;
     }
+
+    /**
+     * Returns the literal that any matching text must contain.
+     *
+     * @return the literal, or <code>null</code> if there is no such literal
+     */
+    public String getRequiredLiteral()
+    {
+        return requiredLiteral;
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.report.mergerules.RequestProcessingRule.ReturnState;
+
+/**
+ * A list of {@link RequestProcessingRule}s prepared for efficient evaluation. The result is exactly the same as when
+ * processing the rules one after the other, but:
+ * <ul>
+ * <li>Filters that test the same field with the same pattern are shared by all rules, so they also share their result
+ * cache. Optionally, this cache is even shared with the equivalent filters of other threads (see
+ * {@link RequestFilterMatchCaches}).</li>
+ * <li>While processing a request, the result of each shared filter is computed at most once and reused by all further
+ * rules, until a rule changes the request name.</li>
+ * <li>Pattern filters rule out texts that do not contain a literal required by the pattern without running the
+ * pattern (see {@link AbstractPatternRequestFilter#getRequiredLiteral()}).</li>
+ * </ul>
+ * Instances are not thread-safe, so each thread needs its own instance (just like the rules themselves).
+ */
+public class CompiledRequestProcessingRules
+{
+    /**
+     * Class logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledRequestProcessingRules.class);
+
+    /**
+     * The rules in their original order.
+     */
+    private final RequestProcessingRule[] rules;
+
+    /**
+     * The distinct filters of all the rules.
+     */
+    private final AbstractRequestFilter[] filters;
+
+    /**
+     * For each rule, the indexes of its filters in {@link #filters}.
+     */
+    private final int[][] ruleFilterIndexes;
+
+    /**
+     * For each rule, the buffer holding the states of its filters. Reused for each request.
+     */
+    private final Object[][] ruleFilterStates;
+
+    /**
+     * The most recent state of each distinct filter.
+     */
+    private final Object[] filterStates;
+
+    /**
+     * The generation in which the state of each distinct filter was computed.
+     */
+    private final long[] filterStateGenerations;
+
+    /**
+     * The current generation. Changes with each request and each renaming, which invalidates all filter states.
+     */
+    private long generation;
+
+    /**
+     * Constructor.
+     *
+     * @param rules
+     *            the rules, in the order they are to be applied
+     */
+    public CompiledRequestProcessingRules(final List<RequestProcessingRule> rules)
+    {
+        this(rules, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rules
+     *            the rules, in the order they are to be applied
+     * @param matchCaches
+     *            the match caches shared across threads, may be <code>null</code> to let each filter cache on its own
+     */
+    public CompiledRequestProcessingRules(final List<RequestProcessingRule> rules, final RequestFilterMatchCaches matchCaches)
+    {
+        this.rules = rules.toArray(new RequestProcessingRule[rules.size()]);
+
+        ruleFilterIndexes = new int[this.rules.length][];
+        ruleFilterStates = new Object[this.rules.length][];
+
+        final List<AbstractRequestFilter> distinctFilters = new ArrayList<>();
+        final Map<String, Integer> filterIndexes = new HashMap<>();
+
+        for (int r = 0; r < this.rules.length; r++)
+        {
+            final AbstractRequestFilter[] requestFilters = this.rules[r].getRequestFilters();
+
+            ruleFilterIndexes[r] = new int[requestFilters.length];
+            ruleFilterStates[r] = new Object[requestFilters.length];
+
+            for (int f = 0; f < requestFilters.length; f++)
+            {
+                final AbstractRequestFilter filter = requestFilters[f];
+
+                // only pattern filters are known to be shareable
+                Integer index = null;
+                String key = null;
+                if (filter instanceof AbstractPatternRequestFilter)
+                {
+                    final AbstractPatternRequestFilter patternFilter = (AbstractPatternRequestFilter) filter;
+
+                    key = RequestFilterMatchCaches.getKey(patternFilter);
+                    index = filterIndexes.get(key);
+
+                    if (index == null && matchCaches != null && !patternFilter.isEmpty())
+                    {
+                        patternFilter.setSharedCache(matchCaches.getCache(patternFilter));
+                    }
+                }
+
+                if (index == null)
+                {
+                    index = distinctFilters.size();
+                    distinctFilters.add(filter);
+
+                    if (key != null)
+                    {
+                        filterIndexes.put(key, index);
+                    }
+                }
+
+                ruleFilterIndexes[r][f] = index;
+            }
+        }
+
+        filters = distinctFilters.toArray(new AbstractRequestFilter[distinctFilters.size()]);
+        filterStates = new Object[filters.length];
+        filterStateGenerations = new long[filters.length];
+    }
+
+    /**
+     * Applies the rules to the given request data object.
+     *
+     * @param requestData
+     *            the request data object to process, will also be directly modified as result
+     * @return the processed request data object, or <code>null</code> if the request is to be discarded
+     */
+    public RequestData process(final RequestData requestData)
+    {
+        // remember the original name so we can restore it in case request processing fails
+        final String originalName = requestData.getName();
+
+        generation++;
+
+        for (int r = 0; r < rules.length; r++)
+        {
+            final RequestProcessingRule rule = rules[r];
+
+            try
+            {
+                final Object[] states = getFilterStates(requestData, r);
+                if (states == null)
+                {
+                    // the rule does not apply
+                    continue;
+                }
+
+                // request data comes back indirectly modified if needed
+                final ReturnState state = rule.apply(requestData, states);
+                if (state == ReturnState.DROP)
+                {
+                    return null;
+                }
+                else if (state == ReturnState.STOP)
+                {
+                    break;
+                }
+
+                // the name has changed, so filter results are stale now
+                generation++;
+            }
+            catch (final Throwable t)
+            {
+                final String msg = String.format("Failed to apply request merge rule: %s\n%s", rule, t);
+                LOG.error(msg);
+
+                // restore the request's original name
+                requestData.setName(originalName);
+
+                break;
+            }
+        }
+
+        return requestData;
+    }
+
+    /**
+     * Evaluates the filters of the given rule, reusing any filter state computed before in the current generation.
+     *
+     * @return the filter states, or <code>null</code> if at least one filter did not apply
+     */
+    private Object[] getFilterStates(final RequestData requestData, final int ruleIndex)
+    {
+        final int[] indexes = ruleFilterIndexes[ruleIndex];
+        final Object[] states = ruleFilterStates[ruleIndex];
+
+        for (int i = 0; i < indexes.length; i++)
+        {
+            final int index = indexes[i];
+
+            Object state;
+            if (filterStateGenerations[index] == generation)
+            {
+                state = filterStates[index];
+            }
+            else
+            {
+                state = filters[index].appliesTo(requestData);
+
+                filterStates[index] = state;
+                filterStateGenerations[index] = generation;
+            }
+
+            if (state == null)
+            {
+                return null;
+            }
+            states[i] = state;
+        }
+
+        return states;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.MatchResult;
+
+import com.xceptance.common.collection.ConcurrentWeightedCache;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * A thread-safe cache of the match results of a pattern request filter, shared by the instances of this filter in all
+ * parser threads. This way, the pattern has to be evaluated only once per distinct text, not once per distinct text and
+ * thread.
+ * <p>
+ * The match results are kept in a store that is bounded by the estimated memory footprint of its entries and that is
+ * usually shared by the caches of all filters, so the memory budget applies to all of them together.
+ * <p>
+ * The cache watches its own hit rate. If too few lookups are hits, which is typical for URLs with session IDs or other
+ * unique parameters, caching is just overhead. In this case, the entries of the cache are removed from the store and
+ * the cache is bypassed for a while before it is given another chance.
+ * <p>
+ * The bookkeeping is deliberately lenient, so the numbers may be slightly off under concurrent access.
+ */
+public class RequestFilterMatchCache
+{
+    /**
+     * The number of lookups after which the hit rate is checked.
+     */
+    static final int SAMPLE_SIZE = 10_000;
+
+    /**
+     * The number of lookups that bypass the cache once the hit rate was found too low.
+     */
+    static final int BYPASS_SIZE = 10 * SAMPLE_SIZE;
+
+    /**
+     * Texts longer than this are not cached to keep the memory footprint predictable.
+     */
+    static final int MAX_TEXT_LENGTH = 1024;
+
+    /**
+     * The estimated memory footprint (in bytes) of an entry in addition to the text and the match result groups.
+     */
+    static final int ENTRY_OVERHEAD = 256;
+
+    /**
+     * The store holding the cached match results, possibly shared with the caches of other filters.
+     */
+    private final ConcurrentWeightedCache<Key, MatchResult> store;
+
+    /**
+     * The minimum hit rate [0..1] required to keep using the cache.
+     */
+    private final double minHitRate;
+
+    /**
+     * The total number of lookups so far, including the bypassed ones.
+     */
+    private final AtomicLong lookups = new AtomicLong();
+
+    /**
+     * The number of lookups at which the current sample started.
+     */
+    private volatile long sampleStart;
+
+    /**
+     * The number of hits in the current sample.
+     */
+    private final AtomicLong sampleHits = new AtomicLong();
+
+    /**
+     * The number of lookups until which the cache is bypassed.
+     */
+    private volatile long bypassEnd;
+
+    /**
+     * Statistics.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * Creates a cache with a store of its own.
+     *
+     * @param maxBytes
+     *            the maximum estimated memory footprint (in bytes) of the cached entries
+     * @param minHitRate
+     *            the minimum hit rate [0..1] required to keep using the cache
+     */
+    public RequestFilterMatchCache(final long maxBytes, final double minHitRate)
+    {
+        this(new ConcurrentWeightedCache<>(Math.max(1, maxBytes)), minHitRate);
+    }
+
+    /**
+     * Creates a cache that keeps its entries in the given store.
+     *
+     * @param store
+     *            the store, possibly shared with the caches of other filters
+     * @param minHitRate
+     *            the minimum hit rate [0..1] required to keep using the cache
+     */
+    RequestFilterMatchCache(final ConcurrentWeightedCache<Key, MatchResult> store, final double minHitRate)
+    {
+        this.store = store;
+        this.minHitRate = minHitRate;
+    }
+
+    /**
+     * Checks whether the cache is to be used for the next lookup. If not, the text must be matched directly and neither
+     * {@link #get(CharSequence)} nor {@link #put(CharSequence, MatchResult)} should be called for it.
+     *
+     * @param text
+     *            the text to look up
+     * @return whether the cache is to be used
+     */
+    public boolean isActive(final CharSequence text)
+    {
+        final long count = lookups.incrementAndGet();
+
+        if (count - sampleStart >= SAMPLE_SIZE)
+        {
+            checkHitRate(count);
+        }
+
+        if (count < bypassEnd || text == null || text.length() > MAX_TEXT_LENGTH)
+        {
+            bypassed.increment();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the cached match result for the given text.
+     *
+     * @param text
+     *            the text
+     * @return the match result, or <code>null</code> if the text is not cached
+     */
+    public MatchResult get(final CharSequence text)
+    {
+        final MatchResult result = store.get(new Key(this, text));
+        if (result == null)
+        {
+            misses.increment();
+        }
+        else
+        {
+            hits.increment();
+            sampleHits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Caches the match result for the given text. The text is copied if needed, so the caller may reuse its buffer
+     * afterwards.
+     *
+     * @param text
+     *            the text
+     * @param result
+     *            the match result
+     */
+    public void put(final CharSequence text, final MatchResult result)
+    {
+        // the buffers of the parser threads are recycled, so we must not keep them
+        final CharSequence key = text instanceof XltCharBuffer ? new XltCharBuffer(((XltCharBuffer) text).toCharArray()) : text.toString();
+
+        // the key, the result (which has a copy of the text as well), and the map and clock nodes
+        final long weight = 3L * key.length() + 8L * result.groupCount() + ENTRY_OVERHEAD;
+
+        store.put(new Key(this, key), result, weight);
+    }
+
+    /**
+     * Starts a new sample and, if the hit rate of the last sample was too low, empties and bypasses the cache.
+     */
+    private synchronized void checkHitRate(final long count)
+    {
+        final long sampleSize = count - sampleStart;
+        if (sampleSize < SAMPLE_SIZE)
+        {
+            // someone else was faster
+            return;
+        }
+
+        final double hitRate = (double) sampleHits.getAndSet(0) / sampleSize;
+        if (hitRate < minHitRate)
+        {
+            bypassEnd = count + BYPASS_SIZE;
+            sampleStart = bypassEnd;
+            store.removeIf(k -> k.owner == this);
+        }
+        else
+        {
+            sampleStart = count;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a cached result.
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached result.
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of lookups that bypassed the cache.
+     */
+    public long getBypassed()
+    {
+        return bypassed.sum();
+    }
+
+    /**
+     * The key of a cached match result, which is the text together with the cache the result belongs to.
+     */
+    static final class Key
+    {
+        private final RequestFilterMatchCache owner;
+
+        private final CharSequence text;
+
+        private final int hashCode;
+
+        private Key(final RequestFilterMatchCache owner, final CharSequence text)
+        {
+            this.owner = owner;
+            this.text = text;
+
+            hashCode = 31 * System.identityHashCode(owner) + text.hashCode();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+
+            final Key other = (Key) obj;
+
+            return owner == other.owner && hashCode == other.hashCode && text.equals(other.text);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.MatchResult;
+
+import com.xceptance.common.collection.ConcurrentWeightedCache;
+
+/**
+ * The registry of the {@link RequestFilterMatchCache}s shared by the parser threads. Equivalent filters of different
+ * threads (same type, pattern, and exclusion flag) get the same cache. All caches keep their entries in one store, so
+ * the memory budget applies to all of them together, no matter how many distinct filters there are.
+ */
+public class RequestFilterMatchCaches
+{
+    /**
+     * The caches keyed by filter.
+     */
+    private final Map<String, RequestFilterMatchCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * The store shared by all caches.
+     */
+    private final ConcurrentWeightedCache<RequestFilterMatchCache.Key, MatchResult> store;
+
+    /**
+     * The minimum hit rate required to keep using a cache.
+     */
+    private final double minHitRate;
+
+    /**
+     * Constructor.
+     *
+     * @param maxBytes
+     *            the maximum estimated memory footprint (in bytes) of the entries of all caches
+     * @param minHitRate
+     *            the minimum hit rate [0..1] required to keep using a cache
+     */
+    public RequestFilterMatchCaches(final long maxBytes, final double minHitRate)
+    {
+        store = new ConcurrentWeightedCache<>(Math.max(1, maxBytes));
+        this.minHitRate = minHitRate;
+    }
+
+    /**
+     * Returns the cache for the given filter, creating it if needed.
+     *
+     * @param filter
+     *            the filter
+     * @return the cache
+     */
+    public RequestFilterMatchCache getCache(final AbstractPatternRequestFilter filter)
+    {
+        return caches.computeIfAbsent(getKey(filter), k -> new RequestFilterMatchCache(store, minHitRate));
+    }
+
+    /**
+     * Returns a key that is equal for all equivalent filters.
+     *
+     * @param filter
+     *            the filter
+     * @return the key
+     */
+    static String getKey(final AbstractPatternRequestFilter filter)
+    {
+        return filter.getClass().getName() + ':' + filter.isExclude() + ':' + filter.getPattern();
+    }
+
+    /**
+     * Returns the number of caches created so far.
+     *
+     * @return the number of caches
+     */
+    public int size()
+    {
+        return caches.size();
+    }
+
+    /**
+     * Returns a summary of the cache statistics, suitable for logging.
+     *
+     * @return the summary
+     */
+    public String getStatistics()
+    {
+        long hits = 0;
+        long misses = 0;
+        long bypassed = 0;
+
+        for (final RequestFilterMatchCache cache : caches.values())
+        {
+            hits += cache.getHits();
+            misses += cache.getMisses();
+            bypassed += cache.getBypassed();
+        }
+
+        final long lookups = hits + misses;
+        final double hitRate = lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+
+        return String.format("Merge rule match caches: %,d caches, %,d entries (%,d KB), %,d hits, %,d misses (hit rate: %.1f%%), %,d bypassed",
+                             caches.size(), store.size(), store.weight() / 1024, hits, misses, hitRate, bypassed);
+    }
+}
@@ -282,6 +282,23 @@ public class RequestProcessingRule
             filterStates[i] = state;
         }
 
+        return apply(requestData, filterStates);
+    }
+
+    /**
+     * Applies this rule to the given request data object, which is known to be accepted by all the filters of this
+     * rule.
+     *
+     * @param requestData
+     *            the request data object to process, will also be directly modified as result
+     * @param filterStates
+     *            the states returned by the filters of this rule, in the same order as the filters
+     * @return how to continue
+     */
+    ReturnState apply(final RequestData requestData, final Object[] filterStates)
+    {
+        final int requestFiltersSize = requestFilters.length;
+
         // all filters applied so we can process the request, but check first what to do
         if (dropOnMatch)
         {
@@ -337,6 +354,16 @@ public class RequestProcessingRule
         return stopOnMatch ? ReturnState.STOP : ReturnState.CONTINUE;
     }
 
+    /**
+     * Returns the request filters of this rule in the order they are to be evaluated.
+     *
+     * @return the request filters
+     */
+    AbstractRequestFilter[] getRequestFilters()
+    {
+        return requestFilters;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,7 +15,10 @@
  */
 package com.xceptance.xlt.report.providers;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 
 import com.xceptance.xlt.api.engine.ActionData;
 import com.xceptance.xlt.api.engine.Data;
@@ -77,6 +80,39 @@ public class ActionDataProcessor extends BasicTimerDataProcessor
         apdexCalculator.addSample(data.getRunTime(), data.hasFailed());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void merge(final BasicTimerDataProcessor other)
+    {
+        super.merge(other);
+
+        apdexCalculator.merge(((ActionDataProcessor) other).apdexCalculator);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeSnapshot(final DataOutput out) throws IOException
+    {
+        super.writeSnapshot(out);
+
+        apdexCalculator.writeTo(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mergeSnapshot(final DataInput in) throws IOException
+    {
+        super.mergeSnapshot(in);
+
+        apdexCalculator.mergeFrom(in);
+    }
+
     /**
      * {@inheritDoc}
      */
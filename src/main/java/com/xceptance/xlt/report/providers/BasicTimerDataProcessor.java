@@ -15,6 +15,10 @@
  */
 package com.xceptance.xlt.report.providers;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.CombinedDomainXYPlot;
 import org.jfree.chart.plot.CombinedRangeXYPlot;
@@ -29,11 +33,10 @@ import com.xceptance.xlt.api.engine.TimerData;
 import com.xceptance.xlt.api.report.AbstractReportProvider;
 import com.xceptance.xlt.report.ReportGeneratorConfiguration;
 import com.xceptance.xlt.report.ReportGeneratorConfiguration.ChartScale;
-import com.xceptance.xlt.report.util.FixedSizeHistogramValueSet;
 import com.xceptance.xlt.report.util.JFreeChartUtils;
 import com.xceptance.xlt.report.util.IntMinMaxValueSet;
+import com.xceptance.xlt.report.util.LogLinearHistogram;
 import com.xceptance.xlt.report.util.ReportUtils;
-import com.xceptance.xlt.report.util.RuntimeHistogram;
 import com.xceptance.xlt.report.util.IntSummaryStatistics;
 import com.xceptance.xlt.report.util.TaskManager;
 import com.xceptance.xlt.report.util.ValueSet;
@@ -54,18 +57,21 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
 
     private final IntSummaryStatistics runTimeStatistics = new IntSummaryStatistics();
 
-    private final RuntimeHistogram runTimeHistogram = new RuntimeHistogram(10);
+    private final LogLinearHistogram runTimeHistogram;
 
     private double[] percentiles;
 
     private final IntMinMaxValueSet runTimeValueSet;
 
-    private final FixedSizeHistogramValueSet histogramValueSet;
-
     private int totalErrors = 0;
 
     private final int minMaxValueSetSize;
 
+    /**
+     * Whether to save placeholders instead of the real charts of this timer.
+     */
+    private boolean chartsOmitted;
+
     /**
      * Constructor.
      *
@@ -82,11 +88,10 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
         minMaxValueSetSize = getChartWidth();
         runTimeValueSet = new IntMinMaxValueSet(minMaxValueSetSize);
 
-        // setup histogram value set
-        histogramValueSet = new FixedSizeHistogramValueSet(getChartHeight());
-
-        // get percentile configuration
-        percentiles = ((ReportGeneratorConfiguration) getConfiguration()).getRuntimePercentiles();
+        // setup run time histogram and get percentile configuration
+        final ReportGeneratorConfiguration config = (ReportGeneratorConfiguration) getConfiguration();
+        runTimeHistogram = new LogLinearHistogram(config.getRuntimeHistogramSignificantDigits());
+        percentiles = config.getRuntimePercentiles();
     }
 
     /**
@@ -148,7 +153,7 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
                     final int chartCappingValue = JFreeChartUtils.getChartCappingValue(getChartCappingInfo(), runTimeStatistics.getMean(),
                                                                                        runTimeStatistics.getMaximum());
 
-                    final XYIntervalSeries runTimeHistogramSeries = histogramValueSet.toSeries("Distribution");
+                    final XYIntervalSeries runTimeHistogramSeries = runTimeHistogram.toSeries("Distribution", getChartHeight());
 
                     final TimeSeries errorsPerSecondTimeSeries = JFreeChartUtils.toStandardTimeSeries(errorsPerSecondValueSet.toMinMaxValueSet(minMaxValueSetSize),
                                                                                                       "Errors/s");
@@ -203,7 +208,6 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
         // update the time series
         runTimeValueSet.addOrUpdateValue(endTime, runTime);
         countPerSecondValueSet.addOrUpdateValue(endTime, 1);
-        histogramValueSet.addValue(runTime);
 
         // handle errors
         if (timerStats.hasFailed())
@@ -215,6 +219,66 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
         }
     }
 
+    /**
+     * Merges the state of the given data processor into the state of this data processor. Both processors should deal
+     * with the same timer and must be of the same type.
+     * <p>
+     * Sub classes maintaining additional state have to override this method, call the super implementation first, and
+     * merge their own state afterwards. The same applies to {@link #writeSnapshot(DataOutput)} and
+     * {@link #mergeSnapshot(DataInput)}.
+     *
+     * @param other
+     *            the other data processor
+     */
+    public void merge(final BasicTimerDataProcessor other)
+    {
+        runTimeHistogram.merge(other.runTimeHistogram);
+        runTimeStatistics.merge(other.runTimeStatistics);
+        runTimeValueSet.merge(other.runTimeValueSet);
+        countPerSecondValueSet.merge(other.countPerSecondValueSet);
+        errorsPerSecondValueSet.merge(other.errorsPerSecondValueSet);
+        totalErrors += other.totalErrors;
+    }
+
+    /**
+     * Writes a snapshot of the state of this data processor to the given output. The snapshot can later be merged into
+     * another data processor using {@link #mergeSnapshot(DataInput)}, for example to combine results that were
+     * pre-aggregated separately.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeSnapshot(final DataOutput out) throws IOException
+    {
+        runTimeHistogram.writeTo(out);
+        runTimeStatistics.writeTo(out);
+        runTimeValueSet.writeTo(out);
+        countPerSecondValueSet.writeTo(out);
+        errorsPerSecondValueSet.writeTo(out);
+        out.writeInt(totalErrors);
+    }
+
+    /**
+     * Reads a snapshot previously written by {@link #writeSnapshot(DataOutput)} and merges it into the state of this
+     * data processor.
+     *
+     * @param in
+     *            the source input
+     * @throws IOException
+     *             if reading failed
+     */
+    public void mergeSnapshot(final DataInput in) throws IOException
+    {
+        runTimeHistogram.merge(LogLinearHistogram.readFrom(in));
+        runTimeStatistics.merge(IntSummaryStatistics.readFrom(in));
+        runTimeValueSet.merge(IntMinMaxValueSet.readFrom(in));
+        countPerSecondValueSet.merge(ValueSet.readFrom(in));
+        errorsPerSecondValueSet.merge(ValueSet.readFrom(in));
+        totalErrors += in.readInt();
+    }
+
     protected ValueSet getCountPerSecondValueSet()
     {
         return countPerSecondValueSet;
@@ -225,9 +289,66 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
         return errorsPerSecondValueSet;
     }
 
-    protected FixedSizeHistogramValueSet getHistogramValueSet()
+    protected LogLinearHistogram getRunTimeHistogram()
+    {
+        return runTimeHistogram;
+    }
+
+    /**
+     * Returns the number of data records processed so far.
+     *
+     * @return the count
+     */
+    public long getCount()
+    {
+        return runTimeStatistics.getCount();
+    }
+
+    /**
+     * Returns the number of failed data records processed so far.
+     *
+     * @return the error count
+     */
+    public int getErrorCount()
+    {
+        return totalErrors;
+    }
+
+    /**
+     * Sets whether placeholders are to be saved instead of the real charts of this timer, for example because the
+     * timer is not among the top timers to render charts for.
+     *
+     * @param chartsOmitted
+     *            whether to omit the charts
+     */
+    public void setChartsOmitted(final boolean chartsOmitted)
     {
-        return histogramValueSet;
+        this.chartsOmitted = chartsOmitted;
+    }
+
+    /**
+     * Saves the given chart of this timer to the chart directory, or a placeholder if the charts of this timer are
+     * omitted.
+     *
+     * @param chart
+     *            the chart
+     * @param fileName
+     *            the file name (excluding the .webp extension)
+     * @param width
+     *            the chart width
+     * @param height
+     *            the chart height
+     */
+    protected void saveChart(final JFreeChart chart, final String fileName, final int width, final int height)
+    {
+        if (chartsOmitted)
+        {
+            JFreeChartUtils.saveOmittedChart(fileName, getChartDir(), width, height);
+        }
+        else
+        {
+            JFreeChartUtils.saveChart(chart, fileName, getChartDir(), width, height);
+        }
     }
 
     /**
@@ -365,7 +486,7 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
         final JFreeChart chart = JFreeChartUtils.createLineChart(timerName, "Count", timeSeries, getStartTime(), getEndTime(), true,
                                                                  getMovingAveragePercentage());
 
-        JFreeChartUtils.saveChart(chart, timerName + "_CountPerSecond", getChartDir(), getChartWidth(), getChartHeight());
+        saveChart(chart, timerName + "_CountPerSecond", getChartWidth(), getChartHeight());
 
         // System.out.printf("OK (%,d values, %,d ms)\n", timeSeries.getItemCount(), TimerUtils.getTime() - start);
     }
@@ -394,7 +515,7 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
 
         final JFreeChart chart = createResponseTimeAverageChart(timerName, responseTimeSeries, responseTimeAverageSeries, median, mean);
 
-        JFreeChartUtils.saveChart(chart, timerName + "_Average", getChartDir(), getChartWidth(), getChartHeight());
+        saveChart(chart, timerName + "_Average", getChartWidth(), getChartHeight());
 
         // System.out.printf("OK (%,d values, %,d ms)\n", runTimeTimeSeries.getItemCount(), TimerUtils.getTime() -
         // start);
@@ -437,7 +558,7 @@ public class BasicTimerDataProcessor extends AbstractDataProcessor
             height = height * 150 / 100;
         }
 
-        JFreeChartUtils.saveChart(chart, timerName, getChartDir(), getChartWidth(), height);
+        saveChart(chart, timerName, getChartWidth(), height);
 
         // System.out.printf("OK (%,d values, %,d ms)\n", runTimeTimeSeries.getItemCount(), TimerUtils.getTime() -
         // start);
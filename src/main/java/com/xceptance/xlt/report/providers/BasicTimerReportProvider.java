@@ -15,10 +15,17 @@
  */
 package com.xceptance.xlt.report.providers;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 import com.xceptance.xlt.api.engine.TimerData;
+import com.xceptance.xlt.report.ReportGeneratorConfiguration;
+import com.xceptance.xlt.report.ReportGeneratorConfiguration.ChartTimerOrder;
 
 /**
  * The BasicTimerReportProvider class provides common functionality of a typical report provider that deals with
@@ -54,7 +61,10 @@ public abstract class BasicTimerReportProvider<T extends BasicTimerDataProcessor
     {
         final List<TimerReport> reports = new ArrayList<TimerReport>();
 
-        for (final T processor : getProcessors())
+        final Collection<T> processors = getProcessors();
+        limitCharts(processors);
+
+        for (final T processor : processors)
         {
             final TimerReport timerReport = processor.createTimerReport(generateHistograms);
 
@@ -66,4 +76,98 @@ public abstract class BasicTimerReportProvider<T extends BasicTimerDataProcessor
 
         return reports;
     }
+
+    /**
+     * Merges the per-timer state of the given report provider into this report provider. Timers unknown to this
+     * provider so far are added.
+     *
+     * @param other
+     *            the other report provider
+     */
+    public void merge(final BasicTimerReportProvider<T> other)
+    {
+        for (final T otherProcessor : other.getProcessors())
+        {
+            getProcessor(otherProcessor.getName()).merge(otherProcessor);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the per-timer state of this report provider to the given output. The snapshot can later be
+     * merged into another report provider of the same type using {@link #mergeSnapshot(DataInput)}.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeSnapshot(final DataOutput out) throws IOException
+    {
+        final Collection<T> processors = getProcessors();
+
+        out.writeInt(processors.size());
+        for (final T processor : processors)
+        {
+            out.writeUTF(processor.getName());
+            processor.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Reads a snapshot previously written by {@link #writeSnapshot(DataOutput)} and merges it into the per-timer state
+     * of this report provider.
+     *
+     * @param in
+     *            the source input
+     * @throws IOException
+     *             if reading failed
+     */
+    public void mergeSnapshot(final DataInput in) throws IOException
+    {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            getProcessor(in.readUTF()).mergeSnapshot(in);
+        }
+    }
+
+    /**
+     * Restricts chart rendering to the top timers if configured so. The charts of all other timers are replaced with a
+     * placeholder.
+     *
+     * @param processors
+     *            the data processors
+     */
+    private void limitCharts(final Collection<T> processors)
+    {
+        if (!(getConfiguration() instanceof ReportGeneratorConfiguration))
+        {
+            return;
+        }
+
+        final ReportGeneratorConfiguration config = (ReportGeneratorConfiguration) getConfiguration();
+        final int limit = config.getChartTimerLimit();
+
+        if (limit > 0 && processors.size() > limit)
+        {
+            final Comparator<BasicTimerDataProcessor> comparator;
+            if (config.getChartTimerOrder() == ChartTimerOrder.ERRORS)
+            {
+                comparator = Comparator.comparingDouble((BasicTimerDataProcessor p) -> (double) p.getErrorCount() / p.getCount())
+                                       .thenComparingInt(BasicTimerDataProcessor::getErrorCount);
+            }
+            else
+            {
+                comparator = Comparator.comparingLong(BasicTimerDataProcessor::getCount);
+            }
+
+            final List<T> sortedProcessors = new ArrayList<>(processors);
+            sortedProcessors.sort(comparator.reversed());
+
+            for (int i = 0; i < sortedProcessors.size(); i++)
+            {
+                sortedProcessors.get(i).setChartsOmitted(i >= limit);
+            }
+        }
+    }
 }
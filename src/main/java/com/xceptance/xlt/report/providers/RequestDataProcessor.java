@@ -16,9 +16,14 @@
 package com.xceptance.xlt.report.providers;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -143,6 +148,11 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
      */
     private final IntSummaryStatistics dnsTimeStatistics = new IntSummaryStatistics();
 
+    /**
+     * The statistics for the "tlsHandshakeTime" values of those requests that performed a TLS handshake.
+     */
+    private final IntSummaryStatistics tlsHandshakeTimeStatistics = new IntSummaryStatistics();
+
     /**
      * Whether distinct URLs should be counted.
      */
@@ -251,7 +261,7 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
                     else
                     {
                         // use the unbounded one, maintained by the super class
-                        histogramSeries = getHistogramValueSet().toVerticalSeries(seriesName);
+                        histogramSeries = getRunTimeHistogram().toVerticalSeries(seriesName, getChartHeight());
                     }
 
                     saveResponseTimeHistogramChart(getName(), histogramSeries, boundaries);
@@ -280,6 +290,11 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
         timerReport.bytesReceived = createExtendedStatisticsReport(bytesReceivedStatistics, duration);
         timerReport.dnsTime = createStatisticsReport(dnsTimeStatistics);
         timerReport.connectTime = createStatisticsReport(connectTimeStatistics);
+        timerReport.tlsHandshakes = tlsHandshakeTimeStatistics.getCount();
+        if (timerReport.tlsHandshakes > 0)
+        {
+            timerReport.tlsHandshakeTime = createStatisticsReport(tlsHandshakeTimeStatistics);
+        }
         timerReport.sendTime = createStatisticsReport(sendTimeStatistics);
         timerReport.serverBusyTime = createStatisticsReport(serverBusyTimeStatistics);
         timerReport.receiveTime = createStatisticsReport(receiveTimeStatistics);
@@ -335,6 +350,10 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
         bytesReceivedStatistics.addValue(reqData.getBytesReceived());
         dnsTimeStatistics.addValue(reqData.getDnsTime());
         connectTimeStatistics.addValue(reqData.getConnectTime());
+        if (reqData.getTlsHandshakeTime() > 0)
+        {
+            tlsHandshakeTimeStatistics.addValue(reqData.getTlsHandshakeTime());
+        }
         sendTimeStatistics.addValue(reqData.getSendTime());
         serverBusyTimeStatistics.addValue(reqData.getServerBusyTime());
         receiveTimeStatistics.addValue(reqData.getReceiveTime());
@@ -342,6 +361,142 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
         timeToLastBytesStatistics.addValue(reqData.getTimeToLastBytes());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void merge(final BasicTimerDataProcessor other)
+    {
+        super.merge(other);
+
+        final RequestDataProcessor otherProcessor = (RequestDataProcessor) other;
+
+        if (runTimeHistogramValueSet != null)
+        {
+            runTimeHistogramValueSet.merge(otherProcessor.runTimeHistogramValueSet);
+            countPerSegment.merge(otherProcessor.countPerSegment);
+        }
+
+        responseSizeValueSet.merge(otherProcessor.responseSizeValueSet);
+
+        distinctUrlsHLL.union(otherProcessor.distinctUrlsHLL);
+        for (final XltCharBuffer url : otherProcessor.distinctUrlSet.keys())
+        {
+            addDistinctUrl(url);
+        }
+
+        final IntSummaryStatistics[] statistics = getRequestStatistics();
+        final IntSummaryStatistics[] otherStatistics = otherProcessor.getRequestStatistics();
+        for (int i = 0; i < statistics.length; i++)
+        {
+            statistics[i].merge(otherStatistics[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeSnapshot(final DataOutput out) throws IOException
+    {
+        super.writeSnapshot(out);
+
+        out.writeBoolean(runTimeHistogramValueSet != null);
+        if (runTimeHistogramValueSet != null)
+        {
+            runTimeHistogramValueSet.writeTo(out);
+            countPerSegment.writeTo(out);
+        }
+
+        responseSizeValueSet.writeTo(out);
+
+        final byte[] hllBytes = distinctUrlsHLL.toBytes();
+        out.writeInt(hllBytes.length);
+        out.write(hllBytes);
+
+        // URLs may exceed the length limit of writeUTF()
+        final List<XltCharBuffer> urls = distinctUrlSet.keys();
+        out.writeInt(urls.size());
+        for (final XltCharBuffer url : urls)
+        {
+            final byte[] urlBytes = url.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(urlBytes.length);
+            out.write(urlBytes);
+        }
+
+        for (final IntSummaryStatistics statistics : getRequestStatistics())
+        {
+            statistics.writeTo(out);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mergeSnapshot(final DataInput in) throws IOException
+    {
+        super.mergeSnapshot(in);
+
+        if (in.readBoolean() != (runTimeHistogramValueSet != null))
+        {
+            throw new IllegalArgumentException("Cannot merge a snapshot with different runtime segment boundaries");
+        }
+        if (runTimeHistogramValueSet != null)
+        {
+            runTimeHistogramValueSet.merge(HistogramValueSet.readFrom(in));
+            countPerSegment.merge(SegmentationValueSet.readFrom(in));
+        }
+
+        responseSizeValueSet.merge(IntMinMaxValueSet.readFrom(in));
+
+        final byte[] hllBytes = new byte[in.readInt()];
+        in.readFully(hllBytes);
+        distinctUrlsHLL.union(HLL.fromBytes(hllBytes));
+
+        final int urlCount = in.readInt();
+        for (int i = 0; i < urlCount; i++)
+        {
+            final byte[] urlBytes = new byte[in.readInt()];
+            in.readFully(urlBytes);
+            addDistinctUrl(XltCharBuffer.valueOf(new String(urlBytes, StandardCharsets.UTF_8)));
+        }
+
+        for (final IntSummaryStatistics statistics : getRequestStatistics())
+        {
+            statistics.merge(IntSummaryStatistics.readFrom(in));
+        }
+    }
+
+    /**
+     * Remembers the given URL as a distinct URL unless the maximum number of URLs to store has been reached already.
+     *
+     * @param url
+     *            the URL
+     */
+    private void addDistinctUrl(final XltCharBuffer url)
+    {
+        if (distinctUrlSetLimitedSize < MAXIMUM_NUMBER_OF_URLS && distinctUrlSet.get(url) == null)
+        {
+            distinctUrlSet.put(url, url);
+            distinctUrlSetLimitedSize = distinctUrlSet.size();
+        }
+    }
+
+    /**
+     * Returns the request-specific statistics in a fixed order, so they can be merged and written uniformly.
+     *
+     * @return the statistics
+     */
+    private IntSummaryStatistics[] getRequestStatistics()
+    {
+        return new IntSummaryStatistics[]
+            {
+                bytesSentStatistics, bytesReceivedStatistics, connectTimeStatistics, sendTimeStatistics, serverBusyTimeStatistics,
+                receiveTimeStatistics, timeToFirstBytesStatistics, timeToLastBytesStatistics, dnsTimeStatistics, tlsHandshakeTimeStatistics
+            };
+    }
+
     /**
      * Creates a chart from the passed bytes received values. The chart's title and file name are derived from the
      * specified timer name. The chart is generated to the charts directory.
@@ -359,7 +514,7 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
 
         final JFreeChart chart = JFreeChartUtils.createLineChart(timerName, "Bytes", timeSeries, getStartTime(), getEndTime(), true,
                                                                  getMovingAveragePercentage());
-        JFreeChartUtils.saveChart(chart, timerName + "_ResponseSize", getChartDir(), getChartWidth(), getChartHeight());
+        saveChart(chart, timerName + "_ResponseSize", getChartWidth(), getChartHeight());
 
         // System.out.printf("OK (%,d values, %,d ms)\n", timeSeries.getItemCount(), TimerUtils.getTime() - start);
     }
@@ -443,7 +598,7 @@ public class RequestDataProcessor extends BasicTimerDataProcessor
         // final long start = TimerUtils.getTime();
 
         final JFreeChart chart = createHistogramChart(timerName, histogramSeries, boundaries);
-        JFreeChartUtils.saveChart(chart, timerName + "_Histogram", getChartDir(), getChartWidth(), getChartHeight());
+        saveChart(chart, timerName + "_Histogram", getChartWidth(), getChartHeight());
 
         // System.out.printf("OK (%,d values, %,d ms)\n", runtimeHistogramValueSet.getNumberOfBins(),
         // TimerUtils.getTime() - start);
@@ -45,6 +45,17 @@ public class RequestReport extends TimerReport
      */
     public StatisticsReport connectTime;
 
+    /**
+     * The number of requests that performed a TLS handshake.
+     */
+    public long tlsHandshakes;
+
+    /**
+     * The statistics for the "tlsHandshakeTime" values of those requests that performed a TLS handshake. Will be
+     * <code>null</code> if there was no handshake at all.
+     */
+    public StatisticsReport tlsHandshakeTime;
+
     /**
      * The statistics for the "sendTime" values.
      */
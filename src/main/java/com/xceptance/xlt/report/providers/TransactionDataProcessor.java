@@ -15,7 +15,10 @@
  */
 package com.xceptance.xlt.report.providers;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import org.jfree.chart.JFreeChart;
@@ -162,6 +165,47 @@ public class TransactionDataProcessor extends BasicTimerDataProcessor
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void merge(final BasicTimerDataProcessor other)
+    {
+        super.merge(other);
+
+        final TransactionDataProcessor otherProcessor = (TransactionDataProcessor) other;
+
+        eventsPerSecond.merge(otherProcessor.eventsPerSecond);
+        arrivalsPerHourPerSecond.merge(otherProcessor.arrivalsPerHourPerSecond);
+        numberOfEvents += otherProcessor.numberOfEvents;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeSnapshot(final DataOutput out) throws IOException
+    {
+        super.writeSnapshot(out);
+
+        eventsPerSecond.writeTo(out);
+        arrivalsPerHourPerSecond.writeTo(out);
+        out.writeInt(numberOfEvents);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mergeSnapshot(final DataInput in) throws IOException
+    {
+        super.mergeSnapshot(in);
+
+        eventsPerSecond.merge(ValueSet.readFrom(in));
+        arrivalsPerHourPerSecond.merge(ValueSet.readFrom(in));
+        numberOfEvents += in.readInt();
+    }
+
     /**
      * {@inheritDoc}
      */
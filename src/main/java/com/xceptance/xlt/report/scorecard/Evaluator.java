@@ -27,11 +27,16 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.xml.transform.Source;
+
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -47,10 +52,15 @@ import com.xceptance.xlt.report.util.xstream.SanitizingDomDriver;
 import dev.harrel.jsonschema.Validator;
 import dev.harrel.jsonschema.ValidatorFactory;
 import dev.harrel.jsonschema.providers.OrgJsonNode;
+import net.sf.saxon.om.NodeInfo;
 import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.SaxonApiUncheckedException;
 import net.sf.saxon.s9api.UnprefixedElementMatchingPolicy;
 import net.sf.saxon.s9api.XPathCompiler;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmAtomicValue;
 import net.sf.saxon.s9api.XdmItem;
 import net.sf.saxon.s9api.XdmNode;
 import net.sf.saxon.s9api.XdmValue;
@@ -100,6 +110,34 @@ public class Evaluator
 
     }
 
+    /**
+     * Evaluates the given XML document. If the document is a tree that has been built by Saxon already, for example
+     * when parsing the test report for the HTML transformation, the tree is used as is and not parsed again.
+     *
+     * @param document
+     *            the XML document to evaluate
+     * @return resulting scorecard
+     */
+    public Scorecard evaluate(final Source document)
+    {
+        ParameterCheckUtils.isNotNull(document, "document");
+
+        try
+        {
+            final Configuration config = parseConfiguration();
+
+            // a tree can only be queried with a processor that shares the tree's configuration
+            final Processor documentProcessor = document instanceof NodeInfo ? new Processor(((NodeInfo) document).getConfiguration())
+                                                                             : processor;
+
+            return doEvaluate(config, documentProcessor.newDocumentBuilder().build(document), documentProcessor);
+        }
+        catch (final Exception ex)
+        {
+            return Scorecard.error(ex);
+        }
+    }
+
     /**
      * Writes the given scorecard as serialized XML to the given output file.
      *
@@ -189,11 +227,44 @@ public class Evaluator
 
     protected Scorecard doEvaluate(final Configuration config, final File documentFile) throws SaxonApiException
     {
-        final XdmNode docNode = processor.newDocumentBuilder().build(documentFile);
-        final XPathCompiler xpathCompiler = processor.newXPathCompiler();
+        return doEvaluate(config, processor.newDocumentBuilder().build(documentFile), processor);
+    }
+
+    protected Scorecard doEvaluate(final Configuration config, final XdmNode docNode, final Processor docProcessor)
+    {
+        final XPathCompiler xpathCompiler = docProcessor.newXPathCompiler();
         xpathCompiler.setUnprefixedElementMatchingPolicy(UnprefixedElementMatchingPolicy.DEFAULT_NAMESPACE);
         xpathCompiler.setCaching(true);
 
+        // create the group and rule result objects (in definition order)
+        final List<Scorecard.Group> groups = new ArrayList<>();
+        final List<Scorecard.Rule> rules = new ArrayList<>();
+        for (final GroupDefinition groupDef : config.getGroups())
+        {
+            final Scorecard.Group group = new Scorecard.Group(groupDef);
+            for (final String ruleId : groupDef.getRuleIds())
+            {
+                final Scorecard.Rule rule = new Scorecard.Rule(config.getRule(ruleId), groupDef.isEnabled());
+                group.addRule(rule);
+                rules.add(rule);
+            }
+            groups.add(group);
+        }
+
+        // compile all expressions up-front as the compiler must not be used concurrently
+        final Expressions expressions = new Expressions(xpathCompiler);
+        for (final Scorecard.Rule rule : rules)
+        {
+            for (final RuleDefinition.Check check : rule.getDefinition().getChecks())
+            {
+                expressions.compile(getSelector(check, config::getSelector));
+                expressions.compile(getConditionExpression(check.getCondition()));
+            }
+        }
+
+        // the rules are independent of each other, so evaluate them in parallel
+        rules.parallelStream().forEach(rule -> evaluateRule(rule, expressions, docNode, config::getSelector));
+
         Integer points = 0, totalPoints = 0; // counters for achieved and achievable points
         boolean testFailed = false; // whether to mark test as failed
 
@@ -203,26 +274,9 @@ public class Evaluator
         // remember the erroneous groups to decide whether evaluation has a meaningful result later on
         final List<Scorecard.Group> erroneousGroups = new ArrayList<>();
 
-        // loop through the list of configured groups (in definition order)
-        for (final GroupDefinition groupDef : config.getGroups())
+        // loop through the list of groups (in definition order)
+        for (final Scorecard.Group group : groups)
         {
-            // create a group result object
-            final Scorecard.Group group = new Scorecard.Group(groupDef);
-            // loop through the group's rule IDs (in definition order)
-            for (final String ruleId : groupDef.getRuleIds())
-            {
-                // lookup the rule's definition for this ID
-                final RuleDefinition ruleDef = config.getRule(ruleId);
-                // create a rule result object
-                final Scorecard.Rule rule = new Scorecard.Rule(ruleDef, groupDef.isEnabled());
-                // evaluate the rule
-                evaluateRule(rule, xpathCompiler, docNode, config::getSelector);
-
-                // add rule result to group
-                group.addRule(rule);
-
-            }
-
             // conclude the evaluation of the group
             testFailed = conclude(group) | testFailed;
 
@@ -291,7 +345,7 @@ public class Evaluator
         return scorecard;
     }
 
-    private void evaluateRule(final Scorecard.Rule rule, final XPathCompiler compiler, final XdmNode document,
+    private void evaluateRule(final Scorecard.Rule rule, final Expressions expressions, final XdmNode document,
                               final Function<String, SelectorDefinition> selectorLookup)
     {
         for (final RuleDefinition.Check check : rule.getDefinition().getChecks())
@@ -299,7 +353,7 @@ public class Evaluator
             final Scorecard.Rule.Check ruleCheck = new Scorecard.Rule.Check(check, rule.isEnabled());
             if (ruleCheck.isEnabled())
             {
-                evaluateRuleCheck(ruleCheck, compiler, document, selectorLookup);
+                evaluateRuleCheck(ruleCheck, expressions, document, selectorLookup);
             }
             rule.addCheck(ruleCheck);
         }
@@ -307,27 +361,16 @@ public class Evaluator
         conclude(rule);
     }
 
-    private void evaluateRuleCheck(final Scorecard.Rule.Check check, final XPathCompiler compiler, final XdmNode document,
+    private void evaluateRuleCheck(final Scorecard.Rule.Check check, final Expressions expressions, final XdmNode document,
                                    final Function<String, SelectorDefinition> selectorLookup)
     {
-        final String selector;
-        // pick the right selector (specified directly or referenced by ID)
-        {
-            final String selectorId = check.getDefinition().getSelectorId();
-            if (selectorId != null)
-            {
-                selector = selectorLookup.apply(selectorId).getExpression();
-            }
-            else
-            {
-                selector = check.getDefinition().getSelector();
-            }
-        }
+        final String selector = getSelector(check.getDefinition(), selectorLookup);
+
         Status status = Status.FAILED;
         String message = null, value = null;
         try
         {
-            final XdmValue result = compiler.evaluate(selector, document);
+            final XdmValue result = expressions.select(selector, document);
             if (result.isEmpty())
             {
                 status = Status.ERROR;
@@ -350,7 +393,7 @@ public class Evaluator
                 else
                 {
                     value = node.getStringValue();
-                    final boolean matches = evaluateConditionSafe(check.getDefinition().getCondition(), compiler, node);
+                    final boolean matches = evaluateConditionSafe(check.getDefinition().getCondition(), expressions, node);
                     if (matches)
                     {
                         status = Status.PASSED;
@@ -372,7 +415,37 @@ public class Evaluator
         }
     }
 
-    private boolean evaluateConditionSafe(final String condition, final XPathCompiler compiler, final XdmValue contextValue)
+    private boolean evaluateConditionSafe(final String condition, final Expressions expressions, final XdmItem contextItem)
+    {
+        try
+        {
+            final XPathSelector selector = expressions.get(getConditionExpression(condition)).load();
+            selector.setContextItem(contextItem);
+
+            final XdmValue result = selector.evaluate();
+
+            return result.size() == 1 && result.itemAt(0).isAtomicValue() && ((XdmAtomicValue) result.itemAt(0)).getBooleanValue();
+        }
+        catch (final ClassCastException | SaxonApiException | SaxonApiUncheckedException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the selector expression of the given check, either specified directly or referenced by ID.
+     */
+    private static String getSelector(final RuleDefinition.Check check, final Function<String, SelectorDefinition> selectorLookup)
+    {
+        final String selectorId = check.getSelectorId();
+
+        return selectorId != null ? selectorLookup.apply(selectorId).getExpression() : check.getSelector();
+    }
+
+    /**
+     * Turns the given check condition into a full XPath expression.
+     */
+    private static String getConditionExpression(final String condition)
     {
         // strip any leading/trailing whitespace
         String expr = StringUtils.strip(condition);
@@ -381,14 +454,8 @@ public class Evaluator
         {
             expr = ". " + expr;
         }
-        try
-        {
-            return contextValue.select(compiler.compile(expr).asStep()).asAtomic().getBooleanValue();
-        }
-        catch (final ClassCastException | SaxonApiException e)
-        {
-            return false;
-        }
+
+        return expr;
     }
 
     private void conclude(final Scorecard.Rule rule)
@@ -595,4 +662,94 @@ public class Evaluator
         return denominator > 0 ? (Math.round((numerator * 1000.0) / denominator) / 10.0) : 0.0;
     }
 
+    /**
+     * The compiled XPath expressions of all checks and the results of the selectors evaluated so far. Expressions are
+     * compiled in advance by a single thread, while the compiled expressions can be shared by all threads evaluating
+     * rules. Selector results are cached as several checks often use the same selector.
+     */
+    private static final class Expressions
+    {
+        private final XPathCompiler compiler;
+
+        /**
+         * The compiled expressions (or the compile errors) keyed by expression.
+         */
+        private final Map<String, Object> compiled = new HashMap<>();
+
+        /**
+         * The selector results (or the evaluation errors) keyed by selector expression.
+         */
+        private final Map<String, Object> selectorResults = new ConcurrentHashMap<>();
+
+        private Expressions(final XPathCompiler compiler)
+        {
+            this.compiler = compiler;
+        }
+
+        /**
+         * Compiles the given expression unless this was done before. Must not be called concurrently.
+         */
+        private void compile(final String expression)
+        {
+            if (expression != null && !compiled.containsKey(expression))
+            {
+                Object result;
+                try
+                {
+                    result = compiler.compile(expression);
+                }
+                catch (final SaxonApiException e)
+                {
+                    result = e;
+                }
+
+                compiled.put(expression, result);
+            }
+        }
+
+        /**
+         * Returns the compiled form of the given expression.
+         */
+        private XPathExecutable get(final String expression) throws SaxonApiException
+        {
+            final Object result = compiled.get(expression);
+            if (result instanceof SaxonApiException)
+            {
+                throw (SaxonApiException) result;
+            }
+            else if (result == null)
+            {
+                throw new SaxonApiException("Expression has not been compiled: " + expression);
+            }
+
+            return (XPathExecutable) result;
+        }
+
+        /**
+         * Evaluates the given selector expression against the document, or returns the result of a previous evaluation.
+         */
+        private XdmValue select(final String expression, final XdmNode document) throws SaxonApiException
+        {
+            final Object result = selectorResults.computeIfAbsent(expression, e -> {
+                try
+                {
+                    final XPathSelector selector = get(e).load();
+                    selector.setContextItem(document);
+
+                    return selector.evaluate();
+                }
+                catch (final SaxonApiException ex)
+                {
+                    return ex;
+                }
+            });
+
+            if (result instanceof SaxonApiException)
+            {
+                throw (SaxonApiException) result;
+            }
+
+            return (XdmValue) result;
+        }
+    }
 }
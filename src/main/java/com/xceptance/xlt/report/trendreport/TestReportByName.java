@@ -15,10 +15,8 @@
  */
 package com.xceptance.xlt.report.trendreport;
 
-import org.w3c.dom.Document;
-
 /**
- * This class represents a test report document keyed by the test report name.
+ * This class represents the summary of a test report keyed by the test report name.
  * 
  * @author sebastianloob
  */
@@ -30,9 +28,9 @@ public class TestReportByName
     private String reportName;
 
     /**
-     * The test report document.
+     * The test report summary.
      */
-    private Document testReport;
+    private TestReportSummary testReport;
 
     /**
      * Constructor.
@@ -40,7 +38,7 @@ public class TestReportByName
      * @param reportName
      * @param testReport
      */
-    public TestReportByName(String reportName, Document testReport)
+    public TestReportByName(String reportName, TestReportSummary testReport)
     {
         this.setReportName(reportName);
         this.setTestReport(testReport);
@@ -68,22 +66,22 @@ public class TestReportByName
     }
 
     /**
-     * Returns the test report document.
+     * Returns the test report summary.
      * 
-     * @return the test report document
+     * @return the test report summary
      */
-    public Document getTestReport()
+    public TestReportSummary getTestReport()
     {
         return testReport;
     }
 
     /**
-     * Sets the test report document.
+     * Sets the test report summary.
      * 
      * @param testReport
-     *            the test report document
+     *            the test report summary
      */
-    public void setTestReport(Document testReport)
+    public void setTestReport(TestReportSummary testReport)
     {
         this.testReport = testReport;
     }
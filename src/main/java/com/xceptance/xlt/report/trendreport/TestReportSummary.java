@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.trendreport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xceptance.xlt.api.util.XltException;
+
+/**
+ * The few values of a test report that are needed to create a trend report: the test start time, the comment, the
+ * project name, and the key statistics of all timers.
+ * <p>
+ * The values are extracted from the test report XML file with a streaming parser, so the (potentially huge) file is
+ * never held in memory as a whole. Additionally, the values are stored in a small summary file next to the test report
+ * XML file. Subsequent trend report runs read the summary file instead as long as the test report XML file has not
+ * changed in the meantime.
+ */
+public class TestReportSummary
+{
+    /**
+     * The class logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestReportSummary.class);
+
+    /**
+     * The name of the summary file.
+     */
+    public static final String SUMMARY_FILENAME = "testreport.summary";
+
+    /**
+     * The version of the summary file format. Increment it whenever the format changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The tag names of the timer elements to extract, keyed by the path of the respective element below the root
+     * element.
+     */
+    private static final Map<String, String> TAG_NAMES_BY_PATH = new HashMap<>();
+
+    static
+    {
+        TAG_NAMES_BY_PATH.put("transactions/transaction", "transaction");
+        TAG_NAMES_BY_PATH.put("actions/action", "action");
+        TAG_NAMES_BY_PATH.put("requests/request", "request");
+        TAG_NAMES_BY_PATH.put("pageLoadTimings/pageLoadTiming", "pageLoadTiming");
+        TAG_NAMES_BY_PATH.put("customTimers/customTimer", "customTimer");
+        TAG_NAMES_BY_PATH.put("summary/transactions", "transactions");
+        TAG_NAMES_BY_PATH.put("summary/actions", "actions");
+        TAG_NAMES_BY_PATH.put("summary/requests", "requests");
+        TAG_NAMES_BY_PATH.put("summary/pageLoadTimings", "pageLoadTimings");
+        TAG_NAMES_BY_PATH.put("summary/customTimers", "customTimers");
+    }
+
+    /**
+     * The key statistics of a single timer.
+     */
+    public static class TimerSummary
+    {
+        public final int minimum;
+
+        public final int maximum;
+
+        public final double median;
+
+        public final double mean;
+
+        public final int errors;
+
+        public final double countPerSecond;
+
+        /**
+         * Constructor.
+         */
+        public TimerSummary(final int minimum, final int maximum, final double median, final double mean, final int errors,
+                            final double countPerSecond)
+        {
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.median = median;
+            this.mean = mean;
+            this.errors = errors;
+            this.countPerSecond = countPerSecond;
+        }
+    }
+
+    /**
+     * The test start time as found in the report.
+     */
+    private String startTime;
+
+    /**
+     * The first test comment, or <code>null</code> if there is none.
+     */
+    private String comment;
+
+    /**
+     * The project name, or <code>null</code> if there is none.
+     */
+    private String projectName;
+
+    /**
+     * The timer statistics keyed by timer name, keyed by tag name (e.g. "transaction", "action", "transactions").
+     */
+    private final Map<String, Map<String, TimerSummary>> timersByTagName = new HashMap<>();
+
+    /**
+     * Returns the test start time as found in the report.
+     *
+     * @return the start time, or <code>null</code> if the report does not contain one
+     */
+    public String getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * Returns the first test comment.
+     *
+     * @return the comment, or <code>null</code> if there is none
+     */
+    public String getComment()
+    {
+        return comment;
+    }
+
+    /**
+     * Returns the project name.
+     *
+     * @return the project name, or <code>null</code> if there is none
+     */
+    public String getProjectName()
+    {
+        return projectName;
+    }
+
+    /**
+     * Returns the timer statistics for the given tag name in the order they appear in the report.
+     *
+     * @param tagName
+     *            the tag name, for example "transaction" or "transactions"
+     * @return the statistics keyed by timer name (may be empty)
+     */
+    public Map<String, TimerSummary> getTimers(final String tagName)
+    {
+        final Map<String, TimerSummary> timers = timersByTagName.get(tagName);
+
+        return timers == null ? Collections.emptyMap() : timers;
+    }
+
+    /**
+     * Returns the summary of the test report XML file in the given report directory. If there is an up-to-date summary
+     * file, it is read instead of the XML file. Otherwise, the XML file is parsed and the summary file is (re-)created
+     * on the fly.
+     *
+     * @param reportDir
+     *            the test report directory
+     * @param reportFileName
+     *            the name of the test report XML file
+     * @return the summary
+     * @throws IOException
+     *             if the test report could not be read
+     */
+    public static TestReportSummary read(final File reportDir, final String reportFileName) throws IOException
+    {
+        final Path reportFile = reportDir.toPath().resolve(reportFileName);
+        final Path summaryFile = reportDir.toPath().resolve(SUMMARY_FILENAME);
+
+        final long reportFileSize = Files.size(reportFile);
+        final long reportFileLastModified = Files.getLastModifiedTime(reportFile).toMillis();
+
+        // try the summary file first
+        if (Files.isRegularFile(summaryFile))
+        {
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(summaryFile))))
+            {
+                if (in.readInt() == FORMAT_VERSION && in.readLong() == reportFileSize && in.readLong() == reportFileLastModified)
+                {
+                    return readFrom(in);
+                }
+            }
+            catch (final IOException e)
+            {
+                log.warn("Failed to read test report summary file: " + summaryFile, e);
+            }
+        }
+
+        // parse the report
+        final TestReportSummary summary;
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(reportFile)))
+        {
+            summary = parse(in);
+        }
+
+        // and remember the results for next time (best effort only as the report directory might be read-only)
+        try
+        {
+            final Path tmpFile = Files.createTempFile(reportDir.toPath(), SUMMARY_FILENAME, ".tmp");
+            try
+            {
+                try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile))))
+                {
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeLong(reportFileSize);
+                    out.writeLong(reportFileLastModified);
+                    summary.writeTo(out);
+                }
+
+                Files.move(tmpFile, summaryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            finally
+            {
+                Files.deleteIfExists(tmpFile);
+            }
+        }
+        catch (final IOException e)
+        {
+            log.warn("Failed to write test report summary file: " + summaryFile, e);
+        }
+
+        return summary;
+    }
+
+    /**
+     * Extracts the summary from the given test report XML stream.
+     *
+     * @param in
+     *            the test report XML
+     * @return the summary
+     * @throws IOException
+     *             if the XML could not be parsed
+     */
+    public static TestReportSummary parse(final InputStream in) throws IOException
+    {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        final TestReportSummary summary = new TestReportSummary();
+
+        try
+        {
+            final XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try
+            {
+                // the names of the elements on level 2 and 3 (the root element being level 1)
+                String section = null;
+                String child = null;
+                int depth = 0;
+
+                while (reader.hasNext())
+                {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT)
+                    {
+                        depth++;
+
+                        final String name = reader.getLocalName();
+                        if (depth == 2)
+                        {
+                            section = name;
+                        }
+                        else if (depth == 3)
+                        {
+                            child = name;
+
+                            final String tagName = TAG_NAMES_BY_PATH.get(section + "/" + child);
+                            if (tagName != null)
+                            {
+                                summary.readTimer(reader, tagName);
+                                depth--;
+                            }
+                            else if (name.equals("startTime") && summary.startTime == null)
+                            {
+                                summary.startTime = reader.getElementText();
+                                depth--;
+                            }
+                            else if (name.equals("projectName") && section.equals("configuration"))
+                            {
+                                summary.projectName = reader.getElementText();
+                                depth--;
+                            }
+                        }
+                        else if (depth == 4 && name.equals("string") && child.equals("comments") && section.equals("configuration") &&
+                                 summary.comment == null)
+                        {
+                            summary.comment = reader.getElementText();
+                            depth--;
+                        }
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT)
+                    {
+                        depth--;
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new IOException("Failed to parse test report", e);
+        }
+
+        return summary;
+    }
+
+    /**
+     * Reads the statistics of the timer element the given reader is positioned at. Afterwards, the reader is
+     * positioned at the end of this element.
+     */
+    private void readTimer(final XMLStreamReader reader, final String tagName) throws XMLStreamException
+    {
+        final Map<String, String> values = new HashMap<>();
+
+        int depth = 1;
+        while (depth > 0)
+        {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+            {
+                if (depth == 1)
+                {
+                    // direct child -> take its text unless it is a complex element
+                    final String name = reader.getLocalName();
+                    switch (name)
+                    {
+                        case "name":
+                        case "min":
+                        case "max":
+                        case "median":
+                        case "mean":
+                        case "errors":
+                        case "countPerSecond":
+                            values.put(name, reader.getElementText());
+                            continue;
+                        default:
+                            break;
+                    }
+                }
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                depth--;
+            }
+        }
+
+        final TimerSummary timer = new TimerSummary(Integer.parseInt(getValue(values, "min")), Integer.parseInt(getValue(values, "max")),
+                                                    Double.parseDouble(getValue(values, "median")),
+                                                    Double.parseDouble(getValue(values, "mean")),
+                                                    Integer.parseInt(getValue(values, "errors")),
+                                                    Double.parseDouble(getValue(values, "countPerSecond")));
+
+        timersByTagName.computeIfAbsent(tagName, k -> new LinkedHashMap<>()).put(getValue(values, "name"), timer);
+    }
+
+    private static String getValue(final Map<String, String> values, final String tagName)
+    {
+        final String value = values.get(tagName);
+        if (value == null)
+        {
+            throw new XltException("No child element found with tag name: " + tagName);
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes this summary to the given stream.
+     */
+    private void writeTo(final DataOutputStream out) throws IOException
+    {
+        writeString(out, startTime);
+        writeString(out, comment);
+        writeString(out, projectName);
+
+        out.writeInt(timersByTagName.size());
+        for (final Map.Entry<String, Map<String, TimerSummary>> tagEntry : timersByTagName.entrySet())
+        {
+            out.writeUTF(tagEntry.getKey());
+            out.writeInt(tagEntry.getValue().size());
+
+            for (final Map.Entry<String, TimerSummary> timerEntry : tagEntry.getValue().entrySet())
+            {
+                final TimerSummary timer = timerEntry.getValue();
+
+                out.writeUTF(timerEntry.getKey());
+                out.writeInt(timer.minimum);
+                out.writeInt(timer.maximum);
+                out.writeDouble(timer.median);
+                out.writeDouble(timer.mean);
+                out.writeInt(timer.errors);
+                out.writeDouble(timer.countPerSecond);
+            }
+        }
+    }
+
+    /**
+     * Reads a summary from the given stream.
+     */
+    private static TestReportSummary readFrom(final DataInputStream in) throws IOException
+    {
+        final TestReportSummary summary = new TestReportSummary();
+
+        summary.startTime = readString(in);
+        summary.comment = readString(in);
+        summary.projectName = readString(in);
+
+        final int tagCount = in.readInt();
+        for (int i = 0; i < tagCount; i++)
+        {
+            final String tagName = in.readUTF();
+            final int timerCount = in.readInt();
+
+            final Map<String, TimerSummary> timers = new LinkedHashMap<>();
+            for (int j = 0; j < timerCount; j++)
+            {
+                final String timerName = in.readUTF();
+                timers.put(timerName, new TimerSummary(in.readInt(), in.readInt(), in.readDouble(), in.readDouble(), in.readInt(),
+                                                       in.readDouble()));
+            }
+
+            summary.timersByTagName.put(tagName, timers);
+        }
+
+        return summary;
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException
+    {
+        out.writeBoolean(s != null);
+        if (s != null)
+        {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -20,15 +20,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -36,6 +35,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -48,6 +48,7 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.CategoryAxis;
 import org.jfree.chart.axis.CategoryLabelPositions;
@@ -61,15 +62,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.xml.sax.SAXException;
 
 import com.xceptance.common.util.ProcessExitCodes;
 import com.xceptance.common.util.ProductInformation;
 import com.xceptance.common.xml.DomUtils;
 import com.xceptance.xlt.common.XltConstants;
 import com.xceptance.xlt.report.ReportTransformer;
+import com.xceptance.xlt.report.trendreport.TestReportSummary.TimerSummary;
 import com.xceptance.xlt.report.util.CategoryItemRenderer;
-import com.xceptance.xlt.report.util.ElementSpecification;
 import com.xceptance.xlt.report.util.JFreeChartUtils;
 import com.xceptance.xlt.report.util.NoOverlapCategoryAxis;
 import com.xceptance.xlt.report.util.ReportUtils;
@@ -222,110 +222,31 @@ public class TrendReportGeneratorMain
     /**
      * Creates an initial trend value set, which contains dummy values for each test report.
      *
-     * @param directoryPathNames
-     *            the test report directories
+     * @param summariesByReportName
+     *            the test report summaries keyed by their unique report name
      * @throws ParseException
-     * @throws IOException
      */
-    private void createInitialTrendValues(final String[] directoryPathNames) throws ParseException, IOException
+    private void createInitialTrendValues(final Map<String, TestReportSummary> summariesByReportName) throws ParseException
     {
-        // remember absolute paths of all report directories to detect repetitions in user input
-        final HashSet<String> reportDirs = new HashSet<String>();
-        // remember test report names to compute a unique one
-        final HashSet<String> reportNames = new HashSet<String>();
-        for (final String directoryPathName : directoryPathNames)
+        for (final Entry<String, TestReportSummary> entry : summariesByReportName.entrySet())
         {
-            final File reportDir = new File(directoryPathName);
-            final String reportPath = reportDir.getAbsolutePath();
-            if (reportDirs.contains(reportPath))
-            {
-                continue;
-            }
+            final String key = entry.getKey();
+            final TestReportSummary summary = entry.getValue();
 
-            reportDirs.add(reportPath);
-            // compute unique test report name
-            String key = reportDir.getName();
-            if (reportNames.contains(key))
+            // newer reports don't have msec anymore!
+            Date reportDate;
+            try
             {
-                key = computeNewKey(reportNames, key);
+                reportDate = new SimpleDateFormat(XltConstants.REPORT_DATE_FORMAT, Locale.ENGLISH).parse(summary.getStartTime());
             }
-            reportNames.add(key);
-            // get test report date and comment
-            Map<String, String> reportDateAndComment = getReportDateAndCommentFromFile(reportDir);
-            // create a new trend value if test report data are available
-            if (reportDateAndComment != null)
+            catch (java.text.ParseException e)
             {
-                // newer reports don't have msec anymore!
-                Date reportDate;
-                try
-                {
-                    reportDate = new SimpleDateFormat(XltConstants.REPORT_DATE_FORMAT,
-                                                             Locale.ENGLISH).parse(reportDateAndComment.get("reportDate"));
-                }
-                catch(java.text.ParseException e)
-                {
-                    reportDate = new SimpleDateFormat(XltConstants.REPORT_DATE_FORMAT_WO_MSEC,
-                                                                 Locale.ENGLISH).parse(reportDateAndComment.get("reportDate"));
-                }
-
-                final String reportComment = reportDateAndComment.get("reportComment");
-                // add a new trend value to the initial trend values
-                initialTrendValues.add(new TrendValue(null, null, null, null, key, reportDate, reportComment, null, null));
+                reportDate = new SimpleDateFormat(XltConstants.REPORT_DATE_FORMAT_WO_MSEC, Locale.ENGLISH).parse(summary.getStartTime());
             }
-        }
-    }
 
-    /**
-     * Returns the test report date and the test report comment.
-     *
-     * @param dir
-     *            the directory of the test report
-     * @return the test report date and the test report comment
-     * @throws IOException
-     * @throws ParseException
-     */
-    private Map<String, String> getReportDateAndCommentFromFile(final File dir) throws IOException, ParseException
-    {
-        // the test report data
-        final Map<String, String> testReportData = new HashMap<String, String>();
-        // the test report XML file
-        final File file = new File(dir, XltConstants.LOAD_REPORT_XML_FILENAME);
-
-        if (file.isFile())
-        {
-            // the test report content
-            String fileContent = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
-            // get the test report date
-            testReportData.put("reportDate",
-                               fileContent.substring(fileContent.indexOf("<startTime>") + 11, fileContent.indexOf("</startTime>")));
-            // get the test report comment
-            testReportData.put("reportComment", parseCommentFromFileContent(fileContent));
-            return testReportData;
-        }
-        else
-        {
-            log.warn("The specified directory '" + dir + "' does not seem to be a valid test report directory. Skipping it.");
-            return null;
-        }
-    }
-
-    /**
-     * Returns the test report comment if it is set, otherwise {@code null}.
-     *
-     * @param fileContent
-     *            the string to get the test report comment from
-     * @return
-     */
-    private String parseCommentFromFileContent(String fileContent)
-    {
-        // no comment was set
-        if (fileContent.contains("<comments/>"))
-        {
-            return null;
+            // add a new trend value to the initial trend values
+            initialTrendValues.add(new TrendValue(null, null, null, null, key, reportDate, summary.getComment(), null, null));
         }
-        String subStringComment = fileContent.substring(fileContent.indexOf("<comments>"), fileContent.indexOf("</comments>"));
-        // get comment from sub string
-        return subStringComment.substring(subStringComment.indexOf("<string>") + 8, subStringComment.indexOf("</string>"));
     }
 
     /**
@@ -488,18 +409,16 @@ public class TrendReportGeneratorMain
     }
 
     private void readDataFromTestReport(Map<String, Set<TrendValue>> trendValuesByTimerName, TestReportByName testReportByName,
-                                        String currentTagName, ElementSpecification elementSpec)
-        throws IOException, InterruptedException, ParseException
+                                        String currentTagName)
     {
         final String reportName = testReportByName.getReportName();
-        final Document testReport = testReportByName.getTestReport();
+        final TestReportSummary testReport = testReportByName.getTestReport();
 
-        // get the interesting elements
-        final Map<String, Element> elementsByTimerName = ReportUtils.filterElements(testReport, elementSpec);
-        for (final Entry<String, Element> elementEntry : elementsByTimerName.entrySet())
+        // get the interesting timers
+        for (final Entry<String, TimerSummary> timerEntry : testReport.getTimers(currentTagName).entrySet())
         {
-            final String timerName = elementEntry.getKey();
-            final Element element = elementEntry.getValue();
+            final String timerName = timerEntry.getKey();
+            final TimerSummary timer = timerEntry.getValue();
 
             // get/create the trend value set for this timer name
             Set<TrendValue> trendValues = trendValuesByTimerName.get(timerName);
@@ -515,12 +434,12 @@ public class TrendReportGeneratorMain
             }
 
             // get the run time, error, and throughput statistics
-            final int min = ReportUtils.getChildElementTextAsInt(element, "min");
-            final int max = ReportUtils.getChildElementTextAsInt(element, "max");
-            final double median = ReportUtils.getChildElementTextAsDouble(element, "median");
-            final double mean = ReportUtils.getChildElementTextAsDouble(element, "mean");
-            final int errors = ReportUtils.getChildElementTextAsInt(element, "errors");
-            final double countPerSecond = ReportUtils.getChildElementTextAsDouble(element, "countPerSecond");
+            final int min = timer.minimum;
+            final int max = timer.maximum;
+            final double median = timer.median;
+            final double mean = timer.mean;
+            final int errors = timer.errors;
+            final double countPerSecond = timer.countPerSecond;
 
             // lookup the empty/initial trend value for the current report and populate it
             for (final TrendValue trendValue : trendValues)
@@ -642,143 +561,135 @@ public class TrendReportGeneratorMain
     }
 
     /**
-     * Reads the test report XML file contained in the given directory.
+     * Determines the distinct test report directories and assigns a unique name to each of them.
      *
-     * @param dir
-     *            the report directory
-     * @return the XML document just read, or <code>null</code> if the specified directory is not a valid test report
-     *         directory
-     * @throws ParserConfigurationException
-     * @throws SAXException
-     * @throws IOException
+     * @param directoryPathNames
+     *            the test report directories as specified by the user
+     * @return the test report directories keyed by their unique name, in the order specified
      */
-    private Document readTestReport(final File dir) throws ParserConfigurationException, SAXException, IOException
+    private Map<String, File> getReportDirectories(final String[] directoryPathNames)
     {
-        System.out.println("Reading report from directory: " + dir);
+        final Map<String, File> reportDirsByName = new LinkedHashMap<String, File>();
 
-        final File file = new File(dir, XltConstants.LOAD_REPORT_XML_FILENAME);
-
-        if (file.isFile())
+        // remember absolute paths of all report directories to detect repetitions in user input
+        final HashSet<String> reportDirs = new HashSet<String>();
+        for (final String directoryPathName : directoryPathNames)
         {
-            final DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            final File reportDir = new File(directoryPathName);
+            if (!reportDirs.add(reportDir.getAbsolutePath()))
+            {
+                // report directory was specified more than once
+                continue;
+            }
 
-            return documentBuilder.parse(file);
-        }
-        else
-        {
-            log.warn("The specified directory '" + dir + "' does not seem to be a valid test report directory. Skipping it.");
-            return null;
+            // compute the report name as unique identifier
+            String key = reportDir.getName();
+            if (reportDirsByName.containsKey(key))
+            {
+                key = computeNewKey(reportDirsByName.keySet(), key);
+            }
+            reportDirsByName.put(key, reportDir);
         }
+
+        return reportDirsByName;
     }
 
     /**
-     * Reads the test report XML file contained in the given directory.
+     * Reads the summaries of the test reports contained in the given directories. The reports are processed in
+     * parallel. Directories that do not contain a test report are skipped.
      *
-     * @param directoryPathName
-     *            the test report directory
-     * @param reportDirs
-     *            already read test report directories
-     * @param reportNames
-     *            already used test report names
-     * @return A test report document keyed by a unique test report name.
-     * @throws ParserConfigurationException
-     * @throws SAXException
+     * @param reportDirsByName
+     *            the test report directories keyed by their unique name
+     * @return the test report summaries keyed by the report name, in the order of the directories
      * @throws IOException
+     *             if any test report could not be read
+     * @throws InterruptedException
      */
-    private TestReportByName readTestReport(final String directoryPathName, final HashSet<String> reportDirs,
-                                            final HashSet<String> reportNames)
-        throws ParserConfigurationException, SAXException, IOException
+    private Map<String, TestReportSummary> readTestReportSummaries(final Map<String, File> reportDirsByName)
+        throws IOException, InterruptedException
     {
-        final File reportDir = new File(directoryPathName);
-        final String reportPath = reportDir.getAbsolutePath();
-        // report directory was specified more than once
-        if (reportDirs.contains(reportPath))
-        {
-            return null;
-        }
-        // add current report directory to the list
-        reportDirs.add(reportPath);
-        // compute the report name as unique identifier
-        String key = reportDir.getName();
-        if (reportNames.contains(key))
+        final Map<String, TestReportSummary> summariesByName = new ConcurrentHashMap<String, TestReportSummary>();
+        final Map<String, Exception> failures = new ConcurrentHashMap<String, Exception>();
+
+        final TaskManager taskManager = TaskManager.getInstance();
+        for (final Entry<String, File> entry : reportDirsByName.entrySet())
         {
-            key = computeNewKey(reportNames, key);
-            reportNames.add(key);
+            final File reportDir = entry.getValue();
+            if (!new File(reportDir, XltConstants.LOAD_REPORT_XML_FILENAME).isFile())
+            {
+                log.warn("The specified directory '" + reportDir + "' does not seem to be a valid test report directory. Skipping it.");
+                continue;
+            }
+
+            taskManager.addTask(() -> {
+                System.out.println("Reading report from directory: " + reportDir);
+
+                try
+                {
+                    final TestReportSummary summary = TestReportSummary.read(reportDir, XltConstants.LOAD_REPORT_XML_FILENAME);
+                    if (summary.getStartTime() == null)
+                    {
+                        log.warn("The test report in directory '" + reportDir + "' does not have a start time. Skipping it.");
+                    }
+                    else
+                    {
+                        summariesByName.put(entry.getKey(), summary);
+                    }
+                }
+                catch (final Exception e)
+                {
+                    failures.put(entry.getKey(), e);
+                }
+            });
         }
-        final Document testReport = readTestReport(reportDir);
-        if (testReport == null)
+
+        taskManager.waitForAllTasksToComplete();
+
+        // restore the original order
+        final Map<String, TestReportSummary> result = new LinkedHashMap<String, TestReportSummary>();
+        for (final Entry<String, File> entry : reportDirsByName.entrySet())
         {
-            return null;
+            final Exception failure = failures.get(entry.getKey());
+            if (failure != null)
+            {
+                throw new IOException("Failed to read test report from directory: " + entry.getValue(), failure);
+            }
+
+            final TestReportSummary summary = summariesByName.get(entry.getKey());
+            if (summary != null)
+            {
+                result.put(entry.getKey(), summary);
+            }
         }
-        return new TestReportByName(key, testReport);
+
+        return result;
     }
 
+    /**
+     * The tag names of the timers to read from each test report.
+     */
+    private static final String[] TAG_NAMES =
+        {
+            "transaction", "action", "request", "pageLoadTiming", "customTimer", "transactions", "actions", "requests", "pageLoadTimings",
+            "customTimers"
+        };
+
     /**
      * Read the test report data from the given test report.
      *
      * @param trendValuesByTimerNameByTagName
      *            the map to save the test report data
      * @param testReportByName
-     *            the test report document keyed by the test report name
-     * @throws ParseException
-     * @throws InterruptedException
-     * @throws IOException
+     *            the test report summary keyed by the test report name
      */
     private void readDataFromTestReport(final Map<String, Map<String, Set<TrendValue>>> trendValuesByTimerNameByTagName,
                                         final TestReportByName testReportByName)
-        throws IOException, InterruptedException, ParseException
     {
-        // process the transaction nodes
-        String currentTagName = "transaction";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/transactions/transaction", "name"));
-
-        // process the action nodes
-        currentTagName = "action";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/actions/action", "name"));
-
-        // process the request nodes
-        currentTagName = "request";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/requests/request", "name"));
-
-        // process the page load timing nodes
-        currentTagName = "pageLoadTiming";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/pageLoadTimings/pageLoadTiming", "name"));
-
-        // process the customTimer nodes
-        currentTagName = "customTimer";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/customTimers/customTimer", "name"));
-
-        // process the summary nodes
-
-        // transactions summary
-        currentTagName = "transactions";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/summary/transactions", "name"));
-
-        // actions summary
-        currentTagName = "actions";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/summary/actions", "name"));
-
-        // requests summary
-        currentTagName = "requests";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/summary/requests", "name"));
-
-        // page load timings summary
-        currentTagName = "pageLoadTimings";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/summary/pageLoadTimings", "name"));
-
-        // custom timers summary
-        currentTagName = "customTimers";
-        readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
-                               currentTagName, new ElementSpecification("/testreport/summary/customTimers", "name"));
+        for (final String currentTagName : TAG_NAMES)
+        {
+            readDataFromTestReport(getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, currentTagName), testReportByName,
+                                   currentTagName);
+        }
     }
 
     /**
@@ -850,10 +761,13 @@ public class TrendReportGeneratorMain
 
             FileUtils.forceMkdir(outputDir);
 
+            // read the reports in parallel, but only the values we need
+            final Map<String, TestReportSummary> summariesByReportName = readTestReportSummaries(getReportDirectories(remainingArgs));
+
             // create initial trend values
             // either maintain the order of the reports as given on the command line or sort them by date
             initialTrendValues = noSorting ? new LinkedHashSet<TrendValue>() : new TreeSet<TrendValue>();
-            createInitialTrendValues(remainingArgs);
+            createInitialTrendValues(summariesByReportName);
 
             // remember all necessary test report data to create a trend report
             // tag name : timer name : trend values
@@ -861,25 +775,25 @@ public class TrendReportGeneratorMain
             // timer names are e.g. 'TBrowse', 'OpenHomepage', 'OpenHomepage [200]', ...
             final Map<String, Map<String, Set<TrendValue>>> trendValuesByTimerNameByTagName = new HashMap<String, Map<String, Set<TrendValue>>>();
 
-            // remember absolute paths of all report directories to detect repetitions in user input
-            final HashSet<String> reportDirs = new HashSet<String>();
-            // remember test report names
-            final HashSet<String> reportNames = new HashSet<String>();
-            // remember the parsed documents
-            final LinkedList<Document> documents = new LinkedList<>();
             // get each report one by one and add the data to the trendValuesByTimerNameByTagName map
-            for (String remainingArg : remainingArgs)
+            String projectName = null;
+            for (final Entry<String, TestReportSummary> entry : summariesByReportName.entrySet())
             {
-                // read the test report
-                final TestReportByName testReportByName = readTestReport(remainingArg, reportDirs, reportNames);
-                if (testReportByName != null)
+                readDataFromTestReport(trendValuesByTimerNameByTagName, new TestReportByName(entry.getKey(), entry.getValue()));
+
+                // the project name of the last report wins
+                if (StringUtils.isNotBlank(entry.getValue().getProjectName()))
                 {
-                    // get the test report data
-                    readDataFromTestReport(trendValuesByTimerNameByTagName, testReportByName);
-                    documents.add(testReportByName.getTestReport());
+                    projectName = entry.getValue().getProjectName();
                 }
             }
 
+            // make sure the trend report is complete even if there were no valid reports at all
+            for (final String tagName : TAG_NAMES)
+            {
+                getTrendValuesByTimerNameByTagName(trendValuesByTimerNameByTagName, tagName);
+            }
+
             // create the trend report and the trend charts
             System.out.println("Creating the XML trend report ...");
             final Document trendReport = createTrendReport(outputDir, trendValuesByTimerNameByTagName);
@@ -895,7 +809,7 @@ public class TrendReportGeneratorMain
             parameters.put("productName", ProductInformation.getProductInformation().getProductName());
             parameters.put("productVersion", ProductInformation.getProductInformation().getVersion());
             parameters.put("productUrl", ProductInformation.getProductInformation().getProductURL());
-            parameters.put("projectName", ReportUtils.obtainProjectName(documents));
+            parameters.put("projectName", StringUtils.defaultString(projectName));
 
             // get the configured output and style sheet file names
             final List<File> outputFiles = new ArrayList<File>();
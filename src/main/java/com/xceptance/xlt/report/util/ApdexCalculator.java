@@ -15,6 +15,9 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
@@ -96,6 +99,51 @@ public class ApdexCalculator
         }
     }
 
+    /**
+     * Merges the samples counted by the given calculator into this calculator. Both calculators should use the same
+     * threshold.
+     *
+     * @param other
+     *            the other calculator
+     */
+    public void merge(final ApdexCalculator other)
+    {
+        satisfyingSamplesCount += other.satisfyingSamplesCount;
+        toleratedSamplesCount += other.toleratedSamplesCount;
+        totalSamplesCount += other.totalSamplesCount;
+    }
+
+    /**
+     * Writes the sample counts of this calculator to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeLong(satisfyingSamplesCount);
+        out.writeLong(toleratedSamplesCount);
+        out.writeLong(totalSamplesCount);
+    }
+
+    /**
+     * Reads sample counts previously written by {@link #writeTo(DataOutput)} and adds them to the counts of this
+     * calculator.
+     *
+     * @param in
+     *            the source input
+     * @throws IOException
+     *             if reading failed
+     */
+    public void mergeFrom(final DataInput in) throws IOException
+    {
+        satisfyingSamplesCount += in.readLong();
+        toleratedSamplesCount += in.readLong();
+        totalSamplesCount += in.readLong();
+    }
+
     /**
      * Returns the Apdex value for the runtime samples added so far.
      *
@@ -16,7 +16,7 @@
 package com.xceptance.xlt.report.util;
 
 import java.util.ArrayList;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -28,9 +28,14 @@ import java.util.TreeMap;
  * A data structure to track when a virtual user has executed its iterations, and to calculate the exact number of
  * concurrent users afterwards.
  * <p>
- * For each virtual user, a separate bit set is maintained. This bit set is usually as long as the test took in seconds.
- * A 1-bit will be set for each second the virtual user was running. From the individual bit sets, the total number of
- * concurrent users and the concurrent users of a certain user type can be calculated easily.
+ * For each virtual user, the seconds the user was running are kept as a list of disjoint periods. Since the iterations
+ * of a user are usually reported in chronological order, recording an iteration typically just extends the most recent
+ * period or appends a new one. Overlapping or out-of-order iterations are merged into the existing periods, so each
+ * second is counted at most once per user.
+ * <p>
+ * The number of concurrent users is calculated by a sweep over the start and end points of all periods of the selected
+ * users. This way, the cost depends on the number of periods and the test duration, but not on the number of users
+ * times the test duration.
  */
 public final class ConcurrentUsersTable
 {
@@ -50,14 +55,14 @@ public final class ConcurrentUsersTable
     }
 
     /**
-     * Maps a user ID (e.g. "TAuthor-0") to its corresponding bit set.
+     * Maps a user ID (e.g. "TAuthor-0") to its corresponding activity.
      */
-    private final Map<String, BitSet> bitSetsByUserId = new TreeMap<String, BitSet>();
+    private final Map<String, UserActivity> activitiesByUserId = new HashMap<String, UserActivity>();
 
     /**
-     * Maps a user name (e.g. "TAuthor") to the list of bit sets for users with this name.
+     * Maps a user name (e.g. "TAuthor") to the list of activities for users with this name.
      */
-    private final Map<String, List<BitSet>> bitSetsByUserName = new HashMap<String, List<BitSet>>();
+    private final Map<String, List<UserActivity>> activitiesByUserName = new HashMap<String, List<UserActivity>>();
 
     /**
      * The earliest second for which a value is available.
@@ -76,8 +81,8 @@ public final class ConcurrentUsersTable
      */
     public void clear()
     {
-        bitSetsByUserId.clear();
-        bitSetsByUserName.clear();
+        activitiesByUserId.clear();
+        activitiesByUserName.clear();
         start = Long.MAX_VALUE;
     }
 
@@ -97,38 +102,28 @@ public final class ConcurrentUsersTable
     {
         final String userId = userName + "-" + userNumber;
 
-        // get or create/register the bit set for the given user ID
-        BitSet bitSet = bitSetsByUserId.get(userId);
-        if (bitSet == null)
+        // get or create/register the activity for the given user ID
+        UserActivity activity = activitiesByUserId.get(userId);
+        if (activity == null)
         {
             // create a new one and register it with its user ID
-            bitSet = new BitSet();
-            bitSetsByUserId.put(userId, bitSet);
-
-            // register the bit set also with its user name
-            List<BitSet> bitSets = bitSetsByUserName.get(userName);
-            if (bitSets == null)
-            {
-                bitSets = new ArrayList<BitSet>();
-                bitSetsByUserName.put(userName, bitSets);
-            }
+            activity = new UserActivity();
+            activitiesByUserId.put(userId, activity);
 
-            bitSets.add(bitSet);
+            // register the activity also with its user name
+            activitiesByUserName.computeIfAbsent(userName, k -> new ArrayList<UserActivity>()).add(activity);
         }
 
         // we calculate with seconds only
         fromTimestamp /= 1000;
         toTimestamp /= 1000;
 
-        // rearrange bit sets in case the timestamp is smaller than any we had before
-        shiftAllBitSetsIfRequired(fromTimestamp);
+        start = Math.min(start, fromTimestamp);
 
-        // set the bits
-        final int offset = (int) (fromTimestamp - start);
-        final int range = (int) (toTimestamp - fromTimestamp);
-        for (int i = 0; i <= range; i++)
+        // an empty period does not mark any second
+        if (fromTimestamp <= toTimestamp)
         {
-            bitSet.set(offset + i);
+            activity.add(fromTimestamp, toTimestamp);
         }
     }
 
@@ -151,77 +146,63 @@ public final class ConcurrentUsersTable
      */
     public ValueSet getConcurrentUsersValueSet(final String userName)
     {
-        final Collection<BitSet> bitSets;
+        final Collection<UserActivity> activities;
 
-        // filter the bit sets if required
+        // filter the activities if required
         if (userName == null || userName.equals("All Transactions"))
         {
-            // use all bit sets
-            bitSets = bitSetsByUserId.values();
+            // use all activities
+            activities = activitiesByUserId.values();
         }
         else
         {
-            bitSets = bitSetsByUserName.get(userName);
+            activities = activitiesByUserName.get(userName);
         }
 
-        // build the value set from the selected bit sets
+        // build the value set from the selected activities
         final ValueSet valueSet = new ValueSet();
-        if (bitSets != null)
+        if (activities != null)
         {
-            for (final BitSet bitSet : bitSets)
+            // determine the covered time range
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (final UserActivity activity : activities)
             {
-                for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1))
+                if (!activity.isEmpty())
                 {
-                    final long timeMS = (i + start) * 1000;
-                    valueSet.addOrUpdateValue(timeMS, 1);
+                    first = Math.min(first, activity.getFirstSecond());
+                    last = Math.max(last, activity.getLastSecond());
                 }
             }
-        }
-        return valueSet;
-    }
 
-    /**
-     * Expands all known bit sets to the left if the passed time is before the current start time.
-     * 
-     * @param fromTimestamp
-     *            the timestamp
-     */
-    private void shiftAllBitSetsIfRequired(final long fromTimestamp)
-    {
-        if (fromTimestamp < start)
-        {
-            final int shift = (int) (start - fromTimestamp);
-
-            for (final BitSet bitSet : bitSetsByUserId.values())
+            if (first <= last)
             {
-                shiftBitSet(bitSet, shift);
-            }
-
-            start = fromTimestamp;
-        }
-    }
+                final long offset = first;
 
-    /**
-     * Expands the given bit set to the left by right-shifting all bits by shift bits.
-     * 
-     * @param bitSet
-     *            the bit set to expand
-     * @param shift
-     *            the number of bits to shift the entries in the bit set
-     */
-    private void shiftBitSet(final BitSet bitSet, final int shift)
-    {
-        // only non-empty bit sets need to be shifted
-        if (!bitSet.isEmpty())
-        {
-            final BitSet tmpBitSet = (BitSet) bitSet.clone();
+                // mark where periods begin (+1) and where they end (-1)
+                final int[] deltas = new int[(int) (last - first + 2)];
+                for (final UserActivity activity : activities)
+                {
+                    activity.forEachPeriod((from, to) -> {
+                        deltas[(int) (from - offset)]++;
+                        deltas[(int) (to - offset + 1)]--;
+                    });
+                }
 
-            bitSet.clear();
-            for (int i = tmpBitSet.nextSetBit(0); i >= 0; i = tmpBitSet.nextSetBit(i + 1))
-            {
-                bitSet.set(shift + i);
+                // sweep over the time range and sum up the active users
+                int users = 0;
+                for (int i = 0; i < deltas.length - 1; i++)
+                {
+                    users += deltas[i];
+                    if (users > 0)
+                    {
+                        // equivalent to adding 1 for each active user
+                        valueSet.addOrUpdateValue((i + offset) * 1000, 1, users);
+                    }
+                }
             }
         }
+        return valueSet;
     }
 
     /**
@@ -230,7 +211,7 @@ public final class ConcurrentUsersTable
     @Override
     public String toString()
     {
-        if (bitSetsByUserId.size() == 0)
+        if (activitiesByUserId.size() == 0)
         {
             return "Bit table is empty.";
         }
@@ -238,19 +219,30 @@ public final class ConcurrentUsersTable
         {
             final StringBuilder sb = new StringBuilder();
 
-            for (final Entry<String, BitSet> entry : bitSetsByUserId.entrySet())
+            for (final Entry<String, UserActivity> entry : new TreeMap<String, UserActivity>(activitiesByUserId).entrySet())
             {
                 final String userId = entry.getKey();
-                final BitSet bitSet = entry.getValue();
+                final UserActivity activity = entry.getValue();
+
+                // render the active seconds as bits relative to the start of the table
+                final int length = activity.isEmpty() ? 0 : (int) (activity.getLastSecond() - start + 1);
+                final char[] bits = new char[length];
+                Arrays.fill(bits, '0');
+                activity.forEachPeriod((from, to) -> {
+                    for (long second = from; second <= to; second++)
+                    {
+                        bits[(int) (second - start)] = '1';
+                    }
+                });
 
                 sb.append(userId);
-                for (int i = 0; i < bitSet.length(); i++)
+                for (int i = 0; i < bits.length; i++)
                 {
                     if (i % 5 == 0)
                     {
                         sb.append("|");
                     }
-                    sb.append(bitSet.get(i) ? '1' : '0');
+                    sb.append(bits[i]);
                 }
                 sb.append("\n");
             }
@@ -258,4 +250,145 @@ public final class ConcurrentUsersTable
             return sb.toString();
         }
     }
+
+    /**
+     * Callback for the periods of a {@link UserActivity}.
+     */
+    @FunctionalInterface
+    private interface PeriodConsumer
+    {
+        /**
+         * Processes a period.
+         * 
+         * @param from
+         *            the first second of the period
+         * @param to
+         *            the last second of the period (inclusive)
+         */
+        void accept(long from, long to);
+    }
+
+    /**
+     * The seconds a single virtual user was active, kept as disjoint, non-adjacent periods. The most recent period is
+     * held separately, so that recording iterations in chronological order is cheap.
+     */
+    private static final class UserActivity
+    {
+        /**
+         * All periods before the current one, keyed by their first second.
+         */
+        private final TreeMap<Long, Long> periods = new TreeMap<Long, Long>();
+
+        /**
+         * The first second of the most recent period.
+         */
+        private long currentFrom;
+
+        /**
+         * The last second of the most recent period, or {@link Long#MIN_VALUE} if there is no period yet.
+         */
+        private long currentTo = Long.MIN_VALUE;
+
+        /**
+         * Marks the user as active in the given period.
+         * 
+         * @param from
+         *            the first second
+         * @param to
+         *            the last second (inclusive)
+         */
+        void add(long from, long to)
+        {
+            if (currentTo == Long.MIN_VALUE)
+            {
+                // the very first period
+                currentFrom = from;
+                currentTo = to;
+            }
+            else if (from >= currentFrom)
+            {
+                if (from <= currentTo + 1)
+                {
+                    // overlaps with or continues the current period
+                    currentTo = Math.max(currentTo, to);
+                }
+                else
+                {
+                    // starts a new period
+                    periods.put(currentFrom, currentTo);
+                    currentFrom = from;
+                    currentTo = to;
+                }
+            }
+            else
+            {
+                // out of order, so merge it with the existing periods the hard way
+                periods.put(currentFrom, currentTo);
+
+                final Entry<Long, Long> floor = periods.floorEntry(from);
+                if (floor != null && floor.getValue() >= from - 1)
+                {
+                    from = floor.getKey();
+                    to = Math.max(to, floor.getValue());
+                }
+
+                Entry<Long, Long> next;
+                while ((next = periods.ceilingEntry(from)) != null && next.getKey() <= to + 1)
+                {
+                    to = Math.max(to, next.getValue());
+                    periods.remove(next.getKey());
+                }
+
+                periods.put(from, to);
+
+                // the last period becomes the current one again
+                final Entry<Long, Long> last = periods.pollLastEntry();
+                currentFrom = last.getKey();
+                currentTo = last.getValue();
+            }
+        }
+
+        /**
+         * Returns whether the user has not been active at all.
+         */
+        boolean isEmpty()
+        {
+            return currentTo == Long.MIN_VALUE;
+        }
+
+        /**
+         * Returns the first second the user was active. Must only be called if the activity is not empty.
+         */
+        long getFirstSecond()
+        {
+            return periods.isEmpty() ? currentFrom : periods.firstKey();
+        }
+
+        /**
+         * Returns the last second the user was active. Must only be called if the activity is not empty.
+         */
+        long getLastSecond()
+        {
+            return currentTo;
+        }
+
+        /**
+         * Passes all periods in chronological order to the given consumer.
+         * 
+         * @param consumer
+         *            the consumer
+         */
+        void forEachPeriod(final PeriodConsumer consumer)
+        {
+            for (final Entry<Long, Long> period : periods.entrySet())
+            {
+                consumer.accept(period.getKey(), period.getValue());
+            }
+
+            if (!isEmpty())
+            {
+                consumer.accept(currentFrom, currentTo);
+            }
+        }
+    }
 }
@@ -15,6 +15,9 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 import org.jfree.data.xy.XYIntervalSeries;
@@ -25,7 +28,10 @@ import com.xceptance.common.util.ParameterCheckUtils;
  * A histogram value set with a fixed number N of buckets. The value set has an initial value range of [0..N-1], i.e.
  * each bucket has the initial width of 1. Once values greater than N-1 are added to this set, the value range is scaled
  * up by scaling up the bucket width as necessary.
+ *
+ * @deprecated Use {@link LogLinearHistogram} instead, which needs less memory for widely spread values.
  */
+@Deprecated
 public class FixedSizeHistogramValueSet
 {
     /**
@@ -187,6 +193,77 @@ public class FixedSizeHistogramValueSet
         return series;
     }
 
+    /**
+     * Merges the given histogram value set into this set. This set is scaled as necessary to match the bucket width of
+     * the other set.
+     *
+     * @param other
+     *            the other set
+     * @throws IllegalArgumentException
+     *             if the bucket count of the other set does not match the bucket count of this set
+     */
+    public void merge(final FixedSizeHistogramValueSet other)
+    {
+        if (other.bucketCount != bucketCount)
+        {
+            throw new IllegalArgumentException(String.format("Cannot merge histogram value sets with different bucket counts: %d vs. %d",
+                                                             bucketCount, other.bucketCount));
+        }
+
+        while (bucketWidth < other.bucketWidth)
+        {
+            scale();
+        }
+
+        // each bucket of the other set falls into exactly one bucket of this set
+        final int factor = bucketWidth / other.bucketWidth;
+        for (int i = 0; i < bucketCount; i++)
+        {
+            countPerBucket[i / factor] += other.countPerBucket[i];
+        }
+    }
+
+    /**
+     * Writes the state of this set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(bucketCount);
+        out.writeInt(bucketWidth);
+
+        for (final int count : countPerBucket)
+        {
+            out.writeInt(count);
+        }
+    }
+
+    /**
+     * Creates a new set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static FixedSizeHistogramValueSet readFrom(final DataInput in) throws IOException
+    {
+        final FixedSizeHistogramValueSet valueSet = new FixedSizeHistogramValueSet(in.readInt());
+        valueSet.bucketWidth = in.readInt();
+
+        for (int i = 0; i < valueSet.bucketCount; i++)
+        {
+            valueSet.countPerBucket[i] = in.readInt();
+        }
+
+        return valueSet;
+    }
+
     /**
      * Scales the width of the buckets to make room for larger values.
      */
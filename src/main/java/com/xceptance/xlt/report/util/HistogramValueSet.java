@@ -15,6 +15,10 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.jfree.data.xy.XYIntervalSeries;
 
 /**
@@ -88,6 +92,70 @@ public class HistogramValueSet
         return numberOfBins;
     }
 
+    /**
+     * Merges the given value set into this value set. Both value sets must use the same bin layout.
+     *
+     * @param other
+     *            the other value set
+     * @throws IllegalArgumentException
+     *             if the bin layouts differ
+     */
+    public void merge(final HistogramValueSet other)
+    {
+        if (minValue != other.minValue || maxValue != other.maxValue || numberOfBins != other.numberOfBins)
+        {
+            throw new IllegalArgumentException("Cannot merge value sets with different bin layouts");
+        }
+
+        for (int i = 0; i < numberOfBins; i++)
+        {
+            countPerBin[i] += other.countPerBin[i];
+        }
+    }
+
+    /**
+     * Writes the state of this value set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeDouble(minValue);
+        out.writeDouble(maxValue);
+        out.writeInt(numberOfBins);
+        for (final int count : countPerBin)
+        {
+            out.writeInt(count);
+        }
+    }
+
+    /**
+     * Creates a new value set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the value set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static HistogramValueSet readFrom(final DataInput in) throws IOException
+    {
+        final double minValue = in.readDouble();
+        final double maxValue = in.readDouble();
+        final int numberOfBins = in.readInt();
+
+        final HistogramValueSet valueSet = new HistogramValueSet(minValue, maxValue, numberOfBins);
+        for (int i = 0; i < numberOfBins; i++)
+        {
+            valueSet.countPerBin[i] = in.readInt();
+        }
+
+        return valueSet;
+    }
+
     public XYIntervalSeries toSeries(final String seriesName)
     {
         final XYIntervalSeries series = new XYIntervalSeries(seriesName);
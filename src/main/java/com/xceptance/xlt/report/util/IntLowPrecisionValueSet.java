@@ -15,6 +15,9 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 import com.xceptance.common.util.ParameterCheckUtils;
 import com.xceptance.xlt.report.util.lucene.OpenBitSet;
@@ -235,6 +238,54 @@ public class IntLowPrecisionValueSet
         bitSet.or(other.bitSet);
     }
 
+    /**
+     * Writes the state of this set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(buckets);
+        out.writeInt(scale);
+
+        final long[] bits = bitSet.getBits();
+        final int numWords = bitSet.getNumWords();
+
+        out.writeInt(numWords);
+        for (int i = 0; i < numWords; i++)
+        {
+            out.writeLong(bits[i]);
+        }
+    }
+
+    /**
+     * Creates a new set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static IntLowPrecisionValueSet readFrom(final DataInput in) throws IOException
+    {
+        final IntLowPrecisionValueSet valueSet = new IntLowPrecisionValueSet(in.readInt());
+        valueSet.scale = in.readInt();
+
+        final int numWords = in.readInt();
+        final long[] bits = valueSet.bitSet.getBits();
+        for (int i = 0; i < numWords; i++)
+        {
+            bits[i] = in.readLong();
+        }
+        valueSet.bitSet.setNumWords(numWords);
+
+        return valueSet;
+    }
+
     /**
      * Scales this set.
      */
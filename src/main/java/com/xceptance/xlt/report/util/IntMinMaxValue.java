@@ -15,6 +15,10 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A {@link IntMinMaxValue} stores the minimum/maximum/sum/count of all the sample values added, but can also reproduce a
  * rough approximation of the distinct values added.
@@ -34,6 +38,13 @@ public class IntMinMaxValue
      */
     private final IntLowPrecisionValueSet valueSet = new IntLowPrecisionValueSet();
 
+    /**
+     * Constructor. Creates an empty min-max value.
+     */
+    private IntMinMaxValue()
+    {
+    }
+
     /**
      * Constructor.
      * 
@@ -142,6 +153,55 @@ public class IntMinMaxValue
         return this;
     }
 
+    /**
+     * Returns an independent copy of this min-max value.
+     * 
+     * @return the copy
+     */
+    IntMinMaxValue copy()
+    {
+        return new IntMinMaxValue().merge(this);
+    }
+
+    /**
+     * Writes the state of this min-max value to the given output.
+     * 
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeLong(accumulatedValue);
+        out.writeInt(minimum);
+        out.writeInt(maximum);
+        out.writeInt(valueCount);
+        valueSet.writeTo(out);
+    }
+
+    /**
+     * Creates a new min-max value from the state previously written by {@link #writeTo(DataOutput)}.
+     * 
+     * @param in
+     *            the source input
+     * @return the min-max value
+     * @throws IOException
+     *             if reading failed
+     */
+    static IntMinMaxValue readFrom(final DataInput in) throws IOException
+    {
+        final IntMinMaxValue value = new IntMinMaxValue();
+
+        value.accumulatedValue = in.readLong();
+        value.minimum = in.readInt();
+        value.maximum = in.readInt();
+        value.valueCount = in.readInt();
+        value.valueSet.merge(IntLowPrecisionValueSet.readFrom(in));
+
+        return value;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,6 +15,9 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -24,6 +27,8 @@ import java.util.Arrays;
  * A {@link IntMinMaxValueSet} is fixed-sized, but self-managing. If the distance between the smallest and greatest
  * time-stamp is greater than the value set size, two consecutive values are merged into one. This means the time period
  * for which values can be added to this set can be arbitrary long.
+ * <p>
+ * Value sets can be merged and their state can be written to and restored from a compact binary snapshot.
  */
 public class IntMinMaxValueSet
 {
@@ -127,6 +132,35 @@ public class IntMinMaxValueSet
 
         // no, there are values in the set already
 
+        // calculate final index and update value
+        final int index = getIndex(second);
+        final IntMinMaxValue item = values[index];
+        if (item != null)
+        {
+            item.updateValue(value);
+        }
+        else
+        {
+            values[index] = new IntMinMaxValue(value);
+        }
+
+        // maintain statistics
+        valueCount++;
+
+        minimumTime = Math.min(minimumTime, time);
+        maximumTime = Math.max(maximumTime, time);
+    }
+
+    /**
+     * Returns the index of the given second in the value array. Shrinks or shifts the array if necessary. Must only be
+     * called if there are values in the set already.
+     *
+     * @param second
+     *            the second, already adjusted to the current scale
+     * @return the index
+     */
+    private int getIndex(int second)
+    {
         // check whether we have to shrink the value set first
         if (second != firstSecond)
         {
@@ -179,23 +213,139 @@ public class IntMinMaxValueSet
             }
         }
 
-        // calculate final index and update value
-        final int index = (second - firstSecond) >> scale2;
-        final IntMinMaxValue item = values[index];
-        if (item != null)
+        return (second - firstSecond) >> scale2;
+    }
+
+    /**
+     * Merges the given value set into this value set. The result is roughly the same as if all the values of the other
+     * value set had been added to this value set. This set is scaled as necessary to match the scale of the other set,
+     * so each min/max value of the other set falls into exactly one min/max value of this set.
+     *
+     * @param other
+     *            the other value set
+     */
+    public void merge(final IntMinMaxValueSet other)
+    {
+        if (other.valueCount == 0)
         {
-            item.updateValue(value);
+            return;
+        }
+
+        if (valueCount == 0)
+        {
+            scale = other.scale;
+            scale2 = other.scale2;
+            firstSecond = lastSecond = other.firstSecond;
+            minimumTime = other.minimumTime;
+            maximumTime = other.maximumTime;
         }
         else
         {
-            values[index] = new IntMinMaxValue(value);
+            while (scale < other.scale)
+            {
+                scale = scale << 1;
+                scale2++;
+
+                shrink();
+
+                final int s1 = ~(scale - 1);
+                firstSecond = firstSecond & s1;
+                lastSecond = lastSecond & s1;
+            }
+
+            minimumTime = Math.min(minimumTime, other.minimumTime);
+            maximumTime = Math.max(maximumTime, other.maximumTime);
         }
 
-        // maintain statistics
-        valueCount++;
+        final IntMinMaxValue[] otherValues = other.getValues();
+        for (int i = 0; i < otherValues.length; i++)
+        {
+            final IntMinMaxValue otherItem = otherValues[i];
+            if (otherItem != null)
+            {
+                final int index = getIndex((other.firstSecond + i * other.scale) & ~(scale - 1));
+                final IntMinMaxValue item = values[index];
+                if (item != null)
+                {
+                    item.merge(otherItem);
+                }
+                else
+                {
+                    values[index] = otherItem.copy();
+                }
+            }
+        }
 
-        minimumTime = Math.min(minimumTime, time);
-        maximumTime = Math.max(maximumTime, time);
+        valueCount += other.valueCount;
+    }
+
+    /**
+     * Writes the state of this value set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(getSize());
+        out.writeLong(valueCount);
+
+        if (valueCount > 0)
+        {
+            out.writeInt(scale2);
+            out.writeInt(firstSecond);
+            out.writeInt(lastSecond);
+            out.writeLong(minimumTime);
+            out.writeLong(maximumTime);
+
+            final IntMinMaxValue[] items = getValues();
+            for (final IntMinMaxValue item : items)
+            {
+                out.writeBoolean(item != null);
+                if (item != null)
+                {
+                    item.writeTo(out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new value set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the value set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static IntMinMaxValueSet readFrom(final DataInput in) throws IOException
+    {
+        final IntMinMaxValueSet valueSet = new IntMinMaxValueSet(in.readInt());
+        valueSet.valueCount = in.readLong();
+
+        if (valueSet.valueCount > 0)
+        {
+            valueSet.scale2 = in.readInt();
+            valueSet.scale = 1 << valueSet.scale2;
+            valueSet.firstSecond = in.readInt();
+            valueSet.lastSecond = in.readInt();
+            valueSet.minimumTime = in.readLong();
+            valueSet.maximumTime = in.readLong();
+
+            final int length = (valueSet.lastSecond - valueSet.firstSecond) / valueSet.scale + 1;
+            for (int i = 0; i < length; i++)
+            {
+                if (in.readBoolean())
+                {
+                    valueSet.values[i] = IntMinMaxValue.readFrom(in);
+                }
+            }
+        }
+
+        return valueSet;
     }
 
     /**
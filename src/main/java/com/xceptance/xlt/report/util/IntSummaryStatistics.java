@@ -15,12 +15,19 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Computes summary statistics for a stream of data values added using the {@link #addValue(int)} method. The data
  * values are not stored in memory, so this class can be used to compute statistics for very large data streams. This
  * class is similar to {@link org.apache.commons.IntSummaryStatistics.stat.descriptive.SummaryStatistics}, but optimized for
  * <code>int</code> values (about 10 times faster).
  * <p>
+ * Statistics calculated independently can be merged and their state can be written to and restored from a compact
+ * binary snapshot.
+ * <p>
  * Note: This class is not thread-safe.
  */
 
@@ -130,4 +137,61 @@ public class IntSummaryStatistics
     {
         return sum;
     }
+
+    /**
+     * Merges the given statistics into these statistics. The result is the same as if all the values of the other
+     * statistics had been added to these statistics.
+     *
+     * @param other
+     *            the other statistics
+     */
+    public void merge(final IntSummaryStatistics other)
+    {
+        sumOfSquares += other.sumOfSquares;
+        sum += other.sum;
+
+        maximum = Math.max(maximum, other.maximum);
+        minimum = Math.min(minimum, other.minimum);
+
+        count += other.count;
+    }
+
+    /**
+     * Writes the state of these statistics to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeLong(count);
+        out.writeInt(minimum);
+        out.writeInt(maximum);
+        out.writeDouble(sum);
+        out.writeDouble(sumOfSquares);
+    }
+
+    /**
+     * Creates new statistics from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the statistics
+     * @throws IOException
+     *             if reading failed
+     */
+    public static IntSummaryStatistics readFrom(final DataInput in) throws IOException
+    {
+        final IntSummaryStatistics statistics = new IntSummaryStatistics();
+
+        statistics.count = in.readLong();
+        statistics.minimum = in.readInt();
+        statistics.maximum = in.readInt();
+        statistics.sum = in.readDouble();
+        statistics.sumOfSquares = in.readDouble();
+
+        return statistics;
+    }
 }
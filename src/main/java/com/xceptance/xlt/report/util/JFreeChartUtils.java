@@ -15,6 +15,7 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
@@ -28,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -36,6 +38,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
@@ -277,6 +282,27 @@ public final class JFreeChartUtils
      */
     private static float webpCompressionFactor = 0.0f;
 
+    /**
+     * Limits the number of images encoded at the same time, independently of the number of threads rendering charts.
+     */
+    private static volatile Semaphore encoderPermits = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * The placeholder images saved so far, keyed by their message and dimensions. The future yields the file the image
+     * was first saved to, or <code>null</code> if saving failed.
+     */
+    private static final Map<String, CompletableFuture<SavedImage>> savedPlaceholders = new ConcurrentHashMap<>();
+
+    /**
+     * The images the charts are rendered into, per thread and image size, so they can be reused for the next chart.
+     */
+    private static final ThreadLocal<Map<Long, BufferedImage>> chartImages = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * The message shown instead of the charts of timers that are not among the top timers.
+     */
+    private static final String OMITTED_CHART_MESSAGE = "Chart omitted due to the chart timer limit";
+
     /**
      * The replacement value for negative/0 values when making a series fit for logarithmic axes.
      */
@@ -977,8 +1003,37 @@ public final class JFreeChartUtils
     {
         final File outputFile = new File(outputDir, XltConstants.REPORT_CHART_PLACEHOLDER_FILENAME);
 
-        // create the image with the correct dimensions
-        final BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        savePlaceholderImage(XltConstants.REPORT_CHART_PLACEHOLDER_MESSAGE, width, height, outputFile);
+    }
+
+    /**
+     * Saves a placeholder instead of a chart that was omitted to save time, for example because its timer is not among
+     * the top timers to render charts for. Since all these placeholders look the same, the image is encoded only once
+     * and then copied.
+     *
+     * @param name
+     *            the file name (excluding the .webp extension)
+     * @param outputDir
+     *            the target directory
+     * @param width
+     *            the chart width
+     * @param height
+     *            the chart height
+     */
+    public static void saveOmittedChart(final String name, final File outputDir, final int width, final int height)
+    {
+        final File outputFile = new File(outputDir, FileUtils.convertIllegalCharsInFileName(name) + ".webp");
+
+        savePlaceholderImage(OMITTED_CHART_MESSAGE, width, height, outputFile);
+    }
+
+    /**
+     * Renders a placeholder image with the given message.
+     */
+    private static BufferedImage createPlaceholderImage(final int width, final int height, final String message)
+    {
+        // get an image with the correct dimensions
+        final BufferedImage bufferedImage = getChartImage(width, height);
 
         // set white background
         final Graphics2D graphics = bufferedImage.createGraphics();
@@ -989,14 +1044,13 @@ public final class JFreeChartUtils
         final Font font = new Font("SansSerif", Font.BOLD, 32);
         graphics.setFont(font);
         final FontMetrics fontMetrics = graphics.getFontMetrics();
-        final int stringWidth = fontMetrics.stringWidth(XltConstants.REPORT_CHART_PLACEHOLDER_MESSAGE);
+        final int stringWidth = fontMetrics.stringWidth(message);
         final int stringHeight = fontMetrics.getAscent();
         graphics.setPaint(new Color(0xcccccc));
-        graphics.drawString(XltConstants.REPORT_CHART_PLACEHOLDER_MESSAGE, (width - stringWidth) / 2, height / 2 + stringHeight / 4);
+        graphics.drawString(message, (width - stringWidth) / 2, height / 2 + stringHeight / 4);
         graphics.dispose();
 
-        // finally save the image
-        saveImage(bufferedImage, outputFile);
+        return bufferedImage;
     }
 
     /**
@@ -1178,8 +1232,17 @@ public final class JFreeChartUtils
         // first of all apply the XLT chart theme to the chart
         DEFAULT_CHART_THEME.apply(chart);
 
+        // render the chart into the reusable image of this thread, but wipe out the previous chart first
+        final BufferedImage bufferedImage = getChartImage(chartWidth, chartHeight);
+
+        final Graphics2D chartG2d = bufferedImage.createGraphics();
+        chartG2d.setComposite(AlphaComposite.Clear);
+        chartG2d.fillRect(0, 0, chartWidth, chartHeight);
+        chartG2d.setComposite(AlphaComposite.SrcOver);
+        chart.draw(chartG2d, new Rectangle2D.Double(0, 0, chartWidth, chartHeight), null, null);
+        chartG2d.dispose();
+
         // brand chart
-        final BufferedImage bufferedImage = chart.createBufferedImage(chartWidth, chartHeight);
         final Graphics2D g2d = bufferedImage.createGraphics();
 
         // prepare watermark settings
@@ -1196,19 +1259,122 @@ public final class JFreeChartUtils
         g2d.dispose();
 
         // finally save the image
-        saveImage(bufferedImage, outputFile);
+        encodeImage(bufferedImage, outputFile);
     }
 
     /**
-     * Saves the given buffered image in the WebP format to a given file.
+     * Returns an image of the given size to render a chart into. The image is reused by the current thread for the next
+     * chart of the same size, so it must not be retained.
+     */
+    private static BufferedImage getChartImage(final int width, final int height)
+    {
+        return chartImages.get().computeIfAbsent(((long) width << 32) | height,
+                                                 k -> new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Saves a placeholder image with the given message in the WebP format to a given file. If the same placeholder was
+     * saved before, the file saved back then is copied instead of rendering and encoding the image once more.
+     *
+     * @param message
+     *            the message to show
+     * @param width
+     *            the image width
+     * @param height
+     *            the image height
+     * @param outputFile
+     *            the target file
+     */
+    private static void savePlaceholderImage(final String message, final int width, final int height, final File outputFile)
+    {
+        final String key = width + "x" + height + ":" + message;
+
+        final CompletableFuture<SavedImage> savedImage = new CompletableFuture<>();
+        final CompletableFuture<SavedImage> previouslySavedImage = savedPlaceholders.putIfAbsent(key, savedImage);
+
+        if (previouslySavedImage == null)
+        {
+            // we are the first to save this image
+            boolean saved = false;
+            try
+            {
+                saved = encodeImage(createPlaceholderImage(width, height, message), outputFile);
+            }
+            finally
+            {
+                savedImage.complete(saved ? new SavedImage(outputFile) : null);
+            }
+        }
+        else
+        {
+            // wait for the image to be saved by its first owner and copy the file, unless it has changed meanwhile
+            final SavedImage previousImage = previouslySavedImage.join();
+            if (previousImage != null && previousImage.isUnchanged())
+            {
+                if (outputFile.equals(previousImage.file) || copyImage(previousImage.file, outputFile))
+                {
+                    return;
+                }
+            }
+
+            encodeImage(createPlaceholderImage(width, height, message), outputFile);
+        }
+    }
+
+    /**
+     * Copies a previously saved image file.
+     *
+     * @return whether the file could be copied
+     */
+    private static boolean copyImage(final File sourceFile, final File outputFile)
+    {
+        try
+        {
+            Files.createDirectories(Paths.get(outputFile.getParent()));
+            Files.copy(sourceFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            return true;
+        }
+        catch (final IOException e)
+        {
+            // maybe the file was removed in the meantime, so encode the image again
+            log.debug("Failed to copy chart file: " + sourceFile, e);
+
+            return false;
+        }
+    }
+
+    /**
+     * Encodes the given buffered image in the WebP format and writes it to the given file. The number of concurrent
+     * encodings is limited.
      *
      * @param bufferedImage
      *            the buffered image
      * @param outputFile
      *            the target file
+     * @return whether the image was saved successfully
+     */
+    private static boolean encodeImage(final BufferedImage bufferedImage, final File outputFile)
+    {
+        final Semaphore permits = encoderPermits;
+        permits.acquireUninterruptibly();
+        try
+        {
+            return writeImage(bufferedImage, outputFile);
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Writes the given buffered image in the WebP format to the given file.
      */
-    private static void saveImage(final BufferedImage bufferedImage, final File outputFile)
+    private static boolean writeImage(final BufferedImage bufferedImage, final File outputFile)
     {
+        boolean saved = false;
+
         // Encode image as webp using default settings and save it as webp file
         final ImageWriter writer = ImageIO.getImageWritersByMIMEType("image/webp").next();
 
@@ -1235,6 +1401,8 @@ public final class JFreeChartUtils
                 writer.setOutput(fios);
                 writer.write(null, new IIOImage(bufferedImage, null, null), writeParam);
             }
+
+            saved = true;
         }
         catch (final IOException e)
         {
@@ -1243,6 +1411,8 @@ public final class JFreeChartUtils
 
         // clean up
         writer.dispose();
+
+        return saved;
     }
 
     /**
@@ -1531,6 +1701,27 @@ public final class JFreeChartUtils
         }
     }
 
+    /**
+     * Sets the maximum number of images to encode at the same time. Encoding is memory-intensive, so this number may
+     * be lower than the number of threads rendering charts.
+     *
+     * @param count
+     *            the maximum number of concurrent encodings
+     */
+    public static void setMaximumEncoderCount(final int count)
+    {
+        encoderPermits = new Semaphore(Math.max(1, count));
+    }
+
+    /**
+     * Forgets about all placeholder images saved so far. Call this before generating a new report into a directory
+     * that may already contain charts of a previous report, as those charts must not be copied any longer.
+     */
+    public static void clearImageCache()
+    {
+        savedPlaceholders.clear();
+    }
+
     /**
      * Returns the compression factor to use when creating Webp images.
      *
@@ -1582,4 +1773,31 @@ public final class JFreeChartUtils
     private JFreeChartUtils()
     {
     }
+
+    /**
+     * A file an image was saved to, together with the file's state right after saving.
+     */
+    private static final class SavedImage
+    {
+        private final File file;
+
+        private final long length;
+
+        private final long lastModified;
+
+        private SavedImage(final File file)
+        {
+            this.file = file;
+            length = file.length();
+            lastModified = file.lastModified();
+        }
+
+        /**
+         * Checks whether the file still exists and was not overwritten since.
+         */
+        private boolean isUnchanged()
+        {
+            return file.length() == length && file.lastModified() == lastModified && length > 0;
+        }
+    }
 }
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.jfree.data.xy.XYIntervalSeries;
+
+/**
+ * A histogram of non-negative <code>int</code> values (typically run times) with a bounded relative error and bounded
+ * memory, similar to an HDR histogram.
+ * <p>
+ * The value range is divided into buckets of exponentially growing width, each of them divided into the same number of
+ * linear sub-buckets. Values smaller than twice the sub-bucket count are counted exactly, larger values are counted
+ * with a resolution that keeps the relative error below 10^-significantDigits. The sub-bucket arrays are allocated only
+ * once a value falls into them, so memory depends on the orders of magnitude the values span, not on the value range.
+ * Outliers therefore cost only a few more sub-buckets.
+ * <p>
+ * Histograms with the same number of significant digits can be merged, and the state can be written to and restored
+ * from a compact binary snapshot.
+ */
+public class LogLinearHistogram
+{
+    /**
+     * The default number of significant digits.
+     */
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * The number of significant decimal digits the values are kept with.
+     */
+    private final int significantDigits;
+
+    /**
+     * The binary logarithm of {@link #subBucketCount}.
+     */
+    private final int subBucketCountMagnitude;
+
+    /**
+     * The number of sub-buckets per bucket.
+     */
+    private final int subBucketCount;
+
+    /**
+     * The count per sub-bucket, per bucket. A bucket's array is <code>null</code> until a value falls into it.
+     */
+    private final int[][] countPerSubBucket;
+
+    /**
+     * The number of values added so far.
+     */
+    private int valueCount;
+
+    /**
+     * The smallest value added so far.
+     */
+    private int minimum = Integer.MAX_VALUE;
+
+    /**
+     * The largest value added so far.
+     */
+    private int maximum;
+
+    /**
+     * Constructor. Uses the default number of significant digits.
+     */
+    public LogLinearHistogram()
+    {
+        this(DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param significantDigits
+     *            the number of significant decimal digits to keep the values with [1..5]
+     */
+    public LogLinearHistogram(final int significantDigits)
+    {
+        if (significantDigits < 1 || significantDigits > 5)
+        {
+            throw new IllegalArgumentException("Value of parameter 'significantDigits' must be in range [1, 5], but was " +
+                                               significantDigits);
+        }
+
+        this.significantDigits = significantDigits;
+
+        // each bucket must resolve at least 10^digits distinct values
+        final int minSubBucketCount = (int) Math.pow(10, significantDigits);
+        subBucketCountMagnitude = 32 - Integer.numberOfLeadingZeros(minSubBucketCount - 1);
+        subBucketCount = 1 << subBucketCountMagnitude;
+
+        // bucket 0 covers [0, subBucketCount), bucket b covers [subBucketCount << (b - 1), subBucketCount << b)
+        countPerSubBucket = new int[32 - subBucketCountMagnitude][];
+    }
+
+    /**
+     * Adds a value to this histogram. Negative values are counted as 0.
+     *
+     * @param value
+     *            the value to add
+     */
+    public void addValue(int value)
+    {
+        value = Math.max(0, value);
+
+        final int bucket = getBucket(value);
+
+        int[] counts = countPerSubBucket[bucket];
+        if (counts == null)
+        {
+            counts = countPerSubBucket[bucket] = new int[subBucketCount];
+        }
+        counts[getSubBucket(value, bucket)]++;
+
+        valueCount++;
+        minimum = Math.min(minimum, value);
+        maximum = Math.max(maximum, value);
+    }
+
+    /**
+     * Returns the median of the values added.
+     *
+     * @return the median value
+     */
+    public double getMedianValue()
+    {
+        return getPercentile(50.0);
+    }
+
+    /**
+     * Returns the p-th percentile of the values added.
+     *
+     * @param p
+     *            the p (0 &lt; p &le; 100)
+     * @return the p-th percentile
+     */
+    public double getPercentile(final double p)
+    {
+        if (p <= 0.0 || p > 100.0)
+        {
+            throw new IllegalArgumentException("Value of parameter 'p' must be in range (0, 100], but was " + p);
+        }
+
+        // see https://de.wikipedia.org/wiki/Quantil#Berechnung_empirischer_Quantile
+
+        if (valueCount == 0)
+        {
+            return 0.0;
+        }
+        else if (p == 100.0)
+        {
+            return maximum;
+        }
+
+        final double np = valueCount * p / 100.0;
+
+        if (np % 1.0 == 0.0)
+        {
+            // n*p is integral -> get two adjacent values and calculate the mean of both
+            final int i = (int) np;
+
+            return (getValue(i) + getValue(i + 1)) / 2.0;
+        }
+        else
+        {
+            // n*p is fractional -> "ceil" the index
+            return getValue((int) Math.ceil(np));
+        }
+    }
+
+    /**
+     * Returns the value that corresponds to the given 1-based index, i.e. the lowest value of the sub-bucket holding
+     * the value with that index, but not less than the minimum value.
+     *
+     * @param valueIndex
+     *            the index
+     * @return the value
+     */
+    private int getValue(final int valueIndex)
+    {
+        int count = 0;
+
+        for (int bucket = 0; bucket < countPerSubBucket.length; bucket++)
+        {
+            final int[] counts = countPerSubBucket[bucket];
+            if (counts != null)
+            {
+                for (int subBucket = 0; subBucket < subBucketCount; subBucket++)
+                {
+                    count += counts[subBucket];
+                    if (count >= valueIndex)
+                    {
+                        return Math.max(minimum, getLowestValue(bucket, subBucket));
+                    }
+                }
+            }
+        }
+
+        return maximum;
+    }
+
+    /**
+     * Returns the number of sub-buckets allocated so far.
+     *
+     * @return the number of sub-buckets
+     */
+    public int getNumberOfBuckets()
+    {
+        int buckets = 0;
+        for (final int[] counts : countPerSubBucket)
+        {
+            if (counts != null)
+            {
+                buckets += counts.length;
+            }
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Returns the number of significant digits of this histogram.
+     *
+     * @return the number of significant digits
+     */
+    public int getSignificantDigits()
+    {
+        return significantDigits;
+    }
+
+    /**
+     * Returns the number of values added so far.
+     *
+     * @return the value count
+     */
+    public int getValueCount()
+    {
+        return valueCount;
+    }
+
+    /**
+     * Merges the values of the given histogram into this histogram. The result is the same as if all the values of the
+     * other histogram had been added to this histogram.
+     *
+     * @param other
+     *            the other histogram
+     * @throws IllegalArgumentException
+     *             if the number of significant digits of the other histogram does not match the one of this histogram
+     */
+    public void merge(final LogLinearHistogram other)
+    {
+        if (other.significantDigits != significantDigits)
+        {
+            throw new IllegalArgumentException(String.format("Cannot merge histograms with different significant digits: %d vs. %d",
+                                                             significantDigits, other.significantDigits));
+        }
+
+        for (int bucket = 0; bucket < countPerSubBucket.length; bucket++)
+        {
+            final int[] otherCounts = other.countPerSubBucket[bucket];
+            if (otherCounts != null)
+            {
+                final int[] counts = countPerSubBucket[bucket];
+                if (counts == null)
+                {
+                    countPerSubBucket[bucket] = otherCounts.clone();
+                }
+                else
+                {
+                    for (int i = 0; i < subBucketCount; i++)
+                    {
+                        counts[i] += otherCounts[i];
+                    }
+                }
+            }
+        }
+
+        valueCount += other.valueCount;
+        minimum = Math.min(minimum, other.minimum);
+        maximum = Math.max(maximum, other.maximum);
+    }
+
+    /**
+     * Converts this histogram to an {@link XYIntervalSeries} object with at most the given number of bars of equal
+     * width, where each non-empty bar is horizontal.
+     *
+     * @param seriesName
+     *            the name of the series
+     * @param barCount
+     *            the maximum number of bars
+     * @return the series
+     */
+    public XYIntervalSeries toSeries(final String seriesName, final int barCount)
+    {
+        return toSeries(seriesName, barCount, false);
+    }
+
+    /**
+     * Converts this histogram to an {@link XYIntervalSeries} object with at most the given number of bars of equal
+     * width, where each non-empty bar is vertical.
+     *
+     * @param seriesName
+     *            the name of the series
+     * @param barCount
+     *            the maximum number of bars
+     * @return the series
+     */
+    public XYIntervalSeries toVerticalSeries(final String seriesName, final int barCount)
+    {
+        return toSeries(seriesName, barCount, true);
+    }
+
+    /**
+     * Converts this histogram to a series of bars of equal width. The bar width is the smallest power of 2 that lets
+     * the maximum value fit. Sub-buckets wider than a bar are spread evenly over the bars they cover.
+     */
+    private XYIntervalSeries toSeries(final String seriesName, final int barCount, final boolean vertical)
+    {
+        final int[] countPerBar = new int[Math.max(1, barCount)];
+
+        long barWidth = 1;
+        while (maximum / barWidth >= countPerBar.length)
+        {
+            barWidth *= 2;
+        }
+
+        for (int bucket = 0; bucket < countPerSubBucket.length; bucket++)
+        {
+            final int[] counts = countPerSubBucket[bucket];
+            if (counts != null)
+            {
+                for (int subBucket = 0; subBucket < subBucketCount; subBucket++)
+                {
+                    final int count = counts[subBucket];
+                    if (count > 0)
+                    {
+                        final long lowestValue = getLowestValue(bucket, subBucket);
+                        final long highestValue = lowestValue + (bucket == 0 ? 1 : 1L << (bucket - 1)) - 1;
+
+                        final int firstBar = (int) (Math.max(minimum, lowestValue) / barWidth);
+                        final int lastBar = (int) (Math.min(maximum, highestValue) / barWidth);
+                        final int bars = lastBar - firstBar + 1;
+
+                        for (int i = 0; i < bars; i++)
+                        {
+                            countPerBar[firstBar + i] += count / bars + (i < count % bars ? 1 : 0);
+                        }
+                    }
+                }
+            }
+        }
+
+        final XYIntervalSeries series = new XYIntervalSeries(seriesName);
+
+        for (int i = 0; i < countPerBar.length; i++)
+        {
+            final int count = countPerBar[i];
+            if (count > 0)
+            {
+                final long barStartValue = i * barWidth;
+                final long barEndValue = barStartValue + barWidth;
+
+                if (vertical)
+                {
+                    series.add(barEndValue, barStartValue, barEndValue, count, 0, count);
+                }
+                else
+                {
+                    series.add(count, 0, count, barEndValue, barStartValue, barEndValue);
+                }
+            }
+        }
+
+        return series;
+    }
+
+    /**
+     * Writes the state of this histogram to the given output. Only non-empty sub-buckets are written.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(significantDigits);
+        out.writeInt(valueCount);
+
+        if (valueCount > 0)
+        {
+            out.writeInt(minimum);
+            out.writeInt(maximum);
+
+            for (int bucket = 0; bucket < countPerSubBucket.length; bucket++)
+            {
+                final int[] counts = countPerSubBucket[bucket];
+                if (counts != null)
+                {
+                    for (int subBucket = 0; subBucket < subBucketCount; subBucket++)
+                    {
+                        if (counts[subBucket] != 0)
+                        {
+                            out.writeByte(bucket);
+                            out.writeInt(subBucket);
+                            out.writeInt(counts[subBucket]);
+                        }
+                    }
+                }
+            }
+
+            // end marker
+            out.writeByte(-1);
+        }
+    }
+
+    /**
+     * Creates a new histogram from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the histogram
+     * @throws IOException
+     *             if reading failed
+     */
+    public static LogLinearHistogram readFrom(final DataInput in) throws IOException
+    {
+        final LogLinearHistogram histogram = new LogLinearHistogram(in.readInt());
+        histogram.valueCount = in.readInt();
+
+        if (histogram.valueCount > 0)
+        {
+            histogram.minimum = in.readInt();
+            histogram.maximum = in.readInt();
+
+            int bucket;
+            while ((bucket = in.readByte()) >= 0)
+            {
+                final int subBucket = in.readInt();
+
+                int[] counts = histogram.countPerSubBucket[bucket];
+                if (counts == null)
+                {
+                    counts = histogram.countPerSubBucket[bucket] = new int[histogram.subBucketCount];
+                }
+                counts[subBucket] = in.readInt();
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Returns the bucket of the given non-negative value.
+     */
+    private int getBucket(final int value)
+    {
+        return Math.max(0, 31 - Integer.numberOfLeadingZeros(value) - subBucketCountMagnitude + 1);
+    }
+
+    /**
+     * Returns the sub-bucket of the given non-negative value in the given bucket.
+     */
+    private int getSubBucket(final int value, final int bucket)
+    {
+        return bucket == 0 ? value : (value >>> (bucket - 1)) - subBucketCount;
+    }
+
+    /**
+     * Returns the lowest value that falls into the given sub-bucket.
+     */
+    private int getLowestValue(final int bucket, final int subBucket)
+    {
+        return bucket == 0 ? subBucket : (subBucket + subBucketCount) << (bucket - 1);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * A thread-safe dictionary of the names and other short values (content types and hosts, for instance) that occur
+ * over and over again in the data records. The parser threads replace the values of each data record with the
+ * canonical instances kept here. This way, the report providers look up their statistics by values that have their
+ * hash code cached and that are mostly identical to the keys of their maps, and the parsed data records waiting to be
+ * processed do not carry copies of the same values.
+ * <p>
+ * The dictionary is bounded. Once full, values not yet known are passed through unchanged.
+ * <p>
+ * Note that the dictionary does not assign int IDs to its values. The report providers would need those IDs to index
+ * arrays instead of looking up maps, but data records and providers exchange names as strings and char buffers, which
+ * is part of the public API custom providers build upon.
+ */
+public class NameDictionary
+{
+    /**
+     * The canonical strings.
+     */
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * The canonical char buffers.
+     */
+    private final Map<XltCharBuffer, XltCharBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of entries per value type.
+     */
+    private final int maxSize;
+
+    /**
+     * Statistics.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize
+     *            the maximum number of entries per value type
+     */
+    public NameDictionary(final int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the canonical instance of the given string.
+     *
+     * @param s
+     *            the string, may be <code>null</code>
+     * @return the canonical string, or the given string if the dictionary is full
+     */
+    public String canonicalize(final String s)
+    {
+        if (s == null)
+        {
+            return null;
+        }
+
+        final String canonical = strings.get(s);
+        if (canonical != null)
+        {
+            hits.increment();
+            return canonical;
+        }
+
+        misses.increment();
+
+        if (strings.size() >= maxSize)
+        {
+            return s;
+        }
+
+        final String previous = strings.putIfAbsent(s, s);
+
+        return previous != null ? previous : s;
+    }
+
+    /**
+     * Returns the canonical instance of the given char buffer. A new canonical instance is a compact copy of the given
+     * buffer, so it does not keep the (much larger) backing array of a data record line alive.
+     *
+     * @param s
+     *            the char buffer, may be <code>null</code>
+     * @return the canonical char buffer, or the given buffer if the dictionary is full
+     */
+    public XltCharBuffer canonicalize(final XltCharBuffer s)
+    {
+        if (s == null)
+        {
+            return null;
+        }
+
+        final XltCharBuffer canonical = buffers.get(s);
+        if (canonical != null)
+        {
+            hits.increment();
+            return canonical;
+        }
+
+        misses.increment();
+
+        if (buffers.size() >= maxSize)
+        {
+            return s;
+        }
+
+        final XltCharBuffer copy = new XltCharBuffer(s.toCharArray());
+        copy.hashCode();
+
+        final XltCharBuffer previous = buffers.putIfAbsent(copy, copy);
+
+        return previous != null ? previous : copy;
+    }
+
+    /**
+     * Returns the number of entries in this dictionary.
+     *
+     * @return the number of entries
+     */
+    public int size()
+    {
+        return strings.size() + buffers.size();
+    }
+
+    /**
+     * Returns a summary of the dictionary statistics, suitable for logging.
+     *
+     * @return the summary
+     */
+    public String getStatistics()
+    {
+        final long h = hits.sum();
+        final long lookups = h + misses.sum();
+        final double hitRate = lookups == 0 ? 0.0 : 100.0 * h / lookups;
+
+        return String.format("Name dictionary: %,d entries, %,d lookups (hit rate: %.1f%%)", size(), lookups, hitRate);
+    }
+}
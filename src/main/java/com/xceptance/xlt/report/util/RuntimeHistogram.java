@@ -15,11 +15,21 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The {@link RuntimeHistogram} class calculates any percentile from the <code>int</code> values added. In contrast to
  * other implementations, this class does not store any value added, but counts the occurrences of each value. This
  * approach saves memory if the values added are in roughly the same range.
+ * <p>
+ * Histograms with the same precision can be merged, so partial results can be calculated independently and combined
+ * later on. The state of a histogram can be written to and restored from a compact binary snapshot.
+ *
+ * @deprecated Use {@link LogLinearHistogram} instead, which needs less memory for widely spread values.
  */
+@Deprecated
 public class RuntimeHistogram
 {
     /**
@@ -211,6 +221,151 @@ public class RuntimeHistogram
         return countPerBucket.length;
     }
 
+    /**
+     * Returns the precision of this histogram.
+     *
+     * @return the precision
+     */
+    public int getPrecision()
+    {
+        return precision;
+    }
+
+    /**
+     * Returns the number of values added so far.
+     *
+     * @return the value count
+     */
+    public int getValueCount()
+    {
+        return valueCount;
+    }
+
+    /**
+     * Merges the values of the given histogram into this histogram. The result is the same as if all the values of the
+     * other histogram had been added to this histogram.
+     *
+     * @param other
+     *            the other histogram
+     * @throws IllegalArgumentException
+     *             if the precision of the other histogram does not match the precision of this histogram
+     */
+    public void merge(final RuntimeHistogram other)
+    {
+        if (other.precision != precision)
+        {
+            throw new IllegalArgumentException(String.format("Cannot merge histograms with different precisions: %d vs. %d", precision,
+                                                             other.precision));
+        }
+
+        if (other.valueCount == 0)
+        {
+            return;
+        }
+
+        if (valueCount == 0)
+        {
+            countPerBucket = other.countPerBucket.clone();
+            firstIndex = other.firstIndex;
+            lastIndex = other.lastIndex;
+            valueCount = other.valueCount;
+
+            return;
+        }
+
+        // make room for the buckets of the other histogram
+        if (other.firstIndex < firstIndex)
+        {
+            grow(firstIndex - other.firstIndex, true);
+            firstIndex = other.firstIndex;
+        }
+        if (other.lastIndex > lastIndex)
+        {
+            grow(other.lastIndex - lastIndex, false);
+            lastIndex = other.lastIndex;
+        }
+
+        final int offset = other.firstIndex - firstIndex;
+        for (int i = 0; i < other.lastIndex - other.firstIndex + 1; i++)
+        {
+            countPerBucket[offset + i] += other.countPerBucket[i];
+        }
+
+        valueCount += other.valueCount;
+    }
+
+    /**
+     * Writes the state of this histogram to the given output. Only non-empty buckets are written.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(precision);
+        out.writeInt(valueCount);
+
+        if (valueCount > 0)
+        {
+            final int bucketCount = lastIndex - firstIndex + 1;
+
+            int nonEmptyBuckets = 0;
+            for (int i = 0; i < bucketCount; i++)
+            {
+                if (countPerBucket[i] != 0)
+                {
+                    nonEmptyBuckets++;
+                }
+            }
+
+            out.writeInt(firstIndex);
+            out.writeInt(lastIndex);
+            out.writeInt(nonEmptyBuckets);
+
+            for (int i = 0; i < bucketCount; i++)
+            {
+                if (countPerBucket[i] != 0)
+                {
+                    out.writeInt(i);
+                    out.writeInt(countPerBucket[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new histogram from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the histogram
+     * @throws IOException
+     *             if reading failed
+     */
+    public static RuntimeHistogram readFrom(final DataInput in) throws IOException
+    {
+        final RuntimeHistogram histogram = new RuntimeHistogram(in.readInt());
+        histogram.valueCount = in.readInt();
+
+        if (histogram.valueCount > 0)
+        {
+            histogram.firstIndex = in.readInt();
+            histogram.lastIndex = in.readInt();
+            histogram.countPerBucket = new int[histogram.lastIndex - histogram.firstIndex + 1];
+
+            final int nonEmptyBuckets = in.readInt();
+            for (int i = 0; i < nonEmptyBuckets; i++)
+            {
+                final int index = in.readInt();
+                histogram.countPerBucket[index] = in.readInt();
+            }
+        }
+
+        return histogram;
+    }
+
     /**
      * Grows the bucket array by the specified number of buckets.
      *
@@ -15,8 +15,14 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
- *
+ * Counts values per runtime segment. Value sets with the same segment boundaries can be merged and their state can be
+ * written to and restored from a compact binary snapshot.
  */
 public class SegmentationValueSet
 {
@@ -58,4 +64,72 @@ public class SegmentationValueSet
     {
         return countPerBin;
     }
+
+    /**
+     * Merges the given value set into this value set. Both value sets must use the same segment boundaries.
+     *
+     * @param other
+     *            the other value set
+     * @throws IllegalArgumentException
+     *             if the segment boundaries differ
+     */
+    public void merge(final SegmentationValueSet other)
+    {
+        if (!Arrays.equals(boundaries, other.boundaries))
+        {
+            throw new IllegalArgumentException("Cannot merge value sets with different segment boundaries");
+        }
+
+        for (int i = 0; i < countPerBin.length; i++)
+        {
+            countPerBin[i] += other.countPerBin[i];
+        }
+    }
+
+    /**
+     * Writes the state of this value set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeInt(boundaries.length);
+        for (final int boundary : boundaries)
+        {
+            out.writeInt(boundary);
+        }
+        for (final int count : countPerBin)
+        {
+            out.writeInt(count);
+        }
+    }
+
+    /**
+     * Creates a new value set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the value set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static SegmentationValueSet readFrom(final DataInput in) throws IOException
+    {
+        final int[] boundaries = new int[in.readInt()];
+        for (int i = 0; i < boundaries.length; i++)
+        {
+            boundaries[i] = in.readInt();
+        }
+
+        final SegmentationValueSet valueSet = new SegmentationValueSet(boundaries);
+        for (int i = 0; i < valueSet.countPerBin.length; i++)
+        {
+            valueSet.countPerBin[i] = in.readInt();
+        }
+
+        return valueSet;
+    }
 }
@@ -15,12 +15,17 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
  * A {@link ValueSet} maintains the sum of all values generated at a certain second. If the time range exceeds the size
  * of the value set, the set grows automatically to make room for the new values.
  * <p>
+ * Value sets can be merged and their state can be written to and restored from a compact binary snapshot.
+ * <p>
  * Potential bug: no value vs. a value of 0
  */
 public class ValueSet
@@ -96,6 +101,24 @@ public class ValueSet
      */
     public void addOrUpdateValue(final long time, final int value)
     {
+        addOrUpdateValue(time, value, 1);
+    }
+
+    /**
+     * Adds a value for a certain time-stamp to this value set as if it was added the given number of times. This has the
+     * same effect as calling {@link #addOrUpdateValue(long, int)} <code>count</code> times, but is much cheaper.
+     *
+     * @param time
+     *            the time-stamp in ms
+     * @param value
+     *            the value
+     * @param count
+     *            the number of times the value is added (must be positive)
+     */
+    public void addOrUpdateValue(final long time, final int value, final int count)
+    {
+        final int totalValue = value * count;
+
         // get the corresponding second
         final long second = time / 1000L;
 
@@ -104,71 +127,194 @@ public class ValueSet
         {
             // yes, that's easy
             firstSecond = lastSecond = second;
-            values[0] = value;
+            values[0] = totalValue;
 
             // maintain statistics
             minimumTime = maximumTime = time;
-            valueCount = 1;
+            valueCount = count;
         }
         else
         {
             // no, there are values in the set already
 
-            // check whether we might have to grow the value set first
-            if (second != firstSecond)
+            // calculate final index and update value
+            final int index = getIndex(second);
+            values[index] += totalValue;
+
+            // maintain statistics
+            valueCount += count;
+
+            if (time < minimumTime)
+            {
+                minimumTime = time;
+            }
+
+            if (time > maximumTime)
+            {
+                maximumTime = time;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the given second in the value array. Grows or shifts the array if necessary. Must only be
+     * called if there are values in the set already.
+     *
+     * @param second
+     *            the second
+     * @return the index
+     */
+    private int getIndex(final long second)
+    {
+        // check whether we might have to grow the value set first
+        if (second != firstSecond)
+        {
+            // decide on the way of shrinking
+            if (second > firstSecond)
             {
-                // decide on the way of shrinking
-                if (second > firstSecond)
+                // repeat as long as the second falls after the current size
+                while (second - firstSecond >= size)
+                {
+                    grow();
+                }
+
+                // maintain upper boundary
+                if (second > lastSecond)
                 {
-                    // repeat as long as the second falls after the current size
-                    while (second - firstSecond >= size)
-                    {
-                        grow();
-                    }
-
-                    // maintain upper boundary
-                    if (second > lastSecond)
-                    {
-                        lastSecond = second;
-                    }
+                    lastSecond = second;
                 }
-                else
+            }
+            else
+            {
+                // repeat as long as the second still falls outside (before) the current size
+                while (lastSecond - second >= size)
                 {
-                    // repeat as long as the second still falls outside (before) the current size
-                    while (lastSecond - second >= size)
-                    {
-                        grow();
-                    }
+                    grow();
+                }
 
-                    // shift
-                    final int indexDiff = (int) (firstSecond - second);
+                // shift
+                final int indexDiff = (int) (firstSecond - second);
 
-                    shift(indexDiff);
+                shift(indexDiff);
 
-                    // maintain lower boundary
-                    firstSecond = second;
-                }
+                // maintain lower boundary
+                firstSecond = second;
             }
+        }
 
-            // calculate final index and update value
-            final int index = (int) (second - firstSecond);
-            values[index] += value;
+        return (int) (second - firstSecond);
+    }
 
-            // maintain statistics
-            valueCount++;
+    /**
+     * Merges the given value set into this value set. The result is the same as if all the values of the other value
+     * set had been added to this value set.
+     *
+     * @param other
+     *            the other value set
+     */
+    public void merge(final ValueSet other)
+    {
+        if (other.valueCount == 0)
+        {
+            return;
+        }
 
-            if (time < minimumTime)
-            {
-                minimumTime = time;
-            }
+        if (valueCount == 0)
+        {
+            firstSecond = lastSecond = other.firstSecond;
+            minimumTime = other.minimumTime;
+            maximumTime = other.maximumTime;
+        }
+        else
+        {
+            minimumTime = Math.min(minimumTime, other.minimumTime);
+            maximumTime = Math.max(maximumTime, other.maximumTime);
+        }
 
-            if (time > maximumTime)
+        // make room for the whole range of the other value set at once
+        getIndex(other.firstSecond);
+        getIndex(other.lastSecond);
+
+        final int offset = (int) (other.firstSecond - firstSecond);
+        final int length = (int) (other.lastSecond - other.firstSecond + 1);
+        for (int i = 0; i < length; i++)
+        {
+            values[offset + i] += other.values[i];
+        }
+
+        valueCount += other.valueCount;
+    }
+
+    /**
+     * Writes the state of this value set to the given output.
+     *
+     * @param out
+     *            the target output
+     * @throws IOException
+     *             if writing failed
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeLong(valueCount);
+
+        if (valueCount > 0)
+        {
+            out.writeLong(firstSecond);
+            out.writeLong(lastSecond);
+            out.writeLong(minimumTime);
+            out.writeLong(maximumTime);
+
+            final int length = (int) (lastSecond - firstSecond + 1);
+            for (int i = 0; i < length; i++)
             {
-                maximumTime = time;
+                out.writeInt(values[i]);
             }
         }
     }
 
+    /**
+     * Creates a new value set from the state previously written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *            the source input
+     * @return the value set
+     * @throws IOException
+     *             if reading failed
+     */
+    public static ValueSet readFrom(final DataInput in) throws IOException
+    {
+        final long valueCount = in.readLong();
+        if (valueCount == 0)
+        {
+            return new ValueSet();
+        }
+
+        final long firstSecond = in.readLong();
+        final long lastSecond = in.readLong();
+        final int length = (int) (lastSecond - firstSecond + 1);
+
+        // keep the size a power of two as if the set had grown naturally
+        int size = DEFAULT_SIZE;
+        while (size < length)
+        {
+            size = size * 2;
+        }
+
+        final ValueSet valueSet = new ValueSet(size);
+        valueSet.valueCount = valueCount;
+        valueSet.firstSecond = firstSecond;
+        valueSet.lastSecond = lastSecond;
+        valueSet.minimumTime = in.readLong();
+        valueSet.maximumTime = in.readLong();
+
+        for (int i = 0; i < length; i++)
+        {
+            valueSet.values[i] = in.readInt();
+        }
+
+        return valueSet;
+    }
+
     /**
      * Returns the smallest second [s] for which a value exists in this set.
      *
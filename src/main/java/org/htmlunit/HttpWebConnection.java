@@ -684,11 +684,19 @@ public class HttpWebConnection implements WebConnection {
         return httpClientBuilder;
     }
 
+    /**
+     * Creates the socket factory for HTTPS connections; overload if needed.
+     * @param options the current WebClientOptions
+     * @return the socket factory
+     */
+    protected LayeredConnectionSocketFactory createSSLSocketFactory(final WebClientOptions options) {
+        return HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options);
+    }
+
     private void configureHttpsScheme(final HttpClientBuilder builder) {
         final WebClientOptions options = webClient_.getOptions();
 
-        final SSLConnectionSocketFactory socketFactory =
-                HtmlUnitSSLConnectionSocketFactory.buildSSLSocketFactory(options);
+        final LayeredConnectionSocketFactory socketFactory = createSSLSocketFactory(options);
 
         builder.setSSLSocketFactory(socketFactory);
 
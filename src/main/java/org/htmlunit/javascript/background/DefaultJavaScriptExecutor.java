@@ -58,12 +58,21 @@ public class DefaultJavaScriptExecutor implements JavaScriptExecutor {
      */
     protected void startThreadIfNeeded() {
         if (eventLoopThread_ == null) {
-            eventLoopThread_ = new Thread(this, getThreadName());
+            eventLoopThread_ = newThread(getThreadName());
             eventLoopThread_.setDaemon(true);
             eventLoopThread_.start();
         }
     }
 
+    /**
+     * Creates the eventLoopThread_; overload if needed.
+     * @param name the name of the thread
+     * @return the new, not yet started thread
+     */
+    protected Thread newThread(final String name) {
+        return new Thread(this, name);
+    }
+
     /**
      * Defines the thread name; overload if needed.
      * @return the name of the js executor thread
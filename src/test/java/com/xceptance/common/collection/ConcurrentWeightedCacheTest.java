@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of {@link ConcurrentWeightedCache}.
+ */
+public class ConcurrentWeightedCacheTest
+{
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidWeight()
+    {
+        new ConcurrentWeightedCache<String, String>(0);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        final ConcurrentWeightedCache<String, String> cache = new ConcurrentWeightedCache<>(100);
+
+        cache.put("a", "A", 10);
+        cache.put("b", "B", 20);
+
+        Assert.assertEquals("A", cache.get("a"));
+        Assert.assertEquals("B", cache.get("b"));
+        Assert.assertNull(cache.get("c"));
+        Assert.assertTrue(cache.contains("a"));
+        Assert.assertFalse(cache.contains("c"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(30, cache.weight());
+
+        // overwrite
+        cache.put("a", "AA", 5);
+        Assert.assertEquals("AA", cache.get("a"));
+        Assert.assertEquals(25, cache.weight());
+
+        Assert.assertEquals("B", cache.remove("b"));
+        Assert.assertNull(cache.remove("b"));
+        Assert.assertEquals(5, cache.weight());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testRemoveIf()
+    {
+        final ConcurrentWeightedCache<String, String> cache = new ConcurrentWeightedCache<>(100);
+
+        cache.put("a1", "A", 10);
+        cache.put("b1", "B", 20);
+        cache.put("a2", "A", 30);
+
+        cache.removeIf(k -> k.startsWith("a"));
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(20, cache.weight());
+        Assert.assertEquals("B", cache.get("b1"));
+        Assert.assertNull(cache.get("a1"));
+    }
+
+    @Test
+    public void testEvictionByWeight()
+    {
+        final ConcurrentWeightedCache<String, String> cache = new ConcurrentWeightedCache<>(100);
+
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+
+        // reference "a" so it gets a second chance, but "b" does not
+        cache.get("a");
+
+        cache.put("c", "C", 30);
+
+        Assert.assertEquals("A", cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("C", cache.get("c"));
+        Assert.assertEquals(70, cache.weight());
+
+        // a heavy entry evicts several others, even referenced ones, but not itself
+        cache.put("d", "D", 90);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals("D", cache.get("d"));
+        Assert.assertEquals(90, cache.weight());
+    }
+
+    @Test
+    public void testTooHeavyValuesAreNotCached()
+    {
+        final ConcurrentWeightedCache<String, String> cache = new ConcurrentWeightedCache<>(100);
+
+        cache.put("a", "A", 10);
+        cache.put("b", "B", 101);
+
+        Assert.assertEquals("A", cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(10, cache.weight());
+
+        // replacing an entry with a too heavy value removes it
+        cache.put("a", "AA", 101);
+
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testStatistics()
+    {
+        final CacheStatistics statistics = new CacheStatistics();
+        final ConcurrentWeightedCache<String, String> cache1 = new ConcurrentWeightedCache<>(10, statistics);
+        final ConcurrentWeightedCache<String, String> cache2 = new ConcurrentWeightedCache<>(10, statistics);
+
+        Assert.assertSame(statistics, cache1.getStatistics());
+
+        cache1.put("a", "A", 10);
+        cache1.get("a");
+        cache1.get("b");
+        cache2.get("a");
+        cache1.put("b", "B", 10);
+
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getEvictionCount());
+
+        // neither contains() nor remove() count
+        cache1.contains("b");
+        cache1.remove("b");
+
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception
+    {
+        final ConcurrentWeightedCache<Integer, Integer> cache = new ConcurrentWeightedCache<>(10_000);
+        final int threads = 8;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                futures.add(executor.submit(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    for (int j = 0; j < 100_000; j++)
+                    {
+                        final int key = random.nextInt(1000);
+                        final int operation = random.nextInt(10);
+
+                        if (operation == 0)
+                        {
+                            cache.remove(key);
+                        }
+                        else if (operation < 4)
+                        {
+                            cache.put(key, key, key + 1);
+                        }
+                        else
+                        {
+                            final Integer value = cache.get(key);
+                            Assert.assertTrue(value == null || value == key);
+                        }
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        // the bookkeeping must still be consistent
+        cache.put(-1, -1, 1);
+        Assert.assertTrue(cache.weight() <= 10_000);
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.weight());
+    }
+}
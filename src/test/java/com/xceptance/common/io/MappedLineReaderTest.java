@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+public class MappedLineReaderTest
+{
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private void test(final String src, final int windowSize) throws IOException
+    {
+        final File file = tempFolder.newFile();
+        FileUtils.writeStringToFile(file, src, StandardCharsets.UTF_8);
+
+        final List<String> mapped = new ArrayList<>();
+        try (final MappedLineReader r = new MappedLineReader(file.toPath(), 0, Long.MAX_VALUE, windowSize))
+        {
+            XltCharBuffer cb;
+            while ((cb = r.readLine()) != null)
+            {
+                mapped.add(cb.toString());
+            }
+        }
+
+        final List<String> original = new ArrayList<>();
+        try (final BufferedReader r = new BufferedReader(new StringReader(src)))
+        {
+            String s;
+            while ((s = r.readLine()) != null)
+            {
+                original.add(s);
+            }
+        }
+
+        Assert.assertEquals(original, mapped);
+    }
+
+    private void test(final String src) throws IOException
+    {
+        test(src, 1);
+        test(src, 3);
+        test(src, 8192);
+    }
+
+    @Test
+    public void empty() throws IOException
+    {
+        test("");
+    }
+
+    @Test
+    public void lineTerminators() throws IOException
+    {
+        test("a\nbb\nccc");
+        test("a\nbb\nccc\n");
+        test("a\r\nbb\r\nccc\r\n");
+        test("a\rbb\rccc\r");
+        test("\n\n\r\n\r\r");
+        test("a\r\n\nb");
+    }
+
+    @Test
+    public void longLines() throws IOException
+    {
+        final String longLine = "x".repeat(20000);
+        test(longLine + "\n" + longLine + "\r\n" + "short\n" + longLine);
+    }
+
+    @Test
+    public void nonAscii() throws IOException
+    {
+        test("R,Bestellübersicht,1000\nR,注文,2000\r\nE,ok\n€");
+    }
+
+    @Test
+    public void partialRange() throws IOException
+    {
+        final File file = tempFolder.newFile();
+        FileUtils.writeStringToFile(file, "first\nsecond\nthird\nfourth", StandardCharsets.UTF_8);
+
+        final List<String> lines = new ArrayList<>();
+        try (final MappedLineReader r = new MappedLineReader(file.toPath(), 6, 19))
+        {
+            XltCharBuffer cb;
+            while ((cb = r.readLine()) != null)
+            {
+                lines.add(cb.toString());
+            }
+        }
+
+        Assert.assertEquals(List.of("second", "third"), lines);
+    }
+
+    @Test
+    public void tooManyMappings() throws IOException
+    {
+        final File file = tempFolder.newFile();
+        FileUtils.writeStringToFile(file, "a\nb\n", StandardCharsets.UTF_8);
+
+        // keep readers open until no more regions may be mapped
+        final List<MappedLineReader> readers = new ArrayList<>();
+        try
+        {
+            while (MappedLineReader.getLiveMappingCount() < MappedLineReader.MAX_LIVE_MAPPINGS)
+            {
+                readers.add(new MappedLineReader(file.toPath()));
+            }
+
+            // further readers fall back to buffered reads
+            final String longLine = "x".repeat(20000);
+            test(longLine + "\n" + longLine + "\r\n" + "short\n" + longLine);
+            test("a\r\n\nb");
+            test("R,Bestell\u00fcbersicht,1000\nR,\u6ce8\u6587,2000\r\nE,ok\n\u20ac");
+
+            Assert.assertTrue(MappedLineReader.getLiveMappingCount() <= MappedLineReader.MAX_LIVE_MAPPINGS);
+        }
+        finally
+        {
+            for (final MappedLineReader r : readers)
+            {
+                r.close();
+            }
+        }
+    }
+}
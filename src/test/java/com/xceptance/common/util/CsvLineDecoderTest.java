@@ -223,6 +223,38 @@ public class CsvLineDecoderTest
         test("abc,'123','456',,,,',,,','1012'", "abc", "123", "456", "", "", "", ",,,", "1012");
     }
 
+    long peekLong(String s, int column)
+    {
+        return CsvLineDecoder.peekLong(XltCharBuffer.valueOf(s.replace("'", "\"")), column);
+    }
+
+    @Test
+    public void peekLong()
+    {
+        assertEquals(1000L, peekLong("R,Name,1000,200", 2));
+        assertEquals(200L, peekLong("R,Name,1000,200", 3));
+        assertEquals(1000L, peekLong("R,Name,1000", 2));
+        assertEquals(1000L, peekLong("R,'Na,me',1000,200", 2));
+        assertEquals(1000L, peekLong("R,'Na''me,''',1000,200", 2));
+        assertEquals(1000L, peekLong("R,'',1000,200", 2));
+        assertEquals(1000L, peekLong("R,,1000,200", 2));
+        assertEquals(7L, peekLong("7,a", 0));
+    }
+
+    @Test
+    public void peekLong_notANumber()
+    {
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,,1", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,-1000", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,10a0", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,'1000'", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,'Name,1000", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,'Name'x,1000", 2));
+        assertEquals(Long.MIN_VALUE, peekLong("R,Name,1234567890123456789", 2));
+    }
+
     /*
      * All error cases
      */
@@ -428,4 +428,75 @@ public class RegExUtilsTest
         final String s = "foobar";
         Assert.assertEquals(s, RegExUtils.removeAll(s, null));
     }
+
+    @Test
+    public final void testGetRequiredLiteral()
+    {
+        Assert.assertEquals("/checkout/", RegExUtils.getRequiredLiteral("/checkout/"));
+        Assert.assertEquals("/product/", RegExUtils.getRequiredLiteral("^https?://[^/]+/product/(\\d+)"));
+        Assert.assertEquals(".html", RegExUtils.getRequiredLiteral("[a-z]+\\.html$"));
+        Assert.assertEquals("text/", RegExUtils.getRequiredLiteral("text/(html|xml)"));
+        Assert.assertEquals("Product", RegExUtils.getRequiredLiteral("Products?"));
+        Assert.assertEquals("ab", RegExUtils.getRequiredLiteral("ab+c*"));
+        Assert.assertEquals("search", RegExUtils.getRequiredLiteral("x{2,3}search"));
+        Assert.assertEquals("]end", RegExUtils.getRequiredLiteral("[]a]\\]end"));
+    }
+
+    @Test
+    public final void testGetRequiredLiteral_none()
+    {
+        Assert.assertNull(RegExUtils.getRequiredLiteral(null));
+        Assert.assertNull(RegExUtils.getRequiredLiteral(""));
+        Assert.assertNull(RegExUtils.getRequiredLiteral(".*"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("foo|bar"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("(?i)checkout"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("\\Qa.b\\E"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("(foo)?\\d+"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("a?"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("ab\\Q.\\Ecd"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("abc\\"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("abc\\k"));
+        Assert.assertNull(RegExUtils.getRequiredLiteral("abc\\N{LATIN"));
+    }
+
+    @Test
+    public final void testGetRequiredLiteral_escapesWithArguments()
+    {
+        // the arguments of the escape sequences must not be taken as literal text
+        checkRequiredLiteral("\\x41BC", "BC", "ABC");
+        checkRequiredLiteral("\\x{41}BC", "BC", "ABC");
+        checkRequiredLiteral("\\u0041bc", "bc", "Abc");
+        checkRequiredLiteral("\\0101xy", "xy", "Axy");
+        checkRequiredLiteral("\\01xy", "xy", "\u0001xy");
+        checkRequiredLiteral("\\cAxy", "xy", "\u0001xy");
+        checkRequiredLiteral("\\pLabc", "abc", "Xabc");
+        checkRequiredLiteral("\\p{Lu}abc", "abc", "Xabc");
+        checkRequiredLiteral("\\P{Lu}abc", "abc", "xabc");
+        checkRequiredLiteral("(a)\\1bcd", "bcd", "aabcd");
+        checkRequiredLiteral("(a)\\k<a>bcd", "bcd", null);
+        checkRequiredLiteral("[a]\\k<name>", null, null);
+        checkRequiredLiteral("\\N{LATIN CAPITAL LETTER A}bc", "bc", "Abc");
+        checkRequiredLiteral("ab\\b{g}cde", "cde", null);
+        checkRequiredLiteral("\\Qabc\\E", null, "abc");
+
+        // escapes with arguments inside groups and character classes
+        checkRequiredLiteral("(\\c)|x)yz", "yz", "iyz");
+        checkRequiredLiteral("[\\c]]yz", "yz", "\u001dyz");
+        checkRequiredLiteral("[\\x{5D}]yz", "yz", "]yz");
+    }
+
+    /**
+     * Checks the required literal of the given regular expression and, if given, that the matching text contains it.
+     */
+    private static void checkRequiredLiteral(final String regex, final String expectedLiteral, final String matchingText)
+    {
+        final String literal = RegExUtils.getRequiredLiteral(regex);
+        Assert.assertEquals(regex, expectedLiteral, literal);
+
+        if (matchingText != null)
+        {
+            Assert.assertTrue(regex, Pattern.compile(regex).matcher(matchingText).find());
+            Assert.assertTrue(regex, literal == null || matchingText.contains(literal));
+        }
+    }
 }
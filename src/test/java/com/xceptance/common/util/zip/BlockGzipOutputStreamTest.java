@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.common.util.zip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Tests {@link BlockGzipOutputStream} together with {@link BlockGzipReader} and {@link ParallelBlockGzipLineReader}.
+ */
+public class BlockGzipOutputStreamTest
+{
+    private static final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterClass
+    public static void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The output must still be a valid gzip file.
+     */
+    @Test
+    public void readableAsRegularGzip() throws IOException
+    {
+        final String text = createText(1000);
+        final byte[] compressed = compress(text, 100);
+
+        try (final GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed)))
+        {
+            assertEquals(text, IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Each block ends with a complete line.
+     */
+    @Test
+    public void blocksEndWithCompleteLines() throws IOException
+    {
+        final String text = createText(1000);
+
+        final List<byte[]> blocks = new ArrayList<>();
+        try (final BlockGzipReader reader = new BlockGzipReader(new ByteArrayInputStream(compress(text, 100))))
+        {
+            byte[] member;
+            while ((member = reader.nextMember()) != null)
+            {
+                blocks.add(BlockGzipReader.inflate(member));
+            }
+        }
+
+        assertTrue(blocks.size() > 10);
+        for (int i = 0; i < blocks.size(); i++)
+        {
+            final byte[] data = blocks.get(i);
+            assertEquals('\n', data[data.length - 1]);
+
+            // only the last block may be smaller
+            assertTrue(data.length >= 100 || i == blocks.size() - 1);
+        }
+    }
+
+    /**
+     * The lines are returned in their original order, even if the last line has no terminator.
+     */
+    @Test
+    public void parallelLineReader() throws IOException
+    {
+        final String text = createText(5000) + "last line without terminator";
+        final BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(compress(text, 1000)));
+
+        assertTrue(BlockGzipReader.isBlockGzip(in));
+
+        final List<String> lines = new ArrayList<>();
+        try (final ParallelBlockGzipLineReader reader = new ParallelBlockGzipLineReader(new BlockGzipReader(in), executor, 4))
+        {
+            XltCharBuffer line;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.add(line.toString());
+            }
+            assertNull(reader.readLine());
+        }
+
+        assertEquals(text.lines().count(), lines.size());
+        assertEquals(String.join("\n", text.lines().toArray(String[]::new)), String.join("\n", lines));
+    }
+
+    /**
+     * A regular gzip file is not mistaken for a block-compressed one.
+     */
+    @Test
+    public void regularGzipIsNotBlockGzip() throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final OutputStream out = new GZIPOutputStream(bytes))
+        {
+            out.write(createText(10).getBytes(StandardCharsets.UTF_8));
+        }
+
+        final BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertFalse(BlockGzipReader.isBlockGzip(in));
+
+        // stream position is unchanged
+        assertEquals(0x1f, in.read());
+    }
+
+    private static String createText(final int lineCount)
+    {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lineCount; i++)
+        {
+            sb.append("R,Request-").append(i % 7).append(',').append(1000L + i).append(",äöü\n");
+        }
+
+        return sb.toString();
+    }
+
+    private static byte[] compress(final String text, final int blockSize) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final OutputStream out = new BlockGzipOutputStream(bytes, blockSize))
+        {
+            // write in odd pieces to exercise the block cutting
+            final byte[] data = text.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < data.length; i += 37)
+            {
+                out.write(data, i, Math.min(37, data.length - i));
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -19,16 +19,25 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -137,6 +146,61 @@ public class XSLTUtilsTest extends AbstractXLTTestCase
 
     }
 
+    /**
+     * Tests that style sheets are compiled only once and that a parsed source can be transformed concurrently using
+     * different style sheets.
+     */
+    @Test
+    public void testTransform_SharedSourceAndTemplates() throws Throwable
+    {
+        XSLTUtils.setTransformerFactory(TransformerFactory.newInstance());
+
+        FileUtils.writeStringToFile(inputFile, "<report><item>a</item><item>b</item></report>", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(stylesheet, "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+                                                "<xsl:output method='text'/><xsl:param name='prefix'/>" +
+                                                "<xsl:template match='/'><xsl:value-of select='$prefix'/>" +
+                                                "<xsl:value-of select='count(//item)'/></xsl:template></xsl:stylesheet>",
+                                    StandardCharsets.UTF_8);
+
+        final Templates templates = XSLTUtils.getTemplates(stylesheet);
+        Assert.assertSame(templates, XSLTUtils.getTemplates(stylesheet));
+
+        final Source source = XSLTUtils.parse(inputFile);
+
+        final int count = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+            {
+                final File out = new File(testDir, "out" + i + ".txt");
+                final Map<String, Object> parameters = Map.of("prefix", "#" + i + ":");
+
+                futures.add(executor.submit(() -> {
+                    XSLTUtils.transform(source, out, XSLTUtils.getTemplates(stylesheet), parameters);
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            final File out = new File(testDir, "out" + i + ".txt");
+            Assert.assertEquals("#" + i + ":2", FileUtils.readFileToString(out, StandardCharsets.UTF_8));
+            out.delete();
+        }
+    }
+
     /**
      * Validates the passed arguments.
      */
@@ -147,11 +211,13 @@ public class XSLTUtilsTest extends AbstractXLTTestCase
         // mocked transformer
         final Transformer transformerMock = mock(Transformer.class);
 
-        // let transformer mock return the transformer mock when
-        // newInstance(Source) is called
+        // let factory mock return a templates mock when newTemplates(Source) is
+        // called, which in turn returns the transformer mock
         try
         {
-            Mockito.doReturn(transformerMock).when(facMock).newTransformer((Source) ArgumentMatchers.any());
+            final Templates templatesMock = mock(Templates.class);
+            Mockito.doReturn(templatesMock).when(facMock).newTemplates((Source) ArgumentMatchers.any());
+            Mockito.doReturn(transformerMock).when(templatesMock).newTransformer();
         }
         catch (final Throwable t)
         {
@@ -213,11 +279,13 @@ public class XSLTUtilsTest extends AbstractXLTTestCase
         // mocked transformer
         final Transformer transformerMock = mock(Transformer.class);
 
-        // stub transformer factory mock to return the transformer mock when
-        // newTransformer(Source) is called
+        // stub transformer factory mock to return a templates mock when
+        // newTemplates(Source) is called, which in turn returns the transformer mock
         try
         {
-            Mockito.doReturn(transformerMock).when(facMock).newTransformer((Source) ArgumentMatchers.any());
+            final Templates templatesMock = mock(Templates.class);
+            Mockito.doReturn(templatesMock).when(facMock).newTemplates((Source) ArgumentMatchers.any());
+            Mockito.doReturn(transformerMock).when(templatesMock).newTransformer();
         }
         catch (final Throwable t)
         {
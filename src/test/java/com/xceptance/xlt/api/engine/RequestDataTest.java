@@ -337,6 +337,46 @@ public class RequestDataTest extends TimerDataTest
         Assert.assertEquals(XltCharBuffer.valueOf(contentType), instance.getContentType());
     }
 
+    /**
+     * Checks that the optional values of a reused instance are reset when parsing a legacy CSV line that lacks them.
+     */
+    @Test
+    public void testFromCSV_ReusedInstanceWithLegacyLine()
+    {
+        final String fullLine = StringUtils.join(new Object[]
+            {
+                commonCSV, bytesSent, bytesReceived, responseCode, url, contentType, connectTime, sendTime, busyTime, receiveTime,
+                firstByteTime, lastByteTime, requestId, httpMethod, formDataEncoding, formData, dnsTime, ipAddresses, responseId,
+                usedIpAddresses, 80
+            }, CsvUtils.COMMA);
+        final String legacyLine = StringUtils.join(new Object[]
+            {
+                commonCSV, bytesSent, bytesReceived, responseCode, "http://localhost/legacy"
+            }, CsvUtils.COMMA);
+
+        final RequestData instance = fromCsv(fullLine);
+        Assert.assertEquals(80, instance.getTlsHandshakeTime());
+
+        // now reuse the instance
+        final List<XltCharBuffer> elements = CsvLineDecoder.parse(legacyLine);
+        instance.setBaseValues(elements);
+        instance.setRemainingValues(elements);
+
+        // validate
+        Assert.assertEquals(XltCharBuffer.valueOf("http://localhost/legacy"), instance.getUrl());
+        Assert.assertNull(instance.getContentType());
+        Assert.assertEquals(0, instance.getConnectTime());
+        Assert.assertEquals(0, instance.getTimeToLastBytes());
+        Assert.assertNull(instance.getRequestId());
+        Assert.assertNull(instance.getHttpMethod());
+        Assert.assertNull(instance.getFormData());
+        Assert.assertEquals(0, instance.getDnsTime());
+        Assert.assertNull(instance.getIpAddresses());
+        Assert.assertNull(instance.getResponseId());
+        Assert.assertNull(instance.getUsedIpAddress());
+        Assert.assertEquals(0, instance.getTlsHandshakeTime());
+    }
+
     /**
      * Tests the implementation of {@link RequestData#toCSV()}.
      * <p>
@@ -349,7 +389,7 @@ public class RequestDataTest extends TimerDataTest
         // construct CSV string
         final String csvLine = StringUtils.join(new Object[]
             {
-                commonCSV, bytesSent, bytesReceived, responseCode, "", "", 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", ""
+                commonCSV, bytesSent, bytesReceived, responseCode, "", "", 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", "", 0
             }, CsvUtils.COMMA);
 
         // read in CSV string
@@ -371,7 +411,7 @@ public class RequestDataTest extends TimerDataTest
         // construct CSV string
         final String csvLine = StringUtils.join(new Object[]
             {
-                commonCSV, bytesSent, bytesReceived, responseCode, "", contentType, 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", ""
+                commonCSV, bytesSent, bytesReceived, responseCode, "", contentType, 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", "", 0
             }, CsvUtils.COMMA);
 
         // read in CSV string
@@ -393,7 +433,7 @@ public class RequestDataTest extends TimerDataTest
         // construct CSV string
         final String csvLine = StringUtils.join(new Object[]
             {
-                commonCSV, bytesSent, bytesReceived, responseCode, url, "", 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", ""
+                commonCSV, bytesSent, bytesReceived, responseCode, url, "", 0, 0, 0, 0, 0, 0, "", "", "", "", 0, "", "", "", 0
             }, CsvUtils.COMMA);
 
         // read in CSV string
@@ -429,7 +469,7 @@ public class RequestDataTest extends TimerDataTest
         Assert.assertEquals(0, instance.getTimeToLastBytes());
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",0,0,0,0,0,0,,,,,0,,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",0,0,0,0,0,0,,,,,0,,,,0", toCsv(instance));
     }
 
     /**
@@ -452,7 +492,7 @@ public class RequestDataTest extends TimerDataTest
         validateBeforeXLT4_6_6_RequestData(instance, false);
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",,,,0,,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",,,,0,,,,0", toCsv(instance));
     }
 
     /**
@@ -475,7 +515,7 @@ public class RequestDataTest extends TimerDataTest
         validateBeforeXLT4_6_6_RequestData(instance, true);
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",0,,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",0,,,,0", toCsv(instance));
     }
 
     /**
@@ -498,7 +538,7 @@ public class RequestDataTest extends TimerDataTest
         validateXLT4_6_6_RequestData(instance, false);
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",0,,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",0,,,,0", toCsv(instance));
     }
 
     /**
@@ -521,7 +561,7 @@ public class RequestDataTest extends TimerDataTest
         validateXLT4_6_6_RequestData(instance, true);
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",0,,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",0,,,,0", toCsv(instance));
     }
 
     /**
@@ -544,7 +584,7 @@ public class RequestDataTest extends TimerDataTest
         validateXLT4_7_0_RequestData(instance);
 
         // validate output of toCSV()
-        Assert.assertEquals(csvLine + ",,,", toCsv(instance));
+        Assert.assertEquals(csvLine + ",,,,0", toCsv(instance));
     }
 
     /**
@@ -558,7 +598,39 @@ public class RequestDataTest extends TimerDataTest
         var instance = fromCsv(csvLine);
         validateXLT4_12_0_RequestData(instance);
 
-        Assert.assertEquals(csvLine + ",", toCsv(instance));
+        Assert.assertEquals(csvLine + ",,0", toCsv(instance));
+    }
+
+    /**
+     * Tests parsing and writing of request data including the TLS handshake time.
+     */
+    @Test
+    public void testParsingTlsHandshakeTime()
+    {
+        final String csvLine = getXLT4_12_0_CSVLine(true) + "," + usedIpAddresses + ",42";
+
+        var instance = fromCsv(csvLine);
+        validateXLT7_0_0_RequestData(instance);
+        Assert.assertEquals(42, instance.getTlsHandshakeTime());
+
+        Assert.assertEquals(csvLine, toCsv(instance));
+    }
+
+    /**
+     * Tests that the host parsed from the URL can be replaced with an equal instance without touching the URL.
+     */
+    @Test
+    public void testSetHost()
+    {
+        final RequestData instance = new RequestData();
+        instance.setUrl(XltCharBuffer.valueOf("https://www.example.com/path?q=1"));
+        Assert.assertEquals("www.example.com", instance.getHost().toString());
+
+        final XltCharBuffer host = XltCharBuffer.valueOf("www.example.com");
+        instance.setHost(host);
+
+        Assert.assertSame(host, instance.getHost());
+        Assert.assertEquals("https://www.example.com/path?q=1", instance.getUrl().toString());
     }
 
     /**
@@ -815,7 +887,7 @@ public class RequestDataTest extends TimerDataTest
 
         // XLT 7.0.0
         String usedIpAddress = (xltVersion < 7_00_00) ? null : this.usedIpAddresses;
-        Assert.assertEquals(usedIpAddress, instance.getUsedIpAddress());
+        Assert.assertEquals(XltCharBuffer.valueOf(usedIpAddress), instance.getUsedIpAddress());
     }
 
     /**
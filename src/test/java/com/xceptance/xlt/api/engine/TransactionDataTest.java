@@ -208,6 +208,39 @@ public class TransactionDataTest extends TimerDataTest
         Assert.assertEquals(dumpDirectoryPath, instance.getDumpDirectoryPath());
     }
 
+    /**
+     * Checks that the optional values of a reused instance are reset when parsing a CSV line that lacks them.
+     */
+    @Test
+    public void testFromCSV_ReusedInstance()
+    {
+        final List<String> elements = new ArrayList<String>();
+        elements.addAll(commonValues);
+        elements.add(stackTraceWithoutDirectoryHintEncoded);
+        elements.add(failedActionName);
+        elements.add(testUserNumber);
+        elements.add(directoryName);
+
+        var list = XltCharBufferUtil.toList(elements);
+        instance.setBaseValues(list);
+        instance.setRemainingValues(list);
+
+        // now reuse the instance for an old CSV line without the optional values
+        elements.clear();
+        elements.addAll(commonValues);
+        elements.add(stackTraceWithoutDirectoryHintEncoded);
+
+        list = XltCharBufferUtil.toList(elements);
+        instance.setBaseValues(list);
+        instance.setRemainingValues(list);
+
+        // validate
+        Assert.assertEquals(stackTraceWithoutDirectoryHint, instance.getFailureStackTrace());
+        Assert.assertNull(instance.getFailedActionName());
+        Assert.assertNull(instance.getTestUserNumber());
+        Assert.assertNull(instance.getDirectoryName());
+    }
+
     /**
      * Tests the implementation of {@link TransactionData#toCSV()}.
      */
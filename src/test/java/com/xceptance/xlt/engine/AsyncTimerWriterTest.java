@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.common.util.CsvUtils;
+
+/**
+ * Tests the {@link AsyncTimerWriter} class.
+ */
+public class AsyncTimerWriterTest
+{
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Checks that shutting down the writer writes all pending records, even if neither the flush size nor the flush
+     * interval has been reached.
+     */
+    @Test
+    public void shutdown_writesPendingRecords() throws IOException
+    {
+        final AsyncTimerWriter writer = new AsyncTimerWriter(1000, 1024 * 1024, 3_600_000, false);
+        writer.start();
+
+        final Path file = tempFolder.getRoot().toPath().resolve("timers.csv");
+        final AsyncTimerWriter.Target target = writer.createTarget(file, false);
+
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertTrue(writer.submit(target, Arrays.asList("R", "Request " + i, String.valueOf(i)), i));
+        }
+
+        writer.shutdown();
+
+        final List<String> lines = readLines(file);
+        Assert.assertEquals(100, lines.size());
+        Assert.assertEquals("R,Request 99,99", lines.get(99));
+        Assert.assertEquals(100, writer.getWrittenRecords());
+        Assert.assertEquals(0, writer.getQueueDepth());
+    }
+
+    /**
+     * Checks that records are encoded the same way as {@link CsvUtils} does, with line separators replaced.
+     */
+    @Test
+    public void submit_encodesLikeCsvUtils() throws IOException
+    {
+        final AsyncTimerWriter writer = new AsyncTimerWriter(1000, 1024, 3_600_000, false);
+        writer.start();
+
+        final Path file = tempFolder.getRoot().toPath().resolve("timers.csv");
+        final AsyncTimerWriter.Target target = writer.createTarget(file, false);
+
+        final List<String> fields = Arrays.asList("E", "a,b", "say \"hi\"", "line1\nline2\r\n", "\u00e4\u20ac\ud83d\ude00", "lone \ud800",
+                                                  "");
+        writer.submit(target, fields, 0);
+        Assert.assertTrue(writer.close(target));
+
+        final String expected = CsvUtils.encode(fields).toString().replace('\n', ' ').replace('\r', ' ').replace('\ud800', '?');
+        Assert.assertEquals(Arrays.asList(expected), readLines(file));
+
+        writer.shutdown();
+    }
+
+    /**
+     * Checks that aged data is written even if the queue never runs empty because other timer files are busy.
+     */
+    @Test
+    public void flushAged_underLoad() throws Exception
+    {
+        final AsyncTimerWriter writer = new AsyncTimerWriter(100, 1024 * 1024, 50, false);
+        writer.start();
+
+        final Path busyFile = tempFolder.getRoot().toPath().resolve("busy.csv");
+        final Path quietFile = tempFolder.getRoot().toPath().resolve("quiet.csv");
+        final AsyncTimerWriter.Target busyTarget = writer.createTarget(busyFile, false);
+        final AsyncTimerWriter.Target quietTarget = writer.createTarget(quietFile, false);
+
+        // keep the queue full
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread producer = new Thread(() -> {
+            final List<String> fields = Arrays.asList("R", "Busy", "1");
+            while (running.get())
+            {
+                writer.submit(busyTarget, fields, 0);
+            }
+        });
+        producer.start();
+
+        try
+        {
+            writer.submit(quietTarget, Arrays.asList("R", "Quiet", "1"), 0);
+
+            final long deadline = System.currentTimeMillis() + 5_000;
+            while (!Files.exists(quietFile) || Files.size(quietFile) == 0)
+            {
+                Assert.assertTrue("Aged data not written in time", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+
+            Assert.assertEquals(Arrays.asList("R,Quiet,1"), readLines(quietFile));
+        }
+        finally
+        {
+            running.set(false);
+            producer.join();
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Checks that an idle writer wakes up for new records and writes them once they have become too old, without any
+     * further activity.
+     */
+    @Test
+    public void flushAged_whenIdle() throws Exception
+    {
+        final AsyncTimerWriter writer = new AsyncTimerWriter(100, 1024 * 1024, 50, false);
+        writer.start();
+
+        final Path file = tempFolder.getRoot().toPath().resolve("timers.csv");
+        final AsyncTimerWriter.Target target = writer.createTarget(file, false);
+
+        try
+        {
+            for (int i = 1; i <= 2; i++)
+            {
+                // let the writer fall asleep
+                Thread.sleep(200);
+
+                writer.submit(target, Arrays.asList("R", "Request " + i, String.valueOf(i)), i);
+
+                final long deadline = System.currentTimeMillis() + 5_000;
+                while (!Files.exists(file) || readLines(file).size() < i)
+                {
+                    Assert.assertTrue("Aged data not written in time", System.currentTimeMillis() < deadline);
+                    Thread.sleep(10);
+                }
+            }
+
+            Assert.assertEquals(Arrays.asList("R,Request 1,1", "R,Request 2,2"), readLines(file));
+        }
+        finally
+        {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Checks that records are dropped and counted if the queue is full and dropping is enabled.
+     */
+    @Test
+    public void submit_dropsAndCountsRecordsWhenQueueIsFull() throws IOException
+    {
+        // writer thread not started yet, so nothing is taken from the queue
+        final AsyncTimerWriter writer = new AsyncTimerWriter(10, 1024, 3_600_000, true);
+
+        final Path file = tempFolder.getRoot().toPath().resolve("timers.csv");
+        final AsyncTimerWriter.Target target = writer.createTarget(file, false);
+
+        int accepted = 0;
+        for (int i = 0; i < 15; i++)
+        {
+            if (writer.submit(target, Arrays.asList("R", "Request", String.valueOf(i)), i))
+            {
+                accepted++;
+            }
+        }
+
+        Assert.assertEquals(10, accepted);
+        Assert.assertEquals(5, writer.getDroppedRecords());
+        Assert.assertEquals(10, writer.getQueueDepth());
+
+        writer.start();
+        writer.shutdown();
+
+        Assert.assertEquals(10, readLines(file).size());
+        Assert.assertEquals(5, writer.getDroppedRecords());
+
+        // records submitted after shutdown are dropped as well
+        Assert.assertFalse(writer.submit(target, Arrays.asList("R", "Request", "15"), 15));
+        Assert.assertEquals(6, writer.getDroppedRecords());
+    }
+
+    /**
+     * Checks that closing a timer file does not block if the writer is shut down concurrently.
+     */
+    @Test
+    public void close_concurrentShutdownDoesNotBlock() throws Exception
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            final AsyncTimerWriter writer = new AsyncTimerWriter(1000, 1024, 3_600_000, false);
+            writer.start();
+
+            final AsyncTimerWriter.Target target = writer.createTarget(tempFolder.getRoot().toPath().resolve("timers" + i + ".csv"),
+                                                                       false);
+            writer.submit(target, Arrays.asList("R", "Request"), 0);
+
+            final Thread shutdownThread = new Thread(writer::shutdown);
+            shutdownThread.start();
+
+            final long start = System.currentTimeMillis();
+            Assert.assertTrue(writer.close(target));
+            Assert.assertTrue(System.currentTimeMillis() - start < 5_000);
+
+            shutdownThread.join();
+        }
+    }
+
+    private static List<String> readLines(final Path file) throws IOException
+    {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+}
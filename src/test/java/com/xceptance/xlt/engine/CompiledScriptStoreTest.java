@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.lang3.StringUtils;
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.ContextFactory;
+import org.htmlunit.corejs.javascript.Script;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the implementation of {@link CompiledScriptStore} and {@link ScriptKey}.
+ */
+public class CompiledScriptStoreTest
+{
+    private static final String SOURCE = "var x = 20; function add(a, b) { return a + b; } add(x, 22);";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final ContextFactory contextFactory = new ContextFactory()
+    {
+        @Override
+        protected Context makeContext()
+        {
+            final Context cx = super.makeContext();
+            cx.setOptimizationLevel(0);
+
+            return cx;
+        }
+    };
+
+    @Test
+    public void testScriptKey()
+    {
+        final ScriptKey key = ScriptKey.of(SOURCE);
+
+        Assert.assertEquals(key, ScriptKey.of(new String(SOURCE.toCharArray())));
+        Assert.assertEquals(key.hashCode(), ScriptKey.of(new String(SOURCE.toCharArray())).hashCode());
+        Assert.assertNotEquals(key, ScriptKey.of(SOURCE + " "));
+        Assert.assertEquals(64, key.toString().length());
+
+        // sources spanning several chunks
+        final String longSource = StringUtils.repeat(SOURCE, 1000);
+        Assert.assertEquals(ScriptKey.of(longSource), ScriptKey.of(new String(longSource.toCharArray())));
+        Assert.assertNotEquals(ScriptKey.of(longSource), ScriptKey.of(longSource.replace("22", "23")));
+
+        Assert.assertEquals(ScriptKey.of(""), ScriptKey.of(""));
+    }
+
+    @Test
+    public void testScriptKey_ComputedOncePerSourceInstance()
+    {
+        final String source = new String(SOURCE.toCharArray());
+        final String equalSource = new String(SOURCE.toCharArray());
+
+        final ScriptKey key = ScriptKey.of(source);
+        Assert.assertSame(key, ScriptKey.of(source));
+
+        // another instance with the same content yields an equal key
+        Assert.assertEquals(key, ScriptKey.of(equalSource));
+    }
+
+    @Test
+    public void testCompileStoreAndLoad() throws Exception
+    {
+        final Path directory = tempFolder.getRoot().toPath().resolve("scripts");
+        final ScriptKey key = ScriptKey.of(SOURCE);
+        final Path file = directory.resolve(key + CompiledScriptStore.FILE_EXTENSION);
+
+        // compile and store
+        Assert.assertEquals(42, execute(new CompiledScriptStore(directory), key, SOURCE), 0.0);
+        Assert.assertTrue(Files.isRegularFile(file));
+
+        // load from disk with a new store, proven by a manipulated source
+        final long lastModified = Files.getLastModifiedTime(file).toMillis();
+        Assert.assertEquals(42, execute(new CompiledScriptStore(directory), key, "1"), 0.0);
+        Assert.assertEquals(lastModified, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    public void testCorruptFileIsReplaced() throws Exception
+    {
+        final Path directory = tempFolder.getRoot().toPath();
+        final ScriptKey key = ScriptKey.of(SOURCE);
+        final Path file = directory.resolve(key + CompiledScriptStore.FILE_EXTENSION);
+
+        Files.write(file, new byte[]
+            {
+                1, 2, 3
+            });
+
+        Assert.assertEquals(42, execute(new CompiledScriptStore(directory), key, SOURCE), 0.0);
+        Assert.assertTrue(Files.size(file) > 3);
+    }
+
+    @Test
+    public void testFileOfOtherStoreIsRejected() throws Exception
+    {
+        final Path directory = tempFolder.getRoot().toPath().resolve("scripts");
+        final Path otherDirectory = tempFolder.getRoot().toPath().resolve("other");
+        final ScriptKey key = ScriptKey.of(SOURCE);
+        final Path file = directory.resolve(key + CompiledScriptStore.FILE_EXTENSION);
+
+        // store a different script under the same key, but with a different secret key
+        Assert.assertEquals(41, execute(new CompiledScriptStore(otherDirectory), key, "40 + 1"), 0.0);
+        Files.createDirectories(directory);
+        Files.copy(otherDirectory.resolve(key + CompiledScriptStore.FILE_EXTENSION), file, StandardCopyOption.REPLACE_EXISTING);
+
+        // the foreign file is ignored and replaced
+        Assert.assertEquals(42, execute(new CompiledScriptStore(directory), key, SOURCE), 0.0);
+        Assert.assertEquals(42, execute(new CompiledScriptStore(directory), key, "1"), 0.0);
+    }
+
+    @Test
+    public void testDirectoryWritableByOthersIsRejected() throws Exception
+    {
+        final Path directory = tempFolder.newFolder("scripts").toPath();
+        Assume.assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        try
+        {
+            new CompiledScriptStore(directory);
+            Assert.fail("IOException expected");
+        }
+        catch (final IOException e)
+        {
+            Assert.assertFalse(Files.exists(directory.resolve(CompiledScriptStore.KEY_FILE_NAME)));
+        }
+    }
+
+    @Test
+    public void testKeyFileReadableByOthersIsRejected() throws Exception
+    {
+        final Path directory = tempFolder.getRoot().toPath().resolve("scripts");
+        Assume.assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        new CompiledScriptStore(directory);
+
+        final Path keyFile = directory.resolve(CompiledScriptStore.KEY_FILE_NAME);
+        Assert.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(keyFile)));
+
+        Files.setPosixFilePermissions(keyFile, PosixFilePermissions.fromString("rw-r--r--"));
+
+        try
+        {
+            new CompiledScriptStore(directory);
+            Assert.fail("IOException expected");
+        }
+        catch (final IOException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSyntaxError() throws Exception
+    {
+        final Path directory = tempFolder.getRoot().toPath();
+        final String source = "var x = ;";
+        final ScriptKey key = ScriptKey.of(source);
+
+        final CompiledScriptStore store = new CompiledScriptStore(directory);
+        final Script script = contextFactory.call(cx -> store.getScript(cx, key, source, "test.js", 1));
+
+        Assert.assertNull(script);
+        Assert.assertFalse(Files.exists(directory.resolve(key + CompiledScriptStore.FILE_EXTENSION)));
+    }
+
+    private double execute(final CompiledScriptStore store, final ScriptKey key, final String source)
+    {
+        return contextFactory.call(cx -> {
+            final Script script = store.getScript(cx, key, source, "test.js", 1);
+            Assert.assertNotNull(script);
+
+            final Scriptable scope = cx.initStandardObjects();
+
+            return Context.toNumber(script.exec(cx, scope));
+        });
+    }
+}
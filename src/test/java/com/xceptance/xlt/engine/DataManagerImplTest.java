@@ -17,6 +17,7 @@ package com.xceptance.xlt.engine;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -216,6 +217,51 @@ public class DataManagerImplTest
                    ));
     }
 
+    /**
+     * The time bounds of the timer file are written on close and removed while appending
+     */
+    @Test
+    public void timeBounds() throws IOException
+    {
+        var session = new TestSession("TName");
+        var dm = new DataManagerImpl(session, () -> metrics);
+
+        GlobalClock.installFixed(3000L);
+        dm.logEvent("EventName1", "M1");
+        GlobalClock.installFixed(1000L);
+        dm.logEvent("EventName2", "M2");
+        dm.close();
+
+        assertEquals("1000,3000", TimerFileBounds.read(dm.getTimerFile()).toString());
+
+        GlobalClock.installFixed(500L);
+        dm.logEvent("EventName3", "M3");
+
+        // being appended to
+        assertNull(TimerFileBounds.read(dm.getTimerFile()));
+
+        dm.close();
+        assertEquals("500,3000", TimerFileBounds.read(dm.getTimerFile()).toString());
+    }
+
+    /**
+     * No time bounds if the timer file has data of unknown time bounds already
+     */
+    @Test
+    public void timeBoundsUnknown() throws IOException
+    {
+        var session = new TestSession("TName");
+        var dm = new DataManagerImpl(session, () -> metrics);
+
+        Files.writeString(dm.getTimerFile(), "E,EventName0,100,TName,M0\n");
+
+        GlobalClock.installFixed(3000L);
+        dm.logEvent("EventName1", "M1");
+        dm.close();
+
+        assertNull(TimerFileBounds.read(dm.getTimerFile()));
+    }
+
     /**
      * We log events
      * @throws IOException
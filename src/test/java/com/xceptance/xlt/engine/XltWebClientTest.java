@@ -28,7 +28,6 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import com.xceptance.common.collection.ConcurrentLRUCache;
 import com.xceptance.xlt.AbstractXLTTestCase;
 import com.xceptance.xlt.XltMockWebConnection;
 import com.xceptance.xlt.api.actions.AbstractHtmlPageAction;
@@ -158,8 +157,8 @@ public class XltWebClientTest extends AbstractXLTTestCase
     {
         final ReversibleChangePipeline rcp = new ReversibleChangePipeline();
 
-        rcp.addAndApply("com.xceptance.xlt.js.cache.size", ConcurrentLRUCache.MIN_SIZE - 1);
-        rcp.addAndApply("com.xceptance.xlt.css.cache.size", ConcurrentLRUCache.MIN_SIZE - 1);
+        rcp.addAndApply("com.xceptance.xlt.js.cache.maxSize", 0);
+        rcp.addAndApply("com.xceptance.xlt.css.cache.maxSize", 0);
         ClassFromByteArrayLoader.getFreshlyLoadedClass(XltWebClient.class);
 
         rcp.reverseAll();
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of {@link SharedDnsCache}.
+ */
+public class SharedDnsCacheTest
+{
+    private static final String HOST = "www.example.com";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private volatile long ttl = 60;
+
+    private volatile CountDownLatch lookupLatch;
+
+    private HostNameResolver resolver;
+
+    @Before
+    public void setUp()
+    {
+        resolver = new HostNameResolver()
+        {
+            @Override
+            public InetAddress[] resolve(final String host) throws UnknownHostException
+            {
+                return resolveWithTtl(host).addresses;
+            }
+
+            @Override
+            public HostNameResolution resolveWithTtl(final String host) throws UnknownHostException
+            {
+                final int count = lookups.incrementAndGet();
+
+                if (lookupLatch != null)
+                {
+                    try
+                    {
+                        lookupLatch.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        throw new UnknownHostException(host);
+                    }
+                }
+
+                return new HostNameResolution(new InetAddress[]
+                    {
+                        InetAddress.getByAddress(host, new byte[]
+                            {
+                                10, 0, 0, (byte) count
+                            })
+                    }, ttl);
+            }
+        };
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() throws Exception
+    {
+        final SharedDnsCache cache = new SharedDnsCache(0, 300, null, now::get);
+
+        Assert.assertNull(cache.get(HOST, resolver));
+
+        final InetAddress[] addresses = cache.resolve(HOST, resolver);
+        Assert.assertArrayEquals(addresses, cache.get(HOST, resolver));
+
+        now.addAndGet(59_999);
+        Assert.assertNotNull(cache.get(HOST, resolver));
+
+        now.addAndGet(1);
+        Assert.assertNull(cache.get(HOST, resolver));
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testTtlIsClamped() throws Exception
+    {
+        final SharedDnsCache cache = new SharedDnsCache(10, 30, null, now::get);
+
+        // too long
+        cache.resolve(HOST, resolver);
+        now.addAndGet(30_000);
+        Assert.assertNull(cache.get(HOST, resolver));
+
+        // too short
+        ttl = 1;
+        cache.resolve(HOST, resolver);
+        now.addAndGet(9_999);
+        Assert.assertNotNull(cache.get(HOST, resolver));
+        now.addAndGet(1);
+        Assert.assertNull(cache.get(HOST, resolver));
+
+        // unknown
+        ttl = HostNameResolution.UNKNOWN_TTL;
+        cache.resolve(HOST, resolver);
+        now.addAndGet(29_999);
+        Assert.assertNotNull(cache.get(HOST, resolver));
+    }
+
+    @Test
+    public void testConcurrentLookupsAreCoalesced() throws Exception
+    {
+        final SharedDnsCache cache = new SharedDnsCache(0, 300, null, now::get);
+        final int threads = 8;
+
+        lookupLatch = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<InetAddress[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                results.add(executor.submit(() -> cache.resolve(HOST, resolver)));
+            }
+
+            // give the other threads the chance to join the first lookup
+            Thread.sleep(200);
+            lookupLatch.countDown();
+
+            for (final Future<InetAddress[]> result : results)
+            {
+                Assert.assertEquals("10.0.0.1", result.get()[0].getHostAddress());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testPrefetch() throws Exception
+    {
+        // run the refresh in the calling thread
+        final SharedDnsCache cache = new SharedDnsCache(0, 300, Runnable::run, now::get);
+
+        cache.resolve(HOST, resolver);
+
+        // not yet due
+        now.addAndGet(50_000);
+        Assert.assertEquals("10.0.0.1", cache.get(HOST, resolver)[0].getHostAddress());
+        Assert.assertEquals(1, lookups.get());
+
+        // due: the current entry is returned, but refreshed in the background
+        now.addAndGet(5_000);
+        Assert.assertEquals("10.0.0.1", cache.get(HOST, resolver)[0].getHostAddress());
+        Assert.assertEquals(2, lookups.get());
+
+        // the refreshed entry lives longer than the original one
+        now.addAndGet(10_000);
+        Assert.assertEquals("10.0.0.2", cache.get(HOST, resolver)[0].getHostAddress());
+    }
+
+    @Test
+    public void testPrefetchIsCoalescedWithLookups() throws Exception
+    {
+        final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final SharedDnsCache cache = new SharedDnsCache(0, 300, prefetchExecutor, now::get);
+            cache.resolve(HOST, resolver);
+
+            // trigger the refresh and keep it busy
+            lookupLatch = new CountDownLatch(1);
+            now.addAndGet(55_000);
+            Assert.assertEquals("10.0.0.1", cache.get(HOST, resolver)[0].getHostAddress());
+
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (lookups.get() < 2 && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(2, lookups.get());
+
+            // the entry expires while the refresh is still running, so a regular lookup joins the refresh
+            now.addAndGet(10_000);
+            Assert.assertNull(cache.get(HOST, resolver));
+            final Future<InetAddress[]> result = executor.submit(() -> cache.resolve(HOST, resolver));
+
+            Thread.sleep(200);
+            lookupLatch.countDown();
+
+            Assert.assertEquals("10.0.0.2", result.get()[0].getHostAddress());
+            Assert.assertEquals(2, lookups.get());
+        }
+        finally
+        {
+            lookupLatch.countDown();
+            executor.shutdownNow();
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void testFailedLookupIsNotCached() throws Exception
+    {
+        final SharedDnsCache cache = new SharedDnsCache(0, 300, null, now::get);
+
+        final HostNameResolver failingResolver = host -> {
+            throw new UnknownHostException(host);
+        };
+
+        try
+        {
+            cache.resolve(HOST, failingResolver);
+        }
+        finally
+        {
+            Assert.assertNull(cache.get(HOST, resolver));
+            Assert.assertEquals(0, cache.size());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.htmlunit.apache;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.htmlunit.WebClientOptions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests the implementation of {@link XltSSLConnectionSocketFactory}.
+ */
+public class XltSSLConnectionSocketFactoryTest
+{
+    @Test
+    public void testKey_EquivalentOptions()
+    {
+        final WebClientOptions options1 = new WebClientOptions();
+        options1.setSSLClientProtocols("TLSv1.2", "TLSv1.3");
+
+        final WebClientOptions options2 = new WebClientOptions();
+        options2.setSSLClientProtocols("TLSv1.2", "TLSv1.3");
+
+        Assert.assertEquals(XltSSLConnectionSocketFactory.getKey(options1), XltSSLConnectionSocketFactory.getKey(options2));
+    }
+
+    @Test
+    public void testKey_DifferentOptions()
+    {
+        final WebClientOptions options1 = new WebClientOptions();
+
+        final WebClientOptions options2 = new WebClientOptions();
+        options2.setUseInsecureSSL(true);
+
+        final WebClientOptions options3 = new WebClientOptions();
+        options3.setSSLClientCipherSuites("TLS_AES_128_GCM_SHA256");
+
+        Assert.assertNotEquals(XltSSLConnectionSocketFactory.getKey(options1), XltSSLConnectionSocketFactory.getKey(options2));
+        Assert.assertNotEquals(XltSSLConnectionSocketFactory.getKey(options1), XltSSLConnectionSocketFactory.getKey(options3));
+    }
+
+    @Test
+    public void testFactoryPerConnection_SameFactoryForCreateAndConnect() throws IOException
+    {
+        final List<LayeredConnectionSocketFactory> createdFactories = new ArrayList<>();
+        final XltSSLConnectionSocketFactory factory = new XltSSLConnectionSocketFactory(() -> {
+            final LayeredConnectionSocketFactory f = Mockito.mock(LayeredConnectionSocketFactory.class);
+            createdFactories.add(f);
+            return f;
+        }, true);
+
+        final HttpContext context = new BasicHttpContext();
+        final HttpHost host = new HttpHost("localhost", 443, "https");
+        final InetSocketAddress remoteAddress = new InetSocketAddress("localhost", 443);
+
+        final Socket socket = factory.createSocket(context);
+        factory.connectSocket(1000, socket, host, remoteAddress, null, context);
+
+        Assert.assertEquals(1, createdFactories.size());
+        Mockito.verify(createdFactories.get(0)).createSocket(context);
+        Mockito.verify(createdFactories.get(0)).connectSocket(1000, socket, host, remoteAddress, null, context);
+
+        // the next connection gets a new factory
+        factory.connectSocket(1000, factory.createSocket(context), host, remoteAddress, null, context);
+        Assert.assertEquals(2, createdFactories.size());
+    }
+}
@@ -112,6 +112,40 @@ public class SocketStatisticsTest
         Assert.assertEquals(0, s.getTimeToLastBytes());
     }
 
+    @Test
+    public final void testTlsHandshake()
+    {
+        final SocketMonitor mon = new SocketMonitor(MockTimerUtils.get(10000L, 10100L, 10150L, 10400L));
+        final long handshakes = SocketMonitor.getTotalTlsHandshakes();
+
+        mon.connectingStarted(); // 000
+        mon.connected(); // 100
+        mon.tlsHandshakeStarted(); // 150
+        mon.tlsHandshakeDone(); // 400
+
+        final SocketStatistics s = mon.getSocketStatistics();
+        Assert.assertEquals(100, s.getConnectTime());
+        Assert.assertEquals(250, s.getTlsHandshakeTime());
+        Assert.assertEquals(handshakes + 1, SocketMonitor.getTotalTlsHandshakes());
+
+        mon.reset();
+        Assert.assertEquals(0, mon.getSocketStatistics().getTlsHandshakeTime());
+    }
+
+    @Test
+    public final void testTlsHandshake_StartNotSignaled()
+    {
+        final SocketMonitor mon = new SocketMonitor(MockTimerUtils.get(10000L, 10100L, 10400L));
+
+        mon.connectingStarted(); // 000
+        mon.connected(); // 100
+        mon.tlsHandshakeDone(); // 400
+
+        final SocketStatistics s = mon.getSocketStatistics();
+        Assert.assertEquals(100, s.getConnectTime());
+        Assert.assertEquals(300, s.getTlsHandshakeTime());
+    }
+
     @Test
     public final void testWriting()
     {
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.engine.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.xceptance.common.util.concurrent.VirtualThreads;
+
+/**
+ * Tests the implementation of {@link TestUserThreads}.
+ */
+public class TestUserThreadsTest
+{
+    @After
+    public void tearDown()
+    {
+        TestUserThreads.exit();
+    }
+
+    @Test
+    public void testGetThreadGroup_Default()
+    {
+        assertSame(Thread.currentThread().getThreadGroup(), TestUserThreads.getThreadGroup());
+        assertSame(Thread.currentThread().getThreadGroup(), TestUserThreads.getThreadGroup(Thread.currentThread()));
+    }
+
+    @Test
+    public void testEnter_IsInheritedByChildThreads() throws Exception
+    {
+        final ThreadGroup userGroup = new ThreadGroup("TUser_1");
+        TestUserThreads.enter(userGroup);
+
+        assertSame(userGroup, TestUserThreads.getThreadGroup());
+
+        final AtomicReference<ThreadGroup> childGroup = new AtomicReference<>();
+        final Thread child = new Thread(() -> childGroup.set(TestUserThreads.getThreadGroup()));
+        child.start();
+        child.join();
+
+        assertSame(userGroup, childGroup.get());
+
+        TestUserThreads.exit();
+        assertSame(Thread.currentThread().getThreadGroup(), TestUserThreads.getThreadGroup());
+    }
+
+    @Test
+    public void testGetThreadGroup_OtherThread() throws Exception
+    {
+        final ThreadGroup userGroup = new ThreadGroup("TUser_2");
+        final Object lock = new Object();
+
+        final Thread thread = new Thread(() -> {
+            TestUserThreads.enter(userGroup);
+            try
+            {
+                synchronized (lock)
+                {
+                    lock.notifyAll();
+                    lock.wait();
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                // ignore
+            }
+            finally
+            {
+                TestUserThreads.exit();
+            }
+        });
+
+        synchronized (lock)
+        {
+            thread.start();
+            lock.wait();
+
+            // the thread is bound now
+            assertSame(userGroup, TestUserThreads.getThreadGroup(thread));
+
+            lock.notifyAll();
+        }
+
+        thread.join();
+
+        assertNull(TestUserThreads.getThreadGroup(thread));
+    }
+
+    @Test
+    public void testVirtualThreadMode_DisabledByDefault()
+    {
+        assertFalse(TestUserThreads.isVirtualThreadModeEnabled());
+
+        final Thread thread = TestUserThreads.newThread("foo", () -> {
+        });
+        assertTrue(thread.isDaemon());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testVirtualThreads_Unsupported()
+    {
+        // only meaningful for runtimes without virtual threads
+        Assume.assumeFalse(VirtualThreads.isSupported());
+
+        VirtualThreads.newThread("foo", () -> {
+        });
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.xceptance.common.util.CsvLineDecoder;
+import com.xceptance.common.util.CsvUtils;
+import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.engine.EventData;
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+import com.xceptance.xlt.engine.BinaryTimerWriter;
+
+/**
+ * Tests the round trip of data records through {@link BinaryTimerWriter} and {@link BinaryTimerReader}.
+ */
+public class BinaryTimerReaderTest
+{
+    /**
+     * The values read from the binary file must match what the CSV decoder produces for the same record.
+     */
+    @Test
+    public void roundTrip() throws IOException
+    {
+        final List<Data> records = new ArrayList<>();
+        for (int i = 0; i < 25; i++)
+        {
+            final RequestData r = new RequestData("Request-" + (i % 3));
+            r.setTime(1000L + i);
+            r.setRunTime(i * 7);
+            r.setResponseCode(i % 2 == 0 ? 200 : 500);
+            r.setUrl("https://example.com/path?q=" + i);
+            r.setContentType("text/html");
+            r.setRequestId("ID-" + i);
+            records.add(r);
+        }
+
+        final EventData e = new EventData("Event");
+        e.setTime(2000L);
+        e.setTestCaseName("TName");
+        e.setMessage("Message with, comma and \"quotes\"\nand a line break");
+        records.add(e);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final BinaryTimerWriter writer = new BinaryTimerWriter(out, 10, Long.MAX_VALUE))
+        {
+            for (final Data d : records)
+            {
+                writer.write(d);
+            }
+        }
+
+        final List<List<XltCharBuffer>> read = readAll(out.toByteArray(), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(records.size(), read.size());
+        for (int i = 0; i < records.size(); i++)
+        {
+            final String csv = CsvUtils.encode(records.get(i).toList()).toString().replace('\n', ' ');
+            final List<XltCharBuffer> expected = CsvLineDecoder.parse(csv);
+            final List<XltCharBuffer> actual = read.get(i);
+
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++)
+            {
+                assertEquals(expected.get(j).toString(), actual.get(j).toString());
+            }
+        }
+    }
+
+    /**
+     * Numbers are decoded to the very same text they were written from.
+     */
+    @Test
+    public void numbers() throws IOException
+    {
+        final long[] values =
+            {
+                0, 1, 9, 10, 99, 1023, 1024, 65_536, 999_999_999_999_999_999L, -1, -10, -1023, -1024, -999_999_999_999_999_999L
+            };
+
+        for (final long value : values)
+        {
+            assertEquals(Long.toString(value), BinaryTimerReader.toCharBuffer(value).toString());
+        }
+        assertEquals(Long.toString(Long.MIN_VALUE), BinaryTimerReader.toCharBuffer(Long.MIN_VALUE).toString());
+        assertEquals(Long.toString(Long.MAX_VALUE), BinaryTimerReader.toCharBuffer(Long.MAX_VALUE).toString());
+    }
+
+    /**
+     * Data appended by a second writer starts a new segment with its own dictionary.
+     */
+    @Test
+    public void appendedSegments() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (final BinaryTimerWriter writer = new BinaryTimerWriter(out, 10, Long.MAX_VALUE))
+        {
+            writer.write(createEvent("First", 1000L));
+        }
+        try (final BinaryTimerWriter writer = new BinaryTimerWriter(out, 10, Long.MAX_VALUE))
+        {
+            writer.write(createEvent("Second", 2000L));
+        }
+
+        final List<List<XltCharBuffer>> read = readAll(out.toByteArray(), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(2, read.size());
+        assertEquals("First", read.get(0).get(1).toString());
+        assertEquals("Second", read.get(1).get(1).toString());
+    }
+
+    /**
+     * A non-full block is written in the background once it has become too old, even if no further records arrive.
+     */
+    @Test
+    public void agedBlockIsWrittenInBackground() throws Exception
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (final BinaryTimerWriter writer = new BinaryTimerWriter(out, 10, 100))
+        {
+            writer.startAgeCheck();
+            writer.write(createEvent("First", 1000L));
+
+            final long deadline = System.currentTimeMillis() + 10_000;
+            List<List<XltCharBuffer>> read = readAll(out.toByteArray(), Long.MIN_VALUE, Long.MAX_VALUE);
+            while (read.isEmpty() && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(20);
+                read = readAll(out.toByteArray(), Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+
+            assertEquals(1, read.size());
+            assertEquals("First", read.get(0).get(1).toString());
+        }
+    }
+
+    /**
+     * Blocks outside the time window are skipped as a whole.
+     */
+    @Test
+    public void skipBlocksOutsideTimeWindow() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (final BinaryTimerWriter writer = new BinaryTimerWriter(out, 2, Long.MAX_VALUE))
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                writer.write(createEvent("Event-" + i, 1000L * (i + 1)));
+            }
+        }
+
+        try (final BinaryTimerReader reader = new BinaryTimerReader(new ByteArrayInputStream(out.toByteArray())))
+        {
+            int total = 0;
+
+            List<List<XltCharBuffer>> block;
+            while ((block = reader.readBlock(5000L, 6000L)) != null)
+            {
+                total += block.size();
+            }
+
+            // only the block holding 5000 and 6000 remains
+            assertEquals(2, total);
+            assertEquals(4, reader.getSkippedBlocks());
+            assertNull(reader.readBlock(0, Long.MAX_VALUE));
+        }
+    }
+
+    private static EventData createEvent(final String name, final long time)
+    {
+        final EventData e = new EventData(name);
+        e.setTime(time);
+        e.setTestCaseName("TName");
+        e.setMessage("Message");
+
+        return e;
+    }
+
+    private static List<List<XltCharBuffer>> readAll(final byte[] bytes, final long from, final long to) throws IOException
+    {
+        final List<List<XltCharBuffer>> result = new ArrayList<>();
+
+        try (final BinaryTimerReader reader = new BinaryTimerReader(new ByteArrayInputStream(bytes)))
+        {
+            List<List<XltCharBuffer>> block;
+            while ((block = reader.readBlock(from, to)) != null)
+            {
+                result.addAll(block);
+            }
+        }
+
+        return result;
+    }
+}
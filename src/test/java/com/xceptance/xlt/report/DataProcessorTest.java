@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.VFS;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.common.util.CsvUtils;
+import com.xceptance.common.util.zip.BlockGzipOutputStream;
+import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.engine.EventData;
+import com.xceptance.xlt.api.report.AbstractReportProvider;
+import com.xceptance.xlt.api.report.ReportProvider;
+
+/**
+ * Tests reading the results of a still running load test in several passes.
+ */
+public class DataProcessorTest
+{
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Each pass delivers only the complete lines appended since the previous pass.
+     */
+    @Test
+    public void readNewDataRecords() throws Exception
+    {
+        readNewDataRecords(new Properties());
+    }
+
+    /**
+     * Same as {@link #readNewDataRecords()}, but with memory-mapped timer files.
+     */
+    @Test
+    public void readNewDataRecordsMemoryMapped() throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty("com.xceptance.xlt.reportgenerator.reader.memoryMapped", "true");
+
+        readNewDataRecords(props);
+    }
+
+    private void readNewDataRecords(final Properties props) throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+        final File timerFile1 = new File(resultsDir, "ac001/TFoo/0/timers.csv");
+        final File timerFile2 = new File(resultsDir, "ac001/TFoo/1/timers.csv");
+
+        final CountingReportProvider provider = new CountingReportProvider();
+        final DataProcessor processor = createDataProcessor(resultsDir, props, List.of(provider));
+
+        // 3 complete lines and an incomplete one
+        append(timerFile1, line("E1") + line("E2") + line("E3") + "E,E4,");
+        assertEquals(3, processor.readNewDataRecords(false));
+        assertEquals(3, provider.count.get());
+
+        // the incomplete line was completed and a new user directory showed up
+        append(timerFile1, line("E4").substring(5) + line("E5"));
+        append(timerFile2, line("E6"));
+        assertEquals(3, processor.readNewDataRecords(false));
+        assertEquals(6, provider.count.get());
+
+        // nothing new
+        assertEquals(0, processor.readNewDataRecords(false));
+
+        // the final pass reads the remaining data, even without line terminator
+        append(timerFile2, "E,E7,1000,TFoo,Message");
+        assertEquals(1, processor.readNewDataRecords(true));
+        assertEquals(7, provider.count.get());
+        assertEquals("E7", provider.lastName);
+    }
+
+    /**
+     * With statistics workers, each report provider still sees every data record exactly once.
+     */
+    @Test
+    public void readDataRecordsWithStatisticsWorkers() throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+        {
+            sb.append(line("E" + i));
+        }
+        append(new File(resultsDir, "ac001/TFoo/0/timers.csv"), sb.toString());
+        append(new File(resultsDir, "ac001/TFoo/1/timers.csv"), sb.toString());
+
+        final Properties props = new Properties();
+        props.setProperty("com.xceptance.xlt.reportgenerator.statistics.workers", "2");
+        props.setProperty("com.xceptance.xlt.reportgenerator.queue.bucketsize", "10");
+
+        final List<CountingReportProvider> providers = List.of(new CountingReportProvider(), new CountingReportProvider(),
+                                                               new CountingReportProvider());
+        final DataProcessor processor = createDataProcessor(resultsDir, props, providers);
+        processor.readDataRecords();
+
+        for (final CountingReportProvider provider : providers)
+        {
+            assertEquals(2000, provider.count.get());
+        }
+    }
+
+    /**
+     * Block-compressed timer files are read completely.
+     */
+    @Test
+    public void readBlockCompressedTimerFile() throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+        final File timerFile = new File(resultsDir, "ac001/TFoo/0/timers.csv.gz");
+        timerFile.getParentFile().mkdirs();
+
+        try (final OutputStream out = new BlockGzipOutputStream(new FileOutputStream(timerFile), 1000))
+        {
+            for (int i = 1; i <= 1000; i++)
+            {
+                out.write(line("E" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        final CountingReportProvider provider = new CountingReportProvider();
+        final DataProcessor processor = createDataProcessor(resultsDir, new Properties(), List.of(provider));
+        processor.readDataRecords();
+
+        assertEquals(1000, provider.count.get());
+    }
+
+    /**
+     * Only the records in the report period are delivered. Timer files known to lie outside are not even read.
+     */
+    @Test
+    public void readDataRecordsInReportPeriod() throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+        append(new File(resultsDir, "ac001/TFoo/0/timers.csv"),
+               line("E1", 1000L) + line("E2", 2000L) + line("E3", 3000L) + line("\"E,4\"", 3000L) + line("E5", 4000L));
+
+        // the side file pretends the data is outside the report period
+        append(new File(resultsDir, "ac001/TFoo/1/timers.csv"), line("E6", 2500L));
+        append(new File(resultsDir, "ac001/TFoo/1/timers.csv.bounds"), "5000,6000");
+
+        final CountingReportProvider provider = new CountingReportProvider();
+        final DataProcessor processor = createDataProcessor(resultsDir, new Properties(), List.of(provider), 2000L, 3000L);
+        processor.readDataRecords();
+
+        assertEquals(3, provider.count.get());
+    }
+
+    /**
+     * Parse errors report the right line number even if lines outside the report period have been dropped before.
+     */
+    @Test
+    public void readDataRecordsInReportPeriod_parseErrorsReportRightLineNumber() throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+        append(new File(resultsDir, "ac001/TFoo/0/timers.csv"),
+               line("E1", 1000L) + line("E2", 1000L) + line("E3", 2000L) + "X,Broken\n" + line("E5", 5000L) + "X,Broken\n" +
+                   line("E7", 2000L));
+
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final AbstractAppender appender = new AbstractAppender("capture", null, null, true, Property.EMPTY_ARRAY)
+        {
+            @Override
+            public void append(final LogEvent event)
+            {
+                messages.add(event.getMessage().getFormattedMessage());
+            }
+        };
+        appender.start();
+
+        final LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        final org.apache.logging.log4j.core.Logger logger = context.getLogger(DataParserThread.class.getName());
+        logger.addAppender(appender);
+
+        try
+        {
+            final CountingReportProvider provider = new CountingReportProvider();
+            final DataProcessor processor = createDataProcessor(resultsDir, new Properties(), List.of(provider), 2000L, 3000L);
+            processor.readDataRecords();
+
+            assertEquals(2, provider.count.get());
+        }
+        finally
+        {
+            logger.removeAppender(appender);
+        }
+
+        assertEquals(messages.toString(), 2, messages.size());
+        Collections.sort(messages);
+        assertTrue(messages.get(0), messages.get(0).startsWith("Failed to parse data record at line 4 "));
+        assertTrue(messages.get(1), messages.get(1).startsWith("Failed to parse data record at line 6 "));
+    }
+
+    /**
+     * All test user directories below all agent and test case directories are read, regardless of their size, while
+     * plain files in between are ignored.
+     */
+    @Test
+    public void readDataRecordsFromManyDirectories() throws Exception
+    {
+        final File resultsDir = tempFolder.newFolder("results");
+        append(new File(resultsDir, "readme.txt"), "foo");
+
+        int expected = 0;
+        for (final String agent : List.of("ac001", "ac002"))
+        {
+            append(new File(resultsDir, agent + "/agent.log"), "foo");
+
+            for (final String testCase : List.of("TFoo", "TBar"))
+            {
+                for (int user = 0; user < 10; user++)
+                {
+                    // make the directories differ in size
+                    final StringBuilder sb = new StringBuilder();
+                    for (int i = 0; i <= user; i++)
+                    {
+                        sb.append(line("E" + i));
+                        expected++;
+                    }
+                    append(new File(resultsDir, agent + "/" + testCase + "/" + user + "/timers.csv"), sb.toString());
+                }
+            }
+        }
+
+        final CountingReportProvider provider = new CountingReportProvider();
+        final DataProcessor processor = createDataProcessor(resultsDir, new Properties(), List.of(provider));
+        processor.readDataRecords();
+
+        assertEquals(expected, provider.count.get());
+    }
+
+    private static DataProcessor createDataProcessor(final File resultsDir, final Properties props,
+                                                     final List<? extends ReportProvider> providers)
+        throws IOException
+    {
+        return createDataProcessor(resultsDir, props, providers, 0, Long.MAX_VALUE);
+    }
+
+    private static DataProcessor createDataProcessor(final File resultsDir, final Properties props,
+                                                     final List<? extends ReportProvider> providers, final long fromTime,
+                                                     final long toTime)
+        throws IOException
+    {
+        props.setProperty("com.xceptance.xlt.reportgenerator.dataRecords.E", EventData.class.getName());
+
+        final ReportGeneratorConfiguration config = new ReportGeneratorConfiguration(null, null, props);
+
+        return new DataProcessor(config, VFS.getManager().toFileObject(resultsDir), new DataRecordFactory(config.getDataRecordClasses()),
+                                 fromTime, toTime, List.copyOf(providers), null, null, null, null);
+    }
+
+    private static String line(final String name)
+    {
+        return line(name, 1000L);
+    }
+
+    private static String line(final String name, final long time)
+    {
+        final EventData e = new EventData(name);
+        e.setTime(time);
+        e.setTestCaseName("TFoo");
+        e.setMessage("Message");
+
+        return CsvUtils.encode(e.toList()) + "\n";
+    }
+
+    private static void append(final File file, final String s) throws IOException
+    {
+        FileUtils.writeStringToFile(file, s, StandardCharsets.UTF_8, true);
+    }
+
+    /**
+     * Simply counts the data records.
+     */
+    private static class CountingReportProvider extends AbstractReportProvider
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private volatile String lastName;
+
+        @Override
+        public void processDataRecord(final Data data)
+        {
+            count.incrementAndGet();
+            lastName = data.getName();
+        }
+
+        @Override
+        public Object createReportFragment()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.xceptance.xlt.api.engine.ActionData;
+import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.api.engine.TimerData;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Tests the implementation of {@link DataRecordFactory}.
+ */
+public class DataRecordFactoryTest
+{
+    private final Map<String, Class<? extends Data>> dataClasses = new HashMap<>();
+
+    private final DataRecordFactory factory;
+
+    public DataRecordFactoryTest()
+    {
+        dataClasses.put("A", ActionData.class);
+        dataClasses.put("R", RequestData.class);
+        dataClasses.put("X", CustomTimerData.class);
+
+        factory = new DataRecordFactory(dataClasses);
+    }
+
+    @Test
+    public void testCreateStatistics() throws Exception
+    {
+        final Data action = factory.createStatistics(XltCharBuffer.valueOf("A"));
+        final Data request = factory.createStatistics(XltCharBuffer.valueOf("R"));
+
+        assertTrue(action instanceof ActionData);
+        assertTrue(request instanceof RequestData);
+        assertNotSame(request, factory.createStatistics(XltCharBuffer.valueOf("R")));
+    }
+
+    @Test
+    public void testRecordPool_ReusesRecycledObjectOfSameType()
+    {
+        final DataRecordFactory.RecordPool pool = factory.createRecordPool();
+
+        final Data request = pool.createStatistics(XltCharBuffer.valueOf("R"));
+        pool.recycle(request);
+
+        // another type does not get the spare object
+        assertTrue(pool.createStatistics(XltCharBuffer.valueOf("A")) instanceof ActionData);
+
+        // the same type gets it, but only once
+        assertSame(request, pool.createStatistics(XltCharBuffer.valueOf("R")));
+        assertNotSame(request, pool.createStatistics(XltCharBuffer.valueOf("R")));
+    }
+
+    @Test
+    public void testRecordPool_IgnoresForeignObjects()
+    {
+        final DataRecordFactory.RecordPool pool = factory.createRecordPool();
+
+        // a subclass is not what the factory would create for this type code
+        final RequestData foreign = new RequestData()
+        {
+        };
+        pool.recycle(foreign);
+
+        assertNotSame(foreign, pool.createStatistics(XltCharBuffer.valueOf("R")));
+    }
+
+    @Test
+    public void testRecycle_ProcessedObjectsAreReused()
+    {
+        final DataRecordFactory recyclingFactory = new DataRecordFactory(dataClasses, true);
+        final DataRecordFactory.RecordPool pool = recyclingFactory.createRecordPool();
+
+        final Data request1 = pool.createStatistics(XltCharBuffer.valueOf("R"));
+        final Data request2 = pool.createStatistics(XltCharBuffer.valueOf("R"));
+        final Data action = pool.createStatistics(XltCharBuffer.valueOf("A"));
+        recyclingFactory.recycle(batch(request1, action, request2));
+
+        // each object is handed out once only
+        final List<Data> reused = new ArrayList<>();
+        reused.add(pool.createStatistics(XltCharBuffer.valueOf("R")));
+        reused.add(pool.createStatistics(XltCharBuffer.valueOf("R")));
+        assertTrue(reused.contains(request1));
+        assertTrue(reused.contains(request2));
+        assertNotSame(reused.get(0), reused.get(1));
+        assertSame(action, pool.createStatistics(XltCharBuffer.valueOf("A")));
+
+        assertFalse(reused.contains(pool.createStatistics(XltCharBuffer.valueOf("R"))));
+    }
+
+    @Test
+    public void testRecycle_IgnoredIfDisabled()
+    {
+        assertFalse(factory.isRecyclingEnabled());
+
+        final DataRecordFactory.RecordPool pool = factory.createRecordPool();
+        final Data request = pool.createStatistics(XltCharBuffer.valueOf("R"));
+        factory.recycle(batch(request));
+
+        assertNotSame(request, pool.createStatistics(XltCharBuffer.valueOf("R")));
+    }
+
+    @Test
+    public void testRecycle_CustomClassesAreNotReused()
+    {
+        final DataRecordFactory recyclingFactory = new DataRecordFactory(dataClasses, true);
+        final DataRecordFactory.RecordPool pool = recyclingFactory.createRecordPool();
+
+        // a custom class might not reset all of its fields when parsing
+        final Data custom = pool.createStatistics(XltCharBuffer.valueOf("X"));
+        assertTrue(custom instanceof CustomTimerData);
+        recyclingFactory.recycle(batch(custom));
+
+        assertNotSame(custom, pool.createStatistics(XltCharBuffer.valueOf("X")));
+    }
+
+    private static List<Data> batch(final Data... records)
+    {
+        return new ArrayList<>(List.of(records));
+    }
+
+    /**
+     * A custom data record class.
+     */
+    public static class CustomTimerData extends TimerData
+    {
+        public CustomTimerData()
+        {
+            super('X');
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import com.xceptance.xlt.api.engine.Data;
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.api.report.AbstractReportProvider;
+import com.xceptance.xlt.api.report.PostProcessedDataContainer;
+import com.xceptance.xlt.api.report.ReportProvider;
+
+/**
+ * Compares the throughput of the {@link StatisticsProcessor} when the parser threads feed the report providers
+ * themselves (locking mode) with the throughput when the providers are distributed over statistics workers (sharded
+ * mode), for an increasing number of parser threads. Not a unit test, run it manually:
+ *
+ * <pre>
+ * java com.xceptance.xlt.report.StatisticsProcessorBenchmark [parserThreadCounts] [providerCount]
+ * </pre>
+ *
+ * The parser thread counts default to "4,8,16,32,64", i.e. the number of cores of typical report generator machines.
+ * In sharded mode, there are as many workers as parser threads, but not more than providers.
+ */
+public class StatisticsProcessorBenchmark
+{
+    private static final int CHUNK_SIZE = 2000;
+
+    private static final int CHUNK_COUNT = 1000;
+
+    private static final int DISTINCT_CHUNKS = 16;
+
+    private static final int QUEUE_LENGTH = 100;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final String threadCounts = args.length > 0 ? args[0] : "4,8,16,32,64";
+        final int providerCount = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+
+        final List<PostProcessedDataContainer> chunks = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_CHUNKS; i++)
+        {
+            chunks.add(createChunk(i));
+        }
+
+        // warm up
+        for (int i = 0; i < 3; i++)
+        {
+            run(chunks, providerCount, 4, 0);
+            run(chunks, providerCount, 4, 4);
+        }
+
+        final double records = (double) CHUNK_SIZE * CHUNK_COUNT;
+        System.out.printf("Providers: %d, records: %,d, available processors: %d%n", providerCount, (long) records,
+                          Runtime.getRuntime().availableProcessors());
+
+        for (final String s : threadCounts.split(","))
+        {
+            final int threadCount = Integer.parseInt(s.trim());
+            final int workerCount = Math.min(threadCount, providerCount);
+
+            final long lockingTime = run(chunks, providerCount, threadCount, 0);
+            final long shardedTime = run(chunks, providerCount, threadCount, workerCount);
+
+            System.out.printf("threads: %2d  locking: %,12.0f records/s  sharded (%2d workers): %,12.0f records/s%n", threadCount,
+                              records / lockingTime * 1_000_000_000, workerCount, records / shardedTime * 1_000_000_000);
+        }
+    }
+
+    /**
+     * Feeds all chunks to a new statistics processor using the given number of parser threads and returns the time
+     * taken [ns].
+     */
+    private static long run(final List<PostProcessedDataContainer> chunks, final int providerCount, final int threadCount,
+                            final int workerCount)
+        throws Exception
+    {
+        final List<ReportProvider> providers = new ArrayList<>();
+        for (int i = 0; i < providerCount; i++)
+        {
+            providers.add(new CountingReportProvider());
+        }
+
+        final StatisticsProcessor processor = new StatisticsProcessor(providers, workerCount, QUEUE_LENGTH);
+        final CountDownLatch done = new CountDownLatch(CHUNK_COUNT);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++)
+        {
+            final int first = t;
+            threads.add(new Thread(() -> {
+                try
+                {
+                    for (int c = first; c < CHUNK_COUNT; c += threadCount)
+                    {
+                        processor.process(chunks.get(c % chunks.size()), done::countDown);
+                    }
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        final long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        done.await();
+        final long time = System.nanoTime() - start;
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+        processor.shutdown();
+
+        // check that nothing got lost
+        for (final ReportProvider provider : providers)
+        {
+            if (((CountingReportProvider) provider).count != (long) CHUNK_COUNT * CHUNK_SIZE)
+            {
+                throw new IllegalStateException("Records lost");
+            }
+        }
+
+        return time;
+    }
+
+    private static PostProcessedDataContainer createChunk(final long seed)
+    {
+        final Random random = new Random(seed);
+
+        final PostProcessedDataContainer chunk = new PostProcessedDataContainer(CHUNK_SIZE, 1);
+        for (int i = 0; i < CHUNK_SIZE; i++)
+        {
+            final RequestData request = new RequestData("Request" + random.nextInt(200));
+            request.setTime(1_000_000L + random.nextInt(3_600_000));
+            request.setRunTime(random.nextInt(5000));
+            request.setResponseCode(random.nextInt(10) == 0 ? 500 : 200);
+            chunk.add(request);
+        }
+
+        return chunk;
+    }
+
+    /**
+     * A report provider that does a typical amount of work per data record: look up the statistics for the record's
+     * name and update them.
+     */
+    private static class CountingReportProvider extends AbstractReportProvider
+    {
+        private final Map<String, long[]> statistics = new HashMap<>();
+
+        private long count;
+
+        @Override
+        public void processDataRecord(final Data data)
+        {
+            final RequestData request = (RequestData) data;
+            final long[] values = statistics.computeIfAbsent(request.getName(), k -> new long[4]);
+
+            values[0]++;
+            values[1] += request.getRunTime();
+            values[2] = Math.max(values[2], request.getRunTime());
+            if (request.getResponseCode() >= 500)
+            {
+                values[3]++;
+            }
+
+            count++;
+        }
+
+        @Override
+        public Object createReportFragment()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.xlt.common.XltConstants;
+import com.xceptance.xlt.report.providers.ErrorReport;
+import com.xceptance.xlt.report.providers.ErrorsReport;
+import com.xceptance.xlt.report.providers.GeneralReport;
+import com.xceptance.xlt.report.providers.RequestReport;
+import com.xceptance.xlt.report.providers.RequestsReport;
+
+/**
+ * Tests the {@link XmlReportGenerator} class.
+ */
+public class XmlReportGeneratorTest
+{
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Checks that streaming the fragments produces exactly the same XML as serializing the whole test report at once.
+     */
+    @Test
+    public void createReport_sameOutputAsTestReport() throws Exception
+    {
+        final GeneralReport general = new GeneralReport();
+        general.hits = 123;
+        general.startTime = new Date(1_000_000_000_000L);
+        general.endTime = new Date(1_000_003_600_000L);
+
+        final RequestsReport requests = new RequestsReport();
+        for (int i = 0; i < 3; i++)
+        {
+            final RequestReport request = new RequestReport();
+            request.name = "Request <" + i + "> & more";
+            request.count = i;
+            request.mean = new BigDecimal("1.5");
+            request.percentiles.put("p50", new BigDecimal(i));
+            requests.requests.add(request);
+        }
+
+        final ErrorsReport errors = new ErrorsReport();
+        final ErrorReport error = new ErrorReport();
+        error.message = "Invalid char \u0001 removed";
+        error.trace = "at foo()\n\tat bar()";
+        error.directoryHints.add("ac0001/TOrder/1234");
+        errors.errors.add(error);
+
+        final XmlReportGenerator generator = new XmlReportGenerator();
+        generator.registerStatisticsProvider(() -> general);
+        generator.registerStatisticsProvider(() -> null);
+        generator.registerStatisticsProvider(() -> {
+            throw new IllegalStateException("failure");
+        });
+        generator.registerStatisticsProvider(() -> requests);
+        generator.registerStatisticsProvider(() -> errors);
+
+        final File xmlFile = tempFolder.newFile();
+        generator.createReport(xmlFile);
+
+        // serialize the same fragments the old way
+        final TestReport testReport = new TestReport();
+        testReport.addReportFragment(general);
+        testReport.addReportFragment(requests);
+        testReport.addReportFragment(errors);
+
+        final StringWriter expected = new StringWriter();
+        expected.write(XltConstants.XML_HEADER);
+        XmlReportGenerator.createXStream().toXML(testReport, expected);
+
+        final String actual = new String(Files.readAllBytes(xmlFile.toPath()), StandardCharsets.UTF_8);
+
+        Assert.assertEquals(expected.toString(), actual);
+        Assert.assertTrue(actual, actual.contains("<name>Request &lt;1&gt; &amp; more</name>"));
+        Assert.assertFalse(actual, actual.contains("class="));
+        Assert.assertFalse(actual, actual.contains("\u0001"));
+    }
+
+    /**
+     * Checks the output if there are no fragments at all.
+     */
+    @Test
+    public void createReport_noFragments() throws Exception
+    {
+        final File xmlFile = tempFolder.newFile();
+        new XmlReportGenerator().createReport(xmlFile);
+
+        final String actual = new String(Files.readAllBytes(xmlFile.toPath()), StandardCharsets.UTF_8);
+
+        Assert.assertEquals(XltConstants.XML_HEADER + "<testreport/>", actual);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.criteria;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.jaxen.dom.DOMXPath;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+
+/**
+ * Tests {@link CheckCriteriaMain}.
+ */
+public class CheckCriteriaMainTest
+{
+    private static final String REPORT = "<testreport>" + //
+                                         "<summary><requests><count>120</count><errors>0</errors><mean>42.5</mean></requests></summary>" + //
+                                         "<requests>" + //
+                                         "<request><name>Homepage</name><count>100</count><errors>0</errors></request>" + //
+                                         "<request><name>Search</name><count>20</count><errors>3</errors></request>" + //
+                                         "</requests>" + //
+                                         "</testreport>";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Checks that passing, failing, and disabled criteria are reported as such.
+     */
+    @Test
+    public void testPassedFailedSkipped() throws Exception
+    {
+        final Map<String, String> conditions = new LinkedHashMap<>();
+        conditions.put("passed", "/testreport/summary/requests/errors = 0");
+        conditions.put("failed", "/testreport/summary/requests/count > 1000");
+
+        final JSONObject json = check(conditions, "disabled", false);
+
+        final JSONObject details = getDetails(json);
+        Assert.assertEquals("passed", details.getJSONObject("passed").getString("status"));
+        Assert.assertEquals("failed", details.getJSONObject("failed").getString("status"));
+        Assert.assertEquals("Condition failed", details.getJSONObject("failed").getString("message"));
+        Assert.assertEquals("skipped", details.getJSONObject("disabled").getString("status"));
+    }
+
+    /**
+     * Checks that conditions with a non-boolean result are reported as errors.
+     */
+    @Test
+    public void testNonBooleanResult() throws Exception
+    {
+        final Map<String, String> conditions = new LinkedHashMap<>();
+        conditions.put("nodeSet", "/testreport/requests/request");
+        conditions.put("emptyNodeSet", "/testreport/doesNotExist");
+        conditions.put("number", "count(/testreport/requests/request)");
+        conditions.put("string", "'true'");
+
+        final JSONObject details = getDetails(check(conditions, null, true));
+
+        for (final String id : conditions.keySet())
+        {
+            final JSONObject result = details.getJSONObject(id);
+            Assert.assertEquals(id, "error", result.getString("status"));
+            Assert.assertEquals(id, "Failed to evaluate expression '" + conditions.get(id) + "' as boolean", result.getString("message"));
+        }
+    }
+
+    /**
+     * Checks that invalid expressions are reported as errors, without affecting the other criteria.
+     */
+    @Test
+    public void testInvalidExpression() throws Exception
+    {
+        final Map<String, String> conditions = new LinkedHashMap<>();
+        conditions.put("invalid", "/testreport/requests/request[");
+        conditions.put("unknownFunction", "foo(/testreport) = 1");
+        conditions.put("valid", "true()");
+
+        final JSONObject details = getDetails(check(conditions, null, true));
+
+        for (final String id : new String[]
+            {
+                "invalid", "unknownFunction"
+            })
+        {
+            final JSONObject result = details.getJSONObject(id);
+            Assert.assertEquals(id, "error", result.getString("status"));
+            Assert.assertTrue(id, result.getString("message").startsWith("Failed to evaluate expression '" + conditions.get(id) + "': "));
+        }
+        Assert.assertEquals("passed", details.getJSONObject("valid").getString("status"));
+    }
+
+    /**
+     * Checks that the XPath 1.0 type coercions accepted by the former engine (Jaxen) still give the same results.
+     */
+    @Test
+    public void testXPath10Coercions() throws Exception
+    {
+        final Map<String, String> conditions = new LinkedHashMap<>();
+
+        // node-set compared to a number: true if any node matches
+        conditions.put("nodeSetEqualsNumber", "/testreport/requests/request/errors = 3");
+        conditions.put("nodeSetNotEqualsNumber", "/testreport/requests/request/errors != 0");
+        conditions.put("nodeSetGreaterThanNumber", "/testreport/requests/request/count > 50");
+
+        // relational and number comparisons with strings: the strings are converted to numbers
+        conditions.put("numberEqualsString", "count(/testreport/requests/request) = '2'");
+        conditions.put("stringLessThanString", "'9' < '10'");
+
+        // arithmetic on strings and node-sets: the first node is used
+        conditions.put("stringArithmetic", "'5' + 1 = 6");
+        conditions.put("nodeSetArithmetic", "/testreport/requests/request/count * 2 = 200");
+        conditions.put("decimalText", "/testreport/summary/requests/mean div 2 = 21.25");
+
+        // missing nodes: NaN in arithmetic, empty string in string functions, false in comparisons
+        conditions.put("missingNodeArithmetic", "not(/testreport/missing + 1 > 0)");
+        conditions.put("missingNodeComparison", "not(/testreport/missing = 0) and not(/testreport/missing != 0)");
+        conditions.put("missingNodeString", "string-length(/testreport/missing) = 0");
+
+        // boolean conversions of node-sets, numbers, and strings
+        conditions.put("nodeSetAsBoolean", "boolean(/testreport/requests/request) and not(/testreport/missing)");
+        conditions.put("numberAsBoolean", "boolean(1) and not(boolean(0))");
+        conditions.put("stringAsBoolean", "boolean('false') and not(boolean(''))");
+        conditions.put("booleanEqualsNodeSet", "true() = /testreport/requests/request");
+
+        // string functions on node-sets use the first node
+        conditions.put("stringOfNodeSet", "string(/testreport/requests/request/name) = 'Homepage'");
+        conditions.put("containsNodeSet", "contains(/testreport/requests/request/name, 'Home')");
+
+        final Document dom = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                                                   .parse(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+
+        final JSONObject details = getDetails(check(conditions, null, true));
+
+        for (final Map.Entry<String, String> entry : conditions.entrySet())
+        {
+            // all the conditions above are true, and the former engine agrees
+            Assert.assertEquals(entry.getKey(), Boolean.TRUE, new DOMXPath(entry.getValue()).evaluate(dom));
+            Assert.assertEquals(entry.getKey(), "passed", details.getJSONObject(entry.getKey()).getString("status"));
+        }
+    }
+
+    /**
+     * Checks the given conditions against the test report.
+     *
+     * @param conditions
+     *            the conditions keyed by criterion ID
+     * @param disabledId
+     *            the ID of an additional disabled criterion, may be <code>null</code>
+     * @param expectedOutcome
+     *            whether all criteria are expected to pass
+     * @return the JSON output
+     */
+    private JSONObject check(final Map<String, String> conditions, final String disabledId, final boolean expectedOutcome)
+        throws Exception
+    {
+        final JSONArray criteria = new JSONArray();
+        for (final Map.Entry<String, String> entry : conditions.entrySet())
+        {
+            criteria.put(new JSONObject().put("id", entry.getKey()).put("condition", entry.getValue()));
+        }
+        if (disabledId != null)
+        {
+            criteria.put(new JSONObject().put("id", disabledId).put("condition", "false()").put("enabled", false));
+        }
+
+        final File reportFile = write("testreport.xml", REPORT);
+        final File criteriaFile = write("criteria.json", new JSONObject().put("criteria", criteria).toString());
+        final File outFile = new File(tempFolder.getRoot(), "out.json");
+
+        final CheckCriteriaMain main = new CheckCriteriaMain();
+        main.init(new String[]
+            {
+                "-c", criteriaFile.getPath(), "-o", outFile.getPath(), reportFile.getPath()
+            });
+
+        final boolean passed = main.run();
+
+        final JSONObject json = new JSONObject(new String(Files.readAllBytes(outFile.toPath()), StandardCharsets.UTF_8));
+        Assert.assertEquals(expectedOutcome && !hasFailures(json), passed);
+
+        return json;
+    }
+
+    private static boolean hasFailures(final JSONObject json)
+    {
+        final JSONObject totals = json.getJSONArray("checks").getJSONObject(0).getJSONObject("totals");
+
+        return totals.getInt("failed") > 0 || totals.getInt("error") > 0;
+    }
+
+    private static JSONObject getDetails(final JSONObject json)
+    {
+        return json.getJSONArray("checks").getJSONObject(0).getJSONObject("details");
+    }
+
+    private File write(final String fileName, final String content) throws IOException
+    {
+        final File file = new File(tempFolder.getRoot(), fileName);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        return file;
+    }
+}
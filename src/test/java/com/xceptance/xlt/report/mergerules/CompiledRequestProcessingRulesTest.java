@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.report.mergerules.RequestProcessingRule.ReturnState;
+
+/**
+ * Tests that {@link CompiledRequestProcessingRules} yields the same results as applying the rules one after the other.
+ */
+public class CompiledRequestProcessingRulesTest
+{
+    @Test
+    public void sameResultsAsSequentialProcessing() throws Exception
+    {
+        sameResultsAsSequentialProcessing(new CompiledRequestProcessingRules(createRules()));
+    }
+
+    /**
+     * Two instances sharing their match caches, used alternately as if by two threads.
+     */
+    @Test
+    public void sameResultsAsSequentialProcessingWithSharedCaches() throws Exception
+    {
+        final RequestFilterMatchCaches matchCaches = new RequestFilterMatchCaches(1024 * 1024, 0.3);
+
+        sameResultsAsSequentialProcessing(new CompiledRequestProcessingRules(createRules(), matchCaches));
+        sameResultsAsSequentialProcessing(new CompiledRequestProcessingRules(createRules(), matchCaches));
+    }
+
+    private void sameResultsAsSequentialProcessing(final CompiledRequestProcessingRules compiled) throws Exception
+    {
+        final List<RequestProcessingRule> sequential = createRules();
+
+        for (int i = 0; i < 5000; i++)
+        {
+            // two identical requests
+            final RequestData request1 = createRequest(new Random(i));
+            final RequestData request2 = createRequest(new Random(i));
+            final String description = request1.getName() + " " + request1.getUrl() + " " + request1.getContentType();
+
+            final RequestData expected = processSequentially(sequential, request1);
+            final RequestData actual = compiled.process(request2);
+
+            if (expected == null)
+            {
+                assertNull(description, actual);
+            }
+            else
+            {
+                assertEquals(description, expected.getName(), actual.getName());
+            }
+        }
+    }
+
+    @Test
+    public void dropRequest() throws Exception
+    {
+        final List<RequestProcessingRule> rules = new ArrayList<>();
+        rules.add(createRule("{n}", "", "/static/", "", false, "", false));
+        rules.add(createRule("", "", "\\.css$", "", false, "", true));
+
+        final CompiledRequestProcessingRules compiled = new CompiledRequestProcessingRules(rules);
+
+        final RequestData request = new RequestData("Styles");
+        request.setUrl("https://example.com/static/main.css");
+        assertNull(compiled.process(request));
+
+        request.setUrl("https://example.com/static/main.js");
+        assertEquals("Styles", compiled.process(request).getName());
+    }
+
+    /**
+     * Later rules must see the name as changed by earlier rules.
+     */
+    @Test
+    public void renamingIsVisibleToLaterRules() throws Exception
+    {
+        final List<RequestProcessingRule> rules = new ArrayList<>();
+        rules.add(createRule("{n} [{u:1}]", "^Product$", "/p/(\\w+)", "", false, "", false));
+        rules.add(createRule("{n} (short)", "^Product \\[", "/p/", "", true, "", false));
+        rules.add(createRule("never", "^Product$", "/p/", "", false, "", false));
+
+        final CompiledRequestProcessingRules compiled = new CompiledRequestProcessingRules(rules);
+
+        final RequestData request = new RequestData("Product");
+        request.setUrl("https://example.com/p/shoes");
+
+        assertEquals("Product [shoes] (short)", compiled.process(request).getName());
+    }
+
+    private static RequestData processSequentially(final List<RequestProcessingRule> rules, final RequestData requestData)
+    {
+        final String originalName = requestData.getName();
+
+        for (final RequestProcessingRule rule : rules)
+        {
+            try
+            {
+                final ReturnState state = rule.process(requestData);
+                if (state == ReturnState.DROP)
+                {
+                    return null;
+                }
+                else if (state == ReturnState.STOP)
+                {
+                    break;
+                }
+            }
+            catch (final Throwable t)
+            {
+                requestData.setName(originalName);
+                break;
+            }
+        }
+
+        return requestData;
+    }
+
+    private static List<RequestProcessingRule> createRules() throws Exception
+    {
+        final List<RequestProcessingRule> rules = new ArrayList<>();
+
+        rules.add(createRule("", "", "/static/.*\\.(png|gif)$", "", false, "", true));
+        rules.add(createRule("{n} ({c})", "^(Homepage|Search)$", "", "", false, "", false));
+        rules.add(createRule("{n} <{u:1}>", "^Product", "/p/(\\w+)", "", false, "/p/hidden", false));
+        rules.add(createRule("{n} [cart]", "", "/cart(/|$)", "", false, "", false));
+        rules.add(createRule("{n} [cart]", "\\(text/html\\)", "/cart(/|$)", "", false, "", false));
+        rules.add(createRule("{n} [ajax]", "", "/ajax/", "json", false, "", false));
+        rules.add(createRule("{n} [{s}]", "", "", "json", false, "", false));
+        rules.add(createRule("Checkout {u:1}", "", "/checkout/(\\w+)", "", true, "", false));
+        rules.add(createRule("{n} - {u:1}", "", "/p/(\\w+)", "", false, "", false));
+        rules.add(createRule("{n}!", "\\[ajax\\]", "/ajax/", "", true, "", false));
+
+        return rules;
+    }
+
+    private static RequestProcessingRule createRule(final String newName, final String namePattern, final String urlPattern,
+                                                    final String contentTypePattern, final boolean stopOnMatch,
+                                                    final String urlExcludePattern, final boolean dropOnMatch)
+        throws Exception
+    {
+        return new RequestProcessingRule(newName, namePattern, urlPattern, contentTypePattern, "", "", "", "", "", stopOnMatch, "",
+                                         urlExcludePattern, "", "", "", "", "", dropOnMatch);
+    }
+
+    private static RequestData createRequest(final Random random)
+    {
+        final String[] names = new String[]
+            {
+                "Homepage", "Search", "Product", "ProductDetails", "Cart", "Checkout", "Ajax"
+            };
+        final String[] paths = new String[]
+            {
+                "/", "/search?q=x", "/p/shoes", "/p/hidden", "/p/shirts", "/cart", "/cart/add", "/checkout/address",
+                "/checkout/payment", "/ajax/suggest", "/static/logo.png", "/static/main.css"
+            };
+        final String[] contentTypes = new String[]
+            {
+                "text/html", "application/json", "image/png", "text/css"
+            };
+
+        final RequestData request = new RequestData(names[random.nextInt(names.length)]);
+        request.setUrl("https://example.com" + paths[random.nextInt(paths.length)]);
+        request.setContentType(contentTypes[random.nextInt(contentTypes.length)]);
+        request.setResponseCode(random.nextBoolean() ? 200 : 404);
+
+        return request;
+    }
+}
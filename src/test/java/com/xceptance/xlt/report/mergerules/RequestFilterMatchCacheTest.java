@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.xceptance.common.collection.ConcurrentWeightedCache;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Tests the implementation of {@link RequestFilterMatchCache}.
+ */
+public class RequestFilterMatchCacheTest
+{
+    private static final MatchResult RESULT = Pattern.compile("b").matcher("abc").results().findFirst().get();
+
+    @Test
+    public void keysAreCopied()
+    {
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(1024 * 1024, 0.3);
+
+        final char[] chars = "https://example.com/".toCharArray();
+        final XltCharBuffer text = new XltCharBuffer(chars);
+
+        assertTrue(cache.isActive(text));
+        assertNull(cache.get(text));
+        cache.put(text, RESULT);
+
+        // recycle the buffer
+        chars[8] = 'X';
+
+        assertSame(RESULT, cache.get(XltCharBuffer.valueOf("https://example.com/")));
+        assertNull(cache.get(text));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void bypassedIfHitRateTooLow()
+    {
+        final ConcurrentWeightedCache<RequestFilterMatchCache.Key, MatchResult> store = new ConcurrentWeightedCache<>(16 * 1024 * 1024);
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(store, 0.3);
+        final RequestFilterMatchCache otherCache = new RequestFilterMatchCache(store, 0.3);
+
+        // another filter has cached something
+        otherCache.put("/p/0", RESULT);
+
+        // unique texts only
+        int i = 0;
+        while (cache.getBypassed() == 0)
+        {
+            final String text = "/p/" + i++;
+            if (cache.isActive(text))
+            {
+                assertNull(cache.get(text));
+                cache.put(text, RESULT);
+            }
+        }
+
+        assertEquals(RequestFilterMatchCache.SAMPLE_SIZE, i);
+
+        // only the entries of the bypassed cache are gone
+        assertEquals(1, store.size());
+        assertSame(RESULT, otherCache.get("/p/0"));
+
+        // bypassed for a while
+        for (int j = 1; j < RequestFilterMatchCache.BYPASS_SIZE; j++)
+        {
+            assertFalse(cache.isActive("/p/0"));
+        }
+
+        // and then given another chance
+        assertTrue(cache.isActive("/p/0"));
+        assertEquals(RequestFilterMatchCache.BYPASS_SIZE, cache.getBypassed());
+    }
+
+    @Test
+    public void notBypassedIfHitRateHighEnough()
+    {
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(1024 * 1024, 0.3);
+
+        for (int i = 0; i < 3 * RequestFilterMatchCache.SAMPLE_SIZE; i++)
+        {
+            final String text = "/p/" + (i % 10);
+
+            assertTrue(cache.isActive(text));
+            if (cache.get(text) == null)
+            {
+                cache.put(text, RESULT);
+            }
+        }
+
+        assertEquals(0, cache.getBypassed());
+        assertEquals(10, cache.getMisses());
+        assertNotNull(cache.get("/p/1"));
+    }
+
+    @Test
+    public void cachesSharingAStoreAreSeparated()
+    {
+        final ConcurrentWeightedCache<RequestFilterMatchCache.Key, MatchResult> store = new ConcurrentWeightedCache<>(1024 * 1024);
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(store, 0.3);
+        final RequestFilterMatchCache otherCache = new RequestFilterMatchCache(store, 0.3);
+
+        cache.put("/p/0", RESULT);
+
+        assertSame(RESULT, cache.get("/p/0"));
+        assertNull(otherCache.get("/p/0"));
+    }
+
+    @Test
+    public void boundedByMemoryFootprint()
+    {
+        final ConcurrentWeightedCache<RequestFilterMatchCache.Key, MatchResult> store = new ConcurrentWeightedCache<>(100 * 1024);
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(store, 0.3);
+        final RequestFilterMatchCache otherCache = new RequestFilterMatchCache(store, 0.3);
+
+        // long texts in two caches, together much more than the budget
+        final String prefix = "x".repeat(RequestFilterMatchCache.MAX_TEXT_LENGTH - 10);
+        for (int i = 0; i < 1000; i++)
+        {
+            cache.put(prefix + i, RESULT);
+            otherCache.put(prefix + i, RESULT);
+        }
+
+        assertTrue(store.weight() <= store.getMaxWeight());
+        assertTrue(store.size() < 100);
+    }
+
+    @Test
+    public void longTextsAreNotCached()
+    {
+        final RequestFilterMatchCache cache = new RequestFilterMatchCache(1024 * 1024, 0.3);
+
+        assertFalse(cache.isActive("x".repeat(RequestFilterMatchCache.MAX_TEXT_LENGTH + 1)));
+        assertTrue(cache.isActive("x".repeat(RequestFilterMatchCache.MAX_TEXT_LENGTH)));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.mergerules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.report.mergerules.RequestProcessingRule.ReturnState;
+
+/**
+ * Compares the throughput of processing request merge rules one after the other with the throughput of
+ * {@link CompiledRequestProcessingRules}. Not a unit test, run it manually:
+ *
+ * <pre>
+ * java com.xceptance.xlt.report.mergerules.RequestProcessingRulesBenchmark [ruleCount]
+ * </pre>
+ */
+public class RequestProcessingRulesBenchmark
+{
+    private static final int REQUEST_COUNT = 50_000;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int ruleCount = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+
+        final List<RequestData[]> requestSets = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            requestSets.add(createRequests(2 * ROUNDS + round));
+        }
+
+        final List<RequestProcessingRule> sequential = createRules(ruleCount);
+        final CompiledRequestProcessingRules compiled = new CompiledRequestProcessingRules(createRules(ruleCount));
+
+        // warm up
+        for (int i = 0; i < 3; i++)
+        {
+            runSequential(sequential, createRequests(i));
+            runCompiled(compiled, createRequests(ROUNDS + i));
+        }
+
+        long sequentialTime = 0;
+        long compiledTime = 0;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            final RequestData[] requests = requestSets.get(round);
+            final RequestData[] copy = createRequests(2 * ROUNDS + round);
+
+            long start = System.nanoTime();
+            final int sequentialDropped = runSequential(sequential, requests);
+            sequentialTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final int compiledDropped = runCompiled(compiled, copy);
+            compiledTime += System.nanoTime() - start;
+
+            if (sequentialDropped != compiledDropped)
+            {
+                throw new IllegalStateException("Different results");
+            }
+        }
+
+        final double requests = (double) REQUEST_COUNT * ROUNDS;
+        System.out.printf("Rules: %d, requests: %,d%n", ruleCount, (long) requests);
+        System.out.printf("sequential: %,.0f requests/s%n", requests / sequentialTime * 1_000_000_000);
+        System.out.printf("compiled:   %,.0f requests/s%n", requests / compiledTime * 1_000_000_000);
+    }
+
+    private static int runSequential(final List<RequestProcessingRule> rules, final RequestData[] requests)
+    {
+        int dropped = 0;
+        for (final RequestData request : requests)
+        {
+            for (final RequestProcessingRule rule : rules)
+            {
+                final ReturnState state = rule.process(request);
+                if (state == ReturnState.DROP)
+                {
+                    dropped++;
+                    break;
+                }
+                else if (state == ReturnState.STOP)
+                {
+                    break;
+                }
+            }
+        }
+
+        return dropped;
+    }
+
+    private static int runCompiled(final CompiledRequestProcessingRules rules, final RequestData[] requests)
+    {
+        int dropped = 0;
+        for (final RequestData request : requests)
+        {
+            if (rules.process(request) == null)
+            {
+                dropped++;
+            }
+        }
+
+        return dropped;
+    }
+
+    /**
+     * Creates rules that resemble those of a typical shop project: many rules per page type with the same URL pattern,
+     * distinguished by further criteria.
+     */
+    private static List<RequestProcessingRule> createRules(final int ruleCount) throws Exception
+    {
+        final String[] contentTypes = new String[]
+            {
+                "", "text/html", "json", "javascript", "image/"
+            };
+
+        final List<RequestProcessingRule> rules = new ArrayList<>();
+        rules.add(new RequestProcessingRule("", "", "\\.(png|gif|jpg)$", "", "", "", "", "", "", false, "", "", "", "", "", "", "", true));
+
+        for (int i = 1; i < ruleCount; i++)
+        {
+            final int page = i / contentTypes.length;
+            final String contentType = contentTypes[i % contentTypes.length];
+
+            rules.add(new RequestProcessingRule("{n} [page" + page + "]", "", "/page" + page + "/(\\w+)", contentType, "", "", "", "", "",
+                                                i % 7 == 0, "", "", "", "", "", "", "", false));
+        }
+
+        return rules;
+    }
+
+    private static RequestData[] createRequests(final long seed)
+    {
+        final Random random = new Random(seed);
+        final String[] contentTypes = new String[]
+            {
+                "text/html", "application/json", "application/javascript", "image/png"
+            };
+
+        final RequestData[] requests = new RequestData[REQUEST_COUNT];
+        for (int i = 0; i < requests.length; i++)
+        {
+            final RequestData request = new RequestData("Request" + random.nextInt(20));
+            request.setUrl("https://shop.example.com/page" + random.nextInt(40) + "/item" + random.nextInt(500) + "?id=" + random.nextInt());
+            request.setContentType(contentTypes[random.nextInt(contentTypes.length)]);
+            requests[i] = request;
+        }
+
+        return requests;
+    }
+}
@@ -19,7 +19,7 @@ import java.io.File;
 
 import com.xceptance.common.lang.ReflectionUtils;
 import com.xceptance.xlt.report.util.IntMinMaxValueSet;
-import com.xceptance.xlt.report.util.RuntimeHistogram;
+import com.xceptance.xlt.report.util.LogLinearHistogram;
 import com.xceptance.xlt.report.util.IntSummaryStatistics;
 import com.xceptance.xlt.report.util.ValueSet;
 
@@ -79,7 +79,7 @@ public class Proxy
     /**
      * @return the runTimeHistogram
      */
-    public RuntimeHistogram getRunTimeHistogram()
+    public LogLinearHistogram getRunTimeHistogram()
     {
         return ReflectionUtils.readField(BasicTimerDataProcessor.class, instance, "runTimeHistogram");
     }
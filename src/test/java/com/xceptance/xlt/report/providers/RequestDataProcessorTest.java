@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.providers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.thoughtworks.xstream.XStream;
+import com.xceptance.xlt.api.engine.RequestData;
+import com.xceptance.xlt.api.util.XltCharBuffer;
+import com.xceptance.xlt.report.ReportGeneratorConfiguration;
+
+/**
+ * Tests merging the state of {@link RequestDataProcessor} instances, both directly and via snapshots.
+ */
+public class RequestDataProcessorTest
+{
+    private static final String TIMER_NAME = "Homepage";
+
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    private static final int RECORD_COUNT = 5_000;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private RequestsReportProvider provider;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        final Properties properties = new Properties();
+        properties.setProperty("com.xceptance.xlt.reportgenerator.runtimeIntervalBoundaries", "100, 500, 1000");
+
+        final ReportGeneratorConfiguration config = new ReportGeneratorConfiguration(null, null, properties);
+        config.setReportDirectory(tempFolder.getRoot());
+        config.setChartStartTime(START_TIME);
+        config.setChartEndTime(START_TIME + RECORD_COUNT * 100L);
+        config.disableChartsGeneration();
+
+        provider = new RequestsReportProvider();
+        provider.setConfiguration(config);
+    }
+
+    /**
+     * Checks that merging two processors that each saw a part of the data yields the same report as a single processor
+     * that saw all the data.
+     */
+    @Test
+    public void merge_sameReportAsSinglePass()
+    {
+        final RequestDataProcessor singlePass = process(0, 1);
+        final RequestDataProcessor merged = process(0, 2);
+        merged.merge(process(1, 2));
+
+        Assert.assertEquals(toXml(singlePass), toXml(merged));
+    }
+
+    /**
+     * Checks that merging the snapshots of two processors that each saw a part of the data yields the same report as a
+     * single processor that saw all the data.
+     */
+    @Test
+    public void mergeSnapshot_sameReportAsSinglePass() throws IOException
+    {
+        final RequestDataProcessor singlePass = process(0, 1);
+
+        final RequestDataProcessor merged = new RequestDataProcessor(TIMER_NAME, provider);
+        merged.mergeSnapshot(toSnapshot(process(0, 3)));
+        merged.mergeSnapshot(toSnapshot(process(1, 3)));
+        merged.mergeSnapshot(toSnapshot(process(2, 3)));
+
+        Assert.assertEquals(toXml(singlePass), toXml(merged));
+    }
+
+    /**
+     * Checks that merging report provider snapshots restores all timers.
+     */
+    @Test
+    public void mergeProviderSnapshot_allTimersRestored() throws IOException
+    {
+        final RequestsReportProvider other = new RequestsReportProvider();
+        other.setConfiguration(provider.getConfiguration());
+
+        for (int i = 0; i < 10; i++)
+        {
+            other.processDataRecord(createRequestData(i));
+        }
+        other.processDataRecord(createRequestData(TIMER_NAME + "2", 0));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        other.writeSnapshot(new DataOutputStream(bytes));
+        provider.mergeSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(2, provider.getProcessors().size());
+        Assert.assertEquals(10, provider.getProcessor(TIMER_NAME).getCount());
+        Assert.assertEquals(1, provider.getProcessor(TIMER_NAME + "2").getCount());
+    }
+
+    /**
+     * Creates a processor that has seen every n-th data record, beginning with the given offset.
+     */
+    private RequestDataProcessor process(final int offset, final int n)
+    {
+        final RequestDataProcessor processor = new RequestDataProcessor(TIMER_NAME, provider);
+
+        for (int i = offset; i < RECORD_COUNT; i += n)
+        {
+            processor.processDataRecord(createRequestData(i));
+        }
+
+        return processor;
+    }
+
+    private static RequestData createRequestData(final int i)
+    {
+        return createRequestData(TIMER_NAME, i);
+    }
+
+    private static RequestData createRequestData(final String name, final int i)
+    {
+        final RequestData data = new RequestData(name);
+
+        data.setTime(START_TIME + i * 100L);
+        data.setRunTime((i * 7919) % 1500);
+        data.setFailed(i % 13 == 0);
+        data.setUrl(XltCharBuffer.valueOf("https://host/path/" + (i % 8) + "#fragment"));
+        data.setBytesSent(200 + i % 17);
+        data.setBytesReceived(1000 + (i * 31) % 5000);
+        data.setDnsTime(i % 5);
+        data.setConnectTime(i % 11);
+        data.setTlsHandshakeTime(i % 3 == 0 ? 0 : i % 23);
+        data.setSendTime(i % 2);
+        data.setServerBusyTime((i * 13) % 900);
+        data.setReceiveTime(i % 19);
+        data.setTimeToFirstBytes((i * 13) % 900 + 20);
+        data.setTimeToLastBytes((i * 13) % 900 + 40);
+
+        return data;
+    }
+
+    private static DataInputStream toSnapshot(final RequestDataProcessor processor) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        processor.writeSnapshot(new DataOutputStream(bytes));
+
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static String toXml(final RequestDataProcessor processor)
+    {
+        final XStream xstream = new XStream();
+        xstream.processAnnotations(RequestReport.class);
+
+        return xstream.toXML(processor.createTimerReport(false));
+    }
+}
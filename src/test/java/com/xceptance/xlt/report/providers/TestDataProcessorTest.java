@@ -26,7 +26,7 @@ import com.xceptance.xlt.api.engine.DummyEventData;
 import com.xceptance.xlt.api.engine.DummyRequestData;
 import com.xceptance.xlt.api.engine.DummyTransactionData;
 import com.xceptance.xlt.report.util.IntMinMaxValueSet;
-import com.xceptance.xlt.report.util.RuntimeHistogram;
+import com.xceptance.xlt.report.util.LogLinearHistogram;
 import com.xceptance.xlt.report.util.IntSummaryStatistics;
 import com.xceptance.xlt.report.util.ValueSet;
 
@@ -65,10 +65,10 @@ public class TestDataProcessorTest
         Assert.assertEquals("Wrong start time for countPerSecondValueSet", 1, vs.getFirstSecond());
         Assert.assertEquals("Wrong end time for countPerSecondValueSet", 1, vs.getLastSecond());
         Assert.assertEquals("Wrong length for countPerSecondValueSet", 1, vs.getLengthInSeconds());
-        final RuntimeHistogram histogram = adp.getProxy().getRunTimeHistogram();
+        final LogLinearHistogram histogram = adp.getProxy().getRunTimeHistogram();
         // TODO it questionable whether we should expect these values / if we want to test this here
         Assert.assertEquals("Wrong median value", 1, histogram.getMedianValue(), 0.0);
-        Assert.assertEquals("Wrong number of buckets", 1, histogram.getNumberOfBuckets());
+        Assert.assertEquals("Wrong number of values", 1, histogram.getValueCount());
         final IntSummaryStatistics ss = adp.getProxy().getRunTimeStatistics();
         Assert.assertEquals("Wrong count", 1, ss.getCount());
         Assert.assertEquals("Wrong maximum", 1, ss.getMaximum());
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.scorecard;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.common.xml.XSLTUtils;
+
+/**
+ * Tests {@link Evaluator}.
+ */
+public class EvaluatorTest
+{
+    private static final File REPORT_FILE = new File("samples/demo-external-data/reports/20110621-101041/testreport.xml");
+
+    private static final String CONFIG = "{ 'version': 2,\n" + //
+                                         "  'selectors': [ { 'id': 'mean', 'expression': '/testreport/transactions/transaction[1]/mean' } ],\n" + //
+                                         "  'rules': [\n" + //
+                                         "    { 'id': 'fast', 'name': 'fast', 'points': 10, 'checks': [ { 'selectorId': 'mean', 'condition': '< 1000' } ] },\n" + //
+                                         "    { 'id': 'ok', 'name': 'ok', 'points': 10, 'checks': [ { 'selectorId': 'mean', 'condition': '< 2000' } ] },\n" + //
+                                         "    { 'id': 'noErrors', 'name': 'noErrors', 'points': 5, 'checks': [ { 'selector': '/testreport/summary/transactions/errors', 'condition': '= 0' } ] },\n" + //
+                                         "    { 'id': 'broken', 'name': 'broken', 'points': 5, 'checks': [ { 'selector': '/testreport/[', 'condition': '= 0' } ] }\n" + //
+                                         "  ],\n" + //
+                                         "  'groups': [\n" + //
+                                         "    { 'id': 'speed', 'name': 'speed', 'mode': 'firstPassed', 'rules': [ 'fast', 'ok' ] },\n" + //
+                                         "    { 'id': 'errors', 'name': 'errors', 'mode': 'allPassed', 'rules': [ 'noErrors' ] },\n" + //
+                                         "    { 'id': 'disabled', 'name': 'disabled', 'enabled': false, 'mode': 'allPassed', 'rules': [ 'broken' ] }\n" + //
+                                         "  ],\n" + //
+                                         "  'ratings': [ { 'id': 'good', 'name': 'good', 'value': 100.0 } ]\n" + //
+                                         "}";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File configFile;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        configFile = tempFolder.newFile("scorecard-config.json");
+        Files.write(configFile.toPath(), CONFIG.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void evaluate_File() throws Exception
+    {
+        final Evaluator evaluator = new Evaluator(configFile);
+        final Scorecard scorecard = evaluator.evaluate(REPORT_FILE);
+
+        Assert.assertNull(scorecard.result.getError());
+        Assert.assertEquals(Integer.valueOf(15), scorecard.result.getPoints());
+        Assert.assertEquals(Integer.valueOf(15), scorecard.result.getTotalPoints());
+        Assert.assertEquals("good", scorecard.result.getRating());
+
+        final Scorecard.Group speed = scorecard.result.getGroups().get(0);
+        Assert.assertEquals(Status.FAILED, speed.getRules().get(0).getStatus());
+        Assert.assertEquals(Status.PASSED, speed.getRules().get(1).getStatus());
+        Assert.assertEquals(Status.PASSED, speed.getStatus());
+
+        Assert.assertEquals(Status.SKIPPED, scorecard.result.getGroups().get(2).getRules().get(0).getStatus());
+    }
+
+    @Test
+    public void evaluate_ParsedSource_SameOutcome() throws Exception
+    {
+        final Evaluator evaluator = new Evaluator(configFile);
+
+        final String expected = toXml(evaluator, evaluator.evaluate(REPORT_FILE));
+
+        // tree built for the HTML transformation
+        Assert.assertEquals(expected, toXml(evaluator, evaluator.evaluate(XSLTUtils.parse(REPORT_FILE))));
+
+        // plain source
+        Assert.assertEquals(expected, toXml(evaluator, evaluator.evaluate(new StreamSource(REPORT_FILE))));
+    }
+
+    private static String toXml(final Evaluator evaluator, final Scorecard scorecard) throws IOException
+    {
+        final StringWriter writer = new StringWriter();
+        evaluator.writeScorecard(scorecard, writer);
+
+        return writer.toString();
+    }
+}
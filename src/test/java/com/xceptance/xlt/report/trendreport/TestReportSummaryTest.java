@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.trendreport;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.xceptance.xlt.report.trendreport.TestReportSummary.TimerSummary;
+
+/**
+ * Tests {@link TestReportSummary}.
+ */
+public class TestReportSummaryTest
+{
+    private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + //
+                                         "<testreport>\n" + //
+                                         "  <transactions>\n" + //
+                                         "    <transaction>\n" + //
+                                         "      <name>TBrowse</name>\n" + //
+                                         "      <count>10</count>\n" + //
+                                         "      <countPerSecond>1.5</countPerSecond>\n" + //
+                                         "      <errors>2</errors>\n" + //
+                                         "      <min>100</min>\n" + //
+                                         "      <max>900</max>\n" + //
+                                         "      <median>400.000</median>\n" + //
+                                         "      <mean>450.500</mean>\n" + //
+                                         "      <percentiles><p50>400.000</p50><max>1</max></percentiles>\n" + //
+                                         "    </transaction>\n" + //
+                                         "  </transactions>\n" + //
+                                         "  <general>\n" + //
+                                         "    <startTime>2024-01-02 03:04:05.678 UTC</startTime>\n" + //
+                                         "  </general>\n" + //
+                                         "  <customTimers/>\n" + //
+                                         "  <configuration>\n" + //
+                                         "    <projectName>Shop &amp; Co</projectName>\n" + //
+                                         "    <comments>\n" + //
+                                         "      <string>first</string>\n" + //
+                                         "      <string>second</string>\n" + //
+                                         "    </comments>\n" + //
+                                         "  </configuration>\n" + //
+                                         "  <summary>\n" + //
+                                         "    <transactions>\n" + //
+                                         "      <name>All Transactions</name>\n" + //
+                                         "      <countPerSecond>1.5</countPerSecond>\n" + //
+                                         "      <errors>2</errors>\n" + //
+                                         "      <min>100</min>\n" + //
+                                         "      <max>900</max>\n" + //
+                                         "      <median>400.000</median>\n" + //
+                                         "      <mean>450.500</mean>\n" + //
+                                         "    </transactions>\n" + //
+                                         "  </summary>\n" + //
+                                         "</testreport>\n";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void parse() throws IOException
+    {
+        final TestReportSummary summary = TestReportSummary.parse(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+
+        validate(summary);
+    }
+
+    @Test
+    public void read_CreatesAndReusesSummaryFile() throws IOException
+    {
+        final File reportDir = tempFolder.newFolder();
+        final File reportFile = new File(reportDir, "testreport.xml");
+        Files.write(reportFile.toPath(), REPORT.getBytes(StandardCharsets.UTF_8));
+
+        validate(TestReportSummary.read(reportDir, reportFile.getName()));
+
+        final File summaryFile = new File(reportDir, TestReportSummary.SUMMARY_FILENAME);
+        Assert.assertTrue(summaryFile.isFile());
+        Assert.assertEquals("Temporary file left over", 2, reportDir.list().length);
+
+        // break the report, but keep size and time stamp -> the summary file must be used
+        final long lastModified = reportFile.lastModified();
+        Files.write(reportFile.toPath(), REPORT.replace('<', ' ').getBytes(StandardCharsets.UTF_8));
+        reportFile.setLastModified(lastModified);
+
+        validate(TestReportSummary.read(reportDir, reportFile.getName()));
+    }
+
+    @Test
+    public void read_IgnoresOutdatedSummaryFile() throws IOException
+    {
+        final File reportDir = tempFolder.newFolder();
+        final File reportFile = new File(reportDir, "testreport.xml");
+        Files.write(reportFile.toPath(), REPORT.getBytes(StandardCharsets.UTF_8));
+
+        TestReportSummary.read(reportDir, reportFile.getName());
+
+        // change the report
+        Files.write(reportFile.toPath(), REPORT.replace("TBrowse", "TOrder").getBytes(StandardCharsets.UTF_8));
+        reportFile.setLastModified(reportFile.lastModified() + 2000);
+
+        final TestReportSummary summary = TestReportSummary.read(reportDir, reportFile.getName());
+        Assert.assertTrue(summary.getTimers("transaction").containsKey("TOrder"));
+        Assert.assertFalse(summary.getTimers("transaction").containsKey("TBrowse"));
+    }
+
+    private static void validate(final TestReportSummary summary)
+    {
+        Assert.assertEquals("2024-01-02 03:04:05.678 UTC", summary.getStartTime());
+        Assert.assertEquals("first", summary.getComment());
+        Assert.assertEquals("Shop & Co", summary.getProjectName());
+
+        final Map<String, TimerSummary> transactions = summary.getTimers("transaction");
+        Assert.assertEquals(1, transactions.size());
+
+        final TimerSummary timer = transactions.get("TBrowse");
+        Assert.assertEquals(100, timer.minimum);
+        Assert.assertEquals(900, timer.maximum);
+        Assert.assertEquals(400.0, timer.median, 0.0);
+        Assert.assertEquals(450.5, timer.mean, 0.0);
+        Assert.assertEquals(2, timer.errors);
+        Assert.assertEquals(1.5, timer.countPerSecond, 0.0);
+
+        Assert.assertTrue(summary.getTimers("transactions").containsKey("All Transactions"));
+        Assert.assertTrue(summary.getTimers("customTimer").isEmpty());
+        Assert.assertTrue(summary.getTimers("action").isEmpty());
+    }
+}
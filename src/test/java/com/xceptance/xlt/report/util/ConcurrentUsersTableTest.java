@@ -109,6 +109,37 @@ public class ConcurrentUsersTableTest
         Assert.assertEquals("Wrong users count", 2, values[10]); // 13s
     }
 
+    /**
+     * Tests that overlapping and out-of-order periods of the same user count only once per second.
+     */
+    @Test
+    public void test_recordUserActivity_overlappingAndOutOfOrder()
+    {
+        final ConcurrentUsersTable table = ConcurrentUsersTable.getInstance();
+        table.clear();
+
+        table.recordUserActivity(10000, 12999, "TAuthor", "0"); // 10-12
+        table.recordUserActivity(20000, 21999, "TAuthor", "0"); // 20-21
+        table.recordUserActivity(3000, 4999, "TAuthor", "0"); // 3-4, before everything else
+        table.recordUserActivity(11000, 15999, "TAuthor", "0"); // 11-15, overlaps 10-12
+        table.recordUserActivity(5000, 5999, "TAuthor", "0"); // 5, adjacent to 3-4
+        table.recordUserActivity(16000, 19999, "TAuthor", "0"); // 16-19, closes the gap to 20-21
+        table.recordUserActivity(12000, 12999, "TAuthor", "0"); // 12, already covered
+
+        final ValueSet valueSet = table.getConcurrentUsersValueSet();
+        final int[] values = valueSet.getValues();
+
+        Assert.assertEquals("Wrong first second", 3, valueSet.getFirstSecond());
+        Assert.assertEquals("Wrong last second", 21, valueSet.getLastSecond());
+        Assert.assertEquals("Wrong value count", 15, valueSet.getValueCount());
+        for (int i = 0; i <= 18; i++)
+        {
+            Assert.assertEquals("Wrong users count at index " + i, (i >= 3 && i <= 6) ? 0 : 1, values[i]);
+        }
+
+        Assert.assertEquals("Wrong toString output", "TAuthor-0|11100|00111|11111|1111\n", table.toString());
+    }
+
     /**
      * Tests {@link ConcurrentUsersTable#clear()}.
      */
@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+@SuppressWarnings("deprecation")
 public class FixedSizeHistogramValueSetTest
 {
     private final int bucketCount = 100;
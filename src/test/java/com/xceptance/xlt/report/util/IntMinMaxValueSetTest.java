@@ -15,6 +15,11 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.IOException;
+import java.io.DataOutputStream;
+import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.util.Random;
 
 import org.junit.Assert;
@@ -302,4 +307,63 @@ public class IntMinMaxValueSetTest
         }
         Assert.assertArrayEquals(expected, actual);
     }
+
+    @Test
+    public void testMerge()
+    {
+        final IntMinMaxValueSet all = new IntMinMaxValueSet(16);
+        final IntMinMaxValueSet part1 = new IntMinMaxValueSet(16);
+        final IntMinMaxValueSet part2 = new IntMinMaxValueSet(16);
+
+        // part 1 covers a short period only, part 2 a much longer one and therefore has a bigger scale
+        for (int i = 0; i < 20; i++)
+        {
+            all.addOrUpdateValue(100000L + i * 1000L, i);
+            part1.addOrUpdateValue(100000L + i * 1000L, i);
+        }
+        for (int i = 0; i < 100; i++)
+        {
+            all.addOrUpdateValue(90000L + i * 1000L, 1000 + i);
+            part2.addOrUpdateValue(90000L + i * 1000L, 1000 + i);
+        }
+
+        part1.merge(part2);
+
+        Assert.assertEquals(all.getValueCount(), part1.getValueCount());
+        Assert.assertEquals(all.getMinimumTime(), part1.getMinimumTime());
+        Assert.assertEquals(all.getMaximumTime(), part1.getMaximumTime());
+        Assert.assertEquals(all.getScale(), part1.getScale());
+        Assert.assertEquals(all.getFirstSecond(), part1.getFirstSecond());
+
+        final IntMinMaxValue[] expected = all.getValues();
+        final IntMinMaxValue[] actual = part1.getValues();
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            Assert.assertEquals(expected[i].getValueCount(), actual[i].getValueCount());
+            Assert.assertEquals(expected[i].getAccumulatedValue(), actual[i].getAccumulatedValue());
+            Assert.assertEquals(expected[i].getMinimumValue(), actual[i].getMinimumValue());
+            Assert.assertEquals(expected[i].getMaximumValue(), actual[i].getMaximumValue());
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws IOException
+    {
+        final IntMinMaxValueSet set = new IntMinMaxValueSet(16);
+        for (int i = 0; i < 100; i++)
+        {
+            set.addOrUpdateValue(i * 1500L, i * 3);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        set.writeTo(new DataOutputStream(bytes));
+
+        final IntMinMaxValueSet copy = IntMinMaxValueSet.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(set.getValueCount(), copy.getValueCount());
+        Assert.assertEquals(set.getScale(), copy.getScale());
+        Assert.assertEquals(set.getSize(), copy.getSize());
+        Assert.assertArrayEquals(set.getValues(), copy.getValues());
+    }
 }
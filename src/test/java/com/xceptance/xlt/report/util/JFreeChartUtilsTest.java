@@ -15,13 +15,20 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Date;
 
+import org.jfree.chart.JFreeChart;
 import org.jfree.data.time.Second;
 import org.jfree.data.time.TimeSeries;
 import org.junit.Assert;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.xceptance.xlt.report.ReportGeneratorMain;
 
@@ -30,6 +37,78 @@ import com.xceptance.xlt.report.ReportGeneratorMain;
  */
 public class JFreeChartUtilsTest
 {
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Checks that reusing the image of the previous chart does not leave any traces in the next chart.
+     */
+    @Test
+    public void testSaveChart_ReusedImage() throws IOException
+    {
+        final File dir = tempFolder.getRoot();
+
+        JFreeChartUtils.saveChart(createChart("A", 10), "a1", dir, 400, 200);
+        JFreeChartUtils.saveChart(createChart("B", 1000), "b", dir, 400, 200);
+        JFreeChartUtils.saveChart(createChart("A", 10), "a2", dir, 400, 200);
+
+        assertSameContent(new File(dir, "a1.webp"), new File(dir, "a2.webp"));
+        Assert.assertFalse(sameContent(new File(dir, "a1.webp"), new File(dir, "b.webp")));
+    }
+
+    /**
+     * Checks that placeholders for omitted charts are saved.
+     */
+    @Test
+    public void testSaveOmittedChart() throws IOException
+    {
+        final File dir = tempFolder.getRoot();
+
+        JFreeChartUtils.saveOmittedChart("x", dir, 400, 200);
+        JFreeChartUtils.saveOmittedChart("y", dir, 400, 200);
+
+        Assert.assertTrue(new File(dir, "x.webp").length() > 0);
+        assertSameContent(new File(dir, "x.webp"), new File(dir, "y.webp"));
+    }
+
+    /**
+     * Checks that placeholders of different sizes are not mixed up.
+     */
+    @Test
+    public void testSaveOmittedChart_DifferentSizes() throws IOException
+    {
+        final File dir = tempFolder.getRoot();
+
+        JFreeChartUtils.clearImageCache();
+
+        JFreeChartUtils.saveOmittedChart("large", dir, 400, 200);
+        JFreeChartUtils.saveOmittedChart("small", dir, 300, 100);
+
+        Assert.assertTrue(new File(dir, "small.webp").length() > 0);
+        Assert.assertFalse(sameContent(new File(dir, "large.webp"), new File(dir, "small.webp")));
+    }
+
+    private static JFreeChart createChart(final String title, final double value)
+    {
+        final TimeSeries series = new TimeSeries(title);
+        for (int i = 0; i < 60; i++)
+        {
+            series.add(new Second(new Date(1_000_000_000_000L + i * 1000L)), value * (i % 7));
+        }
+
+        return JFreeChartUtils.createLineChart(title, "Values", series, 1_000_000_000_000L, 1_000_000_060_000L, false, 5);
+    }
+
+    private static boolean sameContent(final File file1, final File file2) throws IOException
+    {
+        return Arrays.equals(Files.readAllBytes(file1.toPath()), Files.readAllBytes(file2.toPath()));
+    }
+
+    private static void assertSameContent(final File file1, final File file2) throws IOException
+    {
+        Assert.assertTrue(file1 + " and " + file2 + " differ", sameContent(file1, file2));
+    }
+
     /**
      * This tests {@link JFreeChartUtils#toMinMaxTimeSeries(IntMinMaxValueSet, String)} and causes an error due to a large
      * scale in the MinMaxValueSet and multiplication with 1000 in the method in JFreeChartUtils.
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.jfree.data.xy.XYIntervalSeries;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link LogLinearHistogram} class.
+ */
+public class LogLinearHistogramTest
+{
+    @Test
+    public void testBasics()
+    {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+
+        Assert.assertEquals(0.0, histogram.getPercentile(50), 0.0);
+        Assert.assertEquals(0, histogram.getNumberOfBuckets());
+
+        histogram.addValue(-5);
+        histogram.addValue(1);
+        histogram.addValue(2);
+        histogram.addValue(3);
+
+        Assert.assertEquals(4, histogram.getValueCount());
+        Assert.assertEquals(1.5, histogram.getMedianValue(), 0.0);
+        Assert.assertEquals(0.5, histogram.getPercentile(25), 0.0);
+        Assert.assertEquals(3.0, histogram.getPercentile(100), 0.0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact()
+    {
+        final LogLinearHistogram histogram = new LogLinearHistogram(2);
+        final int[] values = new int[200];
+
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = values.length - i;
+            histogram.addValue(values[i]);
+        }
+
+        Arrays.sort(values);
+
+        for (final double p : new double[]
+            {
+                10, 33.3, 50, 95, 99
+            })
+        {
+            Assert.assertEquals("p" + p, values[(int) Math.ceil(values.length * p / 100) - 1], histogram.getPercentile(p), 1.0);
+        }
+    }
+
+    @Test
+    public void testRelativeErrorIsBounded()
+    {
+        for (int digits = 1; digits <= 3; digits++)
+        {
+            final LogLinearHistogram histogram = new LogLinearHistogram(digits);
+            final Random random = new Random(digits);
+            final int[] values = new int[10_001];
+
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = random.nextInt(Integer.MAX_VALUE);
+                histogram.addValue(values[i]);
+            }
+
+            Arrays.sort(values);
+
+            final double maxError = Math.pow(10, -digits);
+            for (final double p : new double[]
+                {
+                    1, 50, 90, 99, 99.9
+                })
+            {
+                final double expected = values[(int) Math.ceil(values.length * p / 100) - 1];
+                final double actual = histogram.getPercentile(p);
+
+                Assert.assertTrue("p" + p + " with " + digits + " digits: " + actual + " vs. " + expected,
+                                  actual <= expected && (expected - actual) / expected <= maxError);
+            }
+        }
+    }
+
+    @Test
+    public void testOutliersNeedFewBuckets()
+    {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            histogram.addValue(50 + i % 100);
+        }
+
+        // 2 buckets with 128 sub-buckets each
+        Assert.assertEquals(256, histogram.getNumberOfBuckets());
+
+        // each outlier adds just one more bucket
+        histogram.addValue(Integer.MAX_VALUE);
+        histogram.addValue(3_600_000);
+
+        Assert.assertEquals(512, histogram.getNumberOfBuckets());
+        Assert.assertEquals(Integer.MAX_VALUE, histogram.getPercentile(100), 0.0);
+    }
+
+    @Test
+    public void testMerge()
+    {
+        final Random random = new Random(42);
+
+        final LogLinearHistogram all = new LogLinearHistogram();
+        final LogLinearHistogram first = new LogLinearHistogram();
+        final LogLinearHistogram second = new LogLinearHistogram();
+
+        for (int i = 0; i < 5000; i++)
+        {
+            final int value = random.nextInt(100_000);
+            all.addValue(value);
+            (i % 3 == 0 ? first : second).addValue(value);
+        }
+
+        first.merge(second);
+
+        assertSameState(all, first);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMerge_differentDigits()
+    {
+        new LogLinearHistogram(2).merge(new LogLinearHistogram(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDigits()
+    {
+        new LogLinearHistogram(6);
+    }
+
+    @Test
+    public void testSnapshot() throws IOException
+    {
+        final Random random = new Random(42);
+        final LogLinearHistogram histogram = new LogLinearHistogram(5);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            histogram.addValue(random.nextInt(Integer.MAX_VALUE));
+        }
+
+        assertSameState(histogram, roundTrip(histogram));
+        assertSameState(new LogLinearHistogram(), roundTrip(new LogLinearHistogram()));
+    }
+
+    @Test
+    public void testToSeries()
+    {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            histogram.addValue(i * 7);
+        }
+
+        final XYIntervalSeries series = histogram.toSeries("Distribution", 100);
+        final XYIntervalSeries verticalSeries = histogram.toVerticalSeries("Distribution", 100);
+
+        Assert.assertTrue(series.getItemCount() <= 100);
+        Assert.assertEquals(series.getItemCount(), verticalSeries.getItemCount());
+
+        double total = 0;
+        double verticalTotal = 0;
+        double highestValue = 0;
+        for (int i = 0; i < series.getItemCount(); i++)
+        {
+            total += series.getX(i).doubleValue();
+            verticalTotal += verticalSeries.getYValue(i);
+            highestValue = Math.max(highestValue, series.getYHighValue(i));
+        }
+
+        Assert.assertEquals(histogram.getValueCount(), total, 0.0);
+        Assert.assertEquals(histogram.getValueCount(), verticalTotal, 0.0);
+        Assert.assertTrue(highestValue > 9_999 * 7);
+    }
+
+    private static LogLinearHistogram roundTrip(final LogLinearHistogram histogram) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes))
+        {
+            histogram.writeTo(out);
+        }
+
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            return LogLinearHistogram.readFrom(in);
+        }
+    }
+
+    private static void assertSameState(final LogLinearHistogram expected, final LogLinearHistogram actual)
+    {
+        Assert.assertEquals(expected.getSignificantDigits(), actual.getSignificantDigits());
+        Assert.assertEquals(expected.getValueCount(), actual.getValueCount());
+        Assert.assertEquals(expected.getNumberOfBuckets(), actual.getNumberOfBuckets());
+
+        for (double p = 0.5; p <= 100; p += 0.5)
+        {
+            Assert.assertEquals("p" + p, expected.getPercentile(p), actual.getPercentile(p), 0.0);
+        }
+    }
+}
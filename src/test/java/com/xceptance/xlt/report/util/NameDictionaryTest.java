@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2005-2024 Xceptance Software Technologies GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xceptance.xlt.report.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.xceptance.xlt.api.util.XltCharBuffer;
+
+/**
+ * Tests the implementation of {@link NameDictionary}.
+ */
+public class NameDictionaryTest
+{
+    @Test
+    public void testCanonicalizeString()
+    {
+        final NameDictionary names = new NameDictionary(10);
+
+        final String first = new String("Homepage");
+        final String second = new String("Homepage");
+
+        assertSame(first, names.canonicalize(first));
+        assertSame(first, names.canonicalize(second));
+        assertNull(names.canonicalize((String) null));
+    }
+
+    @Test
+    public void testCanonicalizeCharBuffer()
+    {
+        final NameDictionary names = new NameDictionary(10);
+
+        // a value in the middle of a larger line
+        final XltCharBuffer line = XltCharBuffer.valueOf("R,Homepage,text/html,200");
+        final XltCharBuffer contentType = line.viewFromTo(11, 20);
+
+        final XltCharBuffer canonical = names.canonicalize(contentType);
+        assertEquals(contentType, canonical);
+
+        assertSame(canonical, names.canonicalize(XltCharBuffer.valueOf("text/html")));
+        assertNull(names.canonicalize((XltCharBuffer) null));
+    }
+
+    @Test
+    public void testFullDictionaryPassesValuesThrough()
+    {
+        final NameDictionary names = new NameDictionary(1);
+
+        final String first = names.canonicalize("a");
+        final String other = new String("b");
+
+        assertSame(other, names.canonicalize(other));
+        assertSame(first, names.canonicalize(new String("a")));
+        assertEquals(1, names.size());
+    }
+}
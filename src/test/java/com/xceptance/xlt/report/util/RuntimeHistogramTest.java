@@ -15,6 +15,11 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -24,6 +29,7 @@ import org.junit.Test;
 /**
  * Tests the {@link RuntimeHistogram} class.
  */
+@SuppressWarnings("deprecation")
 public class RuntimeHistogramTest
 {
     @Test
@@ -159,4 +165,60 @@ public class RuntimeHistogramTest
 
         return percentile;
     }
+
+    @Test
+    public void testMerge()
+    {
+        final RuntimeHistogram all = new RuntimeHistogram(10);
+        final RuntimeHistogram part1 = new RuntimeHistogram(10);
+        final RuntimeHistogram part2 = new RuntimeHistogram(10);
+
+        // make the parts cover different value ranges
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; i++)
+        {
+            final int value = (i % 3 == 0) ? random.nextInt(500) : 2000 + random.nextInt(5000);
+            all.addValue(value);
+            (i % 3 == 0 ? part1 : part2).addValue(value);
+        }
+
+        final RuntimeHistogram merged = new RuntimeHistogram(10);
+        merged.merge(part2);
+        merged.merge(part1);
+
+        Assert.assertEquals(all.getValueCount(), merged.getValueCount());
+        for (final double p : new double[]
+            {
+                10, 33, 50, 90, 99, 100
+            })
+        {
+            Assert.assertEquals(all.getPercentile(p), merged.getPercentile(p), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMerge_DifferentPrecision()
+    {
+        new RuntimeHistogram(1).merge(new RuntimeHistogram(10));
+    }
+
+    @Test
+    public void testSnapshot() throws IOException
+    {
+        final RuntimeHistogram histogram = new RuntimeHistogram(10);
+        for (int i = 0; i < 100; i++)
+        {
+            histogram.addValue(i * i);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo(new DataOutputStream(bytes));
+
+        final RuntimeHistogram copy = RuntimeHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(histogram.getValueCount(), copy.getValueCount());
+        Assert.assertEquals(histogram.getPrecision(), copy.getPrecision());
+        Assert.assertEquals(histogram.getPercentile(50), copy.getPercentile(50), 0.0);
+        Assert.assertEquals(histogram.getPercentile(99), copy.getPercentile(99), 0.0);
+    }
 }
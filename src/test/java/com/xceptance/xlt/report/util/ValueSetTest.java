@@ -15,6 +15,11 @@
  */
 package com.xceptance.xlt.report.util;
 
+import java.io.IOException;
+import java.io.DataOutputStream;
+import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -32,6 +37,31 @@ public class ValueSetTest
         Assert.assertEquals(0, set.getValueCount());
     }
 
+    /**
+     * Adding a value with a count must be the same as adding it that many times.
+     */
+    @Test
+    public final void testAddOrUpdateValue_WithCount()
+    {
+        final ValueSet expected = new ValueSet();
+        final ValueSet actual = new ValueSet();
+
+        for (int i = 0; i < 3; i++)
+        {
+            expected.addOrUpdateValue(5000, 2);
+        }
+        expected.addOrUpdateValue(1000, 1);
+
+        actual.addOrUpdateValue(5000, 2, 3);
+        actual.addOrUpdateValue(1000, 1, 1);
+
+        Assert.assertArrayEquals(expected.getValues(), actual.getValues());
+        Assert.assertEquals(expected.getValueCount(), actual.getValueCount());
+        Assert.assertEquals(expected.getFirstSecond(), actual.getFirstSecond());
+        Assert.assertEquals(expected.getMinimumTime(), actual.getMinimumTime());
+        Assert.assertEquals(expected.getMaximumTime(), actual.getMaximumTime());
+    }
+
     /**
      * Test empty condition getMinimumTime
      */
@@ -229,4 +259,52 @@ public class ValueSetTest
         Assert.assertArrayEquals(expected10, actual10);
     }
 
+    /**
+     * Merging two sets yields the same set as adding all values to a single set.
+     */
+    @Test
+    public final void testMerge()
+    {
+        final ValueSet all = new ValueSet();
+        final ValueSet part1 = new ValueSet();
+        final ValueSet part2 = new ValueSet();
+
+        for (int i = 0; i < 3000; i++)
+        {
+            final long time = 1000000L + (i * 997L) % 2500000L;
+            all.addOrUpdateValue(time, i);
+            (i % 2 == 0 ? part1 : part2).addOrUpdateValue(time, i);
+        }
+
+        final ValueSet merged = new ValueSet();
+        merged.merge(part1);
+        merged.merge(part2);
+
+        Assert.assertEquals(all.getValueCount(), merged.getValueCount());
+        Assert.assertEquals(all.getMinimumTime(), merged.getMinimumTime());
+        Assert.assertEquals(all.getMaximumTime(), merged.getMaximumTime());
+        Assert.assertEquals(all.getFirstSecond(), merged.getFirstSecond());
+        Assert.assertEquals(all.getLastSecond(), merged.getLastSecond());
+        Assert.assertArrayEquals(all.getValues(), merged.getValues());
+    }
+
+    /**
+     * A set restored from a snapshot equals the original set.
+     */
+    @Test
+    public final void testSnapshot() throws IOException
+    {
+        final ValueSet set = new ValueSet();
+        for (int i = 0; i < 2000; i++)
+        {
+            set.addOrUpdateValue(5000000L - i * 1500L, i);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        set.writeTo(new DataOutputStream(bytes));
+
+        final ValueSet copy = ValueSet.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(set, copy);
+    }
 }